@@ -67,3 +67,26 @@ ALTER TABLE ACT_HI_DETAIL
 
 ALTER TABLE ACT_RU_JOB
   ADD SEQUENCE_COUNTER_ numeric(19,0);
+
+-- runtime statistics counters --
+
+create table ACT_RU_STATS_COUNTER (
+  ID_ nvarchar(64) not null,
+  PROC_DEF_ID_ nvarchar(64) not null,
+  ACT_ID_ nvarchar(255),
+  TYPE_ nvarchar(64) not null,
+  INCIDENT_TYPE_ nvarchar(255),
+  STRIPE_ integer not null,
+  VALUE_ numeric(19,0) not null,
+  primary key (ID_)
+);
+
+create index ACT_IDX_STATS_COUNTER_PROCDEF on ACT_RU_STATS_COUNTER(PROC_DEF_ID_);
+
+-- prefetch of the entities of a process instance --
+
+create index ACT_IDX_EVENT_SUBSCR_PROCINST on ACT_RU_EVENT_SUBSCR(PROC_INST_ID_);
+
+-- add authorization.revision row to property table --
+INSERT INTO ACT_GE_PROPERTY
+  VALUES ('authorization.revision', '0', 1);
@@ -79,3 +79,26 @@ ALTER TABLE ACT_HI_VARINST
   
 ALTER TABLE ACT_HI_DETAIL
   DROP COLUMN DATA_FORMAT_ID_;
+
+-- runtime statistics counters --
+
+create table ACT_RU_STATS_COUNTER (
+  ID_ NVARCHAR2(64) not null,
+  PROC_DEF_ID_ NVARCHAR2(64) not null,
+  ACT_ID_ NVARCHAR2(255),
+  TYPE_ NVARCHAR2(64) not null,
+  INCIDENT_TYPE_ NVARCHAR2(255),
+  STRIPE_ INTEGER not null,
+  VALUE_ NUMBER(19,0) not null,
+  primary key (ID_)
+);
+
+create index ACT_IDX_STATS_COUNTER_PROCDEF on ACT_RU_STATS_COUNTER(PROC_DEF_ID_);
+
+-- prefetch of the entities of a process instance --
+
+create index ACT_IDX_EVENT_SUBSCR_PROCINST on ACT_RU_EVENT_SUBSCR(PROC_INST_ID_);
+
+-- add authorization.revision row to property table --
+INSERT INTO ACT_GE_PROPERTY
+  VALUES ('authorization.revision', '0', 1);
@@ -23,6 +23,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Map;
 
 @Produces(MediaType.APPLICATION_JSON)
 public interface FilterRestService {
@@ -42,6 +43,12 @@ public interface FilterRestService {
   @Produces(MediaType.APPLICATION_JSON)
   CountResultDto getFiltersCount(@Context UriInfo uriInfo);
 
+  @POST
+  @Path("/item-count")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  Map<String, Long> getItemCounts(List<String> filterIds);
+
   @POST
   @Path("/create")
   @Consumes(MediaType.APPLICATION_JSON)
@@ -16,6 +16,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -75,8 +76,7 @@ public abstract class AbstractQueryDto<T extends Query<?, ?>> {
     this.objectMapper = objectMapper;
     for (Entry<String, List<String>> param : queryParameters.entrySet()) {
       String key = param.getKey();
-      String value = param.getValue().iterator().next();
-      this.setValueBasedOnAnnotation(key, value);
+      this.setValuesBasedOnAnnotation(key, param.getValue());
     }
   }
 
@@ -125,18 +125,36 @@ public abstract class AbstractQueryDto<T extends Query<?, ?>> {
    * @param value
    */
   protected void setValueBasedOnAnnotation(String key, String value) {
+    setValuesBasedOnAnnotation(key, Collections.singletonList(value));
+  }
+
+  /**
+   * Like {@link #setValueBasedOnAnnotation(String, String)} but for a parameter which may have
+   * been repeated. Methods whose annotation is {@link CamundaQueryParam#repeatable() repeatable}
+   * are invoked with all values, all other methods with the converted first value.
+   * @param key
+   * @param values
+   */
+  protected void setValuesBasedOnAnnotation(String key, List<String> values) {
+    String value = values.get(0);
     List<Method> matchingMethods = findMatchingAnnotatedMethods(key);
     for (Method method : matchingMethods) {
-      Class<? extends JacksonAwareStringToTypeConverter<?>> converterClass = findAnnotatedTypeConverter(method);
-      if (converterClass == null) {
+      CamundaQueryParam parameterAnnotation = findAnnotation(method);
+      if (parameterAnnotation == null) {
         continue;
       }
 
       JacksonAwareStringToTypeConverter<?> converter = null;
       try {
-        converter = converterClass.newInstance();
-        converter.setObjectMapper(objectMapper);
-        Object convertedValue = converter.convertQueryParameterToType(value);
+        Object convertedValue = null;
+        if (parameterAnnotation.repeatable()) {
+          convertedValue = values;
+        }
+        else {
+          converter = parameterAnnotation.converter().newInstance();
+          converter.setObjectMapper(objectMapper);
+          convertedValue = converter.convertQueryParameterToType(value);
+        }
         method.invoke(this, convertedValue);
       } catch (InstantiationException e) {
         throw new RestException(Status.INTERNAL_SERVER_ERROR, e, "Server error.");
@@ -171,14 +189,13 @@ public abstract class AbstractQueryDto<T extends Query<?, ?>> {
     return result;
   }
 
-  private Class<? extends JacksonAwareStringToTypeConverter<?>> findAnnotatedTypeConverter(Method method) {
+  private CamundaQueryParam findAnnotation(Method method) {
     Annotation[] methodAnnotations = method.getAnnotations();
 
     for (int j = 0; j < methodAnnotations.length; j++) {
       Annotation annotation = methodAnnotations[j];
       if (annotation instanceof CamundaQueryParam) {
-        CamundaQueryParam parameterAnnotation = (CamundaQueryParam) annotation;
-        return parameterAnnotation.converter();
+        return (CamundaQueryParam) annotation;
       }
     }
     return null;
@@ -226,6 +243,73 @@ public abstract class AbstractQueryDto<T extends Query<?, ?>> {
 
   protected abstract void applySortBy(T query, String sortBy, Map<String, Object> parameters, ProcessEngine engine);
 
+  /**
+   * @return the sortBy values of the sorting options in the order they are applied to the query
+   */
+  protected List<String> getSortByValues() {
+    List<String> sortByValues = new ArrayList<String>();
+    if (sortBy != null) {
+      sortByValues.add(sortBy);
+    }
+    if (sortings != null) {
+      for (SortingDto sorting : sortings) {
+        if (sorting.getSortBy() != null) {
+          sortByValues.add(sorting.getSortBy());
+        }
+      }
+    }
+    return sortByValues;
+  }
+
+  /**
+   * @return the sortBy values of the ordering of a query which is paged by a cursor, i.e. the
+   *   sortBy values of the sorting options followed by the given sortBy value of the id,
+   *   unless they already end with it
+   */
+  protected List<String> getKeysetSortByValues(String idSortByValue) {
+    List<String> sortByValues = getSortByValues();
+    if (sortByValues.isEmpty() || !idSortByValue.equals(sortByValues.get(sortByValues.size() - 1))) {
+      sortByValues.add(idSortByValue);
+    }
+    return sortByValues;
+  }
+
+  /**
+   * Converts the values of a cursor to the sort key values of the query, i.e. each value
+   * to the type of the property it belongs to. An empty value stands for <code>null</code>.
+   *
+   * @param cursorValues the values of the afterCursor parameter
+   * @param sortByValues the sortBy values of the ordering the cursor refers to, ending with the sorting by id
+   */
+  protected Object[] getSortKeyValues(List<String> cursorValues, List<String> sortByValues) {
+    if (cursorValues.size() != sortByValues.size()) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "afterCursor parameter has to contain one value for each of the sortings "
+          + sortByValues + " but has " + cursorValues.size());
+    }
+
+    Object[] sortKeyValues = new Object[cursorValues.size()];
+    for (int i = 0; i < cursorValues.size(); i++) {
+      String cursorValue = cursorValues.get(i);
+      if (cursorValue != null && !cursorValue.isEmpty()) {
+        sortKeyValues[i] = convertSortKeyValue(sortByValues.get(i), cursorValue);
+      }
+    }
+    return sortKeyValues;
+  }
+
+  /**
+   * Converts a value of the afterCursor parameter to the type of the property which the given
+   * sortBy value orders by. Returns the value as it is by default.
+   */
+  protected Object convertSortKeyValue(String sortBy, String value) {
+    return value;
+  }
+
+  protected Object convertCursorValue(String value, JacksonAwareStringToTypeConverter<?> converter) {
+    converter.setObjectMapper(objectMapper);
+    return converter.convertQueryParameterToType(value);
+  }
+
   protected void applySortOrder(T query, String sortOrder) {
     if (sortOrder != null) {
       if (sortOrder.equals(SORT_ORDER_ASC_VALUE)) {
@@ -26,4 +26,10 @@ import java.lang.annotation.Target;
 public @interface CamundaQueryParam {
   public String value();
   public Class<? extends JacksonAwareStringToTypeConverter<?>> converter() default StringConverter.class;
+
+  /**
+   * Whether the parameter may be repeated. The annotated method is then invoked
+   * with the list of all values of the parameter instead of a converted value.
+   */
+  public boolean repeatable() default false;
 }
@@ -20,11 +20,13 @@ import java.util.Map;
 import javax.ws.rs.core.MultivaluedMap;
 
 import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
 import org.camunda.bpm.engine.history.HistoricActivityInstanceQuery;
 import org.camunda.bpm.engine.rest.dto.AbstractQueryDto;
 import org.camunda.bpm.engine.rest.dto.CamundaQueryParam;
 import org.camunda.bpm.engine.rest.dto.converter.BooleanConverter;
 import org.camunda.bpm.engine.rest.dto.converter.DateConverter;
+import org.camunda.bpm.engine.rest.dto.converter.LongConverter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -74,6 +76,7 @@ public class HistoricActivityInstanceQueryDto extends AbstractQueryDto<HistoricA
   private Date startedAfter;
   private Date finishedBefore;
   private Date finishedAfter;
+  private List<String> afterCursor;
 
   public HistoricActivityInstanceQueryDto() {
   }
@@ -162,6 +165,11 @@ public class HistoricActivityInstanceQueryDto extends AbstractQueryDto<HistoricA
     this.finishedAfter = finishedAfter;
   }
 
+  @CamundaQueryParam(value = "afterCursor", repeatable = true)
+  public void setAfterCursor(List<String> afterCursor) {
+    this.afterCursor = afterCursor;
+  }
+
   @Override
   protected boolean isValidSortByValue(String value) {
     return VALID_SORT_BY_VALUES.contains(value);
@@ -224,6 +232,94 @@ public class HistoricActivityInstanceQueryDto extends AbstractQueryDto<HistoricA
     }
   }
 
+  @Override
+  protected void applySortingOptions(HistoricActivityInstanceQuery query, ProcessEngine engine) {
+    super.applySortingOptions(query, engine);
+
+    if (afterCursor != null) {
+      applyKeysetSorting(query);
+      query.afterCursor(getSortKeyValues(afterCursor, getKeysetSortByValues(SORT_BY_HISTORIC_ACTIVITY_INSTANCE_ID_VALUE)));
+    }
+  }
+
+  /**
+   * Creates the query like {@link #toQuery(ProcessEngine)}, but with an ordering which ends
+   * with the ordering by id, so that the query can be paged by the sort key values of its
+   * results (see {@link #getSortKeyValues(HistoricActivityInstance)}).
+   */
+  public HistoricActivityInstanceQuery toKeysetQuery(ProcessEngine engine) {
+    HistoricActivityInstanceQuery query = toQuery(engine);
+    if (afterCursor == null) {
+      // otherwise the ordering by id is already applied
+      applyKeysetSorting(query);
+    }
+    return query;
+  }
+
+  protected void applyKeysetSorting(HistoricActivityInstanceQuery query) {
+    List<String> sortByValues = getSortByValues();
+    if (!sortByValues.isEmpty() && !SORT_BY_HISTORIC_ACTIVITY_INSTANCE_ID_VALUE.equals(sortByValues.get(sortByValues.size() - 1))) {
+      // the id of the activity instances makes the ordering total
+      query.orderByHistoricActivityInstanceId();
+      query.asc();
+    }
+  }
+
+  /**
+   * @return the sort key values of the given activity instance in the ordering of {@link #toKeysetQuery(ProcessEngine)},
+   *   or <code>null</code> if the query cannot be paged by a cursor
+   */
+  public Object[] getSortKeyValues(HistoricActivityInstance historicActivityInstance) {
+    List<String> sortByValues = getKeysetSortByValues(SORT_BY_HISTORIC_ACTIVITY_INSTANCE_ID_VALUE);
+    Object[] sortKeyValues = new Object[sortByValues.size()];
+    for (int i = 0; i < sortByValues.size(); i++) {
+      String sortBy = sortByValues.get(i);
+      if (SORT_PARTIALLY_BY_OCCURRENCE.equals(sortBy)) {
+        // the occurrence (sequence counter) is not exposed by historic activity instances
+        return null;
+      }
+      sortKeyValues[i] = getSortKeyValue(sortBy, historicActivityInstance);
+    }
+    return sortKeyValues;
+  }
+
+  protected Object getSortKeyValue(String sortBy, HistoricActivityInstance historicActivityInstance) {
+    if (SORT_BY_PROCESS_INSTANCE_ID_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getProcessInstanceId();
+    } else if (SORT_BY_PROCESS_DEFINITION_ID_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getProcessDefinitionId();
+    } else if (SORT_BY_EXECUTION_ID_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getExecutionId();
+    } else if (SORT_BY_ACTIVITY_ID_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getActivityId();
+    } else if (SORT_BY_ACTIVITY_NAME_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getActivityName();
+    } else if (SORT_BY_ACTIVITY_TYPE_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getActivityType();
+    } else if (SORT_BY_HISTORIC_ACTIVITY_INSTANCE_START_TIME_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getStartTime();
+    } else if (SORT_BY_HISTORIC_ACTIVITY_INSTANCE_END_TIME_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getEndTime();
+    } else if (SORT_BY_HISTORIC_ACTIVITY_INSTANCE_DURATION_VALUE.equals(sortBy)) {
+      return historicActivityInstance.getDurationInMillis();
+    } else {
+      return historicActivityInstance.getId();
+    }
+  }
+
+  @Override
+  protected Object convertSortKeyValue(String sortBy, String value) {
+    if (SORT_BY_HISTORIC_ACTIVITY_INSTANCE_START_TIME_VALUE.equals(sortBy)
+        || SORT_BY_HISTORIC_ACTIVITY_INSTANCE_END_TIME_VALUE.equals(sortBy)) {
+      return convertCursorValue(value, new DateConverter());
+    } else if (SORT_BY_HISTORIC_ACTIVITY_INSTANCE_DURATION_VALUE.equals(sortBy)
+        || SORT_PARTIALLY_BY_OCCURRENCE.equals(sortBy)) {
+      return convertCursorValue(value, new LongConverter());
+    } else {
+      return value;
+    }
+  }
+
   @Override
   protected void applySortBy(HistoricActivityInstanceQuery query, String sortBy, Map<String, Object> parameters, ProcessEngine engine) {
     if (sortBy.equals(SORT_BY_HISTORIC_ACTIVITY_INSTANCE_ID_VALUE)) {
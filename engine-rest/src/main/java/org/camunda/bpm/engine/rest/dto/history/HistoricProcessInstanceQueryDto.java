@@ -22,12 +22,14 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response.Status;
 
 import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
 import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
 import org.camunda.bpm.engine.rest.dto.AbstractQueryDto;
 import org.camunda.bpm.engine.rest.dto.CamundaQueryParam;
 import org.camunda.bpm.engine.rest.dto.VariableQueryParameterDto;
 import org.camunda.bpm.engine.rest.dto.converter.BooleanConverter;
 import org.camunda.bpm.engine.rest.dto.converter.DateConverter;
+import org.camunda.bpm.engine.rest.dto.converter.LongConverter;
 import org.camunda.bpm.engine.rest.dto.converter.StringListConverter;
 import org.camunda.bpm.engine.rest.dto.converter.StringSetConverter;
 import org.camunda.bpm.engine.rest.dto.converter.VariableListConverter;
@@ -76,6 +78,7 @@ public class HistoricProcessInstanceQueryDto extends AbstractQueryDto<HistoricPr
   private String superCaseInstanceId;
   private String subCaseInstanceId;
   private String caseInstanceId;
+  private List<String> afterCursor;
 
   private List<VariableQueryParameterDto> variables;
 
@@ -165,6 +168,11 @@ public class HistoricProcessInstanceQueryDto extends AbstractQueryDto<HistoricPr
     this.startedBy = startedBy;
   }
 
+  @CamundaQueryParam(value = "afterCursor", repeatable = true)
+  public void setAfterCursor(List<String> afterCursor) {
+    this.afterCursor = afterCursor;
+  }
+
   @CamundaQueryParam("superProcessInstanceId")
   public void setSuperProcessInstanceId(String superProcessInstanceId) {
     this.superProcessInstanceId = superProcessInstanceId;
@@ -299,6 +307,79 @@ public class HistoricProcessInstanceQueryDto extends AbstractQueryDto<HistoricPr
     }
   }
 
+  @Override
+  protected void applySortingOptions(HistoricProcessInstanceQuery query, ProcessEngine engine) {
+    super.applySortingOptions(query, engine);
+
+    if (afterCursor != null) {
+      applyKeysetSorting(query);
+      query.afterCursor(getSortKeyValues(afterCursor, getKeysetSortByValues(SORT_BY_PROCESS_INSTANCE_ID_VALUE)));
+    }
+  }
+
+  /**
+   * Creates the query like {@link #toQuery(ProcessEngine)}, but with an ordering which ends
+   * with the ordering by id, so that the query can be paged by the sort key values of its
+   * results (see {@link #getSortKeyValues(HistoricProcessInstance)}).
+   */
+  public HistoricProcessInstanceQuery toKeysetQuery(ProcessEngine engine) {
+    HistoricProcessInstanceQuery query = toQuery(engine);
+    if (afterCursor == null) {
+      // otherwise the ordering by id is already applied
+      applyKeysetSorting(query);
+    }
+    return query;
+  }
+
+  protected void applyKeysetSorting(HistoricProcessInstanceQuery query) {
+    List<String> sortByValues = getSortByValues();
+    if (!sortByValues.isEmpty() && !SORT_BY_PROCESS_INSTANCE_ID_VALUE.equals(sortByValues.get(sortByValues.size() - 1))) {
+      // the id of the instances makes the ordering total
+      query.orderByProcessInstanceId();
+      query.asc();
+    }
+  }
+
+  /**
+   * @return the sort key values of the given instance in the ordering of {@link #toKeysetQuery(ProcessEngine)}
+   */
+  public Object[] getSortKeyValues(HistoricProcessInstance historicProcessInstance) {
+    List<String> sortByValues = getKeysetSortByValues(SORT_BY_PROCESS_INSTANCE_ID_VALUE);
+    Object[] sortKeyValues = new Object[sortByValues.size()];
+    for (int i = 0; i < sortByValues.size(); i++) {
+      sortKeyValues[i] = getSortKeyValue(sortByValues.get(i), historicProcessInstance);
+    }
+    return sortKeyValues;
+  }
+
+  protected Object getSortKeyValue(String sortBy, HistoricProcessInstance historicProcessInstance) {
+    if (SORT_BY_PROCESS_DEFINITION_ID_VALUE.equals(sortBy)) {
+      return historicProcessInstance.getProcessDefinitionId();
+    } else if (SORT_BY_PROCESS_INSTANCE_BUSINESS_KEY_VALUE.equals(sortBy)) {
+      return historicProcessInstance.getBusinessKey();
+    } else if (SORT_BY_PROCESS_INSTANCE_START_TIME_VALUE.equals(sortBy)) {
+      return historicProcessInstance.getStartTime();
+    } else if (SORT_BY_PROCESS_INSTANCE_END_TIME_VALUE.equals(sortBy)) {
+      return historicProcessInstance.getEndTime();
+    } else if (SORT_BY_PROCESS_INSTANCE_DURATION_VALUE.equals(sortBy)) {
+      return historicProcessInstance.getDurationInMillis();
+    } else {
+      return historicProcessInstance.getId();
+    }
+  }
+
+  @Override
+  protected Object convertSortKeyValue(String sortBy, String value) {
+    if (SORT_BY_PROCESS_INSTANCE_START_TIME_VALUE.equals(sortBy)
+        || SORT_BY_PROCESS_INSTANCE_END_TIME_VALUE.equals(sortBy)) {
+      return convertCursorValue(value, new DateConverter());
+    } else if (SORT_BY_PROCESS_INSTANCE_DURATION_VALUE.equals(sortBy)) {
+      return convertCursorValue(value, new LongConverter());
+    } else {
+      return value;
+    }
+  }
+
   @Override
   protected void applySortBy(HistoricProcessInstanceQuery query, String sortBy, Map<String, Object> parameters, ProcessEngine engine) {
     if (sortBy.equals(SORT_BY_PROCESS_INSTANCE_ID_VALUE)) {
@@ -47,6 +47,7 @@ import org.camunda.bpm.engine.rest.dto.converter.VariableListConverter;
 import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
 import org.camunda.bpm.engine.rest.exception.RestException;
 import org.camunda.bpm.engine.task.DelegationState;
+import org.camunda.bpm.engine.task.Task;
 import org.camunda.bpm.engine.task.TaskQuery;
 import org.camunda.bpm.engine.variable.type.ValueType;
 import org.camunda.bpm.engine.variable.type.ValueTypeResolver;
@@ -177,6 +178,8 @@ public class TaskQueryDto extends AbstractQueryDto<TaskQuery> {
   private List<VariableQueryParameterDto> processVariables;
   private List<VariableQueryParameterDto> caseInstanceVariables;
 
+  private List<String> afterCursor;
+
   public TaskQueryDto() {
 
   }
@@ -545,6 +548,11 @@ public class TaskQueryDto extends AbstractQueryDto<TaskQuery> {
     this.caseInstanceVariables = caseInstanceVariables;
   }
 
+  @CamundaQueryParam(value = "afterCursor", repeatable = true)
+  public void setAfterCursor(List<String> afterCursor) {
+    this.afterCursor = afterCursor;
+  }
+
   @Override
   protected boolean isValidSortByValue(String value) {
     return VALID_SORT_BY_VALUES.contains(value);
@@ -843,6 +851,10 @@ public class TaskQueryDto extends AbstractQueryDto<TaskQuery> {
     return caseInstanceVariables;
   }
 
+  public List<String> getAfterCursor() {
+    return afterCursor;
+  }
+
   @Override
   protected void applyFilters(TaskQuery query) {
     if (processInstanceBusinessKey != null) {
@@ -1137,6 +1149,100 @@ public class TaskQueryDto extends AbstractQueryDto<TaskQuery> {
     }
   }
 
+  @Override
+  protected void applySortingOptions(TaskQuery query, ProcessEngine engine) {
+    super.applySortingOptions(query, engine);
+
+    if (afterCursor != null) {
+      applyKeysetSorting(query);
+      query.afterCursor(getSortKeyValues(afterCursor, getKeysetSortByValues(SORT_BY_ID_VALUE)));
+    }
+  }
+
+  /**
+   * Creates the query like {@link #toQuery(ProcessEngine)}, but with an ordering which ends
+   * with the ordering by id, so that the query can be paged by the sort key values of its
+   * results (see {@link #getSortKeyValues(Task)}).
+   */
+  public TaskQuery toKeysetQuery(ProcessEngine engine) {
+    TaskQuery query = toQuery(engine);
+    if (afterCursor == null) {
+      // otherwise the ordering by id is already applied
+      applyKeysetSorting(query);
+    }
+    return query;
+  }
+
+  protected void applyKeysetSorting(TaskQuery query) {
+    List<String> sortByValues = getSortByValues();
+    if (!sortByValues.isEmpty() && !SORT_BY_ID_VALUE.equals(sortByValues.get(sortByValues.size() - 1))) {
+      // the id of the tasks makes the ordering total
+      query.orderByTaskId();
+      query.asc();
+    }
+  }
+
+  /**
+   * @return the sort key values of the given task in the ordering of {@link #toKeysetQuery(ProcessEngine)},
+   *   or <code>null</code> if the query cannot be paged by a cursor
+   */
+  public Object[] getSortKeyValues(Task task) {
+    List<String> sortByValues = getKeysetSortByValues(SORT_BY_ID_VALUE);
+    Object[] sortKeyValues = new Object[sortByValues.size()];
+    for (int i = 0; i < sortByValues.size(); i++) {
+      String sortBy = sortByValues.get(i);
+      if (!VALID_SORT_BY_VALUES.contains(sortBy)) {
+        // tasks which are sorted by variables cannot be paged by a cursor
+        return null;
+      }
+      sortKeyValues[i] = getSortKeyValue(sortBy, task);
+    }
+    return sortKeyValues;
+  }
+
+  protected Object getSortKeyValue(String sortBy, Task task) {
+    if (SORT_BY_PROCESS_INSTANCE_ID_VALUE.equals(sortBy)) {
+      return task.getProcessInstanceId();
+    } else if (SORT_BY_CASE_INSTANCE_ID_VALUE.equals(sortBy)) {
+      return task.getCaseInstanceId();
+    } else if (SORT_BY_DUE_DATE_VALUE.equals(sortBy)) {
+      return task.getDueDate();
+    } else if (SORT_BY_FOLLOW_UP_VALUE.equals(sortBy)) {
+      return task.getFollowUpDate();
+    } else if (SORT_BY_EXECUTION_ID_VALUE.equals(sortBy)) {
+      return task.getExecutionId();
+    } else if (SORT_BY_CASE_EXECUTION_ID_VALUE.equals(sortBy)) {
+      return task.getCaseExecutionId();
+    } else if (SORT_BY_ASSIGNEE_VALUE.equals(sortBy)) {
+      return task.getAssignee();
+    } else if (SORT_BY_CREATE_TIME_VALUE.equals(sortBy)) {
+      return task.getCreateTime();
+    } else if (SORT_BY_DESCRIPTION_VALUE.equals(sortBy)) {
+      return task.getDescription();
+    } else if (SORT_BY_NAME_VALUE.equals(sortBy)) {
+      return task.getName();
+    } else if (SORT_BY_NAME_CASE_INSENSITIVE_VALUE.equals(sortBy)) {
+      return task.getName() != null ? task.getName().toLowerCase() : null;
+    } else if (SORT_BY_PRIORITY_VALUE.equals(sortBy)) {
+      return task.getPriority();
+    } else {
+      return task.getId();
+    }
+  }
+
+  @Override
+  protected Object convertSortKeyValue(String sortBy, String value) {
+    if (SORT_BY_DUE_DATE_VALUE.equals(sortBy)
+        || SORT_BY_FOLLOW_UP_VALUE.equals(sortBy)
+        || SORT_BY_CREATE_TIME_VALUE.equals(sortBy)) {
+      return convertCursorValue(value, new DateConverter());
+    } else if (SORT_BY_PRIORITY_VALUE.equals(sortBy)) {
+      return convertCursorValue(value, new IntegerConverter());
+    } else {
+      return value;
+    }
+  }
+
   @Override
   protected void applySortBy(TaskQuery query, String sortBy, Map<String, Object> parameters, ProcessEngine engine) {
     if (sortBy.equals(SORT_BY_PROCESS_INSTANCE_ID_VALUE)) {
@@ -22,6 +22,7 @@ import org.camunda.bpm.engine.rest.sub.history.HistoricVariableInstanceResource;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
 
@@ -66,6 +67,27 @@ public interface HistoricVariableInstanceRestService {
       @QueryParam("maxResults") Integer maxResults,
       @QueryParam(VariableResource.DESERIALIZE_VALUES_QUERY_PARAM) @DefaultValue("true") boolean deserializeValues);
 
+  /**
+   * Streams the historic variable instances matching the query as a JSON array.
+   * The results are read and written page by page, so in contrast to
+   * {@link #getHistoricVariableInstances(UriInfo, Integer, Integer, boolean)},
+   * the memory consumption does not depend on the number of results.
+   */
+  @GET
+  @Path("/stream")
+  @Produces(MediaType.APPLICATION_JSON)
+  StreamingOutput streamHistoricVariableInstances(
+      @Context UriInfo uriInfo,
+      @QueryParam(VariableResource.DESERIALIZE_VALUES_QUERY_PARAM) @DefaultValue("true") boolean deserializeValues);
+
+  @POST
+  @Path("/stream")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  StreamingOutput streamQueriedHistoricVariableInstances(
+      HistoricVariableInstanceQueryDto query,
+      @QueryParam(VariableResource.DESERIALIZE_VALUES_QUERY_PARAM) @DefaultValue("true") boolean deserializeValues);
+
   @GET
   @Path("/count")
   @Produces(MediaType.APPLICATION_JSON)
@@ -18,6 +18,7 @@ import org.camunda.bpm.engine.EntityTypes;
 import org.camunda.bpm.engine.FilterService;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.exception.NotValidException;
+import org.camunda.bpm.engine.exception.NullValueException;
 import org.camunda.bpm.engine.filter.Filter;
 import org.camunda.bpm.engine.filter.FilterQuery;
 import org.camunda.bpm.engine.rest.FilterRestService;
@@ -37,6 +38,7 @@ import javax.ws.rs.core.UriInfo;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.camunda.bpm.engine.authorization.Authorization.ANY;
 import static org.camunda.bpm.engine.authorization.Permissions.CREATE;
@@ -98,6 +100,19 @@ public class FilterRestServiceImpl extends AbstractAuthorizedRestResource implem
     return new CountResultDto(query.count());
   }
 
+  public Map<String, Long> getItemCounts(List<String> filterIds) {
+    if (filterIds == null) {
+      throw new InvalidRequestException(Response.Status.BAD_REQUEST, "No filter ids given");
+    }
+
+    try {
+      return getProcessEngine().getFilterService().count(filterIds);
+    }
+    catch (NullValueException e) {
+      throw new InvalidRequestException(Response.Status.NOT_FOUND, e, "Unable to count the items of the filters: " + e.getMessage());
+    }
+  }
+
   public FilterDto createFilter(FilterDto filterDto) {
     FilterService filterService = getProcessEngine().getFilterService();
 
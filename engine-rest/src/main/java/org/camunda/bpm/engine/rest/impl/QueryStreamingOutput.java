@@ -0,0 +1,129 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.camunda.bpm.engine.query.Query;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the results of a query as a JSON array. The results are read in pages of
+ * {@link #PAGE_SIZE} results, each page by a command of its own, and each result is
+ * converted to its dto and serialized on its own. Thus only a single page of results
+ * is kept in memory and no transaction is open while the response is written to the
+ * client.
+ *
+ * <p>The pages following the first one are read by their offset. Streams of queries
+ * which can be paged by a cursor override {@link #fetchPageAfter(Object, int, int)} to
+ * continue after the sort key values of the last result instead, so that reading a page
+ * does not get slower with its position in the result set.</p>
+ *
+ * <p>The first page is read when the output is created, so that an invalid query fails
+ * before the response is committed. If reading a later page fails, the response is
+ * already committed; the JSON array is then left incomplete.</p>
+ *
+ * @param <T> the type of the query results
+ */
+public abstract class QueryStreamingOutput<T> implements StreamingOutput {
+
+  public static final int PAGE_SIZE = 1000;
+
+  protected ObjectMapper objectMapper;
+  protected Query<?, T> query;
+  protected int firstResult;
+  protected int maxResults;
+
+  protected List<T> firstPage;
+
+  public QueryStreamingOutput(ObjectMapper objectMapper, Query<?, T> query) {
+    this(objectMapper, query, null, null);
+  }
+
+  /**
+   * Writes only the results of the given page. If both <code>firstResult</code> and
+   * <code>maxResults</code> are <code>null</code>, all results are written.
+   */
+  public QueryStreamingOutput(ObjectMapper objectMapper, Query<?, T> query, Integer firstResult, Integer maxResults) {
+    this.objectMapper = objectMapper;
+    this.query = query;
+    this.firstResult = firstResult != null ? firstResult : 0;
+    this.maxResults = maxResults != null ? maxResults : Integer.MAX_VALUE;
+
+    this.firstPage = fetchPage(this.firstResult, this.maxResults);
+  }
+
+  public void write(OutputStream output) throws IOException, WebApplicationException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8);
+
+    generator.writeStartArray();
+
+    List<T> page = firstPage;
+    firstPage = null;
+
+    int nextResult = firstResult;
+    int remainingResults = maxResults;
+
+    while (page != null) {
+      for (T result : page) {
+        generator.writeObject(toDto(result));
+      }
+      generator.flush();
+
+      if (page.size() < Math.min(PAGE_SIZE, remainingResults)) {
+        break;
+      }
+
+      nextResult += page.size();
+      remainingResults -= page.size();
+
+      if (remainingResults > 0) {
+        page = fetchPageAfter(page.get(page.size() - 1), nextResult, remainingResults);
+      } else {
+        page = null;
+      }
+    }
+
+    generator.writeEndArray();
+    generator.flush();
+  }
+
+  protected List<T> fetchPage(int firstResult, int remainingResults) {
+    return query.listPage(firstResult, Math.min(PAGE_SIZE, remainingResults));
+  }
+
+  /**
+   * Fetches the page which follows the given result.
+   *
+   * @param lastResult the last result of the previous page
+   * @param nextResult the offset of the page
+   * @param remainingResults the number of results which are still to be written
+   */
+  protected List<T> fetchPageAfter(T lastResult, int nextResult, int remainingResults) {
+    return fetchPage(nextResult, remainingResults);
+  }
+
+  /**
+   * Converts a single query result to the dto which is written to the response.
+   */
+  protected abstract Object toDto(T result);
+
+}
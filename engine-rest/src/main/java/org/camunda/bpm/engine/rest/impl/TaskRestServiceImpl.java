@@ -19,6 +19,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.core.Variant;
 
@@ -98,6 +99,38 @@ public class TaskRestServiceImpl extends AbstractRestProcessEngineAware implemen
     return tasks;
   }
 
+  @Override
+  public StreamingOutput streamTasks(UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+    TaskQueryDto queryDto = new TaskQueryDto(getObjectMapper(), uriInfo.getQueryParameters());
+    return streamQueriedTasks(queryDto, firstResult, maxResults);
+  }
+
+  @Override
+  public StreamingOutput streamQueriedTasks(final TaskQueryDto queryDto, Integer firstResult, Integer maxResults) {
+    ProcessEngine engine = getProcessEngine();
+    queryDto.setObjectMapper(getObjectMapper());
+    final TaskQuery taskQuery = queryDto.toKeysetQuery(engine);
+
+    // enable initialization of form key:
+    taskQuery.initializeFormKeys();
+
+    return new QueryStreamingOutput<Task>(getObjectMapper(), taskQuery, firstResult, maxResults) {
+      protected Object toDto(Task task) {
+        return TaskDto.fromEntity(task);
+      }
+
+      protected List<Task> fetchPageAfter(Task lastTask, int nextResult, int remainingResults) {
+        Object[] sortKeyValues = queryDto.getSortKeyValues(lastTask);
+        if (sortKeyValues != null) {
+          return taskQuery.afterCursor(sortKeyValues).listPage(0, Math.min(PAGE_SIZE, remainingResults));
+        }
+        else {
+          return super.fetchPageAfter(lastTask, nextResult, remainingResults);
+        }
+      }
+    };
+  }
+
   protected List<Task> executeTaskQuery(Integer firstResult, Integer maxResults, TaskQuery query) {
 
     // enable initialization of form key:
@@ -20,9 +20,11 @@ import org.camunda.bpm.engine.rest.dto.CountResultDto;
 import org.camunda.bpm.engine.rest.dto.history.HistoricActivityInstanceDto;
 import org.camunda.bpm.engine.rest.dto.history.HistoricActivityInstanceQueryDto;
 import org.camunda.bpm.engine.rest.history.HistoricActivityInstanceRestService;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.sub.history.HistoricActivityInstanceResource;
 import org.camunda.bpm.engine.rest.sub.history.impl.HistoricActivityInstanceResourceImpl;
 
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.util.ArrayList;
 import java.util.List;
@@ -67,6 +69,34 @@ public class HistoricActivityInstanceRestServiceImpl implements HistoricActivity
     return historicActivityInstanceResults;
   }
 
+  @Override
+  public StreamingOutput streamHistoricActivityInstances(UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+    HistoricActivityInstanceQueryDto queryDto = new HistoricActivityInstanceQueryDto(objectMapper, uriInfo.getQueryParameters());
+    return streamQueriedHistoricActivityInstances(queryDto, firstResult, maxResults);
+  }
+
+  @Override
+  public StreamingOutput streamQueriedHistoricActivityInstances(final HistoricActivityInstanceQueryDto queryDto, Integer firstResult, Integer maxResults) {
+    queryDto.setObjectMapper(objectMapper);
+    final HistoricActivityInstanceQuery historicActivityInstanceQuery = queryDto.toKeysetQuery(processEngine);
+
+    return new QueryStreamingOutput<HistoricActivityInstance>(objectMapper, historicActivityInstanceQuery, firstResult, maxResults) {
+      protected Object toDto(HistoricActivityInstance historicActivityInstance) {
+        return HistoricActivityInstanceDto.fromHistoricActivityInstance(historicActivityInstance);
+      }
+
+      protected List<HistoricActivityInstance> fetchPageAfter(HistoricActivityInstance lastHistoricActivityInstance, int nextResult, int remainingResults) {
+        Object[] sortKeyValues = queryDto.getSortKeyValues(lastHistoricActivityInstance);
+        if (sortKeyValues != null) {
+          return historicActivityInstanceQuery.afterCursor(sortKeyValues).listPage(0, Math.min(PAGE_SIZE, remainingResults));
+        }
+        else {
+          return super.fetchPageAfter(lastHistoricActivityInstance, nextResult, remainingResults);
+        }
+      }
+    };
+  }
+
   private List<HistoricActivityInstance> executePaginatedQuery(HistoricActivityInstanceQuery query, Integer firstResult, Integer maxResults) {
     if (firstResult == null) {
       firstResult = 0;
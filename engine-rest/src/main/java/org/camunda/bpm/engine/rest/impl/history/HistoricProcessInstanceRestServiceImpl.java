@@ -20,9 +20,11 @@ import org.camunda.bpm.engine.rest.dto.CountResultDto;
 import org.camunda.bpm.engine.rest.dto.history.HistoricProcessInstanceDto;
 import org.camunda.bpm.engine.rest.dto.history.HistoricProcessInstanceQueryDto;
 import org.camunda.bpm.engine.rest.history.HistoricProcessInstanceRestService;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.sub.history.HistoricProcessInstanceResource;
 import org.camunda.bpm.engine.rest.sub.history.impl.HistoricProcessInstanceResourceImpl;
 
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.util.ArrayList;
 import java.util.List;
@@ -68,6 +70,30 @@ public class HistoricProcessInstanceRestServiceImpl implements HistoricProcessIn
     return historicProcessInstanceDtoResults;
   }
 
+  @Override
+  public StreamingOutput streamHistoricProcessInstances(UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+    HistoricProcessInstanceQueryDto queryDto = new HistoricProcessInstanceQueryDto(objectMapper, uriInfo.getQueryParameters());
+    return streamQueriedHistoricProcessInstances(queryDto, firstResult, maxResults);
+  }
+
+  @Override
+  public StreamingOutput streamQueriedHistoricProcessInstances(final HistoricProcessInstanceQueryDto queryDto, Integer firstResult, Integer maxResults) {
+    queryDto.setObjectMapper(objectMapper);
+    final HistoricProcessInstanceQuery historicProcessInstanceQuery = queryDto.toKeysetQuery(processEngine);
+
+    return new QueryStreamingOutput<HistoricProcessInstance>(objectMapper, historicProcessInstanceQuery, firstResult, maxResults) {
+      protected Object toDto(HistoricProcessInstance historicProcessInstance) {
+        return HistoricProcessInstanceDto.fromHistoricProcessInstance(historicProcessInstance);
+      }
+
+      protected List<HistoricProcessInstance> fetchPageAfter(HistoricProcessInstance lastHistoricProcessInstance, int nextResult, int remainingResults) {
+        return historicProcessInstanceQuery
+            .afterCursor(queryDto.getSortKeyValues(lastHistoricProcessInstance))
+            .listPage(0, Math.min(PAGE_SIZE, remainingResults));
+      }
+    };
+  }
+
   private List<HistoricProcessInstance> executePaginatedQuery(HistoricProcessInstanceQuery query, Integer firstResult, Integer maxResults) {
     if (firstResult == null) {
       firstResult = 0;
@@ -20,9 +20,11 @@ import org.camunda.bpm.engine.rest.dto.CountResultDto;
 import org.camunda.bpm.engine.rest.dto.history.HistoricVariableInstanceDto;
 import org.camunda.bpm.engine.rest.dto.history.HistoricVariableInstanceQueryDto;
 import org.camunda.bpm.engine.rest.history.HistoricVariableInstanceRestService;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.sub.history.HistoricVariableInstanceResource;
 import org.camunda.bpm.engine.rest.sub.history.impl.HistoricVariableInstanceResourceImpl;
 
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.util.ArrayList;
 import java.util.List;
@@ -74,6 +76,29 @@ public class HistoricVariableInstanceRestServiceImpl implements HistoricVariable
     return historicVariableInstanceDtoResults;
   }
 
+  @Override
+  public StreamingOutput streamHistoricVariableInstances(UriInfo uriInfo, boolean deserializeObjectValues) {
+    HistoricVariableInstanceQueryDto queryDto = new HistoricVariableInstanceQueryDto(objectMapper, uriInfo.getQueryParameters());
+    return streamQueriedHistoricVariableInstances(queryDto, deserializeObjectValues);
+  }
+
+  @Override
+  public StreamingOutput streamQueriedHistoricVariableInstances(HistoricVariableInstanceQueryDto queryDto, boolean deserializeObjectValues) {
+    queryDto.setObjectMapper(objectMapper);
+    HistoricVariableInstanceQuery query = queryDto.toQuery(processEngine);
+    query.disableBinaryFetching();
+
+    if (!deserializeObjectValues) {
+      query.disableCustomObjectDeserialization();
+    }
+
+    return new QueryStreamingOutput<HistoricVariableInstance>(objectMapper, query) {
+      protected Object toDto(HistoricVariableInstance historicVariableInstance) {
+        return HistoricVariableInstanceDto.fromHistoricVariableInstance(historicVariableInstance);
+      }
+    };
+  }
+
   private List<HistoricVariableInstance> executePaginatedQuery(HistoricVariableInstanceQuery query, Integer firstResult, Integer maxResults) {
     if (firstResult == null) {
       firstResult = 0;
@@ -119,6 +119,7 @@ public abstract class AbstractFilterRestServiceInteractionTest extends AbstractR
   public static final String EXECUTE_SINGLE_RESULT_FILTER_URL = SINGLE_FILTER_URL + "/singleResult";
   public static final String EXECUTE_LIST_FILTER_URL = SINGLE_FILTER_URL + "/list";
   public static final String EXECUTE_COUNT_FILTER_URL = SINGLE_FILTER_URL + "/count";
+  public static final String ITEM_COUNT_FILTER_URL = FILTER_URL + "/item-count";
 
   public static final TaskQuery extendingQuery = new TaskQueryImpl().taskName(MockProvider.EXAMPLE_TASK_NAME);
   public static final TaskQueryDto extendingQueryDto = TaskQueryDto.fromQuery(extendingQuery);
@@ -1103,6 +1104,42 @@ public abstract class AbstractFilterRestServiceInteractionTest extends AbstractR
     verify(filterServiceMock).count(MockProvider.NON_EXISTING_ID, null);
   }
 
+  @Test
+  public void testItemCounts() {
+    List<String> filterIds = Arrays.asList(EXAMPLE_FILTER_ID, MockProvider.ANOTHER_EXAMPLE_FILTER_ID);
+    Map<String, Long> counts = new HashMap<String, Long>();
+    counts.put(EXAMPLE_FILTER_ID, 1L);
+    counts.put(MockProvider.ANOTHER_EXAMPLE_FILTER_ID, 2L);
+    when(filterServiceMock.count(eq(filterIds))).thenReturn(counts);
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(filterIds)
+    .then().expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body(EXAMPLE_FILTER_ID, equalTo(1))
+      .body(MockProvider.ANOTHER_EXAMPLE_FILTER_ID, equalTo(2))
+    .when()
+      .post(ITEM_COUNT_FILTER_URL);
+
+    verify(filterServiceMock).count(eq(filterIds));
+  }
+
+  @Test
+  public void testItemCountsOfNonExistingFilter() {
+    List<String> filterIds = Arrays.asList(EXAMPLE_FILTER_ID, MockProvider.NON_EXISTING_ID);
+    doThrow(new NullValueException("No filter found with given id"))
+      .when(filterServiceMock).count(eq(filterIds));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(filterIds)
+    .then().expect()
+      .statusCode(Status.NOT_FOUND.getStatusCode())
+    .when()
+      .post(ITEM_COUNT_FILTER_URL);
+  }
+
   @Test
   public void testExecuteCountAsPost() {
     given()
@@ -2,20 +2,26 @@ package org.camunda.bpm.engine.rest;
 
 import static com.jayway.restassured.RestAssured.given;
 import static com.jayway.restassured.path.json.JsonPath.from;
+import static org.camunda.bpm.engine.rest.helper.StreamingQueryAnswer.mockStreamedResults;
 import static org.camunda.bpm.engine.rest.util.QueryParamUtils.arrayAsCommaSeperatedList;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +34,7 @@ import org.camunda.bpm.ProcessApplicationService;
 import org.camunda.bpm.application.ProcessApplicationInfo;
 import org.camunda.bpm.container.RuntimeContainerDelegate;
 import org.camunda.bpm.engine.identity.User;
+import org.camunda.bpm.engine.impl.calendar.DateTimeUtil;
 import org.camunda.bpm.engine.identity.UserQuery;
 import org.camunda.bpm.engine.repository.CaseDefinition;
 import org.camunda.bpm.engine.repository.CaseDefinitionQuery;
@@ -39,6 +46,7 @@ import org.camunda.bpm.engine.rest.helper.EqualsList;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
 import org.camunda.bpm.engine.rest.helper.ValueGenerator;
 import org.camunda.bpm.engine.rest.helper.variable.EqualsPrimitiveValue;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.util.OrderingBuilder;
 import org.camunda.bpm.engine.task.DelegationState;
 import org.camunda.bpm.engine.task.Task;
@@ -57,6 +65,7 @@ public abstract class AbstractTaskRestServiceQueryTest extends AbstractRestServi
 
   protected static final String TASK_QUERY_URL = TEST_RESOURCE_ROOT_PATH + "/task";
   protected static final String TASK_COUNT_QUERY_URL = TASK_QUERY_URL + "/count";
+  protected static final String TASK_STREAM_URL = TASK_QUERY_URL + "/stream";
   private TaskQuery mockQuery;
 
   @Before
@@ -764,6 +773,97 @@ public abstract class AbstractTaskRestServiceQueryTest extends AbstractRestServi
     inOrder.verify(mockQuery).desc();
   }
 
+  @Test
+  public void testAfterCursor() {
+    given().queryParam("afterCursor", "aTaskId")
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().get(TASK_QUERY_URL);
+
+    verify(mockQuery).afterCursor("aTaskId");
+    verify(mockQuery, never()).orderByTaskId();
+  }
+
+  @Test
+  public void testAfterCursorWithSortBy() {
+    InOrder inOrder = Mockito.inOrder(mockQuery);
+    given()
+      .queryParam("sortBy", "created")
+      .queryParam("sortOrder", "desc")
+      .queryParam("afterCursor", MockProvider.EXAMPLE_TASK_DUE_DATE, "aTaskId")
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().get(TASK_QUERY_URL);
+
+    inOrder.verify(mockQuery).orderByTaskCreateTime();
+    inOrder.verify(mockQuery).desc();
+    inOrder.verify(mockQuery).orderByTaskId();
+    inOrder.verify(mockQuery).asc();
+    inOrder.verify(mockQuery).afterCursor(DateTimeUtil.parseDate(MockProvider.EXAMPLE_TASK_DUE_DATE), "aTaskId");
+  }
+
+  @Test
+  public void testAfterCursorWithSortingByIdAsPost() {
+    InOrder inOrder = Mockito.inOrder(mockQuery);
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("sorting", OrderingBuilder.create()
+      .orderBy("priority").desc()
+      .orderBy("id").desc()
+      .getJson());
+    json.put("afterCursor", Arrays.asList("50", "aTaskId"));
+
+    given().contentType(POST_JSON_CONTENT_TYPE).body(json)
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().post(TASK_QUERY_URL);
+
+    inOrder.verify(mockQuery).orderByTaskPriority();
+    inOrder.verify(mockQuery).desc();
+    inOrder.verify(mockQuery).orderByTaskId();
+    inOrder.verify(mockQuery).desc();
+    inOrder.verify(mockQuery).afterCursor(50, "aTaskId");
+    verify(mockQuery, never()).asc();
+  }
+
+  @Test
+  public void testAfterCursorWithNullSortKeyValue() {
+    given()
+      .queryParam("sortBy", "dueDate")
+      .queryParam("sortOrder", "asc")
+      .queryParam("afterCursor", "", "aTaskId")
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().get(TASK_QUERY_URL);
+
+    verify(mockQuery).afterCursor(null, "aTaskId");
+  }
+
+  @Test
+  public void testAfterCursorWithoutIdWithSortBy() {
+    given()
+      .queryParam("sortBy", "created")
+      .queryParam("sortOrder", "desc")
+      .queryParam("afterCursor", MockProvider.EXAMPLE_TASK_DUE_DATE)
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.BAD_REQUEST.getStatusCode()).contentType(ContentType.JSON)
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("afterCursor parameter has to contain one value for each of the sortings [created, id] but has 1"))
+      .when().get(TASK_QUERY_URL);
+  }
+
+  @Test
+  public void testAfterCursorWithInvalidSortKeyValue() {
+    given()
+      .queryParam("sortBy", "priority")
+      .queryParam("sortOrder", "desc")
+      .queryParam("afterCursor", "high", "aTaskId")
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.BAD_REQUEST.getStatusCode()).contentType(ContentType.JSON)
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("Cannot convert value high to java type java.lang.Integer"))
+      .when().get(TASK_QUERY_URL);
+  }
+
   @Test
   public void testSuccessfulPagination() {
 
@@ -1392,4 +1492,80 @@ public abstract class AbstractTaskRestServiceQueryTest extends AbstractRestServi
 
   }
 
+  @Test
+  public void testStreamTaskQuery() {
+    mockStreamedResults(mockQuery, MockProvider.createMockTasks());
+
+    given()
+        .queryParam("name", MockProvider.EXAMPLE_TASK_NAME)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(1))
+        .when()
+          .get(TASK_STREAM_URL);
+
+    InOrder inOrder = inOrder(mockQuery);
+    inOrder.verify(mockQuery).taskName(MockProvider.EXAMPLE_TASK_NAME);
+    inOrder.verify(mockQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockQuery, never()).list();
+  }
+
+  @Test
+  public void testStreamTaskQueryInPages() {
+    Task mockTask = MockProvider.createMockTask();
+    List<Task> firstPage = Collections.nCopies(QueryStreamingOutput.PAGE_SIZE, mockTask);
+    List<Task> secondPage = Collections.singletonList(mockTask);
+    when(mockQuery.listPage(anyInt(), anyInt())).thenReturn(firstPage, secondPage);
+    when(mockQuery.afterCursor((Object) anyVararg())).thenReturn(mockQuery);
+
+    given()
+        .queryParam("sortBy", "priority")
+        .queryParam("sortOrder", "desc")
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(QueryStreamingOutput.PAGE_SIZE + 1))
+        .when()
+          .get(TASK_STREAM_URL);
+
+    // the second page continues after the sort key values of the last task of the first page
+    InOrder inOrder = inOrder(mockQuery);
+    inOrder.verify(mockQuery).orderByTaskPriority();
+    inOrder.verify(mockQuery).desc();
+    inOrder.verify(mockQuery).orderByTaskId();
+    inOrder.verify(mockQuery).asc();
+    inOrder.verify(mockQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    inOrder.verify(mockQuery).afterCursor(MockProvider.EXAMPLE_TASK_PRIORITY, MockProvider.EXAMPLE_TASK_ID);
+    inOrder.verify(mockQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockQuery, never()).listPage(QueryStreamingOutput.PAGE_SIZE, QueryStreamingOutput.PAGE_SIZE);
+  }
+
+  @Test
+  public void testStreamTaskQueryAsPost() {
+    mockStreamedResults(mockQuery, MockProvider.createMockTasks());
+
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("name", MockProvider.EXAMPLE_TASK_NAME);
+
+    given()
+        .contentType(POST_JSON_CONTENT_TYPE)
+        .body(json)
+        .queryParam("firstResult", 1)
+        .queryParam("maxResults", 10)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(0))
+        .when()
+          .post(TASK_STREAM_URL);
+
+    verify(mockQuery).taskName(MockProvider.EXAMPLE_TASK_NAME);
+    verify(mockQuery).listPage(1, 10);
+    verify(mockQuery, never()).list();
+  }
+
 }
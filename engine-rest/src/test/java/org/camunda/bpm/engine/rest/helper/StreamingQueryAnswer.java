@@ -0,0 +1,49 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.rest.helper;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.query.Query;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Returns the requested page of the given results from a mocked
+ * {@link Query#listPage(int, int)} call, as it is invoked by a {@link QueryStreamingOutput}.
+ */
+public class StreamingQueryAnswer<T> implements Answer<List<T>> {
+
+  protected List<T> results;
+
+  public StreamingQueryAnswer(List<T> results) {
+    this.results = results;
+  }
+
+  public List<T> answer(InvocationOnMock invocation) throws Throwable {
+    Object[] arguments = invocation.getArguments();
+    int firstResult = Math.min((Integer) arguments[0], results.size());
+    int maxResults = (Integer) arguments[1];
+    int lastResult = (int) Math.min((long) firstResult + maxResults, results.size());
+    return results.subList(firstResult, lastResult);
+  }
+
+  public static <T> void mockStreamedResults(Query<?, T> mockedQuery, List<T> results) {
+    when(mockedQuery.listPage(anyInt(), anyInt())).thenAnswer(new StreamingQueryAnswer<T>(results));
+  }
+
+}
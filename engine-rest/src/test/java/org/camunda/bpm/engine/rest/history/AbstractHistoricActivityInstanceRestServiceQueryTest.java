@@ -3,14 +3,17 @@ package org.camunda.bpm.engine.rest.history;
 import static com.jayway.restassured.RestAssured.expect;
 import static com.jayway.restassured.RestAssured.given;
 import static com.jayway.restassured.path.json.JsonPath.from;
+import static org.camunda.bpm.engine.rest.helper.StreamingQueryAnswer.mockStreamedResults;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +28,7 @@ import org.camunda.bpm.engine.history.HistoricActivityInstanceQuery;
 import org.camunda.bpm.engine.impl.calendar.DateTimeUtil;
 import org.camunda.bpm.engine.rest.AbstractRestServiceTest;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.util.OrderingBuilder;
 import org.junit.Assert;
 import org.junit.Before;
@@ -40,6 +44,7 @@ public abstract class AbstractHistoricActivityInstanceRestServiceQueryTest exten
   protected static final String HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL = TEST_RESOURCE_ROOT_PATH + "/history/activity-instance";
 
   protected static final String HISTORIC_ACTIVITY_INSTANCE_COUNT_RESOURCE_URL = HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL + "/count";
+  protected static final String HISTORIC_ACTIVITY_INSTANCE_STREAM_RESOURCE_URL = HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL + "/stream";
 
   protected HistoricActivityInstanceQuery mockedQuery;
 
@@ -272,6 +277,77 @@ public abstract class AbstractHistoricActivityInstanceRestServiceQueryTest exten
     inOrder.verify(mockedQuery).asc();
   }
 
+  @Test
+  public void testAfterCursor() {
+    given()
+      .queryParam("afterCursor", MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_ID)
+    .then()
+      .expect()
+        .statusCode(Status.OK.getStatusCode())
+      .when()
+        .get(HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL);
+
+    verify(mockedQuery).afterCursor(MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_ID);
+    verify(mockedQuery, never()).orderByHistoricActivityInstanceId();
+  }
+
+  @Test
+  public void testAfterCursorWithSortBy() {
+    InOrder inOrder = Mockito.inOrder(mockedQuery);
+    given()
+      .queryParam("sortBy", "startTime")
+      .queryParam("sortOrder", "asc")
+      .queryParam("afterCursor", MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_START_TIME, MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_ID)
+    .then()
+      .expect()
+        .statusCode(Status.OK.getStatusCode())
+      .when()
+        .get(HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL);
+
+    inOrder.verify(mockedQuery).orderByHistoricActivityInstanceStartTime();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).orderByHistoricActivityInstanceId();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).afterCursor(
+        DateTimeUtil.parseDate(MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_START_TIME), MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_ID);
+  }
+
+  @Test
+  public void testAfterCursorWithSortingByOccurrenceAsPost() {
+    InOrder inOrder = Mockito.inOrder(mockedQuery);
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("sorting", OrderingBuilder.create()
+      .orderBy("occurrence").asc()
+      .getJson());
+    json.put("afterCursor", Arrays.asList("42", MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_ID));
+
+    given().contentType(POST_JSON_CONTENT_TYPE).body(json)
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().post(HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL);
+
+    inOrder.verify(mockedQuery).orderPartiallyByOccurrence();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).orderByHistoricActivityInstanceId();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).afterCursor(42L, MockProvider.EXAMPLE_HISTORIC_ACTIVITY_INSTANCE_ID);
+  }
+
+  @Test
+  public void testAfterCursorWithoutIdWithSortBy() {
+    given()
+      .queryParam("sortBy", "activityName")
+      .queryParam("sortOrder", "asc")
+      .queryParam("afterCursor", MockProvider.EXAMPLE_ACTIVITY_NAME)
+    .then()
+      .expect()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+        .body("message", equalTo("afterCursor parameter has to contain one value for each of the sortings [activityName, activityInstanceId] but has 1"))
+      .when()
+        .get(HISTORIC_ACTIVITY_INSTANCE_RESOURCE_URL);
+  }
+
   @Test
   public void testSuccessfulPagination() {
     int firstResult = 0;
@@ -739,4 +815,50 @@ public abstract class AbstractHistoricActivityInstanceRestServiceQueryTest exten
 
     verify(mockedQuery).list();
   }
+
+  @Test
+  public void testStreamHistoricActivityQuery() {
+    mockStreamedResults(mockedQuery, MockProvider.createMockHistoricActivityInstances());
+
+    given()
+        .queryParam("processInstanceId", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(1))
+        .when()
+          .get(HISTORIC_ACTIVITY_INSTANCE_STREAM_RESOURCE_URL);
+
+    InOrder inOrder = inOrder(mockedQuery);
+    inOrder.verify(mockedQuery).processInstanceId(MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+    inOrder.verify(mockedQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockedQuery, never()).list();
+  }
+
+  @Test
+  public void testStreamHistoricActivityQueryAsPost() {
+    mockStreamedResults(mockedQuery, MockProvider.createMockHistoricActivityInstances());
+
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("processInstanceId", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+
+    given()
+        .contentType(POST_JSON_CONTENT_TYPE)
+        .body(json)
+        .queryParam("firstResult", 1)
+        .queryParam("maxResults", 10)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(0))
+        .when()
+          .post(HISTORIC_ACTIVITY_INSTANCE_STREAM_RESOURCE_URL);
+
+    verify(mockedQuery).processInstanceId(MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+    verify(mockedQuery).listPage(1, 10);
+    verify(mockedQuery, never()).list();
+  }
+
 }
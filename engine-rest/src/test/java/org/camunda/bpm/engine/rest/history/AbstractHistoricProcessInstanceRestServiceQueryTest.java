@@ -3,17 +3,20 @@ package org.camunda.bpm.engine.rest.history;
 import static com.jayway.restassured.RestAssured.expect;
 import static com.jayway.restassured.RestAssured.given;
 import static com.jayway.restassured.path.json.JsonPath.from;
+import static org.camunda.bpm.engine.rest.helper.StreamingQueryAnswer.mockStreamedResults;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,6 +34,7 @@ import org.camunda.bpm.engine.impl.calendar.DateTimeUtil;
 import org.camunda.bpm.engine.rest.AbstractRestServiceTest;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
 import org.camunda.bpm.engine.rest.helper.variable.EqualsPrimitiveValue;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.util.OrderingBuilder;
 import org.junit.Assert;
 import org.junit.Before;
@@ -45,6 +49,7 @@ public abstract class AbstractHistoricProcessInstanceRestServiceQueryTest extend
 
   protected static final String HISTORIC_PROCESS_INSTANCE_RESOURCE_URL = TEST_RESOURCE_ROOT_PATH + "/history/process-instance";
   protected static final String HISTORIC_PROCESS_INSTANCE_COUNT_RESOURCE_URL = HISTORIC_PROCESS_INSTANCE_RESOURCE_URL + "/count";
+  protected static final String HISTORIC_PROCESS_INSTANCE_STREAM_RESOURCE_URL = HISTORIC_PROCESS_INSTANCE_RESOURCE_URL + "/stream";
 
   protected HistoricProcessInstanceQuery mockedQuery;
 
@@ -262,6 +267,79 @@ public abstract class AbstractHistoricProcessInstanceRestServiceQueryTest extend
     inOrder.verify(mockedQuery).asc();
   }
 
+  @Test
+  public void testAfterCursor() {
+    given()
+      .queryParam("afterCursor", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID)
+    .then()
+      .expect()
+        .statusCode(Status.OK.getStatusCode())
+      .when()
+        .get(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    verify(mockedQuery).afterCursor(MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+    verify(mockedQuery, never()).orderByProcessInstanceId();
+  }
+
+  @Test
+  public void testAfterCursorWithSortBy() {
+    InOrder inOrder = Mockito.inOrder(mockedQuery);
+    given()
+      .queryParam("sortBy", "duration")
+      .queryParam("sortOrder", "desc")
+      .queryParam("afterCursor", "2000", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID)
+    .then()
+      .expect()
+        .statusCode(Status.OK.getStatusCode())
+      .when()
+        .get(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    inOrder.verify(mockedQuery).orderByProcessInstanceDuration();
+    inOrder.verify(mockedQuery).desc();
+    inOrder.verify(mockedQuery).orderByProcessInstanceId();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).afterCursor(2000L, MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+  }
+
+  @Test
+  public void testAfterCursorWithSecondarySortingAsPost() {
+    InOrder inOrder = Mockito.inOrder(mockedQuery);
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("sorting", OrderingBuilder.create()
+      .orderBy("endTime").desc()
+      .orderBy("businessKey").asc()
+      .getJson());
+    json.put("afterCursor", Arrays.asList(null, "aBusinessKey", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID));
+
+    given().contentType(POST_JSON_CONTENT_TYPE).body(json)
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().post(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    inOrder.verify(mockedQuery).orderByProcessInstanceEndTime();
+    inOrder.verify(mockedQuery).desc();
+    inOrder.verify(mockedQuery).orderByProcessInstanceBusinessKey();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).orderByProcessInstanceId();
+    inOrder.verify(mockedQuery).asc();
+    inOrder.verify(mockedQuery).afterCursor(null, "aBusinessKey", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+  }
+
+  @Test
+  public void testAfterCursorWithoutIdWithSortBy() {
+    given()
+      .queryParam("sortBy", "startTime")
+      .queryParam("sortOrder", "asc")
+      .queryParam("afterCursor", MockProvider.EXAMPLE_HISTORIC_PROCESS_INSTANCE_STARTED_AFTER)
+    .then()
+      .expect()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+        .body("message", equalTo("afterCursor parameter has to contain one value for each of the sortings [startTime, instanceId] but has 1"))
+      .when()
+        .get(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+  }
+
   @Test
   public void testSuccessfulPagination() {
     int firstResult = 0;
@@ -970,4 +1048,49 @@ public abstract class AbstractHistoricProcessInstanceRestServiceQueryTest extend
     verify(mockedQuery).variableValueNotEquals(eq(anotherVariableName), argThat(EqualsPrimitiveValue.numberValue(anotherVariableValue)));
   }
 
+  @Test
+  public void testStreamHistoricProcessQuery() {
+    mockStreamedResults(mockedQuery, MockProvider.createMockHistoricProcessInstances());
+
+    given()
+        .queryParam("processInstanceId", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(1))
+        .when()
+          .get(HISTORIC_PROCESS_INSTANCE_STREAM_RESOURCE_URL);
+
+    InOrder inOrder = inOrder(mockedQuery);
+    inOrder.verify(mockedQuery).processInstanceId(MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+    inOrder.verify(mockedQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockedQuery, never()).list();
+  }
+
+  @Test
+  public void testStreamHistoricProcessQueryAsPost() {
+    mockStreamedResults(mockedQuery, MockProvider.createMockHistoricProcessInstances());
+
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("processInstanceId", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+
+    given()
+        .contentType(POST_JSON_CONTENT_TYPE)
+        .body(json)
+        .queryParam("firstResult", 1)
+        .queryParam("maxResults", 10)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", equalTo(0))
+        .when()
+          .post(HISTORIC_PROCESS_INSTANCE_STREAM_RESOURCE_URL);
+
+    verify(mockedQuery).processInstanceId(MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+    verify(mockedQuery).listPage(1, 10);
+    verify(mockedQuery, never()).list();
+  }
+
 }
@@ -2,6 +2,7 @@ package org.camunda.bpm.engine.rest.history;
 
 import static com.jayway.restassured.RestAssured.expect;
 import static com.jayway.restassured.RestAssured.given;
+import static org.camunda.bpm.engine.rest.helper.StreamingQueryAnswer.mockStreamedResults;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
@@ -14,6 +15,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +32,7 @@ import org.camunda.bpm.engine.rest.helper.MockHistoricVariableInstanceBuilder;
 import org.camunda.bpm.engine.rest.helper.MockObjectValue;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
 import org.camunda.bpm.engine.rest.helper.VariableTypeHelper;
+import org.camunda.bpm.engine.rest.impl.QueryStreamingOutput;
 import org.camunda.bpm.engine.rest.util.OrderingBuilder;
 import org.camunda.bpm.engine.variable.Variables;
 import org.camunda.bpm.engine.variable.type.ValueType;
@@ -46,6 +49,8 @@ public abstract class AbstractHistoricVariableInstanceRestServiceQueryTest exten
 
   protected static final String HISTORIC_VARIABLE_INSTANCE_COUNT_RESOURCE_URL = HISTORIC_VARIABLE_INSTANCE_RESOURCE_URL + "/count";
 
+  protected static final String HISTORIC_VARIABLE_INSTANCE_STREAM_RESOURCE_URL = HISTORIC_VARIABLE_INSTANCE_RESOURCE_URL + "/stream";
+
   protected HistoricVariableInstanceQuery mockedQuery;
   protected HistoricVariableInstance mockInstance;
   protected MockHistoricVariableInstanceBuilder mockInstanceBuilder;
@@ -66,6 +71,7 @@ public abstract class AbstractHistoricVariableInstanceRestServiceQueryTest exten
     HistoricVariableInstanceQuery mockedHistoricVariableInstanceQuery = mock(HistoricVariableInstanceQuery.class);
     when(mockedHistoricVariableInstanceQuery.list()).thenReturn(mockedHistoricVariableInstances);
     when(mockedHistoricVariableInstanceQuery.count()).thenReturn((long) mockedHistoricVariableInstances.size());
+    mockStreamedResults(mockedHistoricVariableInstanceQuery, mockedHistoricVariableInstances);
 
     when(processEngine.getHistoryService().createHistoricVariableInstanceQuery()).thenReturn(mockedHistoricVariableInstanceQuery);
 
@@ -312,6 +318,74 @@ public abstract class AbstractHistoricVariableInstanceRestServiceQueryTest exten
     inOrder.verify(mockedQuery).list();
   }
 
+  @Test
+  public void testStreamHistoricVariableQuery() {
+    String processInstanceId = MockProvider.EXAMPLE_PROCESS_INSTANCE_ID;
+
+    given()
+        .queryParam("processInstanceId", processInstanceId)
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", is(1))
+          .body("[0].id", equalTo(mockInstanceBuilder.getId()))
+          .body("[0].name", equalTo(mockInstanceBuilder.getName()))
+          .body("[0].value", equalTo(mockInstanceBuilder.getValue()))
+          .body("[0].processInstanceId", equalTo(mockInstanceBuilder.getProcessInstanceId()))
+      .when()
+        .get(HISTORIC_VARIABLE_INSTANCE_STREAM_RESOURCE_URL);
+
+    InOrder inOrder = inOrder(mockedQuery);
+    inOrder.verify(mockedQuery).processInstanceId(processInstanceId);
+    inOrder.verify(mockedQuery).disableBinaryFetching();
+    inOrder.verify(mockedQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockedQuery, never()).list();
+  }
+
+  @Test
+  public void testStreamHistoricVariableQueryInPages() {
+    int resultCount = QueryStreamingOutput.PAGE_SIZE + 1;
+    mockedQuery = setUpMockHistoricVariableInstanceQuery(Collections.nCopies(resultCount, mockInstance));
+
+    given()
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+        .and()
+          .body("size()", is(resultCount))
+      .when()
+        .get(HISTORIC_VARIABLE_INSTANCE_STREAM_RESOURCE_URL);
+
+    // each page is read by a query of its own
+    InOrder inOrder = inOrder(mockedQuery);
+    inOrder.verify(mockedQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    inOrder.verify(mockedQuery).listPage(QueryStreamingOutput.PAGE_SIZE, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockedQuery, never()).list();
+  }
+
+  @Test
+  public void testStreamHistoricVariableQueryAsPost() {
+    Map<String, Object> json = new HashMap<String, Object>();
+    json.put("processInstanceId", MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+
+    given()
+      .queryParam("deserializeValues", false)
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(json)
+    .then().expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body("size()", is(1))
+      .body("[0].id", equalTo(mockInstanceBuilder.getId()))
+    .when()
+      .post(HISTORIC_VARIABLE_INSTANCE_STREAM_RESOURCE_URL);
+
+    verify(mockedQuery).processInstanceId(MockProvider.EXAMPLE_PROCESS_INSTANCE_ID);
+    verify(mockedQuery).disableCustomObjectDeserialization();
+    verify(mockedQuery).listPage(0, QueryStreamingOutput.PAGE_SIZE);
+    verify(mockedQuery, never()).list();
+  }
+
   @Test
   public void testSimpleHistoricVariableQuery() {
     String processInstanceId = MockProvider.EXAMPLE_PROCESS_INSTANCE_ID;
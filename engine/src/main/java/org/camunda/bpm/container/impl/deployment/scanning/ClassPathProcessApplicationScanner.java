@@ -37,6 +37,9 @@ import org.camunda.bpm.engine.impl.util.IoUtil;
  * <p>Scans all branches of the classpath containing a META-INF/processes.xml
  * file </p>
  *
+ * <p>If the process archive contains a {@link ProcessResourceIndex}, the indexed
+ * resources are read instead of scanning the process archive.</p>
+ *
  * @author Daniel Meyer
  * @author Falko Menge
  */
@@ -92,7 +95,12 @@ public class ClassPathProcessApplicationScanner implements ProcessApplicationSca
         strippedPaResourceRootPath = strippedPaResourceRootPath.endsWith("/") ? strippedPaResourceRootPath : strippedPaResourceRootPath +"/";
       }
 
-      scanUrl(metaFileUrl, strippedPaResourceRootPath, true, additionalResourceSuffixes, resourceMap);
+      ProcessResourceIndex index = ProcessResourceIndex.read(metaFileUrl);
+      if (index != null) {
+        resourceMap.putAll(index.findResources(metaFileUrl, strippedPaResourceRootPath, additionalResourceSuffixes));
+      } else {
+        scanUrl(metaFileUrl, strippedPaResourceRootPath, true, additionalResourceSuffixes, resourceMap);
+      }
 
     }
   }
@@ -0,0 +1,283 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.container.impl.deployment.scanning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+
+/**
+ * <p>An index of the process resources of a process archive which is generated at build time
+ * by the {@link ProcessResourceIndexGenerator} and placed next to the META-INF/processes.xml
+ * file as META-INF/processes.idx. If the index exists, the scanners read the indexed resources
+ * instead of scanning the process archive.</p>
+ *
+ * <p>The index contains one line per resource with the SHA-1 hash of its content and its path
+ * relative to the root of the process archive, separated by a space. Lines starting with
+ * <code>#</code> are comments. Resources with the same hash are read only once.</p>
+ *
+ * <p>The index is not used if the resource root path of the process archive is not local to the
+ * process application, since the resources are then found on the whole classpath.</p>
+ *
+ * <p>The index must be generated again whenever the process resources change, i.e. on every build
+ * (see {@link ProcessResourceIndexGenerator}). Since an outdated index is trusted, indexed resources
+ * which are missing or changed are logged as warnings. Deployable resources which are not indexed
+ * are not deployed. Since finding them means walking the process archive, they are only logged as
+ * warnings if the system property {@value #CHECK_NOT_INDEXED_PROPERTY} is <code>true</code> or
+ * fine logging is enabled, and only if the process archive is a directory.</p>
+ */
+public class ProcessResourceIndex {
+
+  private static Logger log = Logger.getLogger(ProcessResourceIndex.class.getName());
+
+  public static final String INDEX_FILE_NAME = "processes.idx";
+  public static final String HASH_ALGORITHM = "SHA-1";
+  public static final String CHECK_NOT_INDEXED_PROPERTY = "camunda.bpm.processResourceIndex.checkNotIndexed";
+
+  protected static final String CHARSET = "UTF-8";
+  protected static final String COMMENT_PREFIX = "#";
+
+  /** the hashes of the resources by their path relative to the root of the process archive */
+  protected Map<String, String> resourceHashes = new LinkedHashMap<String, String>();
+
+  public void addResource(String resourcePath, byte[] bytes) {
+    resourceHashes.put(resourcePath, hash(bytes));
+  }
+
+  public Map<String, String> getResourceHashes() {
+    return Collections.unmodifiableMap(resourceHashes);
+  }
+
+  /**
+   * @param metaFileUrl the URL to the META-INF/processes.xml file
+   * @return the index of the process archive or <code>null</code> if the process archive has no index
+   */
+  public static ProcessResourceIndex read(URL metaFileUrl) {
+    URL indexUrl;
+    InputStream inputStream;
+    try {
+      indexUrl = new URL(metaFileUrl, INDEX_FILE_NAME);
+      inputStream = indexUrl.openStream();
+    } catch (IOException e) {
+      log.log(Level.FINE, "No process resource index found for {0}", metaFileUrl);
+      return null;
+    }
+
+    try {
+      ProcessResourceIndex index = read(inputStream, indexUrl.toString());
+      log.log(Level.FINE, "Using process resource index {0}", indexUrl);
+      return index;
+    } finally {
+      IoUtil.closeSilently(inputStream);
+    }
+  }
+
+  public static ProcessResourceIndex read(InputStream inputStream, String indexName) {
+    ProcessResourceIndex index = new ProcessResourceIndex();
+    try {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, CHARSET));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.length() == 0 || line.startsWith(COMMENT_PREFIX)) {
+          continue;
+        }
+        int separator = line.indexOf(' ');
+        if (separator <= 0) {
+          throw new ProcessEngineException("Invalid line '" + line + "' in process resource index '" + indexName + "'");
+        }
+        index.resourceHashes.put(line.substring(separator + 1).trim(), line.substring(0, separator));
+      }
+    } catch (IOException e) {
+      throw new ProcessEngineException("Could not read process resource index '" + indexName + "'", e);
+    }
+    return index;
+  }
+
+  public void write(OutputStream outputStream) throws IOException {
+    Writer writer = new OutputStreamWriter(outputStream, CHARSET);
+    writer.write(COMMENT_PREFIX + " process resources: " + HASH_ALGORITHM + " hash and path relative to the process archive root\n");
+    for (Entry<String, String> resource : resourceHashes.entrySet()) {
+      writer.write(resource.getValue() + " " + resource.getKey() + "\n");
+    }
+    writer.flush();
+  }
+
+  /**
+   * Reads the indexed resources which are deployable or diagrams of deployable resources.
+   *
+   * @param metaFileUrl the URL to the META-INF/processes.xml file
+   * @param paLocalResourceRootPath the resource root path relative to the process archive root
+   *          (e.g. "directory/") or <code>null</code>
+   * @param additionalResourceSuffixes a list of additional suffixes for resources
+   * @return the resources by their name relative to the resource root path
+   */
+  public Map<String, byte[]> findResources(URL metaFileUrl, String paLocalResourceRootPath, String[] additionalResourceSuffixes) {
+    String prefix = paLocalResourceRootPath == null ? "" : paLocalResourceRootPath;
+
+    Set<String> modelPaths = new HashSet<String>();
+    for (String resourcePath : resourceHashes.keySet()) {
+      if (resourcePath.startsWith(prefix) && ProcessApplicationScanningUtil.isDeployable(resourcePath, additionalResourceSuffixes)) {
+        modelPaths.add(resourcePath);
+      }
+    }
+
+    Map<String, byte[]> resources = new HashMap<String, byte[]>();
+    Map<String, byte[]> resourcesByHash = new HashMap<String, byte[]>();
+
+    for (Entry<String, String> resource : resourceHashes.entrySet()) {
+      String resourcePath = resource.getKey();
+      if (modelPaths.contains(resourcePath) || (resourcePath.startsWith(prefix) && isDiagram(resourcePath, modelPaths))) {
+        byte[] bytes = resourcesByHash.get(resource.getValue());
+        if (bytes == null) {
+          bytes = readResource(metaFileUrl, resourcePath);
+          if (bytes == null) {
+            log.log(Level.WARNING, "Indexed process resource ''{0}'' of ''{1}'' does not exist, the process resource index is outdated", new Object[] { resourcePath, metaFileUrl });
+            continue;
+          }
+          if (!resource.getValue().equals(hash(bytes))) {
+            log.log(Level.WARNING, "Indexed process resource ''{0}'' of ''{1}'' changed after the process resource index was generated", new Object[] { resourcePath, metaFileUrl });
+          }
+          resourcesByHash.put(resource.getValue(), bytes);
+        }
+
+        String resourceName = resourcePath.substring(prefix.length());
+        log.log(Level.FINEST, "discovered indexed process resource {0}", resourceName);
+        resources.put(resourceName, bytes);
+      }
+    }
+
+    if (Boolean.getBoolean(CHECK_NOT_INDEXED_PROPERTY) || log.isLoggable(Level.FINE)) {
+      for (String resourcePath : findDeployableResourcesNotIndexed(metaFileUrl, prefix, additionalResourceSuffixes)) {
+        log.log(Level.WARNING, "Process resource ''{0}'' of ''{1}'' is not deployed since it is not indexed, the process resource index is outdated", new Object[] { resourcePath, metaFileUrl });
+      }
+    }
+
+    return resources;
+  }
+
+  /**
+   * Lists the deployable resources of a process archive directory which are not indexed. The
+   * resources of other process archives, e.g. jar files, are not listed, since that would mean
+   * scanning them.
+   *
+   * @return the paths of the resources relative to the process archive root
+   */
+  public List<String> findDeployableResourcesNotIndexed(URL metaFileUrl, String paLocalResourceRootPath, String[] additionalResourceSuffixes) {
+    List<String> notIndexedPaths = new ArrayList<String>();
+    if (!"file".equals(metaFileUrl.getProtocol())) {
+      return notIndexedPaths;
+    }
+
+    String prefix = paLocalResourceRootPath == null ? "" : paLocalResourceRootPath;
+    List<String> resourcePaths = new ArrayList<String>();
+    try {
+      // like the class path scanner, decode the path of the file URL
+      File root = new File(URLDecoder.decode(new URL(metaFileUrl, "..").getPath(), CHARSET));
+      ProcessResourceIndexGenerator.collectResourcePaths(root, "", resourcePaths);
+    } catch (IOException e) {
+      log.log(Level.FINE, "Cannot list the resources of process archive " + metaFileUrl, e);
+      return notIndexedPaths;
+    } catch (ProcessEngineException e) {
+      log.log(Level.FINE, "Cannot list the resources of process archive " + metaFileUrl, e);
+      return notIndexedPaths;
+    }
+    for (String resourcePath : resourcePaths) {
+      if (resourcePath.startsWith(prefix)
+          && !resourceHashes.containsKey(resourcePath)
+          && ProcessApplicationScanningUtil.isDeployable(resourcePath, additionalResourceSuffixes)) {
+        notIndexedPaths.add(resourcePath);
+      }
+    }
+    return notIndexedPaths;
+  }
+
+  protected boolean isDiagram(String resourcePath, Set<String> modelPaths) {
+    for (String modelPath : modelPaths) {
+      if (ProcessApplicationScanningUtil.isDiagram(resourcePath, modelPath)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the content of the resource or <code>null</code> if it does not exist
+   */
+  protected byte[] readResource(URL metaFileUrl, String resourcePath) {
+    URL resourceUrl;
+    try {
+      // the process archive root is the parent of the META-INF folder
+      resourceUrl = new URL(metaFileUrl, "../" + resourcePath);
+    } catch (MalformedURLException e) {
+      throw new ProcessEngineException("Invalid path '" + resourcePath + "' in process resource index of '" + metaFileUrl + "'", e);
+    }
+
+    InputStream inputStream;
+    try {
+      inputStream = resourceUrl.openStream();
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (IOException e) {
+      throw new ProcessEngineException("Could not read indexed resource '" + resourcePath + "' of '" + metaFileUrl + "'", e);
+    }
+
+    try {
+      return IoUtil.readInputStream(inputStream, resourcePath);
+    } finally {
+      IoUtil.closeSilently(inputStream);
+    }
+  }
+
+  public static String hash(byte[] bytes) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new ProcessEngineException("Cannot lookup " + HASH_ALGORITHM + " algorithm", e);
+    }
+
+    StringBuilder hash = new StringBuilder();
+    for (byte b : digest.digest(bytes)) {
+      hash.append(Character.forDigit((b >> 4) & 0xf, 16));
+      hash.append(Character.forDigit(b & 0xf, 16));
+    }
+    return hash.toString();
+  }
+
+}
@@ -0,0 +1,156 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.container.impl.deployment.scanning;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+
+/**
+ * <p>Generates the {@link ProcessResourceIndex} of a process archive at build time, e.g. from
+ * the <code>target/classes</code> directory before it is packaged.</p>
+ *
+ * <p>Usage: <code>ProcessResourceIndexGenerator &lt;process archive root directory&gt;
+ * [additional resource suffixes...]</code></p>
+ *
+ * <p>The additional resource suffixes must match the ones of the processes.xml file, since
+ * resources which are not indexed are not deployed.</p>
+ *
+ * <p>The index must be generated on every build which changes the process resources, since the
+ * deployment trusts it. With Maven, the generator can run after the resources were copied,
+ * e.g. with the exec-maven-plugin in the <code>prepare-package</code> phase:</p>
+ *
+ * <pre>
+ * &lt;plugin&gt;
+ *   &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *   &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *   &lt;executions&gt;
+ *     &lt;execution&gt;
+ *       &lt;phase&gt;prepare-package&lt;/phase&gt;
+ *       &lt;goals&gt;&lt;goal&gt;java&lt;/goal&gt;&lt;/goals&gt;
+ *       &lt;configuration&gt;
+ *         &lt;mainClass&gt;org.camunda.bpm.container.impl.deployment.scanning.ProcessResourceIndexGenerator&lt;/mainClass&gt;
+ *         &lt;arguments&gt;&lt;argument&gt;${project.build.outputDirectory}&lt;/argument&gt;&lt;/arguments&gt;
+ *       &lt;/configuration&gt;
+ *     &lt;/execution&gt;
+ *   &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+public class ProcessResourceIndexGenerator {
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.err.println("Usage: " + ProcessResourceIndexGenerator.class.getName() + " <process archive root directory> [additional resource suffixes...]");
+      System.exit(1);
+    }
+
+    File root = new File(args[0]);
+    String[] additionalResourceSuffixes = Arrays.copyOfRange(args, 1, args.length);
+
+    File indexFile = writeIndex(root, additionalResourceSuffixes);
+    System.out.println("Wrote process resource index " + indexFile);
+  }
+
+  /**
+   * Generates the index of the given process archive root directory and writes it to
+   * META-INF/processes.idx.
+   *
+   * @return the index file
+   */
+  public static File writeIndex(File root, String[] additionalResourceSuffixes) {
+    ProcessResourceIndex index = generateIndex(root, additionalResourceSuffixes);
+
+    File indexFile = new File(new File(root, "META-INF"), ProcessResourceIndex.INDEX_FILE_NAME);
+    indexFile.getParentFile().mkdirs();
+
+    OutputStream outputStream = null;
+    try {
+      outputStream = new FileOutputStream(indexFile);
+      index.write(outputStream);
+    } catch (IOException e) {
+      throw new ProcessEngineException("Could not write process resource index '" + indexFile + "'", e);
+    } finally {
+      IoUtil.closeSilently(outputStream);
+    }
+
+    return indexFile;
+  }
+
+  /**
+   * Indexes the deployable resources below the given process archive root directory and
+   * their diagrams.
+   */
+  public static ProcessResourceIndex generateIndex(File root, String[] additionalResourceSuffixes) {
+    if (!root.isDirectory()) {
+      throw new ProcessEngineException("Process archive root '" + root + "' is not a directory");
+    }
+
+    List<String> resourcePaths = new ArrayList<String>();
+    collectResourcePaths(root, "", resourcePaths);
+
+    List<String> modelPaths = new ArrayList<String>();
+    for (String resourcePath : resourcePaths) {
+      if (ProcessApplicationScanningUtil.isDeployable(resourcePath, additionalResourceSuffixes)) {
+        modelPaths.add(resourcePath);
+      }
+    }
+
+    ProcessResourceIndex index = new ProcessResourceIndex();
+    for (String resourcePath : resourcePaths) {
+      if (modelPaths.contains(resourcePath) || index.isDiagram(resourcePath, modelPaths)) {
+        index.addResource(resourcePath, readFile(new File(root, resourcePath)));
+      }
+    }
+    return index;
+  }
+
+  protected static void collectResourcePaths(File directory, String path, List<String> resourcePaths) {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      throw new ProcessEngineException("Could not list the files of directory '" + directory + "'");
+    }
+    // sort the files to generate the same index for the same resources
+    Arrays.sort(files);
+
+    for (File file : files) {
+      if (file.isDirectory()) {
+        collectResourcePaths(file, path + file.getName() + "/", resourcePaths);
+      } else {
+        resourcePaths.add(path + file.getName());
+      }
+    }
+  }
+
+  protected static byte[] readFile(File file) {
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(file);
+      return IoUtil.readInputStream(inputStream, file.getPath());
+    } catch (IOException e) {
+      throw new ProcessEngineException("Could not read file '" + file + "'", e);
+    } finally {
+      IoUtil.closeSilently(inputStream);
+    }
+  }
+
+}
@@ -38,6 +38,9 @@ import org.jboss.vfs.VirtualFileFilter;
  * scanning the process archive for processes.</p>
  * 
  * <p>This implementation should be used on Jboss AS 7</p>
+ *
+ * <p>If the process archive contains a {@link ProcessResourceIndex}, the indexed
+ * resources are read instead of scanning the process archive.</p>
  * 
  * @author Daniel Meyer
  * @author Falko Menge
@@ -75,7 +78,20 @@ public class VfsProcessApplicationScanner implements ProcessApplicationScanner {
     } else {
       
       // 2nd. CASE: no paResourceRootPath specified OR paResourceRootPath is PA-local
+      ProcessResourceIndex index = null;
       if (processesXml != null) {
+        index = ProcessResourceIndex.read(processesXml);
+      }
+
+      if (index != null) {
+        String strippedPath = null;
+        if (resourceRootPath != null) {
+          strippedPath = resourceRootPath.replace("pa:", "");
+          strippedPath = strippedPath.endsWith("/") ? strippedPath : strippedPath + "/";
+        }
+        resources.putAll(index.findResources(processesXml, strippedPath, additionalResourceSuffixes));
+
+      } else if (processesXml != null) {
 
         VirtualFile virtualFile = getVirtualFileForUrl(processesXml);
         // use the parent resource of the META-INF folder
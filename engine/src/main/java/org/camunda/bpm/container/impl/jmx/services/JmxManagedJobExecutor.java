@@ -12,8 +12,11 @@
  */
 package org.camunda.bpm.container.impl.jmx.services;
 
+import org.camunda.bpm.container.impl.RuntimeContainerDelegateImpl;
 import org.camunda.bpm.container.impl.spi.PlatformService;
 import org.camunda.bpm.container.impl.spi.PlatformServiceContainer;
+import org.camunda.bpm.container.impl.spi.ServiceTypes;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutionLane;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 
 /**
@@ -30,10 +33,23 @@ public class JmxManagedJobExecutor implements PlatformService<JobExecutor>, JmxM
 
   public void start(PlatformServiceContainer mBeanServiceContainer) {
     start();
+
+    // expose the thread pools of the execution lanes
+    for (JobExecutionLane executionLane : jobExecutor.getExecutionLanes()) {
+      mBeanServiceContainer.startService(ServiceTypes.BPM_PLATFORM, getExecutionLaneServiceName(executionLane), executionLane.getThreadPool());
+    }
   }
 
   public void stop(PlatformServiceContainer mBeanServiceContainer) {
     shutdown();
+
+    for (JobExecutionLane executionLane : jobExecutor.getExecutionLanes()) {
+      mBeanServiceContainer.stopService(ServiceTypes.BPM_PLATFORM, getExecutionLaneServiceName(executionLane));
+    }
+  }
+
+  protected String getExecutionLaneServiceName(JobExecutionLane executionLane) {
+    return RuntimeContainerDelegateImpl.SERVICE_NAME_EXECUTOR + "-" + executionLane.getName();
   }
 
   public void start() {
@@ -15,6 +15,7 @@ package org.camunda.bpm.container.impl.jmx.services;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +33,10 @@ public class JmxManagedThreadPool extends SeExecutorService implements JmxManage
 
   protected final BlockingQueue<Runnable> threadPoolQueue;
 
+  protected final AtomicLong startedTaskCount = new AtomicLong();
+  protected final AtomicLong totalQueueLatency = new AtomicLong();
+  protected final AtomicLong maxQueueLatency = new AtomicLong();
+
   public JmxManagedThreadPool(BlockingQueue<Runnable> queue, ThreadPoolExecutor executor) {
     super(executor);
     threadPoolQueue = queue;
@@ -61,6 +66,20 @@ public class JmxManagedThreadPool extends SeExecutorService implements JmxManage
 
   }
 
+  protected boolean executeShortRunning(Runnable runnable) {
+    return super.executeShortRunning(new QueueLatencyRecordingRunnable(runnable));
+  }
+
+  protected void recordQueueLatency(long queueLatency) {
+    startedTaskCount.incrementAndGet();
+    totalQueueLatency.addAndGet(queueLatency);
+
+    long currentMax = maxQueueLatency.get();
+    while (queueLatency > currentMax && !maxQueueLatency.compareAndSet(currentMax, queueLatency)) {
+      currentMax = maxQueueLatency.get();
+    }
+  }
+
   public JmxManagedThreadPool getValue() {
     return this;
   }
@@ -109,7 +128,44 @@ public class JmxManagedThreadPool extends SeExecutorService implements JmxManage
     return threadPoolQueue.size();
   }
 
+  public long getAverageQueueLatency() {
+    long count = startedTaskCount.get();
+    if (count == 0) {
+      return 0;
+    }
+    return totalQueueLatency.get() / count;
+  }
+
+  public long getMaxQueueLatency() {
+    return maxQueueLatency.get();
+  }
+
+  public void resetQueueLatency() {
+    startedTaskCount.set(0);
+    totalQueueLatency.set(0);
+    maxQueueLatency.set(0);
+  }
+
   public ThreadPoolExecutor getThreadPoolExecutor() {
     return threadPoolExecutor;
   }
+
+  /**
+   * Records the time a task waited in the queue of the thread pool before it was started.
+   */
+  protected class QueueLatencyRecordingRunnable implements Runnable {
+
+    protected final Runnable delegate;
+    protected final long scheduledTime = System.currentTimeMillis();
+
+    public QueueLatencyRecordingRunnable(Runnable delegate) {
+      this.delegate = delegate;
+    }
+
+    public void run() {
+      recordQueueLatency(System.currentTimeMillis() - scheduledTime);
+      delegate.run();
+    }
+
+  }
 }
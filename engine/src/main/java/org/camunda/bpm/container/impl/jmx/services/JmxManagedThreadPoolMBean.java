@@ -24,6 +24,18 @@ public interface JmxManagedThreadPoolMBean {
 
   public abstract int getQueueCount();
 
+  /**
+   * @return the average time in milliseconds the tasks waited in the queue before they were started
+   */
+  public abstract long getAverageQueueLatency();
+
+  /**
+   * @return the longest time in milliseconds a task waited in the queue before it was started
+   */
+  public abstract long getMaxQueueLatency();
+
+  public abstract void resetQueueLatency();
+
   public abstract long getCompletedTaskCount();
 
   public abstract long getTaskCount();
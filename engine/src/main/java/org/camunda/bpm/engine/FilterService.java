@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine;
 
 import java.util.List;
+import java.util.Map;
 
 import org.camunda.bpm.engine.authorization.Permissions;
 import org.camunda.bpm.engine.authorization.Resources;
@@ -164,4 +165,14 @@ public interface FilterService {
    */
   Long count(String filterId, Query<?, ?> extendingQuery);
 
+  /**
+   * Executes the queries of the filters in one command and returns their result counts.
+   *
+   * @param filterIds the ids of the filters
+   * @return the result counts by the ids of the filters, in the order of the given ids
+   * @throws AuthorizationException if the user has no {@link Permissions#READ} permissions on {@link Resources#FILTER}
+   *   for one of the filters.
+   */
+  Map<String, Long> count(List<String> filterIds);
+
 }
@@ -74,6 +74,20 @@ public interface HistoricActivityInstanceQuery extends Query<HistoricActivityIns
   /** Only select historic activity instances that were started after the given date. */
   HistoricActivityInstanceQuery finishedAfter(Date date);
 
+  /**
+   * Only select historic activity instances which follow the given sort key values in the
+   * ordering of this query. Pass the sort key values of the last activity instance of a page
+   * to fetch the next page with <code>listPage(0, maxResults)</code>.
+   *
+   * <p>The ordering has to end with {@link #orderByHistoricActivityInstanceId()} (the default
+   * ordering is by id). The sort key values are the values of the ordered properties of the last
+   * activity instance in the order of the ordering, ending with its id; they may be
+   * <code>null</code> except for the id.</p>
+   *
+   * @since 7.3
+   */
+  HistoricActivityInstanceQuery afterCursor(Object... sortKeyValues);
+
   // ordering /////////////////////////////////////////////////////////////////
   /** Order by id (needs to be followed by {@link #asc()} or {@link #desc()}). */
   HistoricActivityInstanceQuery orderByHistoricActivityInstanceId();
@@ -162,6 +162,20 @@ public interface HistoricProcessInstanceQuery extends Query<HistoricProcessInsta
   /** Only select historic process instance that are started by the given user. */
   HistoricProcessInstanceQuery startedBy(String userId);
 
+  /**
+   * Only select historic process instances which follow the given sort key values in the
+   * ordering of this query. Pass the sort key values of the last instance of a page to fetch
+   * the next page with <code>listPage(0, maxResults)</code>; unlike paging by offset, the costs
+   * of fetching a page do not grow with its position in the result set.
+   *
+   * <p>The ordering has to end with {@link #orderByProcessInstanceId()} (the default ordering is
+   * by id). The sort key values are the values of the ordered properties of the last instance in
+   * the order of the ordering, ending with its id; they may be <code>null</code> except for the id.</p>
+   *
+   * @since 7.3
+   */
+  HistoricProcessInstanceQuery afterCursor(Object... sortKeyValues);
+
   /** Order by the process instance id (needs to be followed by {@link #asc()} or {@link #desc()}). */
   HistoricProcessInstanceQuery orderByProcessInstanceId();
 
@@ -12,6 +12,7 @@
  */
 package org.camunda.bpm.engine.impl;
 
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotEmpty;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNull;
 
@@ -19,6 +20,8 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,11 +30,15 @@ import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.interceptor.ReadOnlyCommand;
 import org.camunda.bpm.engine.query.Query;
 import org.camunda.bpm.engine.query.QueryProperty;
+import org.camunda.bpm.engine.query.QueryResultHandler;
+import org.camunda.bpm.engine.query.StreamableQuery;
 import org.joda.time.DateTime;
 
 
@@ -40,15 +47,17 @@ import org.joda.time.DateTime;
  *
  * @author Joram Barrez
  */
-public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryParameterObject implements Command<Object>, Query<T,U>, Serializable {
+public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryParameterObject implements Command<Object>, ReadOnlyCommand, Query<T,U>, StreamableQuery<U>, Serializable {
 
   private static final long serialVersionUID = 1L;
 
   public static final String SORTORDER_ASC = "asc";
   public static final String SORTORDER_DESC = "desc";
 
+  protected static final int DEFAULT_STREAMED_PAGE_SIZE = 100;
+
   private static enum ResultType {
-    LIST, LIST_PAGE, SINGLE_RESULT, COUNT
+    LIST, LIST_PAGE, SINGLE_RESULT, COUNT, FOR_EACH
   }
   protected transient CommandExecutor commandExecutor;
   protected transient CommandContext commandContext;
@@ -59,6 +68,14 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
 
   protected Map<String, String> expressions = new HashMap<String, String>();
 
+  protected Object[] afterCursor;
+
+  protected QueryProperty keysetIdProperty;
+
+  protected transient QueryResultHandler<U> resultHandler;
+
+  protected transient List<U> streamedResultPage;
+
   protected AbstractQuery() {
   }
 
@@ -118,6 +135,68 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     }
   }
 
+  /**
+   * Continues the results after the result with the given sort key values
+   * (see {@link #checkKeysetPagination()}).
+   *
+   * @param idProperty the property which orders the results by their id
+   * @param sortKeyValues the values of the ordering properties of the last result, ending with its id
+   */
+  protected void setAfterCursor(QueryProperty idProperty, Object... sortKeyValues) {
+    ensureNotNull("sortKeyValues", sortKeyValues);
+    ensureNotEmpty("sortKeyValues", Arrays.asList(sortKeyValues));
+    ensureNotNull("id", sortKeyValues[sortKeyValues.length - 1]);
+
+    this.afterCursor = sortKeyValues;
+    this.keysetIdProperty = idProperty;
+  }
+
+  /**
+   * Validates the ordering of a query which is paged by a cursor (see {@link #afterCursor}).
+   * The results are only continued correctly after the cursor if the ordering is total, i.e.
+   * if it ends with the ordering by the id of the results. All ordering properties have to
+   * be properties of the selected entity and the cursor has to contain a value for each of them.
+   */
+  protected void checkKeysetPagination() {
+    if (afterCursor == null) {
+      return;
+    }
+
+    List<QueryOrderingProperty> keysetOrderingProperties = getKeysetOrderingProperties();
+
+    for (QueryOrderingProperty orderingProperty : keysetOrderingProperties) {
+      if (orderingProperty.getRelation() != null) {
+        throw new NotValidException("Invalid query: cannot page by cursor if the results are ordered by a property of a related entity");
+      }
+    }
+
+    QueryOrderingProperty lastOrderingProperty = keysetOrderingProperties.get(keysetOrderingProperties.size() - 1);
+    if (!keysetIdProperty.equals(lastOrderingProperty.getQueryProperty())) {
+      throw new NotValidException("Invalid query: the ordering has to end with the ordering by id to page by cursor");
+    }
+
+    if (afterCursor.length != keysetOrderingProperties.size()) {
+      throw new NotValidException("Invalid query: the cursor has to contain one value for each ordering property, expected "
+          + keysetOrderingProperties.size() + " but was " + afterCursor.length);
+    }
+  }
+
+  /**
+   * @return the ordering the cursor refers to, i.e. the ordering by id if the query
+   *   does not specify an ordering
+   */
+  protected List<QueryOrderingProperty> getKeysetOrderingProperties() {
+    if (orderingProperties.isEmpty()) {
+      // equals the default ordering of the results
+      QueryOrderingProperty idOrdering = new QueryOrderingProperty(null, keysetIdProperty);
+      idOrdering.setDirection(Direction.ASCENDING);
+      return Collections.singletonList(idOrdering);
+    }
+    else {
+      return orderingProperties;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public U singleResult() {
     this.resultType = ResultType.SINGLE_RESULT;
@@ -147,6 +226,27 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     return evaluateExpressionsAndExecuteList(Context.getCommandContext(), new Page(firstResult, maxResults));
   }
 
+  public void forEach(QueryResultHandler<U> resultHandler) {
+    ensureNotNull("resultHandler", resultHandler);
+    this.resultType = ResultType.FOR_EACH;
+    this.resultHandler = resultHandler;
+    try {
+      if (commandExecutor!=null) {
+        commandExecutor.execute(this);
+      } else {
+        evaluateExpressionsAndExecuteForEach(Context.getCommandContext());
+      }
+    } finally {
+      this.resultHandler = null;
+    }
+  }
+
+  public void forEachPage(int firstResult, int maxResults, QueryResultHandler<U> resultHandler) {
+    this.firstResult = firstResult;
+    this.maxResults = maxResults;
+    forEach(resultHandler);
+  }
+
   public long count() {
     this.resultType = ResultType.COUNT;
     if (commandExecutor!=null) {
@@ -162,6 +262,9 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
       return executeSingleResult(commandContext);
     } else if (resultType==ResultType.LIST_PAGE) {
       return evaluateExpressionsAndExecuteList(commandContext, null);
+    } else if (resultType==ResultType.FOR_EACH) {
+      evaluateExpressionsAndExecuteForEach(commandContext);
+      return null;
     } else {
       return evaluateExpressionsAndExecuteCount(commandContext);
     }
@@ -185,6 +288,113 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
    */
   public abstract List<U> executeList(CommandContext commandContext, Page page);
 
+  /**
+   * Executes the list query while a result handler is set. The persistence layer
+   * recognizes the query by {@link #isStreaming()} and passes each result to
+   * {@link #handleStreamedResult(Object)} instead of returning it. Queries which
+   * are not answered by the database (e.g. by an identity provider) still return
+   * their results; these are passed to the result handler afterwards.
+   */
+  public void evaluateExpressionsAndExecuteForEach(CommandContext commandContext) {
+    evaluateExpressions();
+
+    if (isStreamedResultInitializationRequired()) {
+      executeForEachInPages(commandContext);
+      return;
+    }
+
+    List<U> results = executeList(commandContext, null);
+
+    if (results != null) {
+      for (U result : results) {
+        resultHandler.handleResult(result);
+      }
+    }
+  }
+
+  /**
+   * Reads the results in pages of <code>queryStreamingFetchSize</code> results. The results of
+   * a page are initialized and passed to the result handler after the page was read completely,
+   * so the statements executed by the initialization do not interfere with the streamed result set.
+   */
+  protected void executeForEachInPages(CommandContext commandContext) {
+    int pageSize = Context.getProcessEngineConfiguration().getQueryStreamingFetchSize();
+    if (pageSize <= 0) {
+      pageSize = DEFAULT_STREAMED_PAGE_SIZE;
+    }
+
+    int originalFirstResult = firstResult;
+    int originalMaxResults = maxResults;
+
+    try {
+      int remainingResults = originalMaxResults;
+      firstResult = originalFirstResult;
+
+      while (remainingResults > 0) {
+        maxResults = Math.min(pageSize, remainingResults);
+        streamedResultPage = new ArrayList<U>();
+
+        List<U> results = executeList(commandContext, null);
+        if (results != null) {
+          // not answered by the database
+          streamedResultPage.addAll(results);
+        }
+
+        List<U> page = streamedResultPage;
+        streamedResultPage = null;
+
+        for (U result : page) {
+          initializeStreamedResult(result);
+          resultHandler.handleResult(result);
+        }
+
+        if (page.size() < maxResults) {
+          break;
+        }
+
+        firstResult += page.size();
+        remainingResults -= page.size();
+      }
+    }
+    finally {
+      firstResult = originalFirstResult;
+      maxResults = originalMaxResults;
+      streamedResultPage = null;
+    }
+  }
+
+  public boolean isStreaming() {
+    return resultHandler != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void handleStreamedResult(Object result) {
+    U typedResult = (U) result;
+    if (streamedResultPage != null) {
+      // initialized after the page was read
+      streamedResultPage.add(typedResult);
+    }
+    else {
+      resultHandler.handleResult(typedResult);
+    }
+  }
+
+  /**
+   * @return true if the streamed results have to be initialized by
+   *   {@link #initializeStreamedResult(Object)}; the results are then streamed in pages
+   */
+  protected boolean isStreamedResultInitializationRequired() {
+    return false;
+  }
+
+  /**
+   * Performs the initialization of a single result which {@link #executeList(CommandContext, Page)}
+   * performs on the list of results, e.g. fetching variable values.
+   */
+  protected void initializeStreamedResult(U result) {
+    // nothing to do by default
+  }
+
   public U executeSingleResult(CommandContext commandContext) {
     List<U> results = evaluateExpressionsAndExecuteList(commandContext, null);
     if (results.size() == 1) {
@@ -212,6 +422,37 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     this.orderingProperties = orderingProperties;
   }
 
+  public Object[] getAfterCursor() {
+    return afterCursor;
+  }
+
+  public QueryProperty getKeysetIdProperty() {
+    return keysetIdProperty;
+  }
+
+  /**
+   * @return the conditions selecting the results which follow the cursor, one for each
+   *   ordering property, or <code>null</code> if the query is not paged by a cursor
+   */
+  public List<QueryKeysetCondition> getKeysetConditions() {
+    if (afterCursor == null) {
+      return null;
+    }
+
+    String databaseType = Context.getProcessEngineConfiguration().getDatabaseType();
+    // postgres, oracle and db2 sort null values as if they were higher than any other value
+    boolean nullsHigh = DbSqlSessionFactory.POSTGRES.equals(databaseType)
+        || DbSqlSessionFactory.ORACLE.equals(databaseType)
+        || DbSqlSessionFactory.DB2.equals(databaseType);
+
+    List<QueryOrderingProperty> keysetOrderingProperties = getKeysetOrderingProperties();
+    List<QueryKeysetCondition> conditions = new ArrayList<QueryKeysetCondition>();
+    for (int i = 0; i < keysetOrderingProperties.size(); i++) {
+      conditions.add(new QueryKeysetCondition(keysetOrderingProperties.get(i), i, afterCursor[i], nullsHigh));
+    }
+    return conditions;
+  }
+
   public Map<String, String> getExpressions() {
     return expressions;
   }
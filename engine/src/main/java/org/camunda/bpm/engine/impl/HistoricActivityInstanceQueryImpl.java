@@ -58,6 +58,12 @@ public class HistoricActivityInstanceQueryImpl extends AbstractQuery<HistoricAct
     super(commandExecutor);
   }
 
+  @Override
+  protected void checkQueryOk() {
+    super.checkQueryOk();
+    checkKeysetPagination();
+  }
+
   @Override
   public long executeCount(CommandContext commandContext) {
     checkQueryOk();
@@ -156,6 +162,11 @@ public class HistoricActivityInstanceQueryImpl extends AbstractQuery<HistoricAct
     return this;
   }
 
+  public HistoricActivityInstanceQueryImpl afterCursor(Object... sortKeyValues) {
+    setAfterCursor(HistoricActivityInstanceQueryProperty.HISTORIC_ACTIVITY_INSTANCE_ID, sortKeyValues);
+    return this;
+  }
+
   // ordering /////////////////////////////////////////////////////////////////
 
   public HistoricActivityInstanceQueryImpl orderByHistoricActivityInstanceDuration() {
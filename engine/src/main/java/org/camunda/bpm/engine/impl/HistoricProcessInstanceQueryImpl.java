@@ -126,6 +126,11 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
     return this;
   }
 
+  public HistoricProcessInstanceQuery afterCursor(Object... sortKeyValues) {
+    setAfterCursor(HistoricProcessInstanceQueryProperty.PROCESS_INSTANCE_ID_, sortKeyValues);
+    return this;
+  }
+
   public HistoricProcessInstanceQuery processDefinitionKeyNotIn(List<String> processDefinitionKeys) {
     ensureNotContainsNull("processDefinitionKeys", processDefinitionKeys);
     ensureNotContainsEmptyString("processDefinitionKeys", processDefinitionKeys);
@@ -204,6 +209,12 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
     return orderBy(HistoricProcessInstanceQueryProperty.PROCESS_INSTANCE_ID_);
   }
 
+  @Override
+  protected void checkQueryOk() {
+    super.checkQueryOk();
+    checkKeysetPagination();
+  }
+
   public long executeCount(CommandContext commandContext) {
     checkQueryOk();
     ensureVariablesInitialized();
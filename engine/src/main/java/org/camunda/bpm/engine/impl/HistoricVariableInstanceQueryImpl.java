@@ -156,21 +156,30 @@ public class HistoricVariableInstanceQueryImpl extends AbstractQuery<HistoricVar
 
     if (historicVariableInstances!=null) {
       for (HistoricVariableInstance historicVariableInstance: historicVariableInstances) {
+        fetchValue((HistoricVariableInstanceEntity) historicVariableInstance);
+      }
+    }
+    return historicVariableInstances;
+  }
 
-        HistoricVariableInstanceEntity variableInstanceEntity = (HistoricVariableInstanceEntity) historicVariableInstance;
-        if (shouldFetchValue(variableInstanceEntity)) {
-          try {
-            variableInstanceEntity.getTypedValue(isCustomObjectDeserializationEnabled);
+  protected boolean isStreamedResultInitializationRequired() {
+    return true;
+  }
+
+  protected void initializeStreamedResult(HistoricVariableInstance historicVariableInstance) {
+    fetchValue((HistoricVariableInstanceEntity) historicVariableInstance);
+  }
 
-          } catch(Exception t) {
-            // do not fail if one of the variables fails to load
-            LOGGER.log(Level.FINE, "Exception while getting value for variable", t);
-          }
-        }
+  protected void fetchValue(HistoricVariableInstanceEntity variableInstanceEntity) {
+    if (shouldFetchValue(variableInstanceEntity)) {
+      try {
+        variableInstanceEntity.getTypedValue(isCustomObjectDeserializationEnabled);
 
+      } catch(Exception t) {
+        // do not fail if one of the variables fails to load
+        LOGGER.log(Level.FINE, "Exception while getting value for variable", t);
       }
     }
-    return historicVariableInstances;
   }
 
   protected boolean shouldFetchValue(HistoricVariableInstanceEntity entity) {
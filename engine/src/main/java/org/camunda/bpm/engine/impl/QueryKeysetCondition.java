@@ -0,0 +1,75 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl;
+
+import java.io.Serializable;
+
+import org.camunda.bpm.engine.impl.db.sql.MybatisJoinHelper;
+
+/**
+ * <p>A QueryKeysetCondition describes the condition one ordering property contributes to
+ * the selection of the results which follow a given result in the ordering of a query
+ * (see {@link AbstractQuery#afterCursor}).</p>
+ *
+ * <p>It is made up of the following:</p>
+ *
+ * <p>
+ * <dl>
+ *   <dt>column</dt>
+ *     <dd>The expression selecting the value of the ordering property.</dd>
+ *   <dt>operator</dt>
+ *     <dd>The operator selecting the values which follow the given value in the direction
+ *     of the ordering.</dd>
+ *   <dt>value</dt>
+ *     <dd>The value of the ordering property of the given result, may be <code>null</code>.</dd>
+ *   <dt>nullsAfter</dt>
+ *     <dd>Whether the database sorts <code>null</code> values after all other values
+ *     in the direction of the ordering.</dd>
+ * <dl>
+ * </p>
+ */
+public class QueryKeysetCondition implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String column;
+  protected String operator;
+  protected Object value;
+  protected boolean nullsAfter;
+
+  public QueryKeysetCondition(QueryOrderingProperty orderingProperty, int index, Object value, boolean nullsHigh) {
+    boolean descending = Direction.DESCENDING.getName().equals(orderingProperty.getDirection().getName());
+
+    this.column = MybatisJoinHelper.orderBySelection(orderingProperty, index);
+    this.operator = descending ? "<" : ">";
+    this.value = value;
+    this.nullsAfter = descending ? !nullsHigh : nullsHigh;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public String getOperator() {
+    return operator;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public boolean isNullsAfter() {
+    return nullsAfter;
+  }
+
+}
@@ -23,6 +23,7 @@ import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
 import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
 
 /**
@@ -60,6 +61,7 @@ public final class SchemaOperationsProcessEngineBuild implements Command<Object>
     DbEntityManager entityManager = commandContext.getSession(DbEntityManager.class);
     checkHistoryLevel(entityManager);
     checkDeploymentLockExists(entityManager);
+    checkAuthorizationRevisionExists(entityManager);
 
     return null;
   }
@@ -92,4 +94,13 @@ public final class SchemaOperationsProcessEngineBuild implements Command<Object>
       log.warning("No deployment lock property found in database.");
     }
   }
+
+  public void checkAuthorizationRevisionExists(DbEntityManager entityManager) {
+    if (Context.getProcessEngineConfiguration().isAuthorizationCacheEnabled()) {
+      PropertyEntity authorizationRevisionProperty = entityManager.selectById(PropertyEntity.class, AuthorizationManager.AUTHORIZATION_REVISION_PROPERTY);
+      if (authorizationRevisionProperty == null) {
+        log.warning("No authorization revision property found in database, the results of authorization checks are not cached.");
+      }
+    }
+  }
 }
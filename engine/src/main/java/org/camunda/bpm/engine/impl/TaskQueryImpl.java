@@ -706,6 +706,11 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
     return this;
   }
 
+  public TaskQuery afterCursor(Object... sortKeyValues) {
+    setAfterCursor(TaskQueryProperty.TASK_ID, sortKeyValues);
+    return this;
+  }
+
   public TaskQuery taskNameCaseInsensitive() {
     this.taskNameCaseInsensitive = true;
     return this;
@@ -880,6 +885,12 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
 
   //results ////////////////////////////////////////////////////////////////
 
+  @Override
+  protected void checkQueryOk() {
+    super.checkQueryOk();
+    checkKeysetPagination();
+  }
+
   public List<Task> executeList(CommandContext commandContext, Page page) {
     ensureVariablesInitialized();
     checkQueryOk();
@@ -897,6 +908,16 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
     return taskList;
   }
 
+  protected boolean isStreamedResultInitializationRequired() {
+    return initializeFormKeys;
+  }
+
+  protected void initializeStreamedResult(Task task) {
+    if(initializeFormKeys) {
+      ((TaskEntity) task).initializeFormKey();
+    }
+  }
+
   public long executeCount(CommandContext commandContext) {
     ensureVariablesInitialized();
     checkQueryOk();
@@ -1504,6 +1525,13 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
       extendedQuery.taskNameCaseInsensitive();
     }
 
+    if (extendingQuery.getAfterCursor() != null) {
+      extendedQuery.afterCursor(extendingQuery.getAfterCursor());
+    }
+    else if (this.getAfterCursor() != null) {
+      extendedQuery.afterCursor(this.getAfterCursor());
+    }
+
     // merge variables
     mergeVariables(extendedQuery, extendingQuery);
 
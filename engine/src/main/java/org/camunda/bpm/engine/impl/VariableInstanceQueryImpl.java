@@ -167,21 +167,30 @@ public class VariableInstanceQueryImpl extends AbstractVariableQueryImpl<Variabl
 
     // iterate over the result array to initialize the value and serialized value of the variable
     for (VariableInstance variableInstance : result) {
-      VariableInstanceEntity variableInstanceEntity = (VariableInstanceEntity) variableInstance;
+      fetchValue((VariableInstanceEntity) variableInstance);
+    }
 
-      if (shouldFetchValue(variableInstanceEntity)) {
-        try {
-          variableInstanceEntity.getTypedValue(isCustomObjectDeserializationEnabled);
+    return result;
+  }
 
-        } catch(Exception t) {
-          // do not fail if one of the variables fails to load
-          LOGGER.log(Level.FINE, "Exception while getting value for variable", t);
-        }
-      }
+  protected boolean isStreamedResultInitializationRequired() {
+    return true;
+  }
 
-    }
+  protected void initializeStreamedResult(VariableInstance variableInstance) {
+    fetchValue((VariableInstanceEntity) variableInstance);
+  }
 
-    return result;
+  protected void fetchValue(VariableInstanceEntity variableInstanceEntity) {
+    if (shouldFetchValue(variableInstanceEntity)) {
+      try {
+        variableInstanceEntity.getTypedValue(isCustomObjectDeserializationEnabled);
+
+      } catch(Exception t) {
+        // do not fail if one of the variables fails to load
+        LOGGER.log(Level.FINE, "Exception while getting value for variable", t);
+      }
+    }
   }
 
   protected boolean shouldFetchValue(VariableInstanceEntity entity) {
@@ -12,7 +12,17 @@
  */
 package org.camunda.bpm.engine.impl.bpmn.behavior;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionManager;
+import org.camunda.bpm.engine.impl.pvm.PvmActivity;
 import org.camunda.bpm.engine.impl.pvm.delegate.ActivityExecution;
 import org.camunda.bpm.engine.impl.pvm.delegate.SignallableActivityBehavior;
 
@@ -48,6 +58,44 @@ public abstract class FlowNodeActivityBehavior implements SignallableActivityBeh
     bpmnActivityBehavior.performIgnoreConditionsOutgoingBehavior(activityContext);
   }
 
+  /**
+   * Locks the row of the concurrent root and returns the ids of its child executions which are
+   * inactive in the given activity: the given executions which are known to this transaction
+   * and the executions which became inactive in the activity in a committed transaction after
+   * they were cached by this transaction. Transactions which call this method for the same
+   * concurrent root are serialized by the lock, so that each of them sees the inactive
+   * executions of the transactions before. The child executions are read with a locking read,
+   * which sees the committed rows also if the transaction isolation is repeatable read.
+   */
+  protected Set<String> lockAndFindInactiveExecutionIds(ActivityExecution concurrentRoot, PvmActivity activity, List<ActivityExecution> knownInactiveExecutions) {
+    ExecutionEntity concurrentRootEntity = (ExecutionEntity) concurrentRoot;
+    ExecutionManager executionManager = Context.getCommandContext().getExecutionManager();
+
+    // the lock must be acquired before the committed executions are read
+    executionManager.lockExecution(concurrentRootEntity);
+
+    Set<String> inactiveExecutionIds = new HashSet<String>();
+    for (ActivityExecution knownInactiveExecution : knownInactiveExecutions) {
+      inactiveExecutionIds.add(knownInactiveExecution.getId());
+    }
+
+    Map<String, ExecutionEntity> knownExecutions = new HashMap<String, ExecutionEntity>();
+    for (ExecutionEntity childExecution : concurrentRootEntity.getExecutions()) {
+      knownExecutions.put(childExecution.getId(), childExecution);
+    }
+
+    for (ExecutionEntity committedExecution : executionManager.findCommittedChildExecutions(concurrentRootEntity.getId())) {
+      if (activity.getId().equals(committedExecution.getActivityId()) && !committedExecution.isActive()) {
+        ExecutionEntity knownExecution = knownExecutions.get(committedExecution.getId());
+        if (knownExecution == null || knownExecution.getRevision() != committedExecution.getRevision()) {
+          inactiveExecutionIds.add(committedExecution.getId());
+        }
+      }
+    }
+
+    return inactiveExecutionIds;
+  }
+
   public void signal(ActivityExecution execution, String signalName, Object signalData) throws Exception {
     // concrete activity behaviours that do accept signals should override this method;
     throw new ProcessEngineException("this activity doesn't accept signals");
@@ -17,6 +17,7 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -113,6 +114,10 @@ public abstract class MultiInstanceActivityBehavior extends FlowNodeActivityBeha
   }
 
   protected Object getElementAtIndex(int i, Collection<?> collection) {
+    if (collection instanceof List) {
+      return ((List<?>) collection).get(i);
+    }
+
     Object value = null;
     int index = 0;
     Iterator<?> it = collection.iterator();
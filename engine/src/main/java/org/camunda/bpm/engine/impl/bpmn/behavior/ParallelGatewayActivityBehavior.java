@@ -14,9 +14,12 @@
 package org.camunda.bpm.engine.impl.bpmn.behavior;
 
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.pvm.PvmActivity;
 import org.camunda.bpm.engine.impl.pvm.PvmTransition;
 import org.camunda.bpm.engine.impl.pvm.delegate.ActivityExecution;
@@ -60,9 +63,16 @@ public class ParallelGatewayActivityBehavior extends GatewayActivityBehavior {
     List<PvmTransition> outgoingTransitions = execution.getActivity().getOutgoingTransitions();
     
     execution.inactivate();
-    lockConcurrentRoot(execution);
-    
-    List<ActivityExecution> joinedExecutions = execution.findInactiveConcurrentExecutions(activity);
+
+    List<ActivityExecution> joinedExecutions;
+    if (execution.isConcurrent() && isConflictFreeJoinEnabled()) {
+      joinedExecutions = findJoinedExecutions(execution, activity);
+
+    } else {
+      lockConcurrentRoot(execution);
+      joinedExecutions = execution.findInactiveConcurrentExecutions(activity);
+    }
+
     int nbrOfExecutionsToJoin = execution.getActivity().getIncomingTransitions().size();
     int nbrOfExecutionsJoined = joinedExecutions.size();
     
@@ -77,4 +87,29 @@ public class ParallelGatewayActivityBehavior extends GatewayActivityBehavior {
     }
   }
 
+  protected boolean isConflictFreeJoinEnabled() {
+    return Context.getProcessEngineConfiguration().isConflictFreeJoinEnabled();
+  }
+
+  /**
+   * Finds the joined executions without updating the concurrent root. If an execution which
+   * arrived in another transaction is not known to this transaction yet and completes the
+   * join, an {@link OptimisticLockingException} is thrown, so that the join is retried with
+   * the current state of the executions.
+   */
+  protected List<ActivityExecution> findJoinedExecutions(ActivityExecution execution, PvmActivity activity) {
+    List<ActivityExecution> joinedExecutions = execution.findInactiveConcurrentExecutions(activity);
+    int nbrOfExecutionsToJoin = activity.getIncomingTransitions().size();
+
+    if (joinedExecutions.size() < nbrOfExecutionsToJoin) {
+      Set<String> arrivedExecutionIds = lockAndFindInactiveExecutionIds(execution.getParent(), activity, joinedExecutions);
+      if (arrivedExecutionIds.size() > joinedExecutions.size() && arrivedExecutionIds.size() >= nbrOfExecutionsToJoin) {
+        throw new OptimisticLockingException("Could not join " + execution + " at parallel gateway '" + activity.getId()
+            + "'. Executions arrived at the gateway in another transaction concurrently");
+      }
+    }
+
+    return joinedExecutions;
+  }
+
 }
@@ -14,7 +14,15 @@ package org.camunda.bpm.engine.impl.bpmn.behavior;
 
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Set;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.jobexecutor.MultiInstanceBatchJobHandler;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.PvmActivity;
 import org.camunda.bpm.engine.impl.pvm.delegate.ActivityExecution;
 import org.camunda.bpm.engine.impl.pvm.runtime.PvmExecutionImpl;
 
@@ -24,6 +32,9 @@ import org.camunda.bpm.engine.impl.pvm.runtime.PvmExecutionImpl;
  */
 public class ParallelMultiInstanceActivityBehavior extends MultiInstanceActivityBehavior {
 
+  // the batch size with which the instances are created, if they are created in batches
+  protected final String NUMBER_OF_INSTANCES_PER_BATCH = "nrOfInstancesPerBatch";
+
   protected void createInstances(ActivityExecution execution, int nrOfInstances) throws Exception {
 
     // set the MI-body scoped variables
@@ -31,9 +42,50 @@ public class ParallelMultiInstanceActivityBehavior extends MultiInstanceActivity
     setLoopVariable(execution, NUMBER_OF_COMPLETED_INSTANCES, 0);
     setLoopVariable(execution, NUMBER_OF_ACTIVE_INSTANCES, nrOfInstances);
 
+    // the batch size is kept with the execution, so that a changed configuration does not
+    // affect the activities which are already creating their instances
+    int batchSize = getBatchSize();
+    if (batchSize > 0 && nrOfInstances > batchSize) {
+      setLoopVariable(execution, NUMBER_OF_INSTANCES_PER_BATCH, batchSize);
+    }
+
+    createInstanceBatch(execution, 0);
+
+    // inactivate this execution unless all child executions are already joined
+    if(!execution.getExecutions().isEmpty()) {
+      execution.inactivate();
+    }
+
+  }
+
+  /**
+   * Creates and starts the instances from the given loop counter on. If the instances are
+   * created in batches, at most one batch is created and a job is scheduled which creates the
+   * next batch.
+   */
+  public void createInstanceBatch(ActivityExecution execution, int fromLoopCounter) {
+    int nrOfInstances = getLoopVariable(execution, NUMBER_OF_INSTANCES);
+    int toLoopCounter = nrOfInstances;
+
+    Integer batchSize = getLocalLoopVariable(execution, NUMBER_OF_INSTANCES_PER_BATCH);
+    if (batchSize != null) {
+      toLoopCounter = Math.min(nrOfInstances, fromLoopCounter + batchSize);
+
+      if (fromLoopCounter > 0) {
+        // conflict with instances which complete concurrently, so that they see the created instances
+        execution.forceUpdate();
+      }
+
+      // the job is scheduled first, so that it is deleted with the execution if the
+      // completion condition is satisfied by the instances of this batch
+      if (toLoopCounter < nrOfInstances) {
+        scheduleInstanceBatch((ExecutionEntity) execution, toLoopCounter);
+      }
+    }
+
     // create the concurrent child executions
     List<ActivityExecution> concurrentExecutions = new ArrayList<ActivityExecution>();
-    for (int i = 0; i < nrOfInstances; i++) {
+    for (int i = fromLoopCounter; i < toLoopCounter; i++) {
       ActivityExecution concurrentChild = execution.createExecution();
       concurrentChild.setConcurrent(true);
       concurrentChild.setScope(false);
@@ -41,22 +93,35 @@ public class ParallelMultiInstanceActivityBehavior extends MultiInstanceActivity
     }
 
     // start the concurrent child executions
-    for (int i = 0; i < nrOfInstances; i++) {
+    for (int i = 0; i < concurrentExecutions.size(); i++) {
       ActivityExecution activityExecution = concurrentExecutions.get(i);
       // check for active execution: the completion condition may be satisfied before all executions are started
       if(activityExecution.isActive()) {
-        performInstance(activityExecution, i);
+        performInstance(activityExecution, fromLoopCounter + i);
       }
     }
+  }
 
-    // inactivate this execution unless all child executions are already joined
-    if(!execution.getExecutions().isEmpty()) {
-      execution.inactivate();
-    }
+  protected void scheduleInstanceBatch(ExecutionEntity execution, int fromLoopCounter) {
+    MessageEntity message = new MessageEntity();
+    message.setJobHandlerType(MultiInstanceBatchJobHandler.TYPE);
+    message.setJobHandlerConfiguration(Integer.toString(fromLoopCounter));
+    message.setActivityId(execution.getActivityId());
+    message.setExecutionId(execution.getId());
+    message.setProcessInstanceId(execution.getProcessInstanceId());
+
+    ProcessDefinitionEntity processDefinition = (ProcessDefinitionEntity) execution.getProcessDefinition();
+    message.setProcessDefinitionId(processDefinition.getId());
+    message.setProcessDefinitionKey(processDefinition.getKey());
 
+    Context.getCommandContext().getJobManager().send(message);
   }
 
   public void concurrentChildExecutionEnded(ActivityExecution scopeExecution, ActivityExecution endedExecution) {
+    if (isConflictFreeMultiInstanceEnabled()) {
+      concurrentChildExecutionEndedWithoutConflicts(scopeExecution, endedExecution);
+      return;
+    }
 
     int nrOfCompletedInstances = getLoopVariable(scopeExecution, NUMBER_OF_COMPLETED_INSTANCES) + 1;
     setLoopVariable(scopeExecution, NUMBER_OF_COMPLETED_INSTANCES, nrOfCompletedInstances);
@@ -82,8 +147,69 @@ public class ParallelMultiInstanceActivityBehavior extends MultiInstanceActivity
     }
   }
 
+  /**
+   * Completes an instance without updating the scope execution or its loop counters, so that
+   * instances which complete in concurrent transactions do not conflict. The counters are
+   * computed from the completed instances and set as local variables of the completed instance,
+   * where the completion condition reads them. The counters of the scope execution keep their
+   * initial values until the activity completes.
+   */
+  protected void concurrentChildExecutionEndedWithoutConflicts(ActivityExecution scopeExecution, ActivityExecution endedExecution) {
+    PvmActivity activity = endedExecution.getActivity();
+
+    // inactivate the concurrent execution
+    endedExecution.inactivate();
+
+    List<ActivityExecution> completedExecutions = endedExecution.findInactiveConcurrentExecutions(activity);
+    Set<String> completedExecutionIds = lockAndFindInactiveExecutionIds(scopeExecution, activity, completedExecutions);
+
+    int nrOfInstances = getLoopVariable(scopeExecution, NUMBER_OF_INSTANCES);
+    int nrOfCompletedInstances = completedExecutionIds.size();
+    setLoopVariable(endedExecution, NUMBER_OF_COMPLETED_INSTANCES, nrOfCompletedInstances);
+    setLoopVariable(endedExecution, NUMBER_OF_ACTIVE_INSTANCES, nrOfInstances - nrOfCompletedInstances);
+
+    if(completionConditionSatisfied(endedExecution) ||
+        nrOfCompletedInstances == getNrOfInstancesToComplete(scopeExecution)) {
+
+      if (nrOfCompletedInstances > completedExecutions.size()) {
+        throw new OptimisticLockingException("Could not complete " + scopeExecution + " at multi-instance activity '" + activity.getId()
+            + "'. Instances completed in another transaction concurrently");
+      }
+
+      setLoopVariable(scopeExecution, NUMBER_OF_COMPLETED_INSTANCES, nrOfCompletedInstances);
+      setLoopVariable(scopeExecution, NUMBER_OF_ACTIVE_INSTANCES, nrOfInstances - nrOfCompletedInstances);
+
+      ArrayList<ActivityExecution> childExecutions = new ArrayList<ActivityExecution>(scopeExecution.getExecutions());
+      for (ActivityExecution childExecution : childExecutions) {
+        ((PvmExecutionImpl)childExecution).deleteCascade("Multi instance completion condition satisfied.");
+      }
+
+      scopeExecution.setActive(true);
+      leave(scopeExecution);
+    }
+  }
+
+  protected boolean isConflictFreeMultiInstanceEnabled() {
+    return Context.getProcessEngineConfiguration().isConflictFreeMultiInstanceEnabled();
+  }
+
+  protected int getBatchSize() {
+    return Context.getProcessEngineConfiguration().getParallelMultiInstanceBatchSize();
+  }
+
+  /**
+   * @return the number of instances which must be completed to complete the activity. While
+   * the instances are created in batches, not all of them have a child execution yet.
+   */
+  protected int getNrOfInstancesToComplete(ActivityExecution scopeExecution) {
+    if (getLocalLoopVariable(scopeExecution, NUMBER_OF_INSTANCES_PER_BATCH) != null) {
+      return getLoopVariable(scopeExecution, NUMBER_OF_INSTANCES);
+    }
+    return scopeExecution.getExecutions().size();
+  }
+
   protected boolean allExecutionsEnded(ActivityExecution scopeExecution, ActivityExecution endedExecution) {
-    return endedExecution.findInactiveConcurrentExecutions(endedExecution.getActivity()).size() == scopeExecution.getExecutions().size();
+    return endedExecution.findInactiveConcurrentExecutions(endedExecution.getActivity()).size() == getNrOfInstancesToComplete(scopeExecution);
   }
 
   public void complete(ActivityExecution scopeExecution) {
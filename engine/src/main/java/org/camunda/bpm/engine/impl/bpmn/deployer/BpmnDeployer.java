@@ -16,12 +16,19 @@ import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.camunda.bpm.application.ProcessApplicationReference;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.delegate.Expression;
 import org.camunda.bpm.engine.impl.bpmn.diagram.ProcessDiagramGenerator;
@@ -29,6 +36,7 @@ import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
 import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParser;
 import org.camunda.bpm.engine.impl.bpmn.parser.EventSubscriptionDeclaration;
 import org.camunda.bpm.engine.impl.cfg.IdGenerator;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cmd.DeleteJobsCmd;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.el.ExpressionManager;
@@ -73,6 +81,7 @@ public class BpmnDeployer implements Deployer {
   protected ExpressionManager expressionManager;
   protected BpmnParser bpmnParser;
   protected IdGenerator idGenerator;
+  protected ExecutorService parseExecutor;
 
   public void deploy(DeploymentEntity deployment) {
     LOG.fine("Processing deployment " + deployment.getName());
@@ -81,27 +90,12 @@ public class BpmnDeployer implements Deployer {
     List<ProcessDefinitionEntity> processDefinitions = new ArrayList<ProcessDefinitionEntity>();
     Map<String, ResourceEntity> resources = deployment.getResources();
 
-    for (String resourceName : resources.keySet()) {
-      BpmnParse bpmnParse = null;
+    // parse (and validate) all resources before the process definitions are processed
+    Map<String, BpmnParse> bpmnParses = parseResources(deployment);
 
-      LOG.fine("Processing resource " + resourceName);
+    for (String resourceName : resources.keySet()) {
       if (isBpmnResource(resourceName)) {
-        ResourceEntity resource = resources.get(resourceName);
-        byte[] bytes = resource.getBytes();
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
-
-
-        bpmnParse = bpmnParser
-          .createParse()
-          .sourceInputStream(inputStream)
-          .deployment(deployment)
-          .name(resourceName);
-
-        if (!deployment.isValidatingSchema()) {
-          bpmnParse.setSchemaResource(null);
-        }
-
-        bpmnParse.execute();
+        BpmnParse bpmnParse = bpmnParses.get(resourceName);
 
         for (ProcessDefinitionEntity processDefinition: bpmnParse.getProcessDefinitions()) {
           processDefinition.setResourceName(resourceName);
@@ -182,6 +176,112 @@ public class BpmnDeployer implements Deployer {
     }
   }
 
+  /**
+   * Parses the BPMN resources of the deployment. If a {@link #setParseExecutor(ExecutorService) parse executor}
+   * is set, the resources are parsed and validated concurrently by its threads. These threads use the
+   * context class loader and the current process application of the deploying thread.
+   *
+   * @return the parses by the names of the parsed resources
+   */
+  protected Map<String, BpmnParse> parseResources(final DeploymentEntity deployment) {
+    Map<String, ResourceEntity> resources = deployment.getResources();
+    Map<String, BpmnParse> bpmnParses = new LinkedHashMap<String, BpmnParse>();
+
+    List<String> bpmnResourceNames = new ArrayList<String>();
+    for (String resourceName : resources.keySet()) {
+      if (isBpmnResource(resourceName)) {
+        bpmnResourceNames.add(resourceName);
+      }
+    }
+
+    if (parseExecutor == null || bpmnResourceNames.size() < 2) {
+      for (String resourceName : bpmnResourceNames) {
+        bpmnParses.put(resourceName, parseResource(deployment, resources.get(resourceName)));
+      }
+      return bpmnParses;
+    }
+
+    // the parsing threads see the context of the deploying thread, so that classes and resources
+    // (e.g. form handlers and imported WSDL files) are loaded from the deploying process application
+    final ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    final ProcessApplicationReference processApplicationReference = Context.getCurrentProcessApplication();
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    Map<String, Future<BpmnParse>> futures = new LinkedHashMap<String, Future<BpmnParse>>();
+
+    try {
+      for (String resourceName : bpmnResourceNames) {
+        final ResourceEntity resource = resources.get(resourceName);
+        futures.put(resourceName, parseExecutor.submit(new Callable<BpmnParse>() {
+          public BpmnParse call() throws Exception {
+            Thread currentThread = Thread.currentThread();
+            ClassLoader parseThreadClassLoader = currentThread.getContextClassLoader();
+
+            currentThread.setContextClassLoader(contextClassLoader);
+            Context.setProcessEngineConfiguration(processEngineConfiguration);
+            if (processApplicationReference != null) {
+              Context.setCurrentProcessApplication(processApplicationReference);
+            }
+            try {
+              return parseResource(deployment, resource);
+
+            } finally {
+              if (processApplicationReference != null) {
+                Context.removeCurrentProcessApplication();
+              }
+              Context.removeProcessEngineConfiguration();
+              currentThread.setContextClassLoader(parseThreadClassLoader);
+            }
+          }
+        }));
+      }
+
+      for (Entry<String, Future<BpmnParse>> future : futures.entrySet()) {
+        bpmnParses.put(future.getKey(), future.getValue().get());
+      }
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new ProcessEngineException("couldn't parse resources of deployment '" + deployment.getName() + "': " + cause.getMessage(), cause);
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessEngineException("interrupted while parsing resources of deployment '" + deployment.getName() + "'", e);
+
+    } finally {
+      for (Future<BpmnParse> future : futures.values()) {
+        future.cancel(true);
+      }
+    }
+
+    return bpmnParses;
+  }
+
+  protected BpmnParse parseResource(DeploymentEntity deployment, ResourceEntity resource) {
+    String resourceName = resource.getName();
+    LOG.fine("Processing resource " + resourceName);
+
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(resource.getBytes());
+
+    BpmnParse bpmnParse = bpmnParser
+      .createParse()
+      .sourceInputStream(inputStream)
+      .deployment(deployment)
+      .name(resourceName);
+
+    if (!deployment.isValidatingSchema()) {
+      bpmnParse.setSchemaResource(null);
+    }
+
+    bpmnParse.execute();
+    return bpmnParse;
+  }
+
   protected void updateJobDeclarations(List<JobDeclaration<?>> jobDeclarations, ProcessDefinition processDefinition, boolean isNewDeployment) {
 
     if(jobDeclarations == null || jobDeclarations.isEmpty()) {
@@ -478,6 +578,18 @@ public class BpmnDeployer implements Deployer {
     this.bpmnParser = bpmnParser;
   }
 
+  public ExecutorService getParseExecutor() {
+    return parseExecutor;
+  }
+
+  /**
+   * Sets the executor which parses the resources of a deployment concurrently. If <code>null</code>,
+   * the resources are parsed one after another by the deploying thread.
+   */
+  public void setParseExecutor(ExecutorService parseExecutor) {
+    this.parseExecutor = parseExecutor;
+  }
+
   public IdGenerator getIdGenerator() {
     return idGenerator;
   }
@@ -31,6 +31,11 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -84,6 +89,7 @@ import org.camunda.bpm.engine.impl.calendar.MapBusinessCalendarManager;
 import org.camunda.bpm.engine.impl.cfg.auth.DefaultAuthorizationProvider;
 import org.camunda.bpm.engine.impl.cfg.auth.ResourceAuthorizationProvider;
 import org.camunda.bpm.engine.impl.cfg.standalone.StandaloneTransactionContextFactory;
+import org.camunda.bpm.engine.impl.cmd.WarmUpProcessEngineCmd;
 import org.camunda.bpm.engine.impl.cmmn.CaseServiceImpl;
 import org.camunda.bpm.engine.impl.cmmn.deployer.CmmnDeployer;
 import org.camunda.bpm.engine.impl.cmmn.entity.repository.CaseDefinitionManager;
@@ -94,11 +100,16 @@ import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformFactory;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformListener;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformer;
 import org.camunda.bpm.engine.impl.cmmn.transformer.DefaultCmmnTransformFactory;
+import org.camunda.bpm.engine.impl.db.AuthorizationCache;
 import org.camunda.bpm.engine.impl.db.DbIdGenerator;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManagerFactory;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCacheKeyMapping;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryDatabase;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryPersistenceProviderFactory;
+import org.camunda.bpm.engine.impl.db.sql.DbReadReplica;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlPersistenceProviderFactory;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.db.sql.QueryStreamingFetchSizeInterceptor;
 import org.camunda.bpm.engine.impl.delegate.DefaultDelegateInterceptor;
 import org.camunda.bpm.engine.impl.digest.PasswordEncryptor;
 import org.camunda.bpm.engine.impl.digest.ShaHashDigest;
@@ -109,6 +120,7 @@ import org.camunda.bpm.engine.impl.event.CompensationEventHandler;
 import org.camunda.bpm.engine.impl.event.EventHandler;
 import org.camunda.bpm.engine.impl.event.MessageEventHandler;
 import org.camunda.bpm.engine.impl.event.SignalEventHandler;
+import org.camunda.bpm.engine.impl.filter.FilterCache;
 import org.camunda.bpm.engine.impl.form.engine.FormEngine;
 import org.camunda.bpm.engine.impl.form.engine.HtmlFormEngine;
 import org.camunda.bpm.engine.impl.form.engine.JuelFormEngine;
@@ -153,6 +165,7 @@ import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.FailedJobCommandFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.MultiInstanceBatchJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.ProcessEventJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.RejectedJobsHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerActivateJobDefinitionHandler;
@@ -192,6 +205,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.PropertyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ResourceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterManager;
 import org.camunda.bpm.engine.impl.persistence.entity.StatisticsManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TableDataManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskManager;
@@ -213,6 +227,7 @@ import org.camunda.bpm.engine.impl.util.ReflectUtil;
 import org.camunda.bpm.engine.impl.variable.ValueTypeResolverImpl;
 import org.camunda.bpm.engine.impl.variable.serializer.BooleanValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.ByteArrayValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.DateValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.DefaultVariableSerializers;
 import org.camunda.bpm.engine.impl.variable.serializer.DoubleValueSerializer;
@@ -427,6 +442,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected boolean isExecutionTreePrefetchEnabled = true;
 
+  /**
+   * If true and the execution tree is prefetched, the tasks, jobs, event subscriptions and incidents
+   * of a process instance are fetched with one query per entity type as soon as they are needed for
+   * one of its executions, instead of one query per execution. This saves queries for process
+   * instances with many concurrent executions, but also fetches the entities of executions which
+   * the command does not touch. Disabled by default.
+   */
+  protected boolean isDependentEntityPrefetchEnabled = false;
+
   /** If true the process engine will attempt to acquire an exclusive lock before
    * creating a deployment.
    */
@@ -439,6 +463,183 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected boolean isInvokeCustomVariableListeners = true;
 
+  /** If true, the process engine maintains the counters of the runtime statistics
+   * (instances, failed jobs and incidents per process definition and activity) as part of
+   * each flush and answers process definition and activity statistics queries from them
+   * instead of aggregating the runtime tables. Databases which already contain runtime
+   * data must be initialized once using the
+   * {@link org.camunda.bpm.engine.impl.cmd.RebuildRuntimeStatisticsCountersCmd}.
+   */
+  protected boolean isRuntimeStatisticsCountersEnabled = false;
+
+  /** The number of rows each runtime statistics counter is split into. */
+  protected int runtimeStatisticsCounterStripes = 8;
+
+  /** The JDBC fetch size used for queries whose results are streamed to a
+   * {@link org.camunda.bpm.engine.query.QueryResultHandler}. <code>0</code> keeps the
+   * default of the driver. Note that MySQL only streams results with a fetch size of
+   * {@link Integer#MIN_VALUE} (or if cursor fetching is enabled on the connection).
+   * Results which are completed by further statements are streamed in pages of this size.
+   */
+  protected int queryStreamingFetchSize = 100;
+
+  /**
+   * If true, {@link #buildProcessEngine()} warms up the process engine before it returns:
+   * the mapped statements are resolved and the latest process and case definitions are
+   * loaded into the deployment cache. The first commands after the start are then as
+   * fast as later ones. Since the warm-up is done before the process engine is returned
+   * (and registered with the runtime container), the start of the process engine can
+   * be used to gate the readiness of the application.
+   */
+  protected boolean warmUpEnabled = false;
+
+  protected volatile boolean warmUpCompleted = false;
+
+  /**
+   * If true, atomic operations which continue an execution after a sequence flow was taken
+   * are not invoked recursively but queued in the
+   * {@link org.camunda.bpm.engine.impl.interceptor.CommandContext} and invoked by the
+   * outermost atomic operation of the command. The stack depth then no longer grows with the
+   * number of activities an execution passes without reaching a wait state.
+   */
+  protected boolean atomicOperationLoopEnabled = false;
+
+  /**
+   * If true, an execution which arrives at a parallel gateway join locks the row of its
+   * concurrent root instead of updating it, and counts the arrived executions as committed
+   * in the database. Arrivals in concurrent transactions then wait for each other instead of
+   * failing with an {@link org.camunda.bpm.engine.OptimisticLockingException}, and only the
+   * last arriving execution updates the concurrent root.
+   *
+   * <p>The lock trades the retries for waiting: the arrivals at the joins of one concurrent root
+   * are serialized, each holding the lock until its transaction commits. On h2 without MVCC the
+   * lock is a table lock, which serializes the arrivals at all joins of the engine.</p>
+   */
+  protected boolean conflictFreeJoinEnabled = false;
+
+  /**
+   * If true, a completing instance of a parallel multi-instance activity does not update the
+   * loop counters of the multi-instance body. It locks the row of the scope execution instead,
+   * counts the completed instances as committed in the database and sets the counters as local
+   * variables of the completed instance, where the completion condition reads them. The
+   * counters of the multi-instance body are updated when it completes.
+   *
+   * <p>Until then, the counters of the multi-instance body keep the values which were set when
+   * the instances were created: expressions and API calls which read nrOfCompletedInstances or
+   * nrOfActiveInstances from the body instead of a completed instance see these initial values.
+   * The lock serializes the completions of the instances of one multi-instance body, each
+   * holding it until its transaction commits.</p>
+   */
+  protected boolean conflictFreeMultiInstanceEnabled = false;
+
+  /**
+   * The maximum number of instances which a parallel multi-instance activity creates in one
+   * transaction. If an activity has more instances, the first batch is created in the current
+   * transaction and each following batch is created by a job, so that the transactions stay
+   * small. With <code>0</code>, all instances are created in the current transaction.
+   */
+  protected int parallelMultiInstanceBatchSize = 0;
+
+  /**
+   * The number of threads which parse and validate the BPMN resources of a deployment
+   * concurrently. With <code>1</code>, the resources are parsed one after another by the
+   * deploying thread. The parsing threads use the context class loader and the process
+   * application of the deploying thread. Since custom {@link BpmnParseListener}s are not
+   * required to be thread-safe, the resources are always parsed one after another if
+   * custom pre or post parse listeners are configured.
+   */
+  protected int deploymentParseThreads = 1;
+
+  protected ExecutorService deploymentParseExecutor;
+
+  /**
+   * If true, messages (e.g. asynchronous continuations) which are created by a command and are
+   * due immediately are inserted already locked by the job executor of this process engine and
+   * are passed to it directly after the transaction committed, i.e. without being acquired.
+   * If the job executor cannot take them, they are unlocked and acquired as usual.
+   */
+  protected boolean localJobHandoffEnabled = false;
+
+  /**
+   * Object variables serialized in the compact binary format which are larger than this
+   * number of bytes are deflated. With <code>0</code>, they are never deflated.
+   */
+  protected int compactBinaryCompressionThreshold = 0;
+
+  /**
+   * Byte arrays (e.g. resources, serialized variables and exception stack traces) which are
+   * larger than this number of bytes are stored compressed. With <code>0</code>, byte arrays
+   * are stored uncompressed. Compressed byte arrays are read regardless of this setting.
+   */
+  protected int byteArrayCompressionThreshold = 0;
+
+  /**
+   * If true, the results of authorization checks on single resources are cached. The cache is
+   * invalidated by a revision counter in the database which is incremented whenever authorizations
+   * are changed. All process engines which share the database must enable the cache, otherwise
+   * changes made by the other process engines do not invalidate it. Checks on tasks are not cached,
+   * so that the task authorizations created on every assignment do not invalidate the cache.
+   */
+  protected boolean authorizationCacheEnabled = false;
+
+  /**
+   * The maximum number of authorization check results which are cached.
+   */
+  protected int authorizationCacheCapacity = 1000;
+
+  protected AuthorizationCache authorizationCache;
+
+  /**
+   * If true, filters are cached with their parsed queries, so that executing a filter does not
+   * select the whole filter and parse its query again. On every execution, the revision of the
+   * cached filter is checked against the database; a filter which was changed or deleted, also
+   * by another process engine which shares the database, is selected again or removed from the cache.
+   */
+  protected boolean filterCacheEnabled = false;
+
+  /**
+   * The maximum number of filters which are cached.
+   */
+  protected int filterCacheCapacity = 1000;
+
+  protected FilterCache filterCache;
+
+  /**
+   * If true, the entities of a flush which are inserted into the same table are inserted
+   * with multi-row insert statements where the mapping provides them (currently the
+   * runtime and historic variables). Disabled by default.
+   */
+  protected boolean bulkInsertEnabled = false;
+
+  /**
+   * If true, the process engine keeps its data in an {@link InMemoryDatabase} instead of
+   * the configured data source. The statements of the h2 mappings are interpreted in memory,
+   * so that no database is needed. Intended for tests and short-lived process engines:
+   * the data is lost when the process engine is closed.
+   */
+  protected boolean inMemoryPersistenceEnabled = false;
+
+  /**
+   * The database of the in-memory persistence. Process engines which are given the same
+   * database share their data. Created when the in-memory persistence is enabled and no
+   * database is given.
+   */
+  protected InMemoryDatabase inMemoryDatabase;
+
+  /**
+   * A read-only replica of the database. If set, queries which run in their own command
+   * are read from the replica, unless the replica may lag behind the changes of the calling
+   * thread or authenticated user or is not available.
+   */
+  protected DataSource readReplicaDataSource;
+
+  /**
+   * The maximum time in milliseconds which the read replica needs to apply a change of
+   * the database. Queries read from the database until this time has passed since the
+   * calling thread or authenticated user committed a change.
+   */
+  protected long readReplicaMaxLag = 1000;
+
   /**
    * The process engine created by this configuration.
    */
@@ -457,9 +658,33 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     init();
     processEngine = new ProcessEngineImpl(this);
     invokePostProcessEngineBuild(processEngine);
+    if (warmUpEnabled) {
+      try {
+        warmUp();
+      } catch (RuntimeException e) {
+        // do not leave a registered process engine behind which was never returned
+        closeAfterFailedWarmUp();
+        throw e;
+      }
+    }
     return processEngine;
   }
 
+  protected void warmUp() {
+    long start = System.currentTimeMillis();
+    commandExecutorTxRequired.execute(new WarmUpProcessEngineCmd());
+    warmUpCompleted = true;
+    log.info("ProcessEngine " + processEngineName + " warmed up in " + (System.currentTimeMillis() - start) + " ms");
+  }
+
+  protected void closeAfterFailedWarmUp() {
+    try {
+      processEngine.close();
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not close ProcessEngine " + processEngineName + " after its warm-up failed", e);
+    }
+  }
+
   // init /////////////////////////////////////////////////////////////////////
 
   protected void init() {
@@ -502,6 +727,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initPasswordDigest();
     initDeploymentRegistration();
     initResourceAuthorizationProvider();
+    initAuthorizationCache();
+    initFilterCache();
 
     invokePostInit();
   }
@@ -663,6 +890,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   // DataSource ///////////////////////////////////////////////////////////////
 
   protected void initDataSource() {
+    if (inMemoryPersistenceEnabled) {
+      // the statements of the h2 mappings are interpreted by the in-memory persistence
+      if (databaseType == null) {
+        databaseType = DbSqlSessionFactory.H2;
+      }
+      return;
+    }
+
     if (dataSource==null) {
       if (dataSourceJndiName!=null) {
         try {
@@ -787,8 +1022,6 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       try {
         inputStream = getMyBatisXmlConfigurationSteam();
 
-        // update the jdbc parameters to the configured ones...
-        Environment environment = new Environment("default", transactionFactory, dataSource);
         Reader reader = new InputStreamReader(inputStream);
         Properties properties = new Properties();
         properties.put("prefix", databaseTablePrefix);
@@ -818,9 +1051,16 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         }
         XMLConfigBuilder parser = new XMLConfigBuilder(reader,"", properties);
         Configuration configuration = parser.getConfiguration();
-        configuration.setEnvironment(environment);
+        if (dataSource != null) {
+          // update the jdbc parameters to the configured ones...
+          configuration.setEnvironment(new Environment("default", transactionFactory, dataSource));
+        }
         configuration = parser.parse();
 
+        if (queryStreamingFetchSize != 0) {
+          configuration.addInterceptor(new QueryStreamingFetchSizeInterceptor(queryStreamingFetchSize));
+        }
+
         sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
 
       } catch (Exception e) {
@@ -879,6 +1119,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(VariableInstanceManager.class));
       addSessionFactory(new GenericManagerFactory(EventSubscriptionManager.class));
       addSessionFactory(new GenericManagerFactory(StatisticsManager.class));
+      addSessionFactory(new GenericManagerFactory(RuntimeStatisticsCounterManager.class));
       addSessionFactory(new GenericManagerFactory(IncidentManager.class));
       addSessionFactory(new GenericManagerFactory(AuthorizationManager.class));
       addSessionFactory(new GenericManagerFactory(FilterManager.class));
@@ -911,10 +1152,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     dbSqlSessionFactory.setDbIdentityUsed(isDbIdentityUsed);
     dbSqlSessionFactory.setDbHistoryUsed(isDbHistoryUsed);
     dbSqlSessionFactory.setCmmnEnabled(cmmnEnabled);
+    dbSqlSessionFactory.setBulkInsertEnabled(bulkInsertEnabled);
     dbSqlSessionFactory.setDatabaseTablePrefix(databaseTablePrefix);
     dbSqlSessionFactory.setDatabaseSchema(databaseSchema);
-    addSessionFactory(dbSqlSessionFactory);
-    addSessionFactory(new DbSqlPersistenceProviderFactory());
+
+    if (inMemoryPersistenceEnabled) {
+      if (inMemoryDatabase == null) {
+        inMemoryDatabase = new InMemoryDatabase();
+      }
+      // the db sql session factory provides the statements but no sessions
+      addSessionFactory(new InMemoryPersistenceProviderFactory(inMemoryDatabase, dbSqlSessionFactory));
+
+    } else {
+      if (readReplicaDataSource != null) {
+        dbSqlSessionFactory.setReadReplica(new DbReadReplica(readReplicaDataSource, readReplicaMaxLag));
+      }
+      addSessionFactory(dbSqlSessionFactory);
+      addSessionFactory(new DbSqlPersistenceProviderFactory());
+    }
   }
 
   protected void addSessionFactory(SessionFactory sessionFactory) {
@@ -984,9 +1239,40 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
     bpmnDeployer.setBpmnParser(bpmnParser);
 
+    if (deploymentParseThreads > 1) {
+      if (hasCustomBpmnParseListeners()) {
+        log.info("Parsing BPMN resources one after another although deploymentParseThreads is " + deploymentParseThreads
+            + ", since custom BPMN parse listeners are configured which may not be thread-safe");
+      } else {
+        bpmnDeployer.setParseExecutor(getDeploymentParseExecutor());
+      }
+    }
+
     return bpmnDeployer;
   }
 
+  protected boolean hasCustomBpmnParseListeners() {
+    return (preParseListeners != null && !preParseListeners.isEmpty())
+        || (postParseListeners != null && !postParseListeners.isEmpty());
+  }
+
+  protected ExecutorService getDeploymentParseExecutor() {
+    if (deploymentParseExecutor == null) {
+      ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(deploymentParseThreads, deploymentParseThreads,
+          60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "deployment-parser-" + processEngineName);
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      // the threads are only kept while resources are parsed
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+      deploymentParseExecutor = threadPoolExecutor;
+    }
+    return deploymentParseExecutor;
+  }
+
   protected List<BpmnParseListener> getDefaultBPMNParseListeners() {
     List<BpmnParseListener> defaultListeners = new ArrayList<BpmnParseListener>();
     if (!historyLevel.equals(HistoryLevel.HISTORY_LEVEL_NONE)) {
@@ -1057,6 +1343,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     ProcessEventJobHandler processEventJobHandler = new ProcessEventJobHandler();
     jobHandlers.put(processEventJobHandler.getType(), processEventJobHandler);
 
+    MultiInstanceBatchJobHandler multiInstanceBatchJobHandler = new MultiInstanceBatchJobHandler();
+    jobHandlers.put(multiInstanceBatchJobHandler.getType(), multiInstanceBatchJobHandler);
+
     TimerSuspendProcessDefinitionHandler suspendProcessDefinitionHandler = new TimerSuspendProcessDefinitionHandler();
     jobHandlers.put(suspendProcessDefinitionHandler.getType(), suspendProcessDefinitionHandler);
 
@@ -1205,6 +1494,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       variableSerializers.addSerializer(new DoubleValueSerializer());
       variableSerializers.addSerializer(new ByteArrayValueSerializer());
       variableSerializers.addSerializer(new JavaObjectSerializer());
+      variableSerializers.addSerializer(new CompactBinaryObjectSerializer(compactBinaryCompressionThreshold));
 
       if (customPostVariableSerializers!=null) {
         for (TypedValueSerializer<?> customVariableType: customPostVariableSerializers) {
@@ -1426,6 +1716,18 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initAuthorizationCache() {
+    if (authorizationCacheEnabled && authorizationCache == null) {
+      authorizationCache = new AuthorizationCache(authorizationCacheCapacity);
+    }
+  }
+
+  protected void initFilterCache() {
+    if (filterCacheEnabled && filterCache == null) {
+      filterCache = new FilterCache(filterCacheCapacity);
+    }
+  }
+
   // getters and setters //////////////////////////////////////////////////////
 
   public String getProcessEngineName() {
@@ -2359,6 +2661,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.isExecutionTreePrefetchEnabled = isExecutionTreePrefetchingEnabled;
   }
 
+  public boolean isDependentEntityPrefetchEnabled() {
+    return isDependentEntityPrefetchEnabled;
+  }
+
+  public void setDependentEntityPrefetchEnabled(boolean isDependentEntityPrefetchEnabled) {
+    this.isDependentEntityPrefetchEnabled = isDependentEntityPrefetchEnabled;
+  }
+
   public ProcessEngineImpl getProcessEngine() {
     return processEngine;
   }
@@ -2509,7 +2819,231 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public boolean isRuntimeStatisticsCountersEnabled() {
+    return isRuntimeStatisticsCountersEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setRuntimeStatisticsCountersEnabled(boolean isRuntimeStatisticsCountersEnabled) {
+    this.isRuntimeStatisticsCountersEnabled = isRuntimeStatisticsCountersEnabled;
+    return this;
+  }
+
+  public int getRuntimeStatisticsCounterStripes() {
+    return runtimeStatisticsCounterStripes;
+  }
+
+  public ProcessEngineConfigurationImpl setRuntimeStatisticsCounterStripes(int runtimeStatisticsCounterStripes) {
+    this.runtimeStatisticsCounterStripes = runtimeStatisticsCounterStripes;
+    return this;
+  }
+
+  public boolean isWarmUpEnabled() {
+    return warmUpEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setWarmUpEnabled(boolean warmUpEnabled) {
+    this.warmUpEnabled = warmUpEnabled;
+    return this;
+  }
+
+  /**
+   * @return true once the warm-up of the process engine has completed
+   * (see {@link #setWarmUpEnabled(boolean)})
+   */
+  public boolean isWarmUpCompleted() {
+    return warmUpCompleted;
+  }
+
+  public boolean isAtomicOperationLoopEnabled() {
+    return atomicOperationLoopEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAtomicOperationLoopEnabled(boolean atomicOperationLoopEnabled) {
+    this.atomicOperationLoopEnabled = atomicOperationLoopEnabled;
+    return this;
+  }
+
+  public boolean isConflictFreeJoinEnabled() {
+    return conflictFreeJoinEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setConflictFreeJoinEnabled(boolean conflictFreeJoinEnabled) {
+    this.conflictFreeJoinEnabled = conflictFreeJoinEnabled;
+    return this;
+  }
+
+  public boolean isConflictFreeMultiInstanceEnabled() {
+    return conflictFreeMultiInstanceEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setConflictFreeMultiInstanceEnabled(boolean conflictFreeMultiInstanceEnabled) {
+    this.conflictFreeMultiInstanceEnabled = conflictFreeMultiInstanceEnabled;
+    return this;
+  }
+
+  public int getParallelMultiInstanceBatchSize() {
+    return parallelMultiInstanceBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setParallelMultiInstanceBatchSize(int parallelMultiInstanceBatchSize) {
+    this.parallelMultiInstanceBatchSize = parallelMultiInstanceBatchSize;
+    return this;
+  }
+
+  public int getDeploymentParseThreads() {
+    return deploymentParseThreads;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentParseThreads(int deploymentParseThreads) {
+    this.deploymentParseThreads = deploymentParseThreads;
+    return this;
+  }
+
+  public boolean isLocalJobHandoffEnabled() {
+    return localJobHandoffEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setLocalJobHandoffEnabled(boolean localJobHandoffEnabled) {
+    this.localJobHandoffEnabled = localJobHandoffEnabled;
+    return this;
+  }
+
+  public int getCompactBinaryCompressionThreshold() {
+    return compactBinaryCompressionThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setCompactBinaryCompressionThreshold(int compactBinaryCompressionThreshold) {
+    this.compactBinaryCompressionThreshold = compactBinaryCompressionThreshold;
+    return this;
+  }
+
+  public int getByteArrayCompressionThreshold() {
+    return byteArrayCompressionThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setByteArrayCompressionThreshold(int byteArrayCompressionThreshold) {
+    this.byteArrayCompressionThreshold = byteArrayCompressionThreshold;
+    return this;
+  }
+
+  public boolean isAuthorizationCacheEnabled() {
+    return authorizationCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheEnabled(boolean authorizationCacheEnabled) {
+    this.authorizationCacheEnabled = authorizationCacheEnabled;
+    return this;
+  }
+
+  public int getAuthorizationCacheCapacity() {
+    return authorizationCacheCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheCapacity(int authorizationCacheCapacity) {
+    this.authorizationCacheCapacity = authorizationCacheCapacity;
+    return this;
+  }
+
+  public AuthorizationCache getAuthorizationCache() {
+    return authorizationCache;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCache(AuthorizationCache authorizationCache) {
+    this.authorizationCache = authorizationCache;
+    return this;
+  }
+
+  public boolean isFilterCacheEnabled() {
+    return filterCacheEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCacheEnabled(boolean filterCacheEnabled) {
+    this.filterCacheEnabled = filterCacheEnabled;
+    return this;
+  }
+
+  public int getFilterCacheCapacity() {
+    return filterCacheCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCacheCapacity(int filterCacheCapacity) {
+    this.filterCacheCapacity = filterCacheCapacity;
+    return this;
+  }
+
+  public FilterCache getFilterCache() {
+    return filterCache;
+  }
+
+  public ProcessEngineConfigurationImpl setFilterCache(FilterCache filterCache) {
+    this.filterCache = filterCache;
+    return this;
+  }
+
+  public boolean isBulkInsertEnabled() {
+    return bulkInsertEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setBulkInsertEnabled(boolean bulkInsertEnabled) {
+    this.bulkInsertEnabled = bulkInsertEnabled;
+    if (dbSqlSessionFactory != null) {
+      dbSqlSessionFactory.setBulkInsertEnabled(bulkInsertEnabled);
+    }
+    return this;
+  }
+
+  public boolean isInMemoryPersistenceEnabled() {
+    return inMemoryPersistenceEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setInMemoryPersistenceEnabled(boolean inMemoryPersistenceEnabled) {
+    this.inMemoryPersistenceEnabled = inMemoryPersistenceEnabled;
+    return this;
+  }
+
+  public InMemoryDatabase getInMemoryDatabase() {
+    return inMemoryDatabase;
+  }
+
+  public ProcessEngineConfigurationImpl setInMemoryDatabase(InMemoryDatabase inMemoryDatabase) {
+    this.inMemoryDatabase = inMemoryDatabase;
+    return this;
+  }
+
+  public DataSource getReadReplicaDataSource() {
+    return readReplicaDataSource;
+  }
+
+  public ProcessEngineConfigurationImpl setReadReplicaDataSource(DataSource readReplicaDataSource) {
+    this.readReplicaDataSource = readReplicaDataSource;
+    return this;
+  }
+
+  public long getReadReplicaMaxLag() {
+    return readReplicaMaxLag;
+  }
+
+  public ProcessEngineConfigurationImpl setReadReplicaMaxLag(long readReplicaMaxLag) {
+    this.readReplicaMaxLag = readReplicaMaxLag;
+    if (dbSqlSessionFactory != null && dbSqlSessionFactory.getReadReplica() != null) {
+      dbSqlSessionFactory.getReadReplica().setMaxLag(readReplicaMaxLag);
+    }
+    return this;
+  }
+
+  public int getQueryStreamingFetchSize() {
+    return queryStreamingFetchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setQueryStreamingFetchSize(int queryStreamingFetchSize) {
+    this.queryStreamingFetchSize = queryStreamingFetchSize;
+    return this;
+  }
+
   public void close() {
+    if (deploymentParseExecutor != null) {
+      deploymentParseExecutor.shutdownNow();
+    }
     if (dataSource instanceof PooledDataSource) {
       // ACT-233: connection pool of Ibatis is not properely initialized if this is not called!
       ((PooledDataSource)dataSource).forceCloseAll();
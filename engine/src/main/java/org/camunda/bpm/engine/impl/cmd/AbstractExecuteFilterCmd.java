@@ -45,7 +45,7 @@ public abstract class AbstractExecuteFilterCmd implements Serializable {
     ensureNotNull("No filter id given to execute", "filterId", filterId);
     Filter filter = commandContext
       .getFilterManager()
-      .findFilterById(filterId);
+      .findFilterToExecute(filterId);
 
     ensureNotNull("No filter found for id '" + filterId + "'", "filter", filter);
 
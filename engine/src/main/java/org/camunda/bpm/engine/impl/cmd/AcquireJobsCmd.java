@@ -14,6 +14,7 @@ package org.camunda.bpm.engine.impl.cmd;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 
@@ -26,8 +27,10 @@ import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutionLane;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TimerEntity;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 
 
@@ -52,21 +55,67 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
     int maxNonExclusiveJobsPerAcquisition = jobExecutor.getMaxJobsPerAcquisition();
 
     acquiredJobs = new AcquiredJobs();
+
+    // each lane selects its own jobs up to its quota, so that the jobs of a lane
+    // which is at its quota do not keep the jobs of other lanes from being acquired.
+    // A job belongs to the first lane it matches.
+    List<JobExecutionLane> precedingExecutionLanes = new ArrayList<JobExecutionLane>();
+    for (JobExecutionLane executionLane : jobExecutor.getExecutionLanes()) {
+      if (!executionLane.hasSelectionCriteria()) {
+        continue;
+      }
+
+      int acquisitionQuota = executionLane.getAcquisitionQuota();
+      if (acquisitionQuota > 0) {
+        List<JobEntity> jobs = commandContext
+          .getJobManager()
+          .findNextJobsToExecute(executionLane, precedingExecutionLanes, new Page(0, acquisitionQuota));
+        acquireJobs(commandContext, jobs, executionLane, lockOwner, lockTimeInMillis);
+
+      } else {
+        // acquire the jobs of the lane once it has capacity again
+        executionLane.setAcquisitionThrottled(true);
+      }
+
+      precedingExecutionLanes.add(executionLane);
+    }
+
+    // the jobs which belong to no lane
     List<JobEntity> jobs = commandContext
       .getJobManager()
-      .findNextJobsToExecute(new Page(0, maxNonExclusiveJobsPerAcquisition));
+      .findNextJobsToExecute(null, precedingExecutionLanes, new Page(0, maxNonExclusiveJobsPerAcquisition));
+    acquireJobs(commandContext, jobs, null, lockOwner, lockTimeInMillis);
+
+    int timerLookaheadInMillis = jobExecutor.getTimerLookaheadInMillis();
+    if (timerLookaheadInMillis > 0) {
+      acquireTimersToPark(commandContext, lockOwner, lockTimeInMillis, timerLookaheadInMillis);
+    }
+
+    // register an OptimisticLockingListener which is notified about jobs which cannot be acquired.
+    // the listener removes them from the list of acquired jobs.
+    Context.getCommandContext()
+      .getDbEntityManager()
+      .registerOptimisticLockingListener(this);
+
+    return acquiredJobs;
+  }
+
+  protected void acquireJobs(CommandContext commandContext, List<JobEntity> jobs, JobExecutionLane executionLane,
+      String lockOwner, int lockTimeInMillis) {
+    String executionLaneName = executionLane != null ? executionLane.getName() : null;
 
     for (JobEntity job: jobs) {
       List<String> jobIds = new ArrayList<String>();
 
       if (job != null && !acquiredJobs.contains(job.getId())) {
         if (job.isExclusive() && job.getProcessInstanceId() != null) {
-          // acquire all exclusive jobs in the same process instance
-          // (includes the current job)
+          // acquire all exclusive jobs in the same process instance (includes the current job).
+          // They are executed one after another in the lane of the current job, even if they
+          // belong to other lanes, since the jobs of different lanes run at the same time.
           List<JobEntity> exclusiveJobs = commandContext.getJobManager()
             .findExclusiveJobsToExecute(job.getProcessInstanceId());
           for (JobEntity exclusiveJob : exclusiveJobs) {
-            if(exclusiveJob != null) {
+            if (exclusiveJob != null && !acquiredJobs.contains(exclusiveJob.getId())) {
               lockJob(exclusiveJob, lockOwner, lockTimeInMillis);
               jobIds.add(exclusiveJob.getId());
             }
@@ -78,16 +127,27 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
 
       }
 
-      acquiredJobs.addJobIdBatch(jobIds);
+      acquiredJobs.addJobIdBatch(jobIds, executionLaneName);
     }
+  }
 
-    // register an OptimisticLockingListener which is notified about jobs which cannot be acquired.
-    // the listener removes them from the list of acquired jobs.
-    Context.getCommandContext()
-      .getDbEntityManager()
-      .registerOptimisticLockingListener(this);
+  /**
+   * Locks the timers which are due within the lookahead until their due date plus the lock time,
+   * so that they can be parked until they are due.
+   */
+  protected void acquireTimersToPark(CommandContext commandContext, String lockOwner, int lockTimeInMillis, int timerLookaheadInMillis) {
+    Date lookaheadEnd = new Date(ClockUtil.getCurrentTime().getTime() + timerLookaheadInMillis);
+    List<TimerEntity> timers = commandContext
+      .getJobManager()
+      .findNextTimersToPark(lookaheadEnd, new Page(0, jobExecutor.getMaxTimersPerAcquisition()));
 
-    return acquiredJobs;
+    for (TimerEntity timer : timers) {
+      if (!acquiredJobs.contains(timer.getId())) {
+        timer.setLockOwner(lockOwner);
+        timer.setLockExpirationTime(new Date(timer.getDuedate().getTime() + lockTimeInMillis));
+        acquiredJobs.addTimerToPark(timer.getId(), timer.getDuedate());
+      }
+    }
   }
 
   protected void lockJob(JobEntity job, String lockOwner, int lockTimeInMillis) {
@@ -0,0 +1,129 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.delegate.Expression;
+import org.camunda.bpm.engine.impl.ProcessDefinitionQueryImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmmn.entity.repository.CaseDefinitionQueryImpl;
+import org.camunda.bpm.engine.impl.cmmn.operation.CmmnAtomicOperation;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+import org.camunda.bpm.engine.impl.el.StartProcessVariableScope;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
+import org.camunda.bpm.engine.impl.pvm.runtime.operation.PvmAtomicOperation;
+import org.camunda.bpm.engine.repository.CaseDefinition;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+
+/**
+ * Performs the initialization which is otherwise done lazily by the first commands
+ * after the start of the process engine: resolves the mapped statements, loads the
+ * atomic operations and loads the latest process and case definitions into the
+ * deployment cache, which parses their expressions.
+ */
+public class WarmUpProcessEngineCmd implements Command<Void>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final static Logger LOG = Logger.getLogger(WarmUpProcessEngineCmd.class.getName());
+
+  /**
+   * Expressions which are parsed and evaluated during the warm-up. Together they
+   * touch the parser, the operators, the bean and map resolvers, the variable scope
+   * resolver and the function mapper.
+   */
+  protected static final String[] WARM_UP_EXPRESSIONS = new String[] {
+    "${true}",
+    "${not empty 'a' && 1 + 2 * 3 - 4 / 2 >= 0 || false}",
+    "${'value'.length() > 0 ? 'a'.concat('b') : null}",
+    "${variableOfWarmUp == null}",
+    "${dateTime().plusDays(1).toDate() != null}"
+  };
+
+  public Void execute(CommandContext commandContext) {
+    ProcessEngineConfigurationImpl configuration = Context.getProcessEngineConfiguration();
+
+    DbSqlSessionFactory dbSqlSessionFactory = configuration.getDbSqlSessionFactory();
+    if (dbSqlSessionFactory != null) {
+      dbSqlSessionFactory.warmUp();
+    }
+
+    loadAtomicOperations();
+    warmUpExpressionManager(configuration.getExpressionManager());
+
+    DeploymentCache deploymentCache = configuration.getDeploymentCache();
+    loadLatestProcessDefinitions(deploymentCache);
+    if (configuration.isCmmnEnabled()) {
+      loadLatestCaseDefinitions(deploymentCache);
+    }
+
+    return null;
+  }
+
+  protected void loadAtomicOperations() {
+    // accessing a constant initializes the interface and thereby all of its operations
+    PvmAtomicOperation.PROCESS_START.getCanonicalName();
+    CmmnAtomicOperation.CASE_INSTANCE_CREATE.getCanonicalName();
+  }
+
+  protected void warmUpExpressionManager(ExpressionManager expressionManager) {
+    for (String expressionText : WARM_UP_EXPRESSIONS) {
+      try {
+        Expression expression = expressionManager.createExpression(expressionText);
+        expression.getValue(StartProcessVariableScope.getSharedInstance());
+      } catch (Exception e) {
+        // the expression language is initialized on demand instead
+        LOG.log(Level.FINE, "Could not evaluate expression '" + expressionText + "' during warm-up", e);
+      }
+    }
+  }
+
+  protected void loadLatestProcessDefinitions(DeploymentCache deploymentCache) {
+    List<ProcessDefinition> processDefinitions = new ProcessDefinitionQueryImpl()
+      .latestVersion()
+      .list();
+
+    for (ProcessDefinition processDefinition : processDefinitions) {
+      try {
+        deploymentCache.findDeployedProcessDefinitionById(processDefinition.getId());
+      } catch (Exception e) {
+        // the definition is loaded on demand instead
+        LOG.log(Level.WARNING, "Could not load process definition '" + processDefinition.getId() + "' during warm-up", e);
+      }
+    }
+  }
+
+  protected void loadLatestCaseDefinitions(DeploymentCache deploymentCache) {
+    List<CaseDefinition> caseDefinitions = new CaseDefinitionQueryImpl()
+      .latestVersion()
+      .list();
+
+    for (CaseDefinition caseDefinition : caseDefinitions) {
+      try {
+        deploymentCache.findDeployedCaseDefinitionById(caseDefinition.getId());
+      } catch (Exception e) {
+        // the definition is loaded on demand instead
+        LOG.log(Level.WARNING, "Could not load case definition '" + caseDefinition.getId() + "' during warm-up", e);
+      }
+    }
+  }
+
+}
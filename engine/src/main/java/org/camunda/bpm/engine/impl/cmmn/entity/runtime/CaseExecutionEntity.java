@@ -16,6 +16,7 @@ import static org.camunda.bpm.engine.impl.cmmn.handler.ItemHandler.PROPERTY_ACTI
 import static org.camunda.bpm.engine.impl.cmmn.handler.ItemHandler.PROPERTY_ACTIVITY_TYPE;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -79,6 +80,8 @@ public class CaseExecutionEntity extends CmmnExecution implements CaseExecution,
   /** nested case sentry parts */
   protected List<CaseSentryPartEntity> caseSentryParts;
   protected Map<String, List<CmmnSentryPart>> sentries;
+  // source case execution id => standard event => on parts
+  protected Map<String, Map<String, List<CmmnSentryPart>>> sentryPartsBySource;
 
   /** reference to a sub process instance, not-null if currently subprocess is started from this execution */
   protected transient ExecutionEntity subProcessInstance;
@@ -573,18 +576,11 @@ public class CaseExecutionEntity extends CmmnExecution implements CaseExecution,
       // create a map sentries: sentryId -> caseSentryParts
       // for simple select to get all parts for one sentry
       sentries = new HashMap<String, List<CmmnSentryPart>>();
+      // and a map to find the on parts observing a source case execution
+      sentryPartsBySource = new HashMap<String, Map<String, List<CmmnSentryPart>>>();
 
       for (CaseSentryPartEntity sentryPart : caseSentryParts) {
-
-        String sentryId = sentryPart.getSentryId();
-        List<CmmnSentryPart> parts = sentries.get(sentryId);
-
-        if (parts == null) {
-          parts = new ArrayList<CmmnSentryPart>();
-          sentries.put(sentryId, parts);
-        }
-
-        parts.add(sentryPart);
+        indexSentryPart(sentryPart);
       }
     }
   }
@@ -593,7 +589,10 @@ public class CaseExecutionEntity extends CmmnExecution implements CaseExecution,
     CaseSentryPartEntity entity = (CaseSentryPartEntity) sentryPart;
 
     getCaseSentryParts().add(entity);
+    indexSentryPart(entity);
+  }
 
+  protected void indexSentryPart(CmmnSentryPart sentryPart) {
     String sentryId = sentryPart.getSentryId();
     List<CmmnSentryPart> parts = sentries.get(sentryId);
 
@@ -602,7 +601,26 @@ public class CaseExecutionEntity extends CmmnExecution implements CaseExecution,
       sentries.put(sentryId, parts);
     }
 
-    parts.add(entity);
+    parts.add(sentryPart);
+
+    String sourceCaseExecutionId = sentryPart.getSourceCaseExecutionId();
+    if (sourceCaseExecutionId != null) {
+      Map<String, List<CmmnSentryPart>> partsByEvent = sentryPartsBySource.get(sourceCaseExecutionId);
+
+      if (partsByEvent == null) {
+        partsByEvent = new HashMap<String, List<CmmnSentryPart>>();
+        sentryPartsBySource.put(sourceCaseExecutionId, partsByEvent);
+      }
+
+      List<CmmnSentryPart> eventParts = partsByEvent.get(sentryPart.getStandardEvent());
+
+      if (eventParts == null) {
+        eventParts = new ArrayList<CmmnSentryPart>();
+        partsByEvent.put(sentryPart.getStandardEvent(), eventParts);
+      }
+
+      eventParts.add(sentryPart);
+    }
   }
 
   protected Map<String, List<CmmnSentryPart>> getSentries() {
@@ -615,6 +633,20 @@ public class CaseExecutionEntity extends CmmnExecution implements CaseExecution,
     return sentries.get(sentryId);
   }
 
+  protected List<CmmnSentryPart> findSentryParts(String sourceCaseExecutionId, String standardEvent) {
+    ensureCaseSentryPartsInitialized();
+
+    Map<String, List<CmmnSentryPart>> partsByEvent = sentryPartsBySource.get(sourceCaseExecutionId);
+    if (partsByEvent != null) {
+      List<CmmnSentryPart> parts = partsByEvent.get(standardEvent);
+      if (parts != null) {
+        return parts;
+      }
+    }
+
+    return Collections.emptyList();
+  }
+
   protected CaseSentryPartEntity newSentryPart() {
     CaseSentryPartEntity caseSentryPart = new CaseSentryPartEntity();
 
@@ -227,6 +227,19 @@ public class CaseExecutionImpl extends CmmnExecution implements Serializable {
     return result;
   }
 
+  protected List<CaseSentryPartImpl> findSentryParts(String sourceCaseExecutionId, String standardEvent) {
+    List<CaseSentryPartImpl> result = new ArrayList<CaseSentryPartImpl>();
+
+    for (CaseSentryPartImpl sentryPart : getCaseSentryParts()) {
+      if (sourceCaseExecutionId.equals(sentryPart.getSourceCaseExecutionId())
+          && standardEvent.equals(sentryPart.getStandardEvent())) {
+        result.add(sentryPart);
+      }
+    }
+
+    return result;
+  }
+
   protected void addSentryPart(CmmnSentryPart sentryPart) {
     getCaseSentryParts().add((CaseSentryPartImpl) sentryPart);
   }
@@ -60,10 +60,14 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureInstanceOf;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.delegate.CaseVariableListener;
@@ -281,7 +285,7 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
 
   public void handleChildTransition(CmmnExecution child, String transition) {
     // Step 1: collect all affected sentries
-    List<String> affectedSentries = collectAffectedSentries(child, transition);
+    Set<String> affectedSentries = collectAffectedSentries(child, transition);
 
     // Step 2: fire force update on all case sentry part
     // contained by a affected sentry to provoke an
@@ -290,7 +294,7 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
 
     // Step 3: check each affected sentry whether it is satisfied.
     // the returned list contains all satisfied sentries
-    List<String> satisfiedSentries = getSatisfiedSentries(affectedSentries);
+    Set<String> satisfiedSentries = getSatisfiedSentries(affectedSentries);
 
     // Step 4: fire satisfied sentries
     fireSentries(satisfiedSentries);
@@ -320,40 +324,29 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
 
   }
 
-  protected List<String> collectAffectedSentries(CmmnExecution child, String transition) {
-    List<? extends CmmnSentryPart> sentryParts = getCaseSentryParts();
+  protected Set<String> collectAffectedSentries(CmmnExecution child, String transition) {
+    // check the ids not the references itself to avoid a select!
+    List<? extends CmmnSentryPart> sentryParts = findSentryParts(child.getId(), transition);
 
-    List<String> affectedSentries = new ArrayList<String>();
+    Set<String> affectedSentries = new LinkedHashSet<String>();
 
     for (CmmnSentryPart sentryPart : sentryParts) {
 
-      // check the ids not the references itself to avoid a select!
-      String sourceCaseExecutionId = sentryPart.getSourceCaseExecutionId();
-      if (child.getId().equals(sourceCaseExecutionId)) {
+      if (!sentryPart.isSatisfied()) {
+        // if it is not already satisfied, then set the
+        // current case sentry part to satisfied (=true).
+        String sentryId = sentryPart.getSentryId();
+        sentryPart.setSatisfied(true);
 
-        String standardEvent = sentryPart.getStandardEvent();
-
-        if (transition.equals(standardEvent)) {
-
-          if (!sentryPart.isSatisfied()) {
-            // if it is not already satisfied, then set the
-            // current case sentry part to satisfied (=true).
-            String sentryId = sentryPart.getSentryId();
-            sentryPart.setSatisfied(true);
-
-            // collect the id of affected sentry.
-            if (!affectedSentries.contains(sentryId)) {
-              affectedSentries.add(sentryId);
-            }
-          }
-        }
+        // collect the id of affected sentry.
+        affectedSentries.add(sentryId);
       }
     }
 
     return affectedSentries;
   }
 
-  protected void forceUpdateOnCaseSentryPart(List<String> sentryIds) {
+  protected void forceUpdateOnCaseSentryPart(Set<String> sentryIds) {
     for (String sentryId : sentryIds) {
       List<? extends CmmnSentryPart> sentryParts = findSentry(sentryId);
       // set for each case sentry part forceUpdate flag to true to provoke
@@ -372,8 +365,8 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
    * Checks for each given sentry id whether the corresponding
    * sentry is satisfied.
    */
-  protected List<String> getSatisfiedSentries(List<String> sentryIds) {
-    List<String> result = new ArrayList<String>();
+  protected Set<String> getSatisfiedSentries(Collection<String> sentryIds) {
+    Set<String> result = new LinkedHashSet<String>();
 
     if (sentryIds != null) {
 
@@ -388,18 +381,26 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
     return result;
   }
 
-  protected void fireSentries(List<String> satisfiedSentries) {
+  protected void fireSentries(Set<String> satisfiedSentries) {
     if (satisfiedSentries != null && !satisfiedSentries.isEmpty()) {
       // if there are satisfied sentries, trigger the associated
       // case executions
 
       // 1. propagate to child case executions ///////////////////////////////////////////
 
+      // only the children whose activity has an entry or exit criterion
+      // on a satisfied sentry are affected
+      Set<String> affectedActivityIds = getCriterionActivityIds(satisfiedSentries);
+
       // returns a copy of the list of child case executions!
       List<? extends CmmnExecution> children = getCaseExecutions();
 
       for (CmmnExecution currentChild : children) {
 
+        if (!affectedActivityIds.contains(currentChild.getActivityId())) {
+          continue;
+        }
+
         // check and fire first exitCriteria
         currentChild.checkAndFireExitCriteria(satisfiedSentries);
 
@@ -416,7 +417,18 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
     }
   }
 
-  protected void checkAndFireExitCriteria(List<String> satisfiedSentries) {
+  protected Set<String> getCriterionActivityIds(Set<String> sentryIds) {
+    CmmnActivity activity = getActivity();
+    ensureNotNull(PvmException.class, "Case execution '"+getId()+"': has no current activity.", "activity", activity);
+
+    Set<String> activityIds = new HashSet<String>();
+    for (String sentryId : sentryIds) {
+      activityIds.addAll(activity.getCriterionActivityIds(sentryId));
+    }
+    return activityIds;
+  }
+
+  protected void checkAndFireExitCriteria(Set<String> satisfiedSentries) {
     if (!isNew() && !isCompleted() && !isTerminated()) {
       CmmnActivity activity = getActivity();
       ensureNotNull(PvmException.class, "Case execution '"+getId()+"': has no current activity.", "activity", activity);
@@ -433,7 +445,7 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
     }
   }
 
-  protected void checkAndFireEntryCriteria(List<String> satisfiedSentries) {
+  protected void checkAndFireEntryCriteria(Set<String> satisfiedSentries) {
     if (isAvailable()) {
       // do that only, when this child case execution
       // is available
@@ -466,6 +478,12 @@ public abstract class CmmnExecution extends CoreExecution implements CmmnCaseIns
 
   protected abstract List<? extends CmmnSentryPart> findSentry(String sentryId);
 
+  /**
+   * @return the on parts of this execution's sentries which observe the given
+   * standard event of the given source case execution
+   */
+  protected abstract List<? extends CmmnSentryPart> findSentryParts(String sourceCaseExecutionId, String standardEvent);
+
   protected abstract Map<String, List<CmmnSentryPart>> getSentries();
 
   public boolean isSentrySatisfied(String sentryId) {
@@ -555,6 +555,7 @@ public abstract class ItemHandler extends CmmnElementHandler<CmmnElement, CmmnAc
           CmmnSentryDeclaration sentryDeclaration = parent.getSentry(sentryId);
           if (sentryDeclaration != null) {
             activity.addEntryCriteria(sentryDeclaration);
+            parent.addCriterionActivityId(sentryId, activity.getId());
           }
         }
       }
@@ -572,6 +573,7 @@ public abstract class ItemHandler extends CmmnElementHandler<CmmnElement, CmmnAc
           CmmnSentryDeclaration sentryDeclaration = parent.getSentry(sentryId);
           if (sentryDeclaration != null) {
             activity.addExitCriteria(sentryDeclaration);
+            parent.addCriterionActivityId(sentryId, activity.getId());
           }
         }
       }
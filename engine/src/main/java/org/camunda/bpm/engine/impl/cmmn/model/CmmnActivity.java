@@ -13,9 +13,12 @@
 package org.camunda.bpm.engine.impl.cmmn.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.camunda.bpm.engine.delegate.VariableListener;
 import org.camunda.bpm.engine.impl.cmmn.behavior.CmmnActivityBehavior;
@@ -48,6 +51,9 @@ public class CmmnActivity extends CoreActivity {
 
   protected List<CmmnSentryDeclaration> exitCriteria = new ArrayList<CmmnSentryDeclaration>();
 
+  // sentryId => ids of the child activities with an entry or exit criterion on the sentry
+  protected Map<String, Set<String>> criterionActivityIds = new HashMap<String, Set<String>>();
+
   // eventName => activity id => variable listeners
   protected Map<String, Map<String, List<VariableListener<?>>>> resolvedVariableListeners;
   protected Map<String, Map<String, List<VariableListener<?>>>> resolvedBuiltInVariableListeners;
@@ -168,6 +174,29 @@ public class CmmnActivity extends CoreActivity {
     this.exitCriteria.add(exitCriteria);
   }
 
+  // criterion activities
+
+  /**
+   * Returns the ids of the child activities which have an entry or exit criterion
+   * on the given sentry of this activity.
+   */
+  public Set<String> getCriterionActivityIds(String sentryId) {
+    Set<String> activityIds = criterionActivityIds.get(sentryId);
+    if (activityIds == null) {
+      return Collections.emptySet();
+    }
+    return activityIds;
+  }
+
+  public void addCriterionActivityId(String sentryId, String activityId) {
+    Set<String> activityIds = criterionActivityIds.get(sentryId);
+    if (activityIds == null) {
+      activityIds = new HashSet<String>();
+      criterionActivityIds.put(sentryId, activityIds);
+    }
+    activityIds.add(activityId);
+  }
+
   // variable listeners
 
   /**
@@ -16,6 +16,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -221,32 +222,63 @@ public abstract class AbstractVariableScope implements Serializable, VariableSco
 
   public void setVariables(Map<String, ? extends Object> variables) {
     if (variables!=null) {
-      for (String variableName : variables.keySet()) {
-        Object value = null;
-        if (variables instanceof VariableMap) {
-          value = ((VariableMap) variables).getValueTyped(variableName);
-        }
-        else {
-          value = variables.get(variableName);
-        }
-        setVariable(variableName, value);
+      setVariables(toTypedValues(variables), getSourceActivityVariableScope());
+    }
+  }
+
+  /**
+   * Sets the variables which exist in this scope or which are not found in any parent
+   * scope at once and passes the remaining variables on to the parent scope.
+   */
+  protected void setVariables(Map<String, TypedValue> variables, AbstractVariableScope sourceActivityVariableScope) {
+    AbstractVariableScope parentVariableScope = getParentVariableScope();
+    if (parentVariableScope == null) {
+      getVariableStore().createOrUpdateVariables(variables, sourceActivityVariableScope);
+      return;
+    }
+
+    Map<String, TypedValue> localVariables = new LinkedHashMap<String, TypedValue>();
+    Map<String, TypedValue> parentVariables = new LinkedHashMap<String, TypedValue>();
+    for (Entry<String, TypedValue> variable : variables.entrySet()) {
+      if (hasVariableLocal(variable.getKey())) {
+        localVariables.put(variable.getKey(), variable.getValue());
+      }
+      else {
+        parentVariables.put(variable.getKey(), variable.getValue());
+      }
+    }
+
+    if (!localVariables.isEmpty()) {
+      getVariableStore().createOrUpdateVariables(localVariables, sourceActivityVariableScope);
+    }
+    if (!parentVariables.isEmpty()) {
+      if (sourceActivityVariableScope==null) {
+        parentVariableScope.setVariables(parentVariables, parentVariableScope.getSourceActivityVariableScope());
+      } else {
+        parentVariableScope.setVariables(parentVariables, sourceActivityVariableScope);
       }
     }
   }
 
   public void setVariablesLocal(Map<String, ? extends Object> variables) {
     if (variables!=null) {
-      for (String variableName : variables.keySet()) {
-        Object value = null;
-        if (variables instanceof VariableMap) {
-          value = ((VariableMap) variables).getValueTyped(variableName);
-        }
-        else {
-          value = variables.get(variableName);
-        }
-        setVariableLocal(variableName, value);
+      getVariableStore().createOrUpdateVariables(toTypedValues(variables), getSourceActivityVariableScope());
+    }
+  }
+
+  protected Map<String, TypedValue> toTypedValues(Map<String, ? extends Object> variables) {
+    Map<String, TypedValue> typedValues = new LinkedHashMap<String, TypedValue>();
+    for (String variableName : variables.keySet()) {
+      Object value = null;
+      if (variables instanceof VariableMap) {
+        value = ((VariableMap) variables).getValueTyped(variableName);
+      }
+      else {
+        value = variables.get(variableName);
       }
+      typedValues.put(variableName, Variables.untypedValue(value));
     }
+    return typedValues;
   }
 
   public void removeVariables() {
@@ -12,6 +12,9 @@
  */
 package org.camunda.bpm.engine.impl.core.variable.scope;
 
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.camunda.bpm.engine.impl.core.variable.CoreVariableInstance;
 import org.camunda.bpm.engine.variable.value.TypedValue;
 
@@ -32,6 +35,12 @@ public abstract class AbstractVariableStore implements CoreVariableStore {
     }
   }
 
+  public void createOrUpdateVariables(Map<String, TypedValue> variables, AbstractVariableScope sourceActivityExecution) {
+    for (Entry<String, TypedValue> variable : variables.entrySet()) {
+      createOrUpdateVariable(variable.getKey(), variable.getValue(), sourceActivityExecution);
+    }
+  }
+
   protected abstract CoreVariableInstance createVariableInstance(String variableName, TypedValue value, AbstractVariableScope sourceActivityExecution);
 
   protected abstract void setVariableValue(CoreVariableInstance variableInstance, TypedValue value, AbstractVariableScope sourceActivityExecution);
@@ -42,5 +42,11 @@ public interface CoreVariableStore {
 
   void createOrUpdateVariable(String variableName, TypedValue value, AbstractVariableScope sourceActivityExecution);
 
+  /**
+   * Creates or updates all of the given variables at once. Stores may use this to
+   * batch the work which is otherwise done per variable.
+   */
+  void createOrUpdateVariables(Map<String, TypedValue> variables, AbstractVariableScope sourceActivityExecution);
+
   Collection<CoreVariableInstance> getVariableInstancesValues();
 }
\ No newline at end of file
@@ -13,6 +13,8 @@
 
 package org.camunda.bpm.engine.impl.db;
 
+import java.util.List;
+
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.WrongDbException;
@@ -52,6 +54,12 @@ public abstract class AbstractPersistenceSession implements PersistenceSession {
     }
   }
 
+  public void executeInsertOperations(List<DbEntityOperation> operations) {
+    for (DbEntityOperation operation : operations) {
+      insertEntity(operation);
+    }
+  }
+
   protected abstract void insertEntity(DbEntityOperation operation);
 
   protected abstract void deleteEntity(DbEntityOperation operation);
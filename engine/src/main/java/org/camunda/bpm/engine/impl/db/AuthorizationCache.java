@@ -0,0 +1,137 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.authorization.Resources;
+
+/**
+ * Caches the results of authorization checks on single resources, i.e. checks
+ * which are keyed by the user, the groups, the permissions, the resource types
+ * and the resource ids.
+ *
+ * <p>The cached results belong to a revision of the authorizations. The revision
+ * is stored in the database and incremented by every transaction which changes
+ * authorizations, so a check which reads a different revision than the cached
+ * one discards all cached results, also if the authorizations were changed by
+ * another process engine of the cluster.</p>
+ *
+ * <p>The least recently used results are removed if the cache exceeds its capacity.</p>
+ */
+public class AuthorizationCache {
+
+  protected final int capacity;
+
+  protected int revision = -1;
+  protected Map<String, Boolean> results;
+
+  public AuthorizationCache(int capacity) {
+    this.capacity = capacity;
+    this.results = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+      protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+        return size() > AuthorizationCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * @return the cached result of the check with the given key or <code>null</code>
+   * if no result is cached for the given revision of the authorizations.
+   */
+  public synchronized Boolean get(int revision, String key) {
+    if (revision != this.revision) {
+      return null;
+    }
+    return results.get(key);
+  }
+
+  public synchronized void put(int revision, String key, boolean result) {
+    if (revision > this.revision) {
+      results.clear();
+      this.revision = revision;
+    }
+    if (revision == this.revision) {
+      results.put(key, result);
+    }
+  }
+
+  public synchronized void clear() {
+    results.clear();
+  }
+
+  public synchronized int size() {
+    return results.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the cache key of the given checks or <code>null</code> if the checks
+   * cannot be cached, e.g. because they refer to the resources of a query or to tasks.
+   */
+  public static String createKey(String userId, List<String> groupIds, List<PermissionCheck> permissionChecks) {
+    StringBuilder key = new StringBuilder();
+    appendKeyPart(key, userId);
+
+    if (groupIds != null) {
+      List<String> sortedGroupIds = new ArrayList<String>(groupIds);
+      Collections.sort(sortedGroupIds);
+      key.append('|').append(sortedGroupIds.size()).append('|');
+      for (String groupId : sortedGroupIds) {
+        appendKeyPart(key, groupId);
+      }
+    }
+
+    for (PermissionCheck permissionCheck : permissionChecks) {
+      if (permissionCheck.getResourceIdQueryParam() != null || !isCachedResourceType(permissionCheck.getResourceType())) {
+        return null;
+      }
+      key.append('|')
+        .append(permissionCheck.getPerms()).append(':')
+        .append(permissionCheck.getResourceType()).append(':')
+        .append(permissionCheck.getAuthorizationNotFoundReturnValue()).append(':');
+      appendKeyPart(key, permissionCheck.getResourceId());
+    }
+
+    return key.toString();
+  }
+
+  /**
+   * Checks on tasks are not cached, since task authorizations are created and deleted whenever
+   * tasks are assigned, which must not invalidate the whole cache. Changing the authorizations
+   * of such resources does not increment the revision of the authorizations.
+   *
+   * @return true if the results of checks on the given resource type are cached
+   */
+  public static boolean isCachedResourceType(int resourceType) {
+    return resourceType != Resources.TASK.resourceType();
+  }
+
+  /** prefixes the value with its length, so that ids which contain separators cannot collide */
+  protected static void appendKeyPart(StringBuilder key, String value) {
+    if (value == null) {
+      key.append("-1:");
+    } else {
+      key.append(value.length()).append(':').append(value);
+    }
+  }
+
+}
@@ -14,8 +14,11 @@ package org.camunda.bpm.engine.impl.db;
 
 import java.util.List;
 
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.interceptor.Session;
+import org.camunda.bpm.engine.management.TableMetaData;
+import org.camunda.bpm.engine.query.QueryResultHandler;
 
 
 /**
@@ -28,14 +31,40 @@ public interface PersistenceSession extends Session {
 
   void executeDbOperation(DbOperation operation);
 
+  /**
+   * Executes the given insert operations, which all insert entities of the same type.
+   * Implementations may insert the entities with fewer statements than operations.
+   */
+  void executeInsertOperations(List<DbEntityOperation> operations);
+
+  /**
+   * Executes an insert statement which does not insert an entity, like the insert of a
+   * relation between entities.
+   */
+  void insert(String statement, Object parameter);
+
   List<?> selectList(String statement, Object parameter);
 
+  /**
+   * Selects a page of the results of a statement which does not page its results itself,
+   * like the select of the rows of a table.
+   */
+  List<?> selectList(String statement, Object parameter, int firstResult, int maxResults);
+
+  /**
+   * Passes the results of the select statement to the given handler while they are read
+   * instead of collecting them.
+   */
+  void select(String statement, Object parameter, QueryResultHandler<Object> resultHandler);
+
   <T extends DbEntity> T selectById(Class<T> type, String id);
 
   Object selectOne(String statement, Object parameter);
 
   void lock(String statement);
 
+  void lock(String statement, Object parameter);
+
   void commit();
 
   void rollback();
@@ -52,4 +81,14 @@ public interface PersistenceSession extends Session {
 
   void dbSchemaUpdate();
 
+  /**
+   * @return the names of the tables of the process engine in upper case
+   */
+  List<String> getTableNamesPresent();
+
+  /**
+   * @return the columns of the given table or <code>null</code> if the table does not exist
+   */
+  TableMetaData getTableMetaData(String tableName);
+
 }
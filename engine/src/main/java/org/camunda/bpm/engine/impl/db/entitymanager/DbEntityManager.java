@@ -33,6 +33,7 @@ import java.util.logging.Logger;
 
 import org.camunda.bpm.engine.OptimisticLockingException;
 import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.AbstractQuery;
 import org.camunda.bpm.engine.impl.DeploymentQueryImpl;
 import org.camunda.bpm.engine.impl.ExecutionQueryImpl;
 import org.camunda.bpm.engine.impl.GroupQueryImpl;
@@ -68,6 +69,8 @@ import org.camunda.bpm.engine.impl.identity.db.DbGroupQueryImpl;
 import org.camunda.bpm.engine.impl.identity.db.DbUserQueryImpl;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity;
+import org.camunda.bpm.engine.query.QueryResultHandler;
 
 /**
  *
@@ -89,11 +92,21 @@ public class DbEntityManager implements Session {
 
   protected PersistenceSession persistenceSession;
 
+  protected RuntimeStatisticsCounterCollector runtimeStatisticsCounterCollector;
+
   public DbEntityManager(IdGenerator idGenerator, PersistenceSession persistenceSession) {
     this.idGenerator = idGenerator;
     this.persistenceSession = persistenceSession;
     initializeEntityCache();
     initializeOperationManager();
+    initializeRuntimeStatisticsCounterCollector();
+  }
+
+  protected void initializeRuntimeStatisticsCounterCollector() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if(processEngineConfiguration != null && processEngineConfiguration.isRuntimeStatisticsCountersEnabled()) {
+      runtimeStatisticsCounterCollector = new RuntimeStatisticsCounterCollector(processEngineConfiguration.getRuntimeStatisticsCounterStripes());
+    }
   }
 
   protected void initializeOperationManager() {
@@ -161,10 +174,30 @@ public class DbEntityManager implements Session {
     if(firstResult == -1 ||  maxResults==-1) {
       return Collections.EMPTY_LIST;
     }
+    if (isStreamingQuery(parameter)) {
+      selectStreaming(statement, (AbstractQuery<?, ?>) parameter);
+      return Collections.EMPTY_LIST;
+    }
     List loadedObjects = persistenceSession.selectList(statement, parameter);
     return filterLoadedObjects(loadedObjects);
   }
 
+  protected boolean isStreamingQuery(Object parameter) {
+    return parameter instanceof AbstractQuery && ((AbstractQuery<?, ?>) parameter).isStreaming();
+  }
+
+  /**
+   * Passes the results of the query to its result handler while they are read. The results
+   * bypass the entity cache: they are neither added to it nor replaced by cached instances.
+   */
+  protected void selectStreaming(String statement, final AbstractQuery<?, ?> query) {
+    persistenceSession.select(statement, query, new QueryResultHandler<Object>() {
+      public void handleResult(Object result) {
+        query.handleStreamedResult(result);
+      }
+    });
+  }
+
   public Object selectOne(String statement, Object parameter) {
     Object result = persistenceSession.selectOne(statement, parameter);
     if (result instanceof DbEntity) {
@@ -243,6 +276,10 @@ public class DbEntityManager implements Session {
     persistenceSession.lock(statement);
   }
 
+  public void lock(String statement, Object parameter) {
+    persistenceSession.lock(statement, parameter);
+  }
+
   public boolean isDirty(DbEntity dbEntity) {
     CachedDbEntity cachedEntity = dbEntityCache.getCachedEntity(dbEntity);
     if(cachedEntity == null) {
@@ -254,15 +291,35 @@ public class DbEntityManager implements Session {
 
   public void flush() {
 
+    // calculate the changes of the runtime statistics counters before the cache state changes
+    collectRuntimeStatisticsCounters();
+
     // flush the entity cache
     flushEntityCache();
 
+    // schedule the updates of the runtime statistics counters
+    flushRuntimeStatisticsCounters();
+
     // obtain totally ordered operation list from operation manager
     List<DbOperation> operationsToFlush = dbOperationManager.calculateFlush();
     logFlushSummary(operationsToFlush);
 
     // execute the flush
-    for (DbOperation dbOperation : operationsToFlush) {
+    for (int i = 0; i < operationsToFlush.size(); i++) {
+      DbOperation dbOperation = operationsToFlush.get(i);
+
+      List<DbEntityOperation> insertOperations = getSubsequentInsertOperations(operationsToFlush, i);
+      if (insertOperations.size() > 1) {
+        try {
+          persistenceSession.executeInsertOperations(insertOperations);
+        }
+        catch(Exception e) {
+          throw new ProcessEngineException(formatExceptionMessage(e, dbOperation, operationsToFlush), e);
+        }
+        i += insertOperations.size() - 1;
+        continue;
+      }
+
       try {
         persistenceSession.executeDbOperation(dbOperation);
       }
@@ -272,10 +329,81 @@ public class DbEntityManager implements Session {
       if(dbOperation.isFailed()) {
         handleOptimisticLockingException(dbOperation);
       }
+      else if(isMissingRuntimeStatisticsCounter(dbOperation)) {
+        insertRuntimeStatisticsCounter((DbBulkOperation) dbOperation);
+      }
     }
 
   }
 
+  /**
+   * @return the insert operation at the given index and all directly following insert
+   * operations of the same entity type, which can be executed together.
+   */
+  protected List<DbEntityOperation> getSubsequentInsertOperations(List<DbOperation> operations, int index) {
+    DbOperation first = operations.get(index);
+    if (first.getOperationType() != INSERT) {
+      return Collections.emptyList();
+    }
+
+    List<DbEntityOperation> insertOperations = new ArrayList<DbEntityOperation>();
+    for (int i = index; i < operations.size(); i++) {
+      DbOperation operation = operations.get(i);
+      if (operation.getOperationType() != INSERT || operation.getEntityType() != first.getEntityType()) {
+        break;
+      }
+      insertOperations.add((DbEntityOperation) operation);
+    }
+    return insertOperations;
+  }
+
+  protected void collectRuntimeStatisticsCounters() {
+    if(runtimeStatisticsCounterCollector != null) {
+      for (CachedDbEntity cachedDbEntity : dbEntityCache.getCachedEntities()) {
+        runtimeStatisticsCounterCollector.collect(cachedDbEntity);
+      }
+    }
+  }
+
+  protected void flushRuntimeStatisticsCounters() {
+    if(runtimeStatisticsCounterCollector != null) {
+      for (RuntimeStatisticsCounterEntity delta : runtimeStatisticsCounterCollector.removeDeltas()) {
+        performBulkOperation(RuntimeStatisticsCounterEntity.class, RuntimeStatisticsCounterCollector.INCREMENT_STATEMENT, delta, UPDATE_BULK);
+      }
+    }
+  }
+
+  protected boolean isMissingRuntimeStatisticsCounter(DbOperation dbOperation) {
+    if(dbOperation instanceof DbBulkOperation) {
+      DbBulkOperation bulkOperation = (DbBulkOperation) dbOperation;
+      return RuntimeStatisticsCounterCollector.INCREMENT_STATEMENT.equals(bulkOperation.getStatement())
+          && bulkOperation.getRowsAffected() == 0;
+    }
+    return false;
+  }
+
+  /**
+   * Creates the counter stripe that could not be incremented because it does not exist yet.
+   * Negative deltas are inserted as well, so that the sum of the stripes stays correct
+   * when a stripe is decremented before it is incremented for the first time. Deltas of
+   * removed process definitions have been discarded by the collector.
+   */
+  protected void insertRuntimeStatisticsCounter(DbBulkOperation incrementOperation) {
+    RuntimeStatisticsCounterEntity counter = (RuntimeStatisticsCounterEntity) incrementOperation.getParameter();
+
+    DbEntityOperation insertOperation = new DbEntityOperation();
+    insertOperation.setEntity(counter);
+    insertOperation.setOperationType(INSERT);
+
+    try {
+      persistenceSession.executeDbOperation(insertOperation);
+    }
+    catch(Exception e) {
+      // the stripe was created by a concurrent transaction; the increment succeeds on retry
+      throw new OptimisticLockingException("Could not create " + counter + ". Counter was created by another transaction concurrently");
+    }
+  }
+
   protected String formatExceptionMessage(Exception e, DbOperation dbOperation, List<DbOperation> operationsToFlush) {
     StringBuilder exceptionMessage = new StringBuilder();
     exceptionMessage.append("Exception while executing Database Operation: ");
@@ -474,6 +602,13 @@ public class DbEntityManager implements Session {
     this.dbOperationManager = operationManager;
   }
 
+  /**
+   * @return the collector of the runtime statistics counters or null if the counters are not enabled
+   */
+  public RuntimeStatisticsCounterCollector getRuntimeStatisticsCounterCollector() {
+    return runtimeStatisticsCounterCollector;
+  }
+
   public DbEntityCache getDbEntityCache() {
     return dbEntityCache;
   }
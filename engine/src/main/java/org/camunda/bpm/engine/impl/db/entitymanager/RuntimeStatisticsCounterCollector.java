@@ -0,0 +1,203 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.entitymanager;
+
+import static org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity.TYPE_FAILED_JOBS;
+import static org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity.TYPE_INCIDENTS;
+import static org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity.TYPE_INSTANCES;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity;
+
+/**
+ * Computes the changes of the runtime statistics counters caused by a flush.
+ *
+ * <p>The collector compares the state of executions, jobs and incidents at the time
+ * they were loaded (the copy kept by the entity cache) with their state at flush time
+ * and sums up the resulting deltas per counter stripe. The stripe is selected by the
+ * process instance so that all counter rows touched by one transaction on behalf of
+ * one process instance are the same, while different process instances are spread
+ * over different rows.</p>
+ *
+ * <p>Entities in state {@link DbEntityState#MERGED} are ignored since their previous
+ * state is unknown.</p>
+ */
+public class RuntimeStatisticsCounterCollector {
+
+  public static final String INCREMENT_STATEMENT = "incrementRuntimeStatisticsCounter";
+
+  protected int stripes;
+
+  protected Map<String, RuntimeStatisticsCounterEntity> deltas = new LinkedHashMap<String, RuntimeStatisticsCounterEntity>();
+
+  /** process definitions whose counters are deleted by the current transaction */
+  protected Set<String> removedProcessDefinitionIds = new HashSet<String>();
+
+  public RuntimeStatisticsCounterCollector(int stripes) {
+    this.stripes = Math.max(1, stripes);
+  }
+
+  public void collect(CachedDbEntity cachedDbEntity) {
+    DbEntity entity = cachedDbEntity.getEntity();
+    if (!isCounted(entity)) {
+      return;
+    }
+
+    DbEntityState entityState = cachedDbEntity.getEntityState();
+
+    if (entityState == DbEntityState.TRANSIENT) {
+      addContribution(entity, entity.getPersistentState(), 1);
+
+    } else if (entityState == DbEntityState.PERSISTENT && cachedDbEntity.isDirty()) {
+      Object copy = cachedDbEntity.getCopy();
+      if (copy instanceof Map) {
+        // an entity without copy has an unknown previous state and must not contribute at all
+        addContribution(entity, copy, -1);
+        addContribution(entity, entity.getPersistentState(), 1);
+      }
+
+    } else if (entityState == DbEntityState.DELETED_PERSISTENT) {
+      addContribution(entity, cachedDbEntity.getCopy(), -1);
+
+    }
+  }
+
+  /**
+   * Discards all deltas of the given process definition, since its counters are deleted
+   * together with the definition.
+   */
+  public void processDefinitionRemoved(String processDefinitionId) {
+    removedProcessDefinitionIds.add(processDefinitionId);
+  }
+
+  /**
+   * @return the non-zero deltas collected since the last invocation; resets the collector.
+   */
+  public List<RuntimeStatisticsCounterEntity> removeDeltas() {
+    List<RuntimeStatisticsCounterEntity> result = new ArrayList<RuntimeStatisticsCounterEntity>();
+    for (RuntimeStatisticsCounterEntity delta : deltas.values()) {
+      if (delta.getValue() != 0 && !removedProcessDefinitionIds.contains(delta.getProcessDefinitionId())) {
+        result.add(delta);
+      }
+    }
+    deltas.clear();
+    return result;
+  }
+
+  protected boolean isCounted(DbEntity entity) {
+    return entity instanceof ExecutionEntity
+        || entity instanceof JobEntity
+        || entity instanceof IncidentEntity;
+  }
+
+  protected void addContribution(DbEntity entity, Object persistentState, int sign) {
+    if (!(persistentState instanceof Map)) {
+      // no copy: previous state unknown
+      return;
+    }
+    Map<?, ?> state = (Map<?, ?>) persistentState;
+
+    if (entity instanceof ExecutionEntity) {
+      addExecutionContribution((ExecutionEntity) entity, state, sign);
+
+    } else if (entity instanceof JobEntity) {
+      addJobContribution((JobEntity) entity, state, sign);
+
+    } else if (entity instanceof IncidentEntity) {
+      addIncidentContribution((IncidentEntity) entity, state, sign);
+
+    }
+  }
+
+  protected void addExecutionContribution(ExecutionEntity execution, Map<?, ?> state, int sign) {
+    String processDefinitionId = (String) state.get("processDefinitionId");
+    if (processDefinitionId == null) {
+      return;
+    }
+    int stripe = getStripe(execution.getProcessInstanceId());
+
+    if (state.get("parentId") == null) {
+      // the execution is a process instance
+      addDelta(processDefinitionId, null, TYPE_INSTANCES, null, stripe, sign);
+    }
+
+    String activityId = (String) state.get("activityId");
+    if (Boolean.TRUE.equals(state.get("isActive")) && activityId != null) {
+      addDelta(processDefinitionId, activityId, TYPE_INSTANCES, null, stripe, sign);
+    }
+  }
+
+  protected void addJobContribution(JobEntity job, Map<?, ?> state, int sign) {
+    String processDefinitionId = (String) state.get("processDefinitionId");
+    Integer retries = (Integer) state.get("retries");
+    if (processDefinitionId == null || retries == null || retries != 0) {
+      return;
+    }
+    int stripe = getStripe(job.getProcessInstanceId());
+
+    addDelta(processDefinitionId, null, TYPE_FAILED_JOBS, null, stripe, sign);
+
+    if (state.get("jobDefinitionId") != null) {
+      String activityId = job.getActivityId();
+      if (activityId != null) {
+        addDelta(processDefinitionId, activityId, TYPE_FAILED_JOBS, null, stripe, sign);
+      }
+    }
+  }
+
+  protected void addIncidentContribution(IncidentEntity incident, Map<?, ?> state, int sign) {
+    String processDefinitionId = (String) state.get("processDefinitionId");
+    if (processDefinitionId == null) {
+      return;
+    }
+    int stripe = getStripe(incident.getProcessInstanceId());
+    String incidentType = incident.getIncidentType();
+
+    addDelta(processDefinitionId, null, TYPE_INCIDENTS, incidentType, stripe, sign);
+
+    String activityId = incident.getActivityId();
+    if (activityId != null) {
+      addDelta(processDefinitionId, activityId, TYPE_INCIDENTS, incidentType, stripe, sign);
+    }
+  }
+
+  protected void addDelta(String processDefinitionId, String activityId, String counterType, String incidentType, int stripe, long delta) {
+    String id = RuntimeStatisticsCounterEntity.createId(processDefinitionId, activityId, counterType, incidentType, stripe);
+    RuntimeStatisticsCounterEntity counter = deltas.get(id);
+    if (counter == null) {
+      counter = new RuntimeStatisticsCounterEntity(processDefinitionId, activityId, counterType, incidentType, stripe);
+      deltas.put(id, counter);
+    }
+    counter.addValue(delta);
+  }
+
+  protected int getStripe(String processInstanceId) {
+    if (processInstanceId == null) {
+      return 0;
+    }
+    return (processInstanceId.hashCode() & Integer.MAX_VALUE) % stripes;
+  }
+
+}
@@ -27,12 +27,15 @@ public class CachedDbEntity implements Recyclable {
 
   protected Object copy;
 
+  protected boolean forcedDirty;
+
   protected DbEntityState entityState;
 
   public void recycle() {
     // clean out state
     dbEntity = null;
     copy = null;
+    forcedDirty = false;
     entityState = null;
   }
 
@@ -41,16 +44,25 @@ public class CachedDbEntity implements Recyclable {
    * @return true if the entity is dirty (state has changed since it was put into the cache)
    */
   public boolean isDirty() {
-    return !dbEntity.getPersistentState().equals(copy);
+    return forcedDirty || !dbEntity.getPersistentState().equals(copy);
   }
 
   public void forceSetDirty() {
-    // set the value of the copy to some value which will always be different from the new entity state.
-    this.copy = -1;
+    // keep the copy: it is still the state of the entity in the database
+    this.forcedDirty = true;
   }
 
   public void makeCopy() {
     copy = dbEntity.getPersistentState();
+    forcedDirty = false;
+  }
+
+  /**
+   * @return the persistent state of the entity at the time it was put into the cache
+   * or flushed the last time. May be null if no copy was made (ie. the entity is not PERSISTENT).
+   */
+  public Object getCopy() {
+    return copy;
   }
 
   public String toString() {
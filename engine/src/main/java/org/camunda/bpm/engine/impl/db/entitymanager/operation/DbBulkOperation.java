@@ -23,10 +23,16 @@ public class DbBulkOperation extends DbOperation {
   protected String statement;
   protected Object parameter;
 
+  /**
+   * The number of rows affected by the operation, -1 if the operation was not executed yet.
+   */
+  protected int rowsAffected = -1;
+
   @Override
   public void recycle() {
     statement = null;
     parameter = null;
+    rowsAffected = -1;
     super.recycle();
   }
 
@@ -42,6 +48,14 @@ public class DbBulkOperation extends DbOperation {
     this.parameter = parameter;
   }
 
+  public int getRowsAffected() {
+    return rowsAffected;
+  }
+
+  public void setRowsAffected(int rowsAffected) {
+    this.rowsAffected = rowsAffected;
+  }
+
   public String getStatement() {
     return statement;
   }
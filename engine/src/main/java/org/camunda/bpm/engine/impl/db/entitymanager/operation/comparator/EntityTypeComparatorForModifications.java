@@ -33,6 +33,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.MessageEventSubscriptionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ResourceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.SignalEventSubscriptionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.TimerEntity;
@@ -70,6 +71,9 @@ public class EntityTypeComparatorForModifications implements Comparator<Class<?>
 
     typeOrder.put(CaseSentryPartEntity.class, 1);
 
+    // counters of deleted process definitions are removed before the definitions
+    typeOrder.put(RuntimeStatisticsCounterEntity.class, 1);
+
     // 2
     typeOrder.put(GroupEntity.class, 2);
     typeOrder.put(UserEntity.class, 2);
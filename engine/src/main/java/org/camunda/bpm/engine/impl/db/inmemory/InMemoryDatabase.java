@@ -0,0 +1,241 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+
+/**
+ * The tables of the in-memory persistence, shared by all sessions of a process engine.
+ *
+ * <p>The sessions collect their changes and apply them with {@link #commit(Collection)},
+ * which holds the write lock of the database. A select holds the read lock, so that it
+ * reads either all or none of the changes of a transaction. The commit fails with an
+ * {@link OptimisticLockingException} if a versioned row was changed by another transaction
+ * since the session read it.</p>
+ *
+ * <p>The schema components (engine, history, identity, case engine and case history) have
+ * no table definitions: a table is created on its first insert and belongs to the
+ * component which is derived from its name.</p>
+ */
+public class InMemoryDatabase {
+
+  public static final String COMPONENT_ENGINE = "engine";
+  public static final String COMPONENT_HISTORY = "history";
+  public static final String COMPONENT_IDENTITY = "identity";
+  public static final String COMPONENT_CASE_ENGINE = "case.engine";
+  public static final String COMPONENT_CASE_HISTORY = "case.history";
+
+  protected final ConcurrentMap<String, InMemoryTable> tables = new ConcurrentHashMap<String, InMemoryTable>();
+  protected final ConcurrentMap<String, Lock> namedLocks = new ConcurrentHashMap<String, Lock>();
+  protected final Set<String> schemaComponents = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public InMemoryTable getTable(String name) {
+    InMemoryTable table = tables.get(name);
+    if (table == null) {
+      InMemoryTable newTable = new InMemoryTable(name);
+      table = tables.putIfAbsent(name, newTable);
+      if (table == null) {
+        table = newTable;
+      }
+    }
+    return table;
+  }
+
+  /**
+   * @return the table with the given name or <code>null</code> if no row was inserted into it yet
+   */
+  public InMemoryTable findTable(String name) {
+    return tables.get(name);
+  }
+
+  public List<String> getTableNames() {
+    return new ArrayList<String>(tables.keySet());
+  }
+
+  public Lock getReadLock() {
+    return lock.readLock();
+  }
+
+  /**
+   * @return the lock with the given name, which is held by a session until the end of its
+   * transaction to serialize the transactions which lock the same name, e.g. deployments.
+   */
+  public Lock getNamedLock(String name) {
+    Lock namedLock = namedLocks.get(name);
+    if (namedLock == null) {
+      Lock newLock = new ReentrantLock();
+      namedLock = namedLocks.putIfAbsent(name, newLock);
+      if (namedLock == null) {
+        namedLock = newLock;
+      }
+    }
+    return namedLock;
+  }
+
+  /**
+   * Applies the given changes if none of them conflicts with a change of another transaction.
+   *
+   * @throws OptimisticLockingException if a checked row was changed since it was read or
+   * an inserted row exists already
+   */
+  public void commit(Collection<RowChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      for (RowChange change : changes) {
+        if (change.isChecked() && getTable(change.getTable()).getRow(change.getId()) != change.getBaseRow()) {
+          throw new OptimisticLockingException(change + " was updated by another transaction concurrently");
+        }
+      }
+
+      for (RowChange change : changes) {
+        InMemoryTable table = getTable(change.getTable());
+        if (change.getNewRow() != null) {
+          // an unchecked update of a row which was deleted concurrently updates nothing
+          if (change.getBaseRow() == null || table.getRow(change.getId()) != null) {
+            table.put(change.getNewRow());
+          }
+        } else {
+          table.remove(change.getId());
+        }
+      }
+
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // schema ///////////////////////////////////////////////////////////////////
+
+  public boolean isSchemaComponentPresent(String component) {
+    return schemaComponents.contains(component);
+  }
+
+  public void createSchemaComponent(String component, List<InMemoryRow> initialRows, String initialRowsTable) {
+    lock.writeLock().lock();
+    try {
+      schemaComponents.add(component);
+      for (InMemoryRow row : initialRows) {
+        getTable(initialRowsTable).put(row);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void dropSchemaComponent(String component) {
+    lock.writeLock().lock();
+    try {
+      schemaComponents.remove(component);
+      for (InMemoryTable table : new ArrayList<InMemoryTable>(tables.values())) {
+        if (component.equals(getSchemaComponent(table.getName()))) {
+          tables.remove(table.getName());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the schema component of the table with the given name, which may have a prefix
+   */
+  public static String getSchemaComponent(String tableName) {
+    String name = tableName.substring(Math.max(tableName.indexOf("ACT_"), 0));
+    if (name.startsWith("ACT_HI_CASE")) {
+      return COMPONENT_CASE_HISTORY;
+    } else if (name.startsWith("ACT_RE_CASE") || name.startsWith("ACT_RU_CASE")) {
+      return COMPONENT_CASE_ENGINE;
+    } else if (name.startsWith("ACT_HI_")) {
+      return COMPONENT_HISTORY;
+    } else if (name.startsWith("ACT_ID_")) {
+      return COMPONENT_IDENTITY;
+    } else {
+      return COMPONENT_ENGINE;
+    }
+  }
+
+  /**
+   * The change of a row by a transaction.
+   */
+  public static class RowChange {
+
+    protected final String table;
+    protected final String id;
+    protected final InMemoryRow baseRow;
+    protected InMemoryRow newRow;
+    protected boolean checked;
+
+    /**
+     * @param baseRow the committed row which was changed, or <code>null</code> for an insert
+     * @param newRow the new row, or <code>null</code> for a delete
+     * @param checked whether the commit fails if the committed row is not the base row anymore
+     */
+    public RowChange(String table, String id, InMemoryRow baseRow, InMemoryRow newRow, boolean checked) {
+      this.table = table;
+      this.id = id;
+      this.baseRow = baseRow;
+      this.newRow = newRow;
+      this.checked = checked;
+    }
+
+    public String getTable() {
+      return table;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public InMemoryRow getBaseRow() {
+      return baseRow;
+    }
+
+    public InMemoryRow getNewRow() {
+      return newRow;
+    }
+
+    public void setNewRow(InMemoryRow newRow) {
+      this.newRow = newRow;
+    }
+
+    public boolean isChecked() {
+      return checked;
+    }
+
+    public void setChecked(boolean checked) {
+      this.checked = checked;
+    }
+
+    public String toString() {
+      return table + "[" + id + "]";
+    }
+  }
+
+}
@@ -0,0 +1,740 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.RowSource;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Select;
+
+/**
+ * An expression of a statement which is interpreted by the in-memory persistence.
+ * Conditions evaluate to {@link Boolean#TRUE}, {@link Boolean#FALSE} or <code>null</code>
+ * for unknown, like in SQL.
+ */
+public abstract class InMemoryExpression {
+
+  public abstract Object evaluate(Bindings bindings);
+
+  /**
+   * @return true if all columns of the expression belong to tables which are bound
+   */
+  public abstract boolean isBound(Bindings bindings);
+
+  public static boolean isTrue(Object value) {
+    return Boolean.TRUE.equals(value);
+  }
+
+  /**
+   * Compares two non-null values like a database compares the values of columns:
+   * numbers by their values, booleans as 1 and 0 and dates by their times.
+   */
+  public static int compare(Object value1, Object value2) {
+    if (value1 instanceof Boolean) {
+      value1 = ((Boolean) value1) ? 1 : 0;
+    }
+    if (value2 instanceof Boolean) {
+      value2 = ((Boolean) value2) ? 1 : 0;
+    }
+
+    if (value1 instanceof Number && value2 instanceof Number) {
+      if (isIntegral((Number) value1) && isIntegral((Number) value2)) {
+        long long1 = ((Number) value1).longValue();
+        long long2 = ((Number) value2).longValue();
+        return long1 < long2 ? -1 : (long1 == long2 ? 0 : 1);
+      }
+      return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+
+    } else if (value1 instanceof Date && value2 instanceof Date) {
+      long time1 = ((Date) value1).getTime();
+      long time2 = ((Date) value2).getTime();
+      return time1 < time2 ? -1 : (time1 == time2 ? 0 : 1);
+
+    } else {
+      return value1.toString().compareTo(value2.toString());
+    }
+  }
+
+  /**
+   * Compares two values for an order, with <code>null</code> before all other values.
+   */
+  public static int compareForOrder(Object value1, Object value2) {
+    if (value1 == null) {
+      return value2 == null ? 0 : -1;
+    } else if (value2 == null) {
+      return 1;
+    }
+    return compare(value1, value2);
+  }
+
+  protected static boolean isIntegral(Number number) {
+    return !(number instanceof Double || number instanceof Float);
+  }
+
+  // bindings /////////////////////////////////////////////////////////////////
+
+  /**
+   * The parameters of a statement and the rows of the tables which are joined
+   * by a select, by the aliases of the tables.
+   */
+  public static class Bindings {
+
+    protected final RowSource rowSource;
+    protected final Object[] parameters;
+    protected final Map<String, Map<String, Object>> rows;
+
+    public Bindings(RowSource rowSource, Object[] parameters) {
+      this(rowSource, parameters, Collections.<String, Map<String, Object>>emptyMap());
+    }
+
+    protected Bindings(RowSource rowSource, Object[] parameters, Map<String, Map<String, Object>> rows) {
+      this.rowSource = rowSource;
+      this.parameters = parameters;
+      this.rows = rows;
+    }
+
+    /**
+     * @return the rows which are visible to the transaction of the statement
+     */
+    public RowSource getRowSource() {
+      return rowSource;
+    }
+
+    /**
+     * @param row the row of the table or <code>null</code> if an outer join found no row
+     */
+    public Bindings bind(String alias, Map<String, Object> row) {
+      Map<String, Map<String, Object>> newRows = new LinkedHashMap<String, Map<String, Object>>(rows);
+      newRows.put(alias, row);
+      return new Bindings(rowSource, parameters, newRows);
+    }
+
+    public boolean isBound(String alias) {
+      return rows.containsKey(alias);
+    }
+
+    public Map<String, Object> getRow(String alias) {
+      return rows.get(alias);
+    }
+
+    public Object getParameter(int index) {
+      return parameters[index];
+    }
+
+    public Object getValue(String alias, String column) {
+      if (alias != null) {
+        if (!rows.containsKey(alias)) {
+          throw new ProcessEngineException("Unknown table alias '" + alias + "'");
+        }
+        Map<String, Object> row = rows.get(alias);
+        return row != null ? row.get(column) : null;
+      }
+      // unqualified columns belong to the innermost table which has them, like in a subquery
+      List<Map<String, Object>> boundRows = new ArrayList<Map<String, Object>>(rows.values());
+      for (int i = boundRows.size() - 1; i >= 0; i--) {
+        Map<String, Object> row = boundRows.get(i);
+        if (row != null && row.containsKey(column)) {
+          return row.get(column);
+        }
+      }
+      return null;
+    }
+  }
+
+  // values ///////////////////////////////////////////////////////////////////
+
+  public static class Literal extends InMemoryExpression {
+
+    protected final Object value;
+
+    public Literal(Object value) {
+      this.value = value;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      return value;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return true;
+    }
+  }
+
+  public static class Parameter extends InMemoryExpression {
+
+    protected final int index;
+
+    public Parameter(int index) {
+      this.index = index;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      return bindings.getParameter(index);
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return true;
+    }
+  }
+
+  public static class Column extends InMemoryExpression {
+
+    protected final String alias;
+    protected final String name;
+
+    public Column(String alias, String name) {
+      this.alias = alias;
+      this.name = name;
+    }
+
+    public String getAlias() {
+      return alias;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      return bindings.getValue(alias, name);
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return alias != null && bindings.isBound(alias);
+    }
+  }
+
+  /**
+   * The functions LOWER, UPPER, COALESCE and BITAND.
+   */
+  public static class Function extends InMemoryExpression {
+
+    protected final String name;
+    protected final List<InMemoryExpression> arguments;
+
+    public Function(String name, List<InMemoryExpression> arguments) {
+      this.name = name;
+      this.arguments = arguments;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      if ("COALESCE".equals(name)) {
+        for (InMemoryExpression argument : arguments) {
+          Object value = argument.evaluate(bindings);
+          if (value != null) {
+            return value;
+          }
+        }
+        return null;
+      }
+
+      List<Object> values = new ArrayList<Object>(arguments.size());
+      for (InMemoryExpression argument : arguments) {
+        Object value = argument.evaluate(bindings);
+        if (value == null) {
+          return null;
+        }
+        values.add(value);
+      }
+
+      if ("LOWER".equals(name)) {
+        return values.get(0).toString().toLowerCase();
+      } else if ("UPPER".equals(name)) {
+        return values.get(0).toString().toUpperCase();
+      } else {
+        Number value1 = (Number) values.get(0);
+        Number value2 = (Number) values.get(1);
+        long result = value1.longValue() & value2.longValue();
+        if (value1 instanceof Integer && value2 instanceof Integer) {
+          return (int) result;
+        }
+        return result;
+      }
+    }
+
+    public boolean isBound(Bindings bindings) {
+      for (InMemoryExpression argument : arguments) {
+        if (!argument.isBound(bindings)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * A searched case, which evaluates to the result of the first condition which is true.
+   */
+  public static class Case extends InMemoryExpression {
+
+    protected final List<InMemoryExpression> conditions;
+    protected final List<InMemoryExpression> results;
+    protected final InMemoryExpression elseResult;
+
+    /**
+     * @param elseResult the result if no condition is true or <code>null</code> for a null result
+     */
+    public Case(List<InMemoryExpression> conditions, List<InMemoryExpression> results, InMemoryExpression elseResult) {
+      this.conditions = conditions;
+      this.results = results;
+      this.elseResult = elseResult;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      for (int i = 0; i < conditions.size(); i++) {
+        if (isTrue(conditions.get(i).evaluate(bindings))) {
+          return results.get(i).evaluate(bindings);
+        }
+      }
+      return elseResult != null ? elseResult.evaluate(bindings) : null;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      for (int i = 0; i < conditions.size(); i++) {
+        if (!conditions.get(i).isBound(bindings) || !results.get(i).isBound(bindings)) {
+          return false;
+        }
+      }
+      return elseResult == null || elseResult.isBound(bindings);
+    }
+  }
+
+  /**
+   * Addition, subtraction and string concatenation.
+   */
+  public static class BinaryOperation extends InMemoryExpression {
+
+    protected final String operator;
+    protected final InMemoryExpression left;
+    protected final InMemoryExpression right;
+
+    public BinaryOperation(String operator, InMemoryExpression left, InMemoryExpression right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      Object leftValue = left.evaluate(bindings);
+      Object rightValue = right.evaluate(bindings);
+      if (leftValue == null || rightValue == null) {
+        return null;
+      }
+
+      if ("||".equals(operator)) {
+        return leftValue.toString() + rightValue.toString();
+      }
+
+      Number leftNumber = (Number) leftValue;
+      Number rightNumber = "-".equals(operator) ? negate((Number) rightValue) : (Number) rightValue;
+      if (isIntegral(leftNumber) && isIntegral(rightNumber)) {
+        long result = leftNumber.longValue() + rightNumber.longValue();
+        if (leftNumber instanceof Integer && result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+          return (int) result;
+        }
+        return result;
+      }
+      return leftNumber.doubleValue() + rightNumber.doubleValue();
+    }
+
+    protected Number negate(Number number) {
+      return isIntegral(number) ? (Number) (-number.longValue()) : (Number) (-number.doubleValue());
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return left.isBound(bindings) && right.isBound(bindings);
+    }
+  }
+
+  /**
+   * A select in parentheses which returns a single value, e.g. a maximum.
+   */
+  public static class ScalarSubquery extends InMemoryExpression {
+
+    protected final Select select;
+
+    public ScalarSubquery(Select select) {
+      this.select = select;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      List<Map<String, Object>> result = select.execute(bindings);
+      if (result.isEmpty()) {
+        return null;
+      } else if (result.size() > 1) {
+        throw new ProcessEngineException("Subquery returned more than one row");
+      }
+      return result.get(0).values().iterator().next();
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return false;
+    }
+  }
+
+  // conditions ///////////////////////////////////////////////////////////////
+
+  public static class Exists extends InMemoryExpression {
+
+    protected final Select select;
+
+    public Exists(Select select) {
+      this.select = select;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      return !select.execute(bindings).isEmpty();
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return false;
+    }
+  }
+
+  public static class InSubquery extends InMemoryExpression {
+
+    protected final InMemoryExpression expression;
+    protected final Select select;
+    protected final boolean negated;
+
+    public InSubquery(InMemoryExpression expression, Select select, boolean negated) {
+      this.expression = expression;
+      this.select = select;
+      this.negated = negated;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      Object value = expression.evaluate(bindings);
+      if (value == null) {
+        return null;
+      }
+      boolean unknown = false;
+      for (Map<String, Object> row : select.execute(bindings)) {
+        Object candidateValue = row.values().iterator().next();
+        if (candidateValue == null) {
+          unknown = true;
+        } else if (compare(value, candidateValue) == 0) {
+          return !negated;
+        }
+      }
+      return unknown ? null : negated;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return false;
+    }
+  }
+
+
+  public static class Comparison extends InMemoryExpression {
+
+    protected final String operator;
+    protected final InMemoryExpression left;
+    protected final InMemoryExpression right;
+
+    public Comparison(String operator, InMemoryExpression left, InMemoryExpression right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    public String getOperator() {
+      return operator;
+    }
+
+    public InMemoryExpression getLeft() {
+      return left;
+    }
+
+    public InMemoryExpression getRight() {
+      return right;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      Object leftValue = left.evaluate(bindings);
+      Object rightValue = right.evaluate(bindings);
+      if (leftValue == null || rightValue == null) {
+        return null;
+      }
+
+      int comparison = compare(leftValue, rightValue);
+      if ("=".equals(operator)) {
+        return comparison == 0;
+      } else if ("<>".equals(operator)) {
+        return comparison != 0;
+      } else if ("<".equals(operator)) {
+        return comparison < 0;
+      } else if ("<=".equals(operator)) {
+        return comparison <= 0;
+      } else if (">".equals(operator)) {
+        return comparison > 0;
+      } else {
+        return comparison >= 0;
+      }
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return left.isBound(bindings) && right.isBound(bindings);
+    }
+  }
+
+  public static class IsNull extends InMemoryExpression {
+
+    protected final InMemoryExpression expression;
+    protected final boolean negated;
+
+    public IsNull(InMemoryExpression expression, boolean negated) {
+      this.expression = expression;
+      this.negated = negated;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      return (expression.evaluate(bindings) == null) != negated;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return expression.isBound(bindings);
+    }
+  }
+
+  public static class In extends InMemoryExpression {
+
+    protected final InMemoryExpression expression;
+    protected final List<InMemoryExpression> values;
+    protected final boolean negated;
+
+    public In(InMemoryExpression expression, List<InMemoryExpression> values, boolean negated) {
+      this.expression = expression;
+      this.values = values;
+      this.negated = negated;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      Object value = expression.evaluate(bindings);
+      if (value == null) {
+        return null;
+      }
+      boolean unknown = false;
+      for (InMemoryExpression candidate : values) {
+        Object candidateValue = candidate.evaluate(bindings);
+        if (candidateValue == null) {
+          unknown = true;
+        } else if (compare(value, candidateValue) == 0) {
+          return !negated;
+        }
+      }
+      return unknown ? null : negated;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      if (!expression.isBound(bindings)) {
+        return false;
+      }
+      for (InMemoryExpression value : values) {
+        if (!value.isBound(bindings)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  public static class Like extends InMemoryExpression {
+
+    /** the maximum number of compiled patterns which are kept by a condition */
+    protected static final int MAX_CACHED_PATTERNS = 64;
+
+    protected final InMemoryExpression expression;
+    protected final InMemoryExpression pattern;
+    protected final InMemoryExpression escape;
+    protected final boolean negated;
+
+    /** the compiled patterns by their escape character and pattern; the conditions are shared by the sessions */
+    protected final ConcurrentMap<String, Pattern> regexCache = new ConcurrentHashMap<String, Pattern>();
+
+    public Like(InMemoryExpression expression, InMemoryExpression pattern, InMemoryExpression escape, boolean negated) {
+      this.expression = expression;
+      this.pattern = pattern;
+      this.escape = escape;
+      this.negated = negated;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      Object value = expression.evaluate(bindings);
+      Object patternValue = pattern.evaluate(bindings);
+      if (value == null || patternValue == null) {
+        return null;
+      }
+      Object escapeValue = escape != null ? escape.evaluate(bindings) : null;
+      boolean matches = getRegex(patternValue.toString(), escapeValue != null ? escapeValue.toString() : null)
+          .matcher(value.toString())
+          .matches();
+      return matches != negated;
+    }
+
+    protected Pattern getRegex(String likePattern, String escapeCharacter) {
+      if (escapeCharacter != null && escapeCharacter.length() != 1) {
+        escapeCharacter = null;
+      }
+      String key = escapeCharacter != null ? "+" + escapeCharacter + likePattern : "-" + likePattern;
+
+      Pattern regex = regexCache.get(key);
+      if (regex == null) {
+        regex = toRegex(likePattern, escapeCharacter);
+        // the patterns are usually parameters, so the cache is bounded
+        if (regexCache.size() >= MAX_CACHED_PATTERNS) {
+          regexCache.clear();
+        }
+        regexCache.put(key, regex);
+      }
+      return regex;
+    }
+
+    protected Pattern toRegex(String likePattern, String escapeCharacter) {
+      StringBuilder regex = new StringBuilder();
+      StringBuilder literal = new StringBuilder();
+      for (int i = 0; i < likePattern.length(); i++) {
+        char c = likePattern.charAt(i);
+        if (escapeCharacter != null && escapeCharacter.length() == 1 && c == escapeCharacter.charAt(0) && i + 1 < likePattern.length()) {
+          literal.append(likePattern.charAt(++i));
+        } else if (c == '%' || c == '_') {
+          if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+          }
+          regex.append(c == '%' ? ".*" : ".");
+        } else {
+          literal.append(c);
+        }
+      }
+      if (literal.length() > 0) {
+        regex.append(Pattern.quote(literal.toString()));
+      }
+      return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return expression.isBound(bindings) && pattern.isBound(bindings);
+    }
+  }
+
+  public static class Not extends InMemoryExpression {
+
+    protected final InMemoryExpression expression;
+
+    public Not(InMemoryExpression expression) {
+      this.expression = expression;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      Object value = expression.evaluate(bindings);
+      return value == null ? null : !isTrue(value);
+    }
+
+    public boolean isBound(Bindings bindings) {
+      return expression.isBound(bindings);
+    }
+  }
+
+  public static class And extends InMemoryExpression {
+
+    protected final List<InMemoryExpression> operands;
+
+    public And(List<InMemoryExpression> operands) {
+      this.operands = operands;
+    }
+
+    public List<InMemoryExpression> getOperands() {
+      return operands;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      boolean unknown = false;
+      for (InMemoryExpression operand : operands) {
+        Object value = operand.evaluate(bindings);
+        if (value == null) {
+          unknown = true;
+        } else if (!isTrue(value)) {
+          return false;
+        }
+      }
+      return unknown ? null : true;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      for (InMemoryExpression operand : operands) {
+        if (!operand.isBound(bindings)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  public static class Or extends InMemoryExpression {
+
+    protected final List<InMemoryExpression> operands;
+
+    public Or(List<InMemoryExpression> operands) {
+      this.operands = operands;
+    }
+
+    public Object evaluate(Bindings bindings) {
+      boolean unknown = false;
+      for (InMemoryExpression operand : operands) {
+        Object value = operand.evaluate(bindings);
+        if (value == null) {
+          unknown = true;
+        } else if (isTrue(value)) {
+          return true;
+        }
+      }
+      return unknown ? null : false;
+    }
+
+    public boolean isBound(Bindings bindings) {
+      for (InMemoryExpression operand : operands) {
+        if (!operand.isBound(bindings)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * @return the operands of the given condition which must all be true, i.e. the
+   * operands of a conjunction or the condition itself
+   */
+  public static List<InMemoryExpression> getConjuncts(InMemoryExpression condition) {
+    List<InMemoryExpression> conjuncts = new ArrayList<InMemoryExpression>();
+    if (condition instanceof And) {
+      for (InMemoryExpression operand : ((And) condition).getOperands()) {
+        conjuncts.addAll(getConjuncts(operand));
+      }
+    } else if (condition != null) {
+      conjuncts.add(condition);
+    }
+    return conjuncts;
+  }
+
+}
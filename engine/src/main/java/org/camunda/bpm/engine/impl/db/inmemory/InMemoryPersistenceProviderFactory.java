@@ -0,0 +1,74 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.camunda.bpm.engine.impl.db.PersistenceSession;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.interceptor.Session;
+import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
+
+/**
+ * Provides the {@link InMemoryPersistenceSession} as {@link PersistenceSession}.
+ *
+ * <p>The statements are taken from the MyBatis mappings of the given {@link DbSqlSessionFactory},
+ * which is configured for the h2 database. The factory caches the parsed statements by their SQL.</p>
+ */
+public class InMemoryPersistenceProviderFactory implements SessionFactory {
+
+  protected final InMemoryDatabase database;
+  protected final DbSqlSessionFactory dbSqlSessionFactory;
+  protected final InMemoryResultMapper resultMapper;
+  protected final ConcurrentMap<String, InMemoryStatement> statementCache = new ConcurrentHashMap<String, InMemoryStatement>();
+
+  public InMemoryPersistenceProviderFactory(InMemoryDatabase database, DbSqlSessionFactory dbSqlSessionFactory) {
+    this.database = database;
+    this.dbSqlSessionFactory = dbSqlSessionFactory;
+    this.resultMapper = new InMemoryResultMapper(dbSqlSessionFactory.getSqlSessionFactory().getConfiguration());
+  }
+
+  public Class<?> getSessionType() {
+    return PersistenceSession.class;
+  }
+
+  public Session openSession() {
+    return new InMemoryPersistenceSession(this);
+  }
+
+  /**
+   * @return the parsed statement for the given SQL
+   */
+  public InMemoryStatement getStatement(String sql) {
+    InMemoryStatement statement = statementCache.get(sql);
+    if (statement == null) {
+      statement = new InMemoryStatementParser(sql).parse();
+      statementCache.put(sql, statement);
+    }
+    return statement;
+  }
+
+  public InMemoryDatabase getDatabase() {
+    return database;
+  }
+
+  public DbSqlSessionFactory getDbSqlSessionFactory() {
+    return dbSqlSessionFactory;
+  }
+
+  public InMemoryResultMapper getResultMapper() {
+    return resultMapper;
+  }
+
+}
@@ -0,0 +1,689 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.WrongDbException;
+import org.camunda.bpm.engine.impl.db.AbstractPersistenceSession;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryDatabase.RowChange;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Bindings;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Delete;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Insert;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.RowSource;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Select;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.TableStatement;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Update;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.util.ClassNameUtil;
+import org.camunda.bpm.engine.management.TableMetaData;
+import org.camunda.bpm.engine.query.QueryResultHandler;
+
+/**
+ * A {@link org.camunda.bpm.engine.impl.db.PersistenceSession} which keeps the data of the
+ * process engine in an {@link InMemoryDatabase} instead of a relational database.
+ *
+ * <p>The session executes the SQL which the MyBatis mappings generate for the h2 database
+ * with an interpreter (see {@link InMemoryStatementParser}). The changes of a transaction
+ * are kept by the session and overlay the committed rows for its own selects until they
+ * are applied on commit. A versioned row which was changed by another transaction after
+ * it was read fails the commit with an {@link OptimisticLockingException}.</p>
+ */
+public class InMemoryPersistenceSession extends AbstractPersistenceSession implements RowSource {
+
+  private static Logger log = Logger.getLogger(InMemoryPersistenceSession.class.getName());
+
+  /** the number of named locks per lock statement which takes a parameter; a power of two */
+  protected static final int LOCK_STRIPES = 64;
+
+  protected static final Comparator<InMemoryRow> ID_ORDER = new Comparator<InMemoryRow>() {
+    public int compare(InMemoryRow row1, InMemoryRow row2) {
+      return row1.getId().compareTo(row2.getId());
+    }
+  };
+
+  protected InMemoryPersistenceProviderFactory persistenceProviderFactory;
+  protected InMemoryDatabase database;
+  protected DbSqlSessionFactory dbSqlSessionFactory;
+  protected Configuration configuration;
+
+  /** the changes of the transaction by the ids of the rows by the names of the tables */
+  protected Map<String, Map<String, RowChange>> changes = new LinkedHashMap<String, Map<String, RowChange>>();
+
+  /** the named locks which are held until the end of the transaction */
+  protected List<Lock> locks = new ArrayList<Lock>();
+
+  public InMemoryPersistenceSession(InMemoryPersistenceProviderFactory persistenceProviderFactory) {
+    this.persistenceProviderFactory = persistenceProviderFactory;
+    this.database = persistenceProviderFactory.getDatabase();
+    this.dbSqlSessionFactory = persistenceProviderFactory.getDbSqlSessionFactory();
+    this.configuration = dbSqlSessionFactory.getSqlSessionFactory().getConfiguration();
+  }
+
+  // select ////////////////////////////////////////////
+
+  public List<?> selectList(String statement, Object parameter) {
+    MappedStatement mappedStatement = getMappedStatement(statement);
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    Select select = getStatement(boundSql, Select.class);
+
+    List<Map<String, Object>> rows;
+    database.getReadLock().lock();
+    try {
+      rows = select.execute(createBindings(boundSql, parameter));
+    } finally {
+      database.getReadLock().unlock();
+    }
+
+    List<Object> result = new ArrayList<Object>(rows.size());
+    for (Map<String, Object> row : rows) {
+      result.add(persistenceProviderFactory.getResultMapper().map(mappedStatement, row));
+    }
+    return result;
+  }
+
+  public List<?> selectList(String statement, Object parameter, int firstResult, int maxResults) {
+    List<?> results = selectList(statement, parameter);
+    if (firstResult >= results.size()) {
+      return new ArrayList<Object>();
+    }
+    int end = (int) Math.min((long) firstResult + maxResults, results.size());
+    return results.subList(firstResult, end);
+  }
+
+  public void select(String statement, Object parameter, QueryResultHandler<Object> resultHandler) {
+    for (Object result : selectList(statement, parameter)) {
+      resultHandler.handleResult(result);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends DbEntity> T selectById(Class<T> type, String id) {
+    String selectStatement = dbSqlSessionFactory.getSelectStatement(type);
+    ensureNotNull("no select statement for " + type + " in the ibatis mapping files", "selectStatement", selectStatement);
+
+    return (T) selectOne(selectStatement, id);
+  }
+
+  public Object selectOne(String statement, Object parameter) {
+    List<?> results = selectList(statement, parameter);
+    if (results.size() > 1) {
+      throw new ProcessEngineException("Expected one result (or null) to be returned by selectOne(), but found: " + results.size());
+    }
+    return results.isEmpty() ? null : results.get(0);
+  }
+
+  /**
+   * @return the committed rows of the given table, overlaid with the changes of this transaction
+   */
+  public Collection<InMemoryRow> getRows(String table, String column, Object value) {
+    InMemoryTable committedTable = database.findTable(table);
+    Map<String, RowChange> tableChanges = changes.get(table);
+
+    Collection<InMemoryRow> committedRows;
+    if (committedTable == null) {
+      committedRows = Collections.emptyList();
+    } else if (column == null) {
+      committedRows = committedTable.getRows();
+    } else {
+      committedRows = committedTable.getRows(column, value);
+    }
+
+    if (tableChanges == null || tableChanges.isEmpty()) {
+      return committedRows;
+    }
+
+    List<InMemoryRow> rows = new ArrayList<InMemoryRow>(committedRows.size() + tableChanges.size());
+    for (InMemoryRow row : committedRows) {
+      if (!tableChanges.containsKey(row.getId())) {
+        rows.add(row);
+      }
+    }
+    for (RowChange change : tableChanges.values()) {
+      InMemoryRow row = change.getNewRow();
+      if (row != null && (column == null || value.equals(row.getValue(column)))) {
+        rows.add(row);
+      }
+    }
+    Collections.sort(rows, ID_ORDER);
+    return rows;
+  }
+
+  // lock ////////////////////////////////////////////
+
+  public void lock(String statement) {
+    Lock lock = database.getNamedLock(statement);
+    lock.lock();
+    locks.add(lock);
+  }
+
+  public void lock(String statement, Object parameter) {
+    // the locks are striped, so that the number of named locks does not grow with the parameters
+    lock(statement + "#" + (parameter.hashCode() & (LOCK_STRIPES - 1)));
+  }
+
+  // insert //////////////////////////////////////////
+
+  protected void insertEntity(DbEntityOperation operation) {
+    DbEntity dbEntity = operation.getEntity();
+
+    String insertStatement = dbSqlSessionFactory.getInsertStatement(dbEntity);
+    ensureNotNull("no insert statement for " + dbEntity.getClass() + " in the ibatis mapping files", "insertStatement", insertStatement);
+
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("inserting: " + toString(dbEntity));
+    }
+
+    MappedStatement mappedStatement = getMappedStatement(insertStatement);
+    BoundSql boundSql = mappedStatement.getBoundSql(dbEntity);
+    Insert insert = getStatement(boundSql, Insert.class);
+
+    for (Map<String, Object> values : insert.getRows(createBindings(boundSql, dbEntity))) {
+      insertRow(insert.getTable(), new InMemoryRow(getRowId(values, dbEntity.getId()), values));
+    }
+
+    if (dbEntity instanceof HasDbRevision) {
+      ((HasDbRevision) dbEntity).setRevision(1);
+    }
+  }
+
+  public void insert(String statement, Object parameter) {
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("inserting: " + statement + " " + parameter);
+    }
+
+    MappedStatement mappedStatement = getMappedStatement(statement);
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    Insert insert = getStatement(boundSql, Insert.class);
+
+    for (Map<String, Object> values : insert.getRows(createBindings(boundSql, parameter))) {
+      insertRow(insert.getTable(), new InMemoryRow(getRowId(values, null), values));
+    }
+  }
+
+  /**
+   * @param entityId the id of the inserted entity or <code>null</code>
+   * @return the value of the id column; for a relation without id column, like a membership,
+   * the values of all columns, which are its primary key
+   */
+  protected String getRowId(Map<String, Object> values, String entityId) {
+    Object id = values.get(InMemoryTable.ID_COLUMN);
+    if (id != null) {
+      return id.toString();
+    } else if (entityId != null) {
+      return entityId;
+    }
+    return values.values().toString();
+  }
+
+  protected void insertRow(String table, InMemoryRow row) {
+    Map<String, RowChange> tableChanges = getTableChanges(table);
+    RowChange change = tableChanges.get(row.getId());
+
+    if (change != null) {
+      if (change.getNewRow() != null) {
+        throw new ProcessEngineException("Duplicate row " + change + " inserted");
+      }
+      // the row was deleted by this transaction before
+      change.setNewRow(row);
+
+    } else {
+      database.getReadLock().lock();
+      try {
+        InMemoryTable committedTable = database.findTable(table);
+        if (committedTable != null && committedTable.getRow(row.getId()) != null) {
+          throw new OptimisticLockingException("InMemoryRow " + table + "[" + row.getId() + "] was inserted by another transaction concurrently");
+        }
+      } finally {
+        database.getReadLock().unlock();
+      }
+      tableChanges.put(row.getId(), new RowChange(table, row.getId(), null, row, true));
+    }
+  }
+
+  // delete ///////////////////////////////////////////
+
+  protected void deleteEntity(DbEntityOperation operation) {
+    DbEntity dbEntity = operation.getEntity();
+
+    String deleteStatement = dbSqlSessionFactory.getDeleteStatement(dbEntity.getClass());
+    ensureNotNull("no delete statement for " + dbEntity.getClass() + " in the ibatis mapping files", "deleteStatement", deleteStatement);
+
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("deleting: " + toString(dbEntity));
+    }
+
+    int nrOfRowsDeleted = executeTableStatement(deleteStatement, dbEntity, true);
+
+    // It only makes sense to check for optimistic locking exceptions for objects that actually have a revision
+    if (dbEntity instanceof HasDbRevision && nrOfRowsDeleted == 0) {
+      operation.setFailed(true);
+    }
+  }
+
+  protected void deleteBulk(DbBulkOperation operation) {
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("deleting (bulk): " + operation.getStatement() + " " + operation.getParameter());
+    }
+
+    int nrOfRowsDeleted = executeTableStatement(operation.getStatement(), operation.getParameter(), false);
+    operation.setRowsAffected(nrOfRowsDeleted);
+  }
+
+  // update ////////////////////////////////////////
+
+  protected void updateEntity(DbEntityOperation operation) {
+    DbEntity dbEntity = operation.getEntity();
+
+    String updateStatement = dbSqlSessionFactory.getUpdateStatement(dbEntity);
+    ensureNotNull("no update statement for " + dbEntity.getClass() + " in the ibatis mapping files", "updateStatement", updateStatement);
+
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("updating: " + toString(dbEntity));
+    }
+
+    int numOfRowsUpdated = executeTableStatement(updateStatement, dbEntity, true);
+
+    if (dbEntity instanceof HasDbRevision) {
+      if (numOfRowsUpdated != 1) {
+        // failed with optimistic locking
+        operation.setFailed(true);
+      } else {
+        // increment revision of our copy
+        HasDbRevision versionedObject = (HasDbRevision) dbEntity;
+        versionedObject.setRevision(versionedObject.getRevisionNext());
+      }
+    }
+  }
+
+  protected void updateBulk(DbBulkOperation operation) {
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("updating (bulk): " + operation.getStatement() + " " + operation.getParameter());
+    }
+
+    int numOfRowsUpdated = executeTableStatement(operation.getStatement(), operation.getParameter(), false);
+    operation.setRowsAffected(numOfRowsUpdated);
+  }
+
+  /**
+   * Executes an update or delete statement.
+   *
+   * @param checkVersionedRows whether the commit checks that the changed rows which have a
+   * revision were not changed by another transaction
+   * @return the number of changed rows
+   */
+  protected int executeTableStatement(String statement, Object parameter, boolean checkVersionedRows) {
+    MappedStatement mappedStatement = getMappedStatement(statement);
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    TableStatement tableStatement = getStatement(boundSql, TableStatement.class);
+    Bindings bindings = createBindings(boundSql, parameter);
+
+    List<InMemoryRow> rows;
+    database.getReadLock().lock();
+    try {
+      rows = tableStatement.findRows(bindings);
+    } finally {
+      database.getReadLock().unlock();
+    }
+
+    for (InMemoryRow row : rows) {
+      InMemoryRow newRow = null;
+      if (tableStatement instanceof Update) {
+        newRow = new InMemoryRow(row.getId(), ((Update) tableStatement).apply(row, bindings));
+      }
+      changeRow(tableStatement.getTable(), row, newRow, checkVersionedRows && row.isVersioned());
+    }
+    return rows.size();
+  }
+
+  /**
+   * @param row the row as it is visible to this transaction
+   * @param newRow the new row or <code>null</code> if the row is deleted
+   */
+  protected void changeRow(String table, InMemoryRow row, InMemoryRow newRow, boolean checked) {
+    Map<String, RowChange> tableChanges = getTableChanges(table);
+    RowChange change = tableChanges.get(row.getId());
+
+    if (change == null) {
+      // the row is not changed by this transaction yet, so it is the committed row
+      tableChanges.put(row.getId(), new RowChange(table, row.getId(), row, newRow, checked));
+
+    } else if (change.getBaseRow() == null && newRow == null) {
+      // the row was inserted by this transaction
+      tableChanges.remove(row.getId());
+
+    } else {
+      change.setNewRow(newRow);
+      change.setChecked(change.isChecked() || checked);
+    }
+  }
+
+  protected Map<String, RowChange> getTableChanges(String table) {
+    Map<String, RowChange> tableChanges = changes.get(table);
+    if (tableChanges == null) {
+      tableChanges = new HashMap<String, RowChange>();
+      changes.put(table, tableChanges);
+    }
+    return tableChanges;
+  }
+
+  // statements ////////////////////////////////////
+
+  protected MappedStatement getMappedStatement(String statement) {
+    return configuration.getMappedStatement(dbSqlSessionFactory.mapStatement(statement));
+  }
+
+  protected <T extends InMemoryStatement> T getStatement(BoundSql boundSql, Class<T> type) {
+    InMemoryStatement statement = persistenceProviderFactory.getStatement(boundSql.getSql());
+    if (!type.isInstance(statement)) {
+      throw new ProcessEngineException("Expected " + ClassNameUtil.getClassNameWithoutPackage(type) + " statement but was: " + boundSql.getSql());
+    }
+    return type.cast(statement);
+  }
+
+  /**
+   * Resolves the values of the parameters of the given statement like the parameter handler of MyBatis.
+   */
+  protected Bindings createBindings(BoundSql boundSql, Object parameter) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    Object[] values = new Object[parameterMappings.size()];
+
+    MetaObject metaObject = null;
+    for (int i = 0; i < parameterMappings.size(); i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+
+      String propertyName = parameterMapping.getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        values[i] = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameter == null) {
+        values[i] = null;
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+        values[i] = parameter;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameter);
+        }
+        values[i] = metaObject.getValue(propertyName);
+      }
+    }
+    return new Bindings(this, values);
+  }
+
+  protected String toString(Object object) {
+    if (object instanceof DbEntity) {
+      DbEntity dbEntity = (DbEntity) object;
+      return ClassNameUtil.getClassNameWithoutPackage(dbEntity) + "[" + dbEntity.getId() + "]";
+    }
+    return String.valueOf(object);
+  }
+
+  // transaction ////////////////////////////////////
+
+  public void flush() {
+    // nothing to do
+  }
+
+  public void commit() {
+    try {
+      List<RowChange> allChanges = new ArrayList<RowChange>();
+      for (Map<String, RowChange> tableChanges : changes.values()) {
+        allChanges.addAll(tableChanges.values());
+      }
+      database.commit(allChanges);
+    } finally {
+      endTransaction();
+    }
+  }
+
+  public void rollback() {
+    endTransaction();
+  }
+
+  public void close() {
+    endTransaction();
+  }
+
+  protected void endTransaction() {
+    changes.clear();
+    for (Iterator<Lock> it = locks.iterator(); it.hasNext();) {
+      it.next().unlock();
+      it.remove();
+    }
+  }
+
+  // schema operations ////////////////////////////////////////////////////////
+
+  public void dbSchemaCheckVersion() {
+    if (!isEngineTablePresent()) {
+      throw new ProcessEngineException("no activiti tables in db.  set <property name=\"databaseSchemaUpdate\" to value=\"true\" or value=\"create-drop\" (use create-drop for testing only!) in bean processEngineConfiguration in camunda.cfg.xml for automatic schema creation");
+    }
+
+    String dbVersion = getDbVersion();
+    if (!ProcessEngine.VERSION.equals(dbVersion)) {
+      throw new WrongDbException(ProcessEngine.VERSION, dbVersion);
+    }
+
+    String errorMessage = null;
+    if (dbSqlSessionFactory.isDbHistoryUsed() && !isHistoryTablePresent()) {
+      errorMessage = addMissingComponent(errorMessage, InMemoryDatabase.COMPONENT_HISTORY);
+    }
+    if (dbSqlSessionFactory.isDbIdentityUsed() && !isIdentityTablePresent()) {
+      errorMessage = addMissingComponent(errorMessage, InMemoryDatabase.COMPONENT_IDENTITY);
+    }
+    if (dbSqlSessionFactory.isCmmnEnabled() && !isCmmnTablePresent()) {
+      errorMessage = addMissingComponent(errorMessage, InMemoryDatabase.COMPONENT_CASE_ENGINE);
+    }
+
+    if (errorMessage != null) {
+      throw new ProcessEngineException("Activiti database problem: " + errorMessage);
+    }
+
+    log.fine("database schema check successful");
+  }
+
+  protected String addMissingComponent(String missingComponents, String component) {
+    if (missingComponents == null) {
+      return "Tables missing for component(s) " + component;
+    }
+    return missingComponents + ", " + component;
+  }
+
+  protected String getDbVersion() {
+    return (String) selectOne("selectDbSchemaVersion", null);
+  }
+
+  protected void dbSchemaCreateEngine() {
+    List<InMemoryRow> properties = new ArrayList<InMemoryRow>();
+    properties.add(createPropertyRow("schema.version", ProcessEngine.VERSION));
+    properties.add(createPropertyRow("schema.history", "create(" + ProcessEngine.VERSION + ")"));
+    properties.add(createPropertyRow("next.dbid", "1"));
+    properties.add(createPropertyRow("deployment.lock", "0"));
+    properties.add(createPropertyRow("authorization.revision", "0"));
+
+    database.createSchemaComponent(InMemoryDatabase.COMPONENT_ENGINE, properties, prependDatabaseTablePrefix("ACT_GE_PROPERTY"));
+  }
+
+  protected InMemoryRow createPropertyRow(String name, String value) {
+    Map<String, Object> values = new LinkedHashMap<String, Object>();
+    values.put("NAME_", name);
+    values.put("VALUE_", value);
+    values.put(InMemoryRow.REVISION_COLUMN, 1);
+    return new InMemoryRow(name, values);
+  }
+
+  protected void dbSchemaCreateHistory() {
+    createSchemaComponent(InMemoryDatabase.COMPONENT_HISTORY);
+  }
+
+  protected void dbSchemaCreateIdentity() {
+    createSchemaComponent(InMemoryDatabase.COMPONENT_IDENTITY);
+  }
+
+  protected void dbSchemaCreateCmmn() {
+    createSchemaComponent(InMemoryDatabase.COMPONENT_CASE_ENGINE);
+  }
+
+  protected void dbSchemaCreateCmmnHistory() {
+    createSchemaComponent(InMemoryDatabase.COMPONENT_CASE_HISTORY);
+  }
+
+  protected void createSchemaComponent(String component) {
+    database.createSchemaComponent(component, Collections.<InMemoryRow>emptyList(), null);
+  }
+
+  protected void dbSchemaDropEngine() {
+    database.dropSchemaComponent(InMemoryDatabase.COMPONENT_ENGINE);
+  }
+
+  protected void dbSchemaDropHistory() {
+    database.dropSchemaComponent(InMemoryDatabase.COMPONENT_HISTORY);
+  }
+
+  protected void dbSchemaDropIdentity() {
+    database.dropSchemaComponent(InMemoryDatabase.COMPONENT_IDENTITY);
+  }
+
+  protected void dbSchemaDropCmmn() {
+    database.dropSchemaComponent(InMemoryDatabase.COMPONENT_CASE_ENGINE);
+  }
+
+  protected void dbSchemaDropCmmnHistory() {
+    database.dropSchemaComponent(InMemoryDatabase.COMPONENT_CASE_HISTORY);
+  }
+
+  public boolean isEngineTablePresent() {
+    return database.isSchemaComponentPresent(InMemoryDatabase.COMPONENT_ENGINE);
+  }
+
+  public boolean isHistoryTablePresent() {
+    return database.isSchemaComponentPresent(InMemoryDatabase.COMPONENT_HISTORY);
+  }
+
+  public boolean isIdentityTablePresent() {
+    return database.isSchemaComponentPresent(InMemoryDatabase.COMPONENT_IDENTITY);
+  }
+
+  public boolean isCmmnTablePresent() {
+    return database.isSchemaComponentPresent(InMemoryDatabase.COMPONENT_CASE_ENGINE);
+  }
+
+  public boolean isCmmnHistoryTablePresent() {
+    return database.isSchemaComponentPresent(InMemoryDatabase.COMPONENT_CASE_HISTORY);
+  }
+
+  /**
+   * @return the name of the table as the parsed statements refer to it
+   */
+  protected String prependDatabaseTablePrefix(String tableName) {
+    return (dbSqlSessionFactory.getDatabaseTablePrefix() + tableName).toUpperCase();
+  }
+
+  /**
+   * @return the names of the tables which contain rows; the in-memory database has no schema,
+   * so the tables exist as soon as a row is inserted
+   */
+  public List<String> getTableNamesPresent() {
+    List<String> tableNames = new ArrayList<String>();
+    for (String tableName : database.getTableNames()) {
+      InMemoryTable table = database.findTable(tableName);
+      if (table != null && table.size() > 0) {
+        tableNames.add(tableName);
+      }
+    }
+    return tableNames;
+  }
+
+  /**
+   * @return the columns of the rows of the given table, with the types derived from their values,
+   * or <code>null</code> if the table contains no rows
+   */
+  public TableMetaData getTableMetaData(String tableName) {
+    Map<String, Class<?>> columnTypes = new LinkedHashMap<String, Class<?>>();
+
+    database.getReadLock().lock();
+    try {
+      InMemoryTable table = database.findTable(tableName.toUpperCase());
+      if (table != null) {
+        for (InMemoryRow row : table.getRows()) {
+          for (Map.Entry<String, Object> column : row.getValues().entrySet()) {
+            if (column.getValue() != null || !columnTypes.containsKey(column.getKey())) {
+              columnTypes.put(column.getKey(), column.getValue() != null ? column.getValue().getClass() : null);
+            }
+          }
+        }
+      }
+    } finally {
+      database.getReadLock().unlock();
+    }
+
+    if (columnTypes.isEmpty()) {
+      return null;
+    }
+    TableMetaData tableMetaData = new TableMetaData(tableName);
+    for (Map.Entry<String, Class<?>> columnType : columnTypes.entrySet()) {
+      tableMetaData.addColumnMetaData(columnType.getKey(), getColumnType(columnType.getValue()));
+    }
+    return tableMetaData;
+  }
+
+  /**
+   * @return the h2 type of the column whose values have the given type
+   */
+  protected String getColumnType(Class<?> valueType) {
+    if (valueType == Integer.class) {
+      return "INTEGER";
+    } else if (valueType == Boolean.class) {
+      return "BOOLEAN";
+    } else if (valueType == Long.class) {
+      return "BIGINT";
+    } else if (valueType == Double.class) {
+      return "DOUBLE";
+    } else if (valueType != null && Date.class.isAssignableFrom(valueType)) {
+      return "TIMESTAMP";
+    } else if (valueType == byte[].class) {
+      return "BLOB";
+    }
+    return "VARCHAR";
+  }
+
+}
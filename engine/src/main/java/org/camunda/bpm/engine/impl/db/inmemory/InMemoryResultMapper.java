@@ -0,0 +1,127 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Maps the rows which are selected by the in-memory persistence to objects, following
+ * the result maps of the MyBatis mappings.
+ *
+ * <p>Only the columns of a result map are mapped, including the result map which is
+ * chosen by a discriminator. Nested result maps are not supported.</p>
+ */
+public class InMemoryResultMapper {
+
+  protected final Configuration configuration;
+
+  public InMemoryResultMapper(Configuration configuration) {
+    this.configuration = configuration;
+  }
+
+  public Object map(MappedStatement statement, Map<String, Object> row) {
+    return map(statement.getResultMaps().get(0), row);
+  }
+
+  protected Object map(ResultMap resultMap, Map<String, Object> row) {
+    resultMap = resolveDiscriminatedResultMap(resultMap, row);
+    Class<?> type = resultMap.getType();
+
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(type)) {
+      Object value = row.isEmpty() ? null : row.values().iterator().next();
+      return convert(value, type);
+
+    } else if (Map.class.isAssignableFrom(type)) {
+      return new HashMap<String, Object>(row);
+    }
+
+    Object result = configuration.getObjectFactory().create(type);
+    MetaObject metaObject = configuration.newMetaObject(result);
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      if (resultMapping.getColumn() == null || resultMapping.getNestedResultMapId() != null || resultMapping.getNestedQueryId() != null) {
+        continue;
+      }
+      Object value = row.get(resultMapping.getColumn().toUpperCase());
+      if (value != null) {
+        metaObject.setValue(resultMapping.getProperty(), convert(value, resultMapping.getJavaType()));
+      }
+    }
+    return result;
+  }
+
+  protected ResultMap resolveDiscriminatedResultMap(ResultMap resultMap, Map<String, Object> row) {
+    Discriminator discriminator = resultMap.getDiscriminator();
+    while (discriminator != null) {
+      Object value = row.get(discriminator.getResultMapping().getColumn().toUpperCase());
+      String resultMapId = discriminator.getMapsIdFor(String.valueOf(value));
+      if (resultMapId == null || !configuration.hasResultMap(resultMapId)) {
+        break;
+      }
+      ResultMap discriminatedResultMap = configuration.getResultMap(resultMapId);
+      if (discriminatedResultMap == resultMap) {
+        break;
+      }
+      resultMap = discriminatedResultMap;
+      discriminator = resultMap.getDiscriminator();
+    }
+    return resultMap;
+  }
+
+  /**
+   * Converts the value of a column to the type of a property, like the type handlers
+   * convert the values of a result set.
+   */
+  protected Object convert(Object value, Class<?> type) {
+    if (value == null || type == null || type.isInstance(value) && !(value instanceof Date)) {
+      return value;
+    }
+
+    if (value instanceof Boolean && type != Boolean.class && type != boolean.class) {
+      value = ((Boolean) value) ? 1 : 0;
+    }
+
+    if (type == String.class) {
+      return value.toString();
+    } else if (value instanceof Date) {
+      return new Date(((Date) value).getTime());
+    } else if (value instanceof Number) {
+      Number number = (Number) value;
+      if (type == Integer.class || type == int.class) {
+        return number.intValue();
+      } else if (type == Long.class || type == long.class) {
+        return number.longValue();
+      } else if (type == Double.class || type == double.class) {
+        return number.doubleValue();
+      } else if (type == Short.class || type == short.class) {
+        return number.shortValue();
+      } else if (type == Float.class || type == float.class) {
+        return number.floatValue();
+      } else if (type == Boolean.class || type == boolean.class) {
+        return number.intValue() != 0;
+      }
+    } else if (value instanceof String && (type == Boolean.class || type == boolean.class)) {
+      return Boolean.valueOf((String) value);
+    }
+    return value;
+  }
+
+}
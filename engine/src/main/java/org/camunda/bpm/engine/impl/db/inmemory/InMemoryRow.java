@@ -0,0 +1,59 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A row of an {@link InMemoryTable}: the values of the columns by their names.
+ *
+ * <p>Rows are never modified. An update replaces the row by a new one, so that
+ * a transaction can detect a concurrent change of a row by its identity.</p>
+ */
+public class InMemoryRow {
+
+  public static final String REVISION_COLUMN = "REV_";
+
+  protected final String id;
+  protected final Map<String, Object> values;
+
+  public InMemoryRow(String id, Map<String, Object> values) {
+    this.id = id;
+    this.values = Collections.unmodifiableMap(values);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Map<String, Object> getValues() {
+    return values;
+  }
+
+  public Object getValue(String column) {
+    return values.get(column);
+  }
+
+  /**
+   * @return true if the row has a revision, i.e. it is updated and deleted with optimistic locking
+   */
+  public boolean isVersioned() {
+    return values.containsKey(REVISION_COLUMN);
+  }
+
+  public String toString() {
+    return "InMemoryRow[" + id + "]";
+  }
+
+}
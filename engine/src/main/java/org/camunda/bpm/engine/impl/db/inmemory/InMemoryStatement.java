@@ -0,0 +1,661 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import static org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.compareForOrder;
+import static org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.getConjuncts;
+import static org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.isTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Bindings;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Column;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Comparison;
+
+/**
+ * A parsed SQL statement which is executed by the in-memory persistence.
+ *
+ * @see InMemoryStatementParser
+ */
+public abstract class InMemoryStatement {
+
+  /**
+   * The rows of the tables as they are visible to a transaction.
+   */
+  public interface RowSource {
+
+    /**
+     * @param column an indexed column or <code>null</code> to get all rows of the table
+     * @param value the value of the indexed column
+     * @return the rows of the given table, sorted by their ids
+     */
+    Collection<InMemoryRow> getRows(String table, String column, Object value);
+
+  }
+
+  /**
+   * Copies mutable values, so that a change of an entity does not change the row.
+   */
+  public static Object copyValue(Object value) {
+    if (value instanceof Date) {
+      return new Date(((Date) value).getTime());
+    }
+    return value;
+  }
+
+  /**
+   * Looks up the rows of the given table through an index if one of the conditions compares
+   * an indexed column of the table with a value which is known before the table is read.
+   */
+  protected static Collection<InMemoryRow> getCandidateRows(String table, String alias, boolean onlyTable, List<InMemoryExpression> conditions, Bindings bindings) {
+    for (InMemoryExpression condition : conditions) {
+      if (condition instanceof Comparison && "=".equals(((Comparison) condition).getOperator())) {
+        Comparison comparison = (Comparison) condition;
+        Collection<InMemoryRow> rows = getIndexedRows(table, alias, onlyTable, comparison.getLeft(), comparison.getRight(), bindings);
+        if (rows == null) {
+          rows = getIndexedRows(table, alias, onlyTable, comparison.getRight(), comparison.getLeft(), bindings);
+        }
+        if (rows != null) {
+          return rows;
+        }
+      }
+    }
+    return bindings.getRowSource().getRows(table, null, null);
+  }
+
+  protected static Collection<InMemoryRow> getIndexedRows(String table, String alias, boolean onlyTable, InMemoryExpression column, InMemoryExpression value, Bindings bindings) {
+    if (column instanceof Column && value.isBound(bindings)) {
+      Column tableColumn = (Column) column;
+      boolean columnOfTable = alias.equals(tableColumn.getAlias()) || (tableColumn.getAlias() == null && onlyTable);
+      if (columnOfTable) {
+        Object columnValue = value.evaluate(bindings);
+        if (InMemoryTable.isIndexed(tableColumn.getName(), columnValue)) {
+          return bindings.getRowSource().getRows(table, tableColumn.getName(), columnValue);
+        }
+      }
+    }
+    return null;
+  }
+
+  // select ///////////////////////////////////////////////////////////////////
+
+  public static class Select extends InMemoryStatement {
+
+    protected boolean distinct;
+    protected List<SelectItem> items = new ArrayList<SelectItem>();
+    protected List<TableReference> tables = new ArrayList<TableReference>();
+    protected InMemoryExpression where;
+    protected List<InMemoryExpression> groupBy = new ArrayList<InMemoryExpression>();
+    protected List<Select> unions = new ArrayList<Select>();
+    protected boolean unionAll;
+    protected List<OrderItem> orderItems = new ArrayList<OrderItem>();
+    protected InMemoryExpression limit;
+    protected InMemoryExpression offset;
+
+    /**
+     * @param outerBindings the parameters of the statement and the rows of the outer
+     * select if this is a subquery
+     * @return the selected rows, which map the names of the columns to their values
+     */
+    public List<Map<String, Object>> execute(Bindings outerBindings) {
+      List<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
+      final List<Bindings> orderBindings = new ArrayList<Bindings>();
+      selectRows(outerBindings, result, orderBindings);
+
+      boolean distinctUnion = false;
+      for (Select union : unions) {
+        union.selectRows(outerBindings, result, orderBindings);
+        distinctUnion = distinctUnion || !union.isUnionAll();
+      }
+      if (distinctUnion) {
+        removeDuplicates(result, orderBindings);
+      }
+
+      if (!orderItems.isEmpty()) {
+        List<Integer> positions = new ArrayList<Integer>();
+        for (int i = 0; i < result.size(); i++) {
+          positions.add(i);
+        }
+        Collections.sort(positions, new Comparator<Integer>() {
+          public int compare(Integer position1, Integer position2) {
+            for (OrderItem orderItem : orderItems) {
+              int comparison = compareForOrder(
+                  orderItem.getExpression().evaluate(orderBindings.get(position1)),
+                  orderItem.getExpression().evaluate(orderBindings.get(position2)));
+              if (comparison != 0) {
+                return orderItem.isAscending() ? comparison : -comparison;
+              }
+            }
+            return 0;
+          }
+        });
+        List<Map<String, Object>> orderedResult = new ArrayList<Map<String, Object>>(result.size());
+        for (Integer position : positions) {
+          orderedResult.add(result.get(position));
+        }
+        result = orderedResult;
+      }
+
+      return limit(result, outerBindings);
+    }
+
+    /**
+     * Adds the rows of this select, without the selects of its union, to the given rows
+     * and the bindings which the order of the rows refers to.
+     */
+    protected void selectRows(Bindings outerBindings, List<Map<String, Object>> rows, List<Bindings> rowBindings) {
+      // a derived table must not refer to the other tables of the select, so it is selected once
+      List<List<Map<String, Object>>> derivedTableRows = new ArrayList<List<Map<String, Object>>>(tables.size());
+      for (TableReference table : tables) {
+        derivedTableRows.add(table.getSubquery() != null ? table.getSubquery().execute(outerBindings) : null);
+      }
+
+      List<Bindings> matches = new ArrayList<Bindings>();
+      join(0, outerBindings, derivedTableRows, matches);
+
+      Set<Map<String, Object>> distinctRows = new HashSet<Map<String, Object>>();
+      if (isGrouped()) {
+        for (List<Bindings> group : group(matches)) {
+          addRow(aggregate(group), group.isEmpty() ? outerBindings : group.get(0), distinctRows, rows, rowBindings);
+        }
+      } else {
+        for (Bindings match : matches) {
+          addRow(project(match), match, distinctRows, rows, rowBindings);
+        }
+      }
+    }
+
+    protected void addRow(Map<String, Object> row, Bindings bindings, Set<Map<String, Object>> distinctRows, List<Map<String, Object>> rows, List<Bindings> rowBindings) {
+      if (!distinct || distinctRows.add(row)) {
+        rows.add(row);
+        // the order may refer to the tables and to the names of the selected columns
+        rowBindings.add(bindings.bind("", row));
+      }
+    }
+
+    protected void removeDuplicates(List<Map<String, Object>> rows, List<Bindings> rowBindings) {
+      Set<Map<String, Object>> distinctRows = new HashSet<Map<String, Object>>();
+      Iterator<Bindings> bindingsIterator = rowBindings.iterator();
+      for (Iterator<Map<String, Object>> rowIterator = rows.iterator(); rowIterator.hasNext();) {
+        Map<String, Object> row = rowIterator.next();
+        bindingsIterator.next();
+        if (!distinctRows.add(row)) {
+          rowIterator.remove();
+          bindingsIterator.remove();
+        }
+      }
+    }
+
+    protected void join(int index, Bindings bindings, List<List<Map<String, Object>>> derivedTableRows, List<Bindings> matches) {
+      if (index == tables.size()) {
+        if (where == null || isTrue(where.evaluate(bindings))) {
+          matches.add(bindings);
+        }
+        return;
+      }
+
+      TableReference table = tables.get(index);
+      boolean matched = false;
+      if (table.getSubquery() != null) {
+        for (Map<String, Object> row : derivedTableRows.get(index)) {
+          if (joinRow(index, table, row, bindings, derivedTableRows, matches)) {
+            matched = true;
+          }
+        }
+
+      } else {
+        List<InMemoryExpression> conditions = getConjuncts(table.getCondition());
+        if (!table.isLeftJoin()) {
+          conditions.addAll(getConjuncts(where));
+        }
+        for (InMemoryRow row : getCandidateRows(table.getName(), table.getAlias(), tables.size() == 1, conditions, bindings)) {
+          if (joinRow(index, table, row.getValues(), bindings, derivedTableRows, matches)) {
+            matched = true;
+          }
+        }
+      }
+
+      if (!matched && table.isLeftJoin()) {
+        join(index + 1, bindings.bind(table.getAlias(), null), derivedTableRows, matches);
+      }
+    }
+
+    /**
+     * @return true if the row matches the join condition of the table
+     */
+    protected boolean joinRow(int index, TableReference table, Map<String, Object> row, Bindings bindings, List<List<Map<String, Object>>> derivedTableRows, List<Bindings> matches) {
+      Bindings rowBindings = bindings.bind(table.getAlias(), row);
+      if (table.getCondition() == null || isTrue(table.getCondition().evaluate(rowBindings))) {
+        join(index + 1, rowBindings, derivedTableRows, matches);
+        return true;
+      }
+      return false;
+    }
+
+    protected Map<String, Object> project(Bindings bindings) {
+      Map<String, Object> row = new LinkedHashMap<String, Object>();
+      for (SelectItem item : items) {
+        if (item.isAllColumns()) {
+          for (TableReference table : tables) {
+            if (item.getTableAlias() == null || item.getTableAlias().equals(table.getAlias())) {
+              Map<String, Object> tableRow = bindings.getRow(table.getAlias());
+              if (tableRow != null) {
+                // like a result set, the first column with a name provides its value
+                for (Map.Entry<String, Object> column : tableRow.entrySet()) {
+                  if (!row.containsKey(column.getKey())) {
+                    row.put(column.getKey(), column.getValue());
+                  }
+                }
+              }
+            }
+          }
+        } else {
+          row.put(item.getName(), item.getExpression().evaluate(bindings));
+        }
+      }
+      return row;
+    }
+
+    protected boolean isGrouped() {
+      if (!groupBy.isEmpty()) {
+        return true;
+      }
+      for (SelectItem item : items) {
+        if (item.getAggregateFunction() != null) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @return the matches by the values of the group expressions
+     */
+    protected Collection<List<Bindings>> group(List<Bindings> matches) {
+      if (groupBy.isEmpty()) {
+        // an aggregate without groups selects a single row, also if no row matches
+        return Collections.singletonList(matches);
+      }
+
+      Map<List<Object>, List<Bindings>> groups = new LinkedHashMap<List<Object>, List<Bindings>>();
+      for (Bindings match : matches) {
+        List<Object> key = new ArrayList<Object>(groupBy.size());
+        for (InMemoryExpression expression : groupBy) {
+          key.add(expression.evaluate(match));
+        }
+        List<Bindings> group = groups.get(key);
+        if (group == null) {
+          group = new ArrayList<Bindings>();
+          groups.put(key, group);
+        }
+        group.add(match);
+      }
+      return groups.values();
+    }
+
+    protected Map<String, Object> aggregate(List<Bindings> group) {
+      Map<String, Object> row = new LinkedHashMap<String, Object>();
+      for (SelectItem item : items) {
+        if (item.getAggregateFunction() == null) {
+          if (groupBy.isEmpty() || item.isAllColumns()) {
+            throw new ProcessEngineException("Columns without aggregate function which are not grouped are not supported by the in-memory persistence");
+          }
+          // a grouped column has the same value in all rows of the group
+          row.put(item.getName(), item.getExpression().evaluate(group.get(0)));
+          continue;
+        }
+
+        List<Object> values = new ArrayList<Object>();
+        Set<Object> distinctValues = new HashSet<Object>();
+        for (Bindings match : group) {
+          Object value = item.getExpression() != null ? item.getExpression().evaluate(match) : Boolean.TRUE;
+          if (value != null && (!item.isDistinct() || distinctValues.add(value))) {
+            values.add(value);
+          }
+        }
+
+        row.put(item.getName(), aggregate(item.getAggregateFunction(), values));
+      }
+      return row;
+    }
+
+    protected Object aggregate(String function, List<Object> values) {
+      if ("COUNT".equals(function)) {
+        return (long) values.size();
+      }
+
+      Object result = null;
+      for (Object value : values) {
+        if (result == null) {
+          result = value;
+        } else if ("MAX".equals(function)) {
+          result = InMemoryExpression.compare(value, result) > 0 ? value : result;
+        } else if ("MIN".equals(function)) {
+          result = InMemoryExpression.compare(value, result) < 0 ? value : result;
+        } else {
+          result = new InMemoryExpression.BinaryOperation("+", new InMemoryExpression.Literal(result), new InMemoryExpression.Literal(value))
+            .evaluate(null);
+        }
+      }
+      return result;
+    }
+
+    protected List<Map<String, Object>> limit(List<Map<String, Object>> rows, Bindings bindings) {
+      int firstResult = offset != null ? ((Number) offset.evaluate(bindings)).intValue() : 0;
+      int maxResults = limit != null ? ((Number) limit.evaluate(bindings)).intValue() : Integer.MAX_VALUE;
+
+      if (firstResult >= rows.size()) {
+        return new ArrayList<Map<String, Object>>();
+      }
+      int end = (int) Math.min((long) firstResult + maxResults, rows.size());
+      return rows.subList(firstResult, end);
+    }
+
+    public void setDistinct(boolean distinct) {
+      this.distinct = distinct;
+    }
+
+    public List<SelectItem> getItems() {
+      return items;
+    }
+
+    public List<TableReference> getTables() {
+      return tables;
+    }
+
+    public void setWhere(InMemoryExpression where) {
+      this.where = where;
+    }
+
+    public List<InMemoryExpression> getGroupBy() {
+      return groupBy;
+    }
+
+    /**
+     * @return the selects whose rows are added to the rows of this select
+     */
+    public List<Select> getUnions() {
+      return unions;
+    }
+
+    /**
+     * @return true if this select is part of a union which keeps duplicate rows
+     */
+    public boolean isUnionAll() {
+      return unionAll;
+    }
+
+    public void setUnionAll(boolean unionAll) {
+      this.unionAll = unionAll;
+    }
+
+    public List<OrderItem> getOrderItems() {
+      return orderItems;
+    }
+
+    public void setLimit(InMemoryExpression limit) {
+      this.limit = limit;
+    }
+
+    public void setOffset(InMemoryExpression offset) {
+      this.offset = offset;
+    }
+  }
+
+  /**
+   * A column of a select: all columns of a table, an expression or an aggregate.
+   */
+  public static class SelectItem {
+
+    protected boolean allColumns;
+    protected String tableAlias;
+    protected InMemoryExpression expression;
+    protected String name;
+    protected String aggregateFunction;
+    protected boolean distinct;
+
+    public static SelectItem allColumns(String tableAlias) {
+      SelectItem item = new SelectItem();
+      item.allColumns = true;
+      item.tableAlias = tableAlias;
+      return item;
+    }
+
+    public static SelectItem expression(InMemoryExpression expression, String name) {
+      SelectItem item = new SelectItem();
+      item.expression = expression;
+      item.name = name;
+      return item;
+    }
+
+    /**
+     * @param expression the aggregated expression or <code>null</code> for <code>count(*)</code>
+     */
+    public static SelectItem aggregate(String function, InMemoryExpression expression, boolean distinct, String name) {
+      SelectItem item = expression(expression, name);
+      item.aggregateFunction = function;
+      item.distinct = distinct;
+      return item;
+    }
+
+    public boolean isAllColumns() {
+      return allColumns;
+    }
+
+    public String getTableAlias() {
+      return tableAlias;
+    }
+
+    public InMemoryExpression getExpression() {
+      return expression;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getAggregateFunction() {
+      return aggregateFunction;
+    }
+
+    public boolean isDistinct() {
+      return distinct;
+    }
+  }
+
+  /**
+   * A table of a select, which is joined with the preceding tables by its condition.
+   * The rows of a derived table are selected by a subquery.
+   */
+  public static class TableReference {
+
+    protected final String name;
+    protected final Select subquery;
+    protected final String alias;
+    protected final boolean leftJoin;
+    protected final InMemoryExpression condition;
+
+    public TableReference(String name, String alias, boolean leftJoin, InMemoryExpression condition) {
+      this(name, null, alias, leftJoin, condition);
+    }
+
+    public TableReference(String name, Select subquery, String alias, boolean leftJoin, InMemoryExpression condition) {
+      this.name = name;
+      this.subquery = subquery;
+      this.alias = alias;
+      this.leftJoin = leftJoin;
+      this.condition = condition;
+    }
+
+    /**
+     * @return the name of the table or <code>null</code> for a derived table
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the subquery of a derived table or <code>null</code>
+     */
+    public Select getSubquery() {
+      return subquery;
+    }
+
+    public String getAlias() {
+      return alias;
+    }
+
+    public boolean isLeftJoin() {
+      return leftJoin;
+    }
+
+    public InMemoryExpression getCondition() {
+      return condition;
+    }
+  }
+
+  public static class OrderItem {
+
+    protected final InMemoryExpression expression;
+    protected final boolean ascending;
+
+    public OrderItem(InMemoryExpression expression, boolean ascending) {
+      this.expression = expression;
+      this.ascending = ascending;
+    }
+
+    public InMemoryExpression getExpression() {
+      return expression;
+    }
+
+    public boolean isAscending() {
+      return ascending;
+    }
+  }
+
+  // insert ///////////////////////////////////////////////////////////////////
+
+  public static class Insert extends InMemoryStatement {
+
+    protected final String table;
+    protected final List<String> columns;
+    protected final List<List<InMemoryExpression>> values;
+
+    /**
+     * @param values the values of the inserted rows, in the order of the columns
+     */
+    public Insert(String table, List<String> columns, List<List<InMemoryExpression>> values) {
+      this.table = table;
+      this.columns = columns;
+      this.values = values;
+    }
+
+    public String getTable() {
+      return table;
+    }
+
+    /**
+     * @return the values of the inserted rows by the names of their columns
+     */
+    public List<Map<String, Object>> getRows(Bindings bindings) {
+      List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+      for (List<InMemoryExpression> rowValues : values) {
+        if (rowValues.size() != columns.size()) {
+          throw new ProcessEngineException("Insert into " + table + " has " + columns.size() + " columns but " + rowValues.size() + " values");
+        }
+        Map<String, Object> row = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < columns.size(); i++) {
+          row.put(columns.get(i), copyValue(rowValues.get(i).evaluate(bindings)));
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+  }
+
+  // update and delete ////////////////////////////////////////////////////////
+
+  /**
+   * A statement which changes the rows of a single table which match its condition.
+   */
+  public abstract static class TableStatement extends InMemoryStatement {
+
+    protected final String table;
+    protected final String alias;
+    protected final InMemoryExpression where;
+
+    public TableStatement(String table, String alias, InMemoryExpression where) {
+      this.table = table;
+      this.alias = alias;
+      this.where = where;
+    }
+
+    public String getTable() {
+      return table;
+    }
+
+    /**
+     * @return the rows which match the condition of the statement
+     */
+    public List<InMemoryRow> findRows(Bindings bindings) {
+      List<InMemoryRow> rows = new ArrayList<InMemoryRow>();
+      for (InMemoryRow row : getCandidateRows(table, alias, true, getConjuncts(where), bindings)) {
+        if (where == null || isTrue(where.evaluate(bindings.bind(alias, row.getValues())))) {
+          rows.add(row);
+        }
+      }
+      return rows;
+    }
+  }
+
+  public static class Update extends TableStatement {
+
+    protected final Map<String, InMemoryExpression> assignments;
+
+    public Update(String table, String alias, Map<String, InMemoryExpression> assignments, InMemoryExpression where) {
+      super(table, alias, where);
+      this.assignments = assignments;
+    }
+
+    /**
+     * @return the values of the given row after the update
+     */
+    public Map<String, Object> apply(InMemoryRow row, Bindings bindings) {
+      Bindings rowBindings = bindings.bind(alias, row.getValues());
+      Map<String, Object> values = new LinkedHashMap<String, Object>(row.getValues());
+      for (Map.Entry<String, InMemoryExpression> assignment : assignments.entrySet()) {
+        values.put(assignment.getKey(), copyValue(assignment.getValue().evaluate(rowBindings)));
+      }
+      return values;
+    }
+  }
+
+  public static class Delete extends TableStatement {
+
+    public Delete(String table, String alias, InMemoryExpression where) {
+      super(table, alias, where);
+    }
+  }
+
+}
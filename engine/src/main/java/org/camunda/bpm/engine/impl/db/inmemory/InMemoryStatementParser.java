@@ -0,0 +1,649 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.And;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.BinaryOperation;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Case;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Column;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Comparison;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Exists;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Function;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.In;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.InSubquery;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.IsNull;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Like;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Literal;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Not;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Or;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Parameter;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.ScalarSubquery;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Delete;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Insert;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.OrderItem;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Select;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.SelectItem;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.TableReference;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Update;
+
+/**
+ * Parses the SQL which the MyBatis mappings generate for the h2 database into
+ * {@link InMemoryStatement}s.
+ *
+ * <p>The parser understands the subset of SQL which the mappings use: selects with joins,
+ * derived tables, subqueries, unions, conditions, cases, aggregates with groups, order and
+ * limit, as well as inserts, updates and deletes. Other statements, like the native queries
+ * of users, fail with a {@link ProcessEngineException}.</p>
+ */
+public class InMemoryStatementParser {
+
+  protected static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList(
+      "SELECT", "DISTINCT", "FROM", "WHERE", "AND", "OR", "NOT", "AS", "ON", "JOIN", "INNER", "LEFT",
+      "RIGHT", "OUTER", "CROSS", "FULL", "ORDER", "BY", "GROUP", "HAVING", "UNION", "LIMIT", "OFFSET",
+      "SET", "VALUES", "FOR", "IS", "IN", "LIKE", "ESCAPE", "BETWEEN", "EXISTS", "CASE", "WHEN", "THEN", "ELSE",
+      "END", "ALL"));
+
+  protected static final Set<String> AGGREGATE_FUNCTIONS = new HashSet<String>(Arrays.asList("COUNT", "MAX", "MIN", "SUM"));
+
+  /** the number of arguments of the supported functions; -1 for one or more arguments */
+  protected static final Map<String, Integer> FUNCTIONS = new HashMap<String, Integer>();
+
+  static {
+    FUNCTIONS.put("LOWER", 1);
+    FUNCTIONS.put("UPPER", 1);
+    FUNCTIONS.put("COALESCE", -1);
+    FUNCTIONS.put("BITAND", 2);
+  }
+
+  protected final String sql;
+  protected final List<String> tokens;
+  protected int position = 0;
+  protected int parameterCount = 0;
+
+  public InMemoryStatementParser(String sql) {
+    this.sql = sql;
+    this.tokens = tokenize(sql);
+  }
+
+  public InMemoryStatement parse() {
+    InMemoryStatement statement;
+    if (isKeyword("SELECT")) {
+      statement = parseSelect();
+    } else if (isKeyword("INSERT")) {
+      statement = parseInsert();
+    } else if (isKeyword("UPDATE")) {
+      statement = parseUpdate();
+    } else if (isKeyword("DELETE")) {
+      statement = parseDelete();
+    } else {
+      throw unsupported("unknown statement");
+    }
+
+    if (position < tokens.size()) {
+      throw unsupported("unexpected '" + tokens.get(position) + "'");
+    }
+    return statement;
+  }
+
+  // statements ///////////////////////////////////////////////////////////////
+
+  protected Select parseSelect() {
+    Select select = parseSimpleSelect();
+    while (acceptKeyword("UNION")) {
+      boolean unionAll = acceptKeyword("ALL");
+      Select union = parseSimpleSelect();
+      union.setUnionAll(unionAll);
+      select.getUnions().add(union);
+    }
+
+    if (acceptKeyword("ORDER")) {
+      expectKeyword("BY");
+      do {
+        InMemoryExpression expression = parseAdditive();
+        boolean ascending = true;
+        if (acceptKeyword("DESC")) {
+          ascending = false;
+        } else {
+          acceptKeyword("ASC");
+        }
+        select.getOrderItems().add(new OrderItem(expression, ascending));
+      } while (accept(","));
+    }
+
+    if (acceptKeyword("LIMIT")) {
+      select.setLimit(parseAdditive());
+    }
+    if (acceptKeyword("OFFSET")) {
+      select.setOffset(parseAdditive());
+    }
+    // a select always reads the current rows; rows are locked by the named locks of the session
+    if (acceptKeyword("FOR")) {
+      expectKeyword("UPDATE");
+    }
+    return select;
+  }
+
+  /**
+   * @return a select without order and limit, which may be part of a union
+   */
+  protected Select parseSimpleSelect() {
+    expectKeyword("SELECT");
+    Select select = new Select();
+    select.setDistinct(acceptKeyword("DISTINCT"));
+
+    do {
+      select.getItems().add(parseSelectItem(select.getItems().size()));
+    } while (accept(","));
+
+    // like h2, a select without tables selects a single row
+    if (acceptKeyword("FROM")) {
+      select.getTables().add(parseTableReference(false, null));
+      while (true) {
+        if (accept(",")) {
+          select.getTables().add(parseTableReference(false, null));
+        } else if (acceptKeyword("INNER")) {
+          expectKeyword("JOIN");
+          select.getTables().add(parseJoin(false));
+        } else if (acceptKeyword("JOIN")) {
+          select.getTables().add(parseJoin(false));
+        } else if (acceptKeyword("LEFT")) {
+          acceptKeyword("OUTER");
+          expectKeyword("JOIN");
+          select.getTables().add(parseJoin(true));
+        } else {
+          break;
+        }
+      }
+    }
+
+    if (acceptKeyword("WHERE")) {
+      select.setWhere(parseExpression());
+    }
+    if (acceptKeyword("GROUP")) {
+      expectKeyword("BY");
+      do {
+        select.getGroupBy().add(parseAdditive());
+      } while (accept(","));
+    }
+    if (isKeyword("HAVING")) {
+      throw unsupported(tokens.get(position));
+    }
+    return select;
+  }
+
+  protected SelectItem parseSelectItem(int index) {
+    if (accept("*")) {
+      return SelectItem.allColumns(null);
+    }
+    if (isIdentifier(position) && ".".equals(peek(1)) && "*".equals(peek(2))) {
+      String alias = next();
+      position += 2;
+      return SelectItem.allColumns(alias);
+    }
+
+    String defaultName = "EXPR" + index;
+    SelectItem item;
+    if (AGGREGATE_FUNCTIONS.contains(peek(0)) && "(".equals(peek(1))) {
+      String function = next();
+      expect("(");
+      boolean distinct = acceptKeyword("DISTINCT");
+      InMemoryExpression expression = accept("*") ? null : parseExpression();
+      expect(")");
+      item = SelectItem.aggregate(function, expression, distinct, parseAlias(defaultName));
+
+    } else {
+      InMemoryExpression expression = parseExpression();
+      if (expression instanceof Column) {
+        defaultName = ((Column) expression).getName();
+      }
+      item = SelectItem.expression(expression, parseAlias(defaultName));
+    }
+    return item;
+  }
+
+  protected String parseAlias(String defaultAlias) {
+    if (acceptKeyword("AS") || (isIdentifier(position) && !KEYWORDS.contains(peek(0)))) {
+      return next();
+    }
+    return defaultAlias;
+  }
+
+  protected TableReference parseTableReference(boolean leftJoin, InMemoryExpression condition) {
+    if (accept("(")) {
+      Select subquery = parseSelect();
+      expect(")");
+      acceptKeyword("AS");
+      return new TableReference(null, subquery, expectIdentifier(), leftJoin, condition);
+    }
+
+    String name = parseQualifiedName();
+    String defaultAlias = name.substring(name.lastIndexOf('.') + 1);
+    return new TableReference(name, parseAlias(defaultAlias), leftJoin, condition);
+  }
+
+  protected TableReference parseJoin(boolean leftJoin) {
+    TableReference table = parseTableReference(leftJoin, null);
+    expectKeyword("ON");
+    return new TableReference(table.getName(), table.getSubquery(), table.getAlias(), leftJoin, parseExpression());
+  }
+
+  protected Insert parseInsert() {
+    expectKeyword("INSERT");
+    expectKeyword("INTO");
+    String table = parseQualifiedName();
+
+    List<String> columns = new ArrayList<String>();
+    expect("(");
+    do {
+      columns.add(parseColumnName());
+    } while (accept(","));
+    expect(")");
+
+    if (!acceptKeyword("VALUES")) {
+      throw unsupported("insert without values");
+    }
+    List<List<InMemoryExpression>> values = new ArrayList<List<InMemoryExpression>>();
+    do {
+      values.add(parseExpressionList());
+    } while (accept(","));
+
+    return new Insert(table, columns, values);
+  }
+
+  protected Update parseUpdate() {
+    expectKeyword("UPDATE");
+    String table = parseQualifiedName();
+    String alias = parseAlias(table.substring(table.lastIndexOf('.') + 1));
+    expectKeyword("SET");
+
+    Map<String, InMemoryExpression> assignments = new LinkedHashMap<String, InMemoryExpression>();
+    do {
+      String column = parseColumnName();
+      expect("=");
+      assignments.put(column, parseExpression());
+    } while (accept(","));
+
+    InMemoryExpression where = acceptKeyword("WHERE") ? parseExpression() : null;
+    return new Update(table, alias, assignments, where);
+  }
+
+  protected Delete parseDelete() {
+    expectKeyword("DELETE");
+    acceptKeyword("FROM");
+    String table = parseQualifiedName();
+    String alias = parseAlias(table.substring(table.lastIndexOf('.') + 1));
+
+    InMemoryExpression where = acceptKeyword("WHERE") ? parseExpression() : null;
+    return new Delete(table, alias, where);
+  }
+
+  protected String parseQualifiedName() {
+    StringBuilder name = new StringBuilder(expectIdentifier());
+    while (accept(".")) {
+      name.append('.').append(expectIdentifier());
+    }
+    return name.toString();
+  }
+
+  /**
+   * @return the name of a column without the alias of its table
+   */
+  protected String parseColumnName() {
+    String name = expectIdentifier();
+    if (accept(".")) {
+      name = expectIdentifier();
+    }
+    return name;
+  }
+
+  // expressions //////////////////////////////////////////////////////////////
+
+  protected InMemoryExpression parseExpression() {
+    InMemoryExpression expression = parseAnd();
+    if (!isKeyword("OR")) {
+      return expression;
+    }
+    List<InMemoryExpression> operands = new ArrayList<InMemoryExpression>();
+    operands.add(expression);
+    while (acceptKeyword("OR")) {
+      operands.add(parseAnd());
+    }
+    return new Or(operands);
+  }
+
+  protected InMemoryExpression parseAnd() {
+    InMemoryExpression expression = parseNot();
+    if (!isKeyword("AND")) {
+      return expression;
+    }
+    List<InMemoryExpression> operands = new ArrayList<InMemoryExpression>();
+    operands.add(expression);
+    while (acceptKeyword("AND")) {
+      operands.add(parseNot());
+    }
+    return new And(operands);
+  }
+
+  protected InMemoryExpression parseNot() {
+    if (acceptKeyword("NOT")) {
+      return new Not(parseNot());
+    }
+    return parsePredicate();
+  }
+
+  protected InMemoryExpression parsePredicate() {
+    if (acceptKeyword("EXISTS")) {
+      expect("(");
+      Select select = parseSelect();
+      expect(")");
+      return new Exists(select);
+    }
+
+    InMemoryExpression left = parseAdditive();
+
+    String operator = peek(0);
+    if ("=".equals(operator) || "<>".equals(operator) || "!=".equals(operator)
+        || "<".equals(operator) || "<=".equals(operator) || ">".equals(operator) || ">=".equals(operator)) {
+      position++;
+      return new Comparison("!=".equals(operator) ? "<>" : operator, left, parseAdditive());
+    }
+
+    if (acceptKeyword("IS")) {
+      boolean negated = acceptKeyword("NOT");
+      expectKeyword("NULL");
+      return new IsNull(left, negated);
+    }
+
+    boolean negated = acceptKeyword("NOT");
+    if (acceptKeyword("IN")) {
+      expect("(");
+      if (isKeyword("SELECT")) {
+        Select select = parseSelect();
+        expect(")");
+        return new InSubquery(left, select, negated);
+      }
+      position--;
+      return new In(left, parseExpressionList(), negated);
+
+    } else if (acceptKeyword("LIKE")) {
+      InMemoryExpression pattern = parseAdditive();
+      InMemoryExpression escape = acceptKeyword("ESCAPE") ? parseAdditive() : null;
+      return new Like(left, pattern, escape, negated);
+
+    } else if (acceptKeyword("BETWEEN")) {
+      InMemoryExpression lower = parseAdditive();
+      expectKeyword("AND");
+      InMemoryExpression upper = parseAdditive();
+      InMemoryExpression between = new And(Arrays.<InMemoryExpression>asList(
+          new Comparison(">=", left, lower),
+          new Comparison("<=", left, upper)));
+      return negated ? new Not(between) : between;
+
+    } else if (negated) {
+      throw unsupported("NOT after an expression");
+    }
+
+    return left;
+  }
+
+  protected List<InMemoryExpression> parseExpressionList() {
+    List<InMemoryExpression> expressions = new ArrayList<InMemoryExpression>();
+    expect("(");
+    do {
+      expressions.add(parseExpression());
+    } while (accept(","));
+    expect(")");
+    return expressions;
+  }
+
+  protected InMemoryExpression parseAdditive() {
+    InMemoryExpression expression = parsePrimary();
+    while ("+".equals(peek(0)) || "-".equals(peek(0)) || "||".equals(peek(0))) {
+      String operator = next();
+      expression = new BinaryOperation(operator, expression, parsePrimary());
+    }
+    return expression;
+  }
+
+  protected InMemoryExpression parsePrimary() {
+    String token = peek(0);
+    if (token == null) {
+      throw unsupported("unexpected end");
+    }
+
+    if (accept("?")) {
+      return new Parameter(parameterCount++);
+
+    } else if (accept("(")) {
+      InMemoryExpression expression;
+      if (isKeyword("SELECT")) {
+        expression = new ScalarSubquery(parseSelect());
+      } else {
+        expression = parseExpression();
+      }
+      expect(")");
+      return expression;
+
+    } else if (token.startsWith("'")) {
+      position++;
+      return new Literal(token.substring(1, token.length() - 1).replace("''", "'"));
+
+    } else if (Character.isDigit(token.charAt(0)) || ("-".equals(token) && isNumber(peek(1)))) {
+      boolean negative = accept("-");
+      String number = next();
+      return new Literal(parseNumber(negative ? "-" + number : number));
+
+    } else if (acceptKeyword("NULL")) {
+      return new Literal(null);
+
+    } else if (acceptKeyword("TRUE")) {
+      return new Literal(Boolean.TRUE);
+
+    } else if (acceptKeyword("FALSE")) {
+      return new Literal(Boolean.FALSE);
+
+    } else if (acceptKeyword("CASE")) {
+      return parseCase();
+
+    } else if (isIdentifier(position) && !KEYWORDS.contains(token)) {
+      String name = next();
+      if ("(".equals(peek(0))) {
+        return parseFunction(name);
+      }
+      if (accept(".")) {
+        return new Column(name, expectIdentifier());
+      }
+      return new Column(null, name);
+    }
+
+    throw unsupported("unexpected '" + token + "'");
+  }
+
+  protected InMemoryExpression parseFunction(String name) {
+    Integer argumentCount = FUNCTIONS.get(name);
+    if (argumentCount == null) {
+      throw unsupported("function " + name);
+    }
+    List<InMemoryExpression> arguments = parseExpressionList();
+    if (argumentCount >= 0 && arguments.size() != argumentCount) {
+      throw unsupported("function " + name + " with " + arguments.size() + " arguments");
+    }
+    return new Function(name, arguments);
+  }
+
+  protected InMemoryExpression parseCase() {
+    if (!isKeyword("WHEN")) {
+      throw unsupported("case with an operand");
+    }
+    List<InMemoryExpression> conditions = new ArrayList<InMemoryExpression>();
+    List<InMemoryExpression> results = new ArrayList<InMemoryExpression>();
+    while (acceptKeyword("WHEN")) {
+      conditions.add(parseExpression());
+      expectKeyword("THEN");
+      results.add(parseExpression());
+    }
+    InMemoryExpression elseResult = acceptKeyword("ELSE") ? parseExpression() : null;
+    expectKeyword("END");
+    return new Case(conditions, results, elseResult);
+  }
+
+  protected Object parseNumber(String number) {
+    if (number.contains(".") || number.contains("E")) {
+      return Double.valueOf(number);
+    }
+    long value = Long.parseLong(number);
+    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+      return (int) value;
+    }
+    return value;
+  }
+
+  // tokens ///////////////////////////////////////////////////////////////////
+
+  /**
+   * Splits the given SQL into tokens. Identifiers and keywords are converted to upper
+   * case, string literals keep their quotes.
+   */
+  protected List<String> tokenize(String sql) {
+    List<String> result = new ArrayList<String>();
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+
+      } else if (c == '\'') {
+        int end = i + 1;
+        while (true) {
+          if (end >= sql.length()) {
+            throw unsupported("unterminated string");
+          }
+          if (sql.charAt(end) == '\'') {
+            if (end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+              end += 2;
+              continue;
+            }
+            break;
+          }
+          end++;
+        }
+        result.add(sql.substring(i, end + 1));
+        i = end + 1;
+
+      } else if (Character.isLetter(c) || c == '_' || c == '$') {
+        int end = i;
+        while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_' || sql.charAt(end) == '$')) {
+          end++;
+        }
+        result.add(sql.substring(i, end).toUpperCase());
+        i = end;
+
+      } else if (Character.isDigit(c)) {
+        int end = i;
+        while (end < sql.length() && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+          end++;
+        }
+        result.add(sql.substring(i, end));
+        i = end;
+
+      } else if (i + 1 < sql.length() && isTwoCharacterOperator(sql.substring(i, i + 2))) {
+        result.add(sql.substring(i, i + 2));
+        i += 2;
+
+      } else {
+        result.add(String.valueOf(c));
+        i++;
+      }
+    }
+    return result;
+  }
+
+  protected boolean isTwoCharacterOperator(String token) {
+    return "<>".equals(token) || "!=".equals(token) || "<=".equals(token) || ">=".equals(token) || "||".equals(token);
+  }
+
+  protected String peek(int offset) {
+    int index = position + offset;
+    return index < tokens.size() ? tokens.get(index) : null;
+  }
+
+  protected String next() {
+    String token = peek(0);
+    if (token == null) {
+      throw unsupported("unexpected end");
+    }
+    position++;
+    return token;
+  }
+
+  protected boolean accept(String token) {
+    if (token.equals(peek(0))) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  protected void expect(String token) {
+    if (!accept(token)) {
+      throw unsupported("expected '" + token + "' but found '" + peek(0) + "'");
+    }
+  }
+
+  protected boolean isKeyword(String keyword) {
+    return keyword.equals(peek(0));
+  }
+
+  protected boolean acceptKeyword(String keyword) {
+    return accept(keyword);
+  }
+
+  protected void expectKeyword(String keyword) {
+    expect(keyword);
+  }
+
+  protected boolean isIdentifier(int index) {
+    String token = index < tokens.size() ? tokens.get(index) : null;
+    if (token == null) {
+      return false;
+    }
+    char c = token.charAt(0);
+    return Character.isLetter(c) || c == '_' || c == '$';
+  }
+
+  protected boolean isNumber(String token) {
+    return token != null && Character.isDigit(token.charAt(0));
+  }
+
+  protected String expectIdentifier() {
+    if (!isIdentifier(position)) {
+      throw unsupported("expected a name but found '" + peek(0) + "'");
+    }
+    return next();
+  }
+
+  protected ProcessEngineException unsupported(String reason) {
+    return new ProcessEngineException("SQL is not supported by the in-memory persistence (" + reason + "): " + sql);
+  }
+
+}
@@ -0,0 +1,165 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.inmemory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The committed rows of a table, stored by their ids, with indexes on the
+ * columns which reference the process instance, the execution and other
+ * parent entities of a row.
+ *
+ * <p>Like the primary key index of a database table, the rows are sorted by
+ * their ids, so that a select without order returns them in a stable order.</p>
+ *
+ * <p>The rows are changed by {@link InMemoryDatabase#commit(Collection)} only,
+ * which holds the write lock of the database.</p>
+ */
+public class InMemoryTable {
+
+  /** the column which contains the id of a row, except for the property table */
+  public static final String ID_COLUMN = "ID_";
+
+  /** the columns which are indexed if a table has them */
+  public static final Set<String> INDEXED_COLUMNS = new HashSet<String>(Arrays.asList(
+      "PROC_INST_ID_",
+      "EXECUTION_ID_",
+      "PARENT_ID_",
+      "TASK_ID_",
+      "PROC_DEF_ID_",
+      "DEPLOYMENT_ID_",
+      "KEY_"));
+
+  protected final String name;
+  protected final ConcurrentMap<String, InMemoryRow> rows = new ConcurrentSkipListMap<String, InMemoryRow>();
+  protected final ConcurrentMap<String, ConcurrentMap<String, Set<String>>> indexes = new ConcurrentHashMap<String, ConcurrentMap<String, Set<String>>>();
+
+  public InMemoryTable(String name) {
+    this.name = name;
+    for (String column : INDEXED_COLUMNS) {
+      indexes.put(column, new ConcurrentHashMap<String, Set<String>>());
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public InMemoryRow getRow(String id) {
+    return rows.get(id);
+  }
+
+  public Collection<InMemoryRow> getRows() {
+    return rows.values();
+  }
+
+  /**
+   * @return true if the rows with the given value of the given column can be looked up
+   * without a scan of the table
+   */
+  public static boolean isIndexed(String column, Object value) {
+    return value instanceof String && (ID_COLUMN.equals(column) || INDEXED_COLUMNS.contains(column));
+  }
+
+  /**
+   * @return the rows whose indexed column has the given value
+   */
+  public List<InMemoryRow> getRows(String column, Object value) {
+    if (ID_COLUMN.equals(column)) {
+      InMemoryRow row = rows.get(value);
+      return row != null ? Collections.singletonList(row) : Collections.<InMemoryRow>emptyList();
+    }
+
+    Set<String> ids = indexes.get(column).get(value);
+    if (ids == null) {
+      return Collections.emptyList();
+    }
+    List<InMemoryRow> result = new ArrayList<InMemoryRow>(ids.size());
+    for (String id : ids) {
+      InMemoryRow row = rows.get(id);
+      // the index may be changed concurrently; the caller checks the condition of the row
+      if (row != null) {
+        result.add(row);
+      }
+    }
+    return result;
+  }
+
+  public int size() {
+    return rows.size();
+  }
+
+  protected void put(InMemoryRow row) {
+    InMemoryRow previousRow = rows.put(row.getId(), row);
+    if (previousRow != null) {
+      removeFromIndexes(previousRow);
+    }
+    addToIndexes(row);
+  }
+
+  protected void remove(String id) {
+    InMemoryRow previousRow = rows.remove(id);
+    if (previousRow != null) {
+      removeFromIndexes(previousRow);
+    }
+  }
+
+  protected void clear() {
+    rows.clear();
+    for (ConcurrentMap<String, Set<String>> index : indexes.values()) {
+      index.clear();
+    }
+  }
+
+  protected void addToIndexes(InMemoryRow row) {
+    for (String column : INDEXED_COLUMNS) {
+      Object value = row.getValue(column);
+      if (value instanceof String) {
+        ConcurrentMap<String, Set<String>> index = indexes.get(column);
+        Set<String> ids = index.get(value);
+        if (ids == null) {
+          ids = new ConcurrentSkipListSet<String>();
+          index.put((String) value, ids);
+        }
+        ids.add(row.getId());
+      }
+    }
+  }
+
+  protected void removeFromIndexes(InMemoryRow row) {
+    for (String column : INDEXED_COLUMNS) {
+      Object value = row.getValue(column);
+      if (value instanceof String) {
+        ConcurrentMap<String, Set<String>> index = indexes.get(column);
+        Set<String> ids = index.get(value);
+        if (ids != null) {
+          ids.remove(row.getId());
+          if (ids.isEmpty()) {
+            index.remove(value);
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A read-only copy of the database which serves the queries of read-only command contexts.
+ *
+ * <p>A replica is not used while it may lag behind the changes which the caller committed:
+ * queries which start less than the maximum lag after a change was committed by the same thread
+ * or by the same authenticated user read from the primary database, so that the caller reads
+ * its own writes. Changes of other callers, such as the job executor, do not keep queries from
+ * the replica. If no connection to the replica can be obtained, the queries read from the
+ * primary database until the retry interval has passed.</p>
+ */
+public class DbReadReplica {
+
+  private static Logger log = Logger.getLogger(DbReadReplica.class.getName());
+
+  public static final long DEFAULT_RETRY_INTERVAL = 30000;
+
+  protected final DataSource dataSource;
+  protected long maxLag;
+  protected long retryInterval = DEFAULT_RETRY_INTERVAL;
+
+  /** the time at which the current thread last committed a change */
+  protected final ThreadLocal<Long> threadChangeCommitTime = new ThreadLocal<Long>();
+  /** the time at which each authenticated user last committed a change, as long as it is less than the maximum lag ago */
+  protected final ConcurrentMap<String, Long> userChangeCommitTimes = new ConcurrentHashMap<String, Long>();
+  protected volatile long unavailableUntil = 0;
+
+  /**
+   * @param maxLag the maximum time in milliseconds which the replica needs to apply a change
+   * of the primary database
+   */
+  public DbReadReplica(DataSource dataSource, long maxLag) {
+    this.dataSource = dataSource;
+    this.maxLag = maxLag;
+  }
+
+  /**
+   * @param userId the id of the authenticated user or <code>null</code>
+   * @return a read-only connection to the replica or <code>null</code> if the replica may lag
+   * behind the changes of the current thread or the given user or is not available
+   */
+  public Connection getConnection(String userId) {
+    long now = System.currentTimeMillis();
+    if (now < unavailableUntil || isLagging(threadChangeCommitTime.get(), now)) {
+      return null;
+    }
+    if (userId != null && isLagging(userChangeCommitTimes.get(userId), now)) {
+      return null;
+    }
+
+    try {
+      Connection connection = dataSource.getConnection();
+      connection.setReadOnly(true);
+      return connection;
+
+    } catch (SQLException e) {
+      unavailableUntil = now + retryInterval;
+      log.log(Level.WARNING, "read replica is not available, reading from the primary database for the next " + retryInterval + " ms", e);
+      return null;
+    }
+  }
+
+  /**
+   * Notifies the replica that the current thread committed a change to the primary database.
+   *
+   * @param userId the id of the authenticated user or <code>null</code>
+   */
+  public void changeCommitted(String userId) {
+    long now = System.currentTimeMillis();
+    threadChangeCommitTime.set(now);
+    if (userId != null) {
+      userChangeCommitTimes.put(userId, now);
+      removeExpiredUserChanges(now);
+    }
+  }
+
+  protected boolean isLagging(Long changeCommitTime, long now) {
+    return changeCommitTime != null && now - changeCommitTime < maxLag;
+  }
+
+  protected void removeExpiredUserChanges(long now) {
+    Iterator<Long> changeCommitTimes = userChangeCommitTimes.values().iterator();
+    while (changeCommitTimes.hasNext()) {
+      if (!isLagging(changeCommitTimes.next(), now)) {
+        changeCommitTimes.remove();
+      }
+    }
+  }
+
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+  public long getMaxLag() {
+    return maxLag;
+  }
+
+  public void setMaxLag(long maxLag) {
+    this.maxLag = maxLag;
+  }
+
+  public long getRetryInterval() {
+    return retryInterval;
+  }
+
+  public void setRetryInterval(long retryInterval) {
+    this.retryInterval = retryInterval;
+  }
+
+}
@@ -24,24 +24,35 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.WrongDbException;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.AbstractPersistenceSession;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.util.ClassNameUtil;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
+import org.camunda.bpm.engine.management.TableMetaData;
+import org.camunda.bpm.engine.query.QueryResultHandler;
 
 
 /**
@@ -57,12 +68,18 @@ public class DbSqlSession extends AbstractPersistenceSession {
 
   private static Logger log = Logger.getLogger(DbSqlSession.class.getName());
 
+  /** the maximum number of entities which are inserted by a single bulk insert statement */
+  public static final int BULK_INSERT_CHUNK_SIZE = 100;
+
   protected SqlSession sqlSession;
   protected DbSqlSessionFactory dbSqlSessionFactory;
 
   protected String connectionMetadataDefaultCatalog = null;
   protected String connectionMetadataDefaultSchema = null;
 
+  /** true if this session changed data which is not committed yet */
+  protected boolean dataChanged = false;
+
   public DbSqlSession(DbSqlSessionFactory dbSqlSessionFactory) {
     this.dbSqlSessionFactory = dbSqlSessionFactory;
     this.sqlSession = dbSqlSessionFactory
@@ -86,6 +103,20 @@ public class DbSqlSession extends AbstractPersistenceSession {
     return sqlSession.selectList(statement, parameter);
   }
 
+  public List<?> selectList(String statement, Object parameter, int firstResult, int maxResults) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    return sqlSession.selectList(statement, parameter, new RowBounds(firstResult, maxResults));
+  }
+
+  public void select(String statement, Object parameter, final QueryResultHandler<Object> resultHandler) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    sqlSession.select(statement, parameter, new ResultHandler() {
+      public void handleResult(ResultContext resultContext) {
+        resultHandler.handleResult(resultContext.getResultObject());
+      }
+    });
+  }
+
   public <T extends DbEntity> T selectById(Class<T> type, String id) {
     String selectStatement = dbSqlSessionFactory.getSelectStatement(type);
     selectStatement = dbSqlSessionFactory.mapStatement(selectStatement);
@@ -111,8 +142,27 @@ public class DbSqlSession extends AbstractPersistenceSession {
     }
   }
 
+  public void lock(String statement, Object parameter) {
+    // the lock is acquired on H2 as well, although H2 without MVCC locks the whole table
+    // for a select for update. The deadlock described above cannot occur, since the
+    // DbIdGenerator only locks the property table and the statements which take a
+    // parameter lock other tables.
+    String mappedStatement = dbSqlSessionFactory.mapStatement(statement);
+    sqlSession.update(mappedStatement, parameter);
+  }
+
   // insert //////////////////////////////////////////
 
+  public void insert(String statement, Object parameter) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    sqlSession.insert(statement, parameter);
+  }
+
+  public void executeDbOperation(DbOperation operation) {
+    dataChanged = true;
+    super.executeDbOperation(operation);
+  }
+
   protected void insertEntity(DbEntityOperation operation) {
 
     final DbEntity dbEntity = operation.getEntity();
@@ -129,6 +179,37 @@ public class DbSqlSession extends AbstractPersistenceSession {
     entityInserted(dbEntity);
   }
 
+  public void executeInsertOperations(List<DbEntityOperation> operations) {
+    dataChanged = true;
+    String bulkInsertStatement = dbSqlSessionFactory.getBulkInsertStatement(operations.get(0).getEntity());
+    if (bulkInsertStatement == null || operations.size() == 1) {
+      super.executeInsertOperations(operations);
+      return;
+    }
+
+    // the chunks keep the statements below the parameter limits of the databases
+    for (int start = 0; start < operations.size(); start += BULK_INSERT_CHUNK_SIZE) {
+      int end = Math.min(start + BULK_INSERT_CHUNK_SIZE, operations.size());
+
+      List<DbEntity> entities = new ArrayList<DbEntity>(end - start);
+      for (DbEntityOperation operation : operations.subList(start, end)) {
+        entities.add(operation.getEntity());
+      }
+
+      if(log.isLoggable(Level.FINE)) {
+        log.fine("inserting " + entities.size() + " entities with " + bulkInsertStatement);
+      }
+      sqlSession.insert(bulkInsertStatement, entities);
+
+      for (DbEntity entity : entities) {
+        if (entity instanceof HasDbRevision) {
+          ((HasDbRevision) entity).setRevision(1);
+        }
+        entityInserted(entity);
+      }
+    }
+  }
+
   protected void executeInsertEntity(String insertStatement, Object parameter) {
     if(log.isLoggable(Level.FINE)) {
       log.fine("inserting: " + toString(parameter));
@@ -191,7 +272,8 @@ public class DbSqlSession extends AbstractPersistenceSession {
       log.fine("deleting (bulk): " + statement + " " + parameter);
     }
 
-    executeDelete(statement, parameter);
+    int nrOfRowsDeleted = executeDelete(statement, parameter);
+    operation.setRowsAffected(nrOfRowsDeleted);
   }
 
   // update ////////////////////////////////////////
@@ -243,7 +325,8 @@ public class DbSqlSession extends AbstractPersistenceSession {
       log.fine("updating (bulk): " + statement + " " + parameter);
     }
 
-    executeUpdate(statement, parameter);
+    int numOfRowsUpdated = executeUpdate(statement, parameter);
+    operation.setRowsAffected(numOfRowsUpdated);
   }
 
   // utils /////////////////////////////////////////
@@ -271,6 +354,13 @@ public class DbSqlSession extends AbstractPersistenceSession {
 
   public void commit() {
     sqlSession.commit();
+
+    DbReadReplica readReplica = dbSqlSessionFactory.getReadReplica();
+    if (dataChanged && readReplica != null) {
+      CommandContext commandContext = Context.getCommandContext();
+      readReplica.changeCommitted(commandContext != null ? commandContext.getAuthenticatedUserId() : null);
+    }
+    dataChanged = false;
   }
 
   public void rollback() {
@@ -431,6 +521,124 @@ public class DbSqlSession extends AbstractPersistenceSession {
     return dbSqlSessionFactory.getDatabaseTablePrefix() + tableName;
   }
 
+  public List<String> getTableNamesPresent() {
+    List<String> tableNames = new ArrayList<String>();
+
+    try {
+      ResultSet tablesRs = null;
+
+      try {
+        if (DbSqlSessionFactory.ORACLE.equals(dbSqlSessionFactory.getDatabaseType())) {
+          tableNames = getTablesPresentInOracleDatabase();
+        } else {
+          Connection connection = sqlSession.getConnection();
+          DatabaseMetaData databaseMetaData = connection.getMetaData();
+
+          log.fine("retrieving process engine tables from jdbc metadata");
+          String databaseTablePrefix = dbSqlSessionFactory.getDatabaseTablePrefix();
+          String tableNameFilter = databaseTablePrefix+"ACT_%";
+
+          if (DbSqlSessionFactory.POSTGRES.equals(dbSqlSessionFactory.getDatabaseType())) {
+            tableNameFilter = databaseTablePrefix+"act_%";
+          }
+          tablesRs = databaseMetaData.getTables(null, null, tableNameFilter, JDBC_METADATA_TABLE_TYPES);
+
+          while (tablesRs.next()) {
+            String tableName = tablesRs.getString("TABLE_NAME");
+            tableName = tableName.toUpperCase();
+            tableNames.add(tableName);
+            log.fine("  retrieved process engine table name "+tableName);
+          }
+        }
+      } catch (SQLException se) {
+        throw se;
+      } finally {
+        if (tablesRs != null) {
+          tablesRs.close();
+        }
+      }
+    } catch (Exception e) {
+      throw new ProcessEngineException("couldn't get process engine table names: "+e.getMessage(), e);
+    }
+
+    return tableNames;
+  }
+
+  protected List<String> getTablesPresentInOracleDatabase() throws SQLException {
+    List<String> tableNames = new ArrayList<String>();
+    Connection connection = null;
+    PreparedStatement prepStat = null;
+    ResultSet tablesRs = null;
+    String selectTableNamesFromOracle = "SELECT table_name FROM all_tables WHERE table_name LIKE ?";
+    String databaseTablePrefix = dbSqlSessionFactory.getDatabaseTablePrefix();
+
+    try {
+        connection = Context.getProcessEngineConfiguration().getDataSource().getConnection();
+        prepStat = connection.prepareStatement(selectTableNamesFromOracle);
+        prepStat.setString(1, databaseTablePrefix + "ACT_%");
+        log.fine("retrieving process engine tables from oracle all_tables");
+        tablesRs = prepStat.executeQuery();
+        while (tablesRs.next()) {
+          String tableName = tablesRs.getString("TABLE_NAME");
+          tableName = tableName.toUpperCase();
+          tableNames.add(tableName);
+          log.fine("  retrieved process engine table name "+tableName);
+        }
+    } finally {
+      if (tablesRs != null) {
+        tablesRs.close();
+      }
+      if (prepStat != null) {
+        prepStat.close();
+      }
+      if (connection != null) {
+        connection.close();
+      }
+    }
+
+    return tableNames;
+  }
+
+  public TableMetaData getTableMetaData(String tableName) {
+    TableMetaData result = new TableMetaData();
+    ResultSet resultSet = null;
+
+    try {
+      try {
+        result.setTableName(tableName);
+        DatabaseMetaData metaData = sqlSession
+            .getConnection()
+            .getMetaData();
+
+        if (DbSqlSessionFactory.POSTGRES.equals(dbSqlSessionFactory.getDatabaseType())) {
+          tableName = tableName.toLowerCase();
+        }
+
+        resultSet = metaData.getColumns(null, null, tableName, null);
+        while(resultSet.next()) {
+          String name = resultSet.getString("COLUMN_NAME").toUpperCase();
+          String type = resultSet.getString("TYPE_NAME").toUpperCase();
+          result.addColumnMetaData(name, type);
+        }
+
+      } catch (SQLException se) {
+        throw se;
+      } finally {
+        if (resultSet != null) {
+          resultSet.close();
+        }
+      }
+    } catch (Exception e) {
+      throw new ProcessEngineException("Could not retrieve database metadata: " + e.getMessage());
+    }
+
+    if(result.getColumnNames().size() == 0) {
+      // According to API, when a table doesn't exist, null should be returned
+      result = null;
+    }
+    return result;
+  }
+
   public String getResourceForDbOperation(String directory, String operation, String component) {
     String databaseType = dbSqlSessionFactory.getDatabaseType();
     return "org/camunda/bpm/engine/db/" + directory + "/activiti." + databaseType + "." + operation + "."+component+".sql";
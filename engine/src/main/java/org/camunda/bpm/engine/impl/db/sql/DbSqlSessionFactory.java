@@ -13,13 +13,25 @@
 
 package org.camunda.bpm.engine.impl.db.sql;
 
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.camunda.bpm.engine.impl.cfg.IdGenerator;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 import org.camunda.bpm.engine.impl.util.ClassNameUtil;
@@ -30,6 +42,8 @@ import org.camunda.bpm.engine.impl.util.ClassNameUtil;
  */
 public class DbSqlSessionFactory implements SessionFactory {
 
+  private static Logger log = Logger.getLogger(DbSqlSessionFactory.class.getName());
+
   public static final String MSSQL = "mssql";
   public static final String DB2 = "db2";
   public static final String ORACLE = "oracle";
@@ -168,6 +182,9 @@ public class DbSqlSessionFactory implements SessionFactory {
     databaseSpecificBitAnd3.put(ORACLE, ")");
     databaseSpecificTrueConstant.put(ORACLE, "1");
     databaseSpecificFalseConstant.put(ORACLE, "0");
+    addDatabaseSpecificStatement(ORACLE, "bulkInsertVariableInstance", "bulkInsertVariableInstance_oracle");
+    addDatabaseSpecificStatement(ORACLE, "bulkInsertHistoricVariableInstance", "bulkInsertHistoricVariableInstance_oracle");
+    addDatabaseSpecificStatement(ORACLE, "bulkInsertHistoricVariableUpdateEvent", "bulkInsertHistoricVariableUpdateEvent_oracle");
 
     constants = new HashMap<String, String>();
     constants.put("constant.event", "cast('event' as nvarchar2(255))");
@@ -226,6 +243,8 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(MSSQL, "selectHistoricTaskInstanceByNativeQuery", "selectHistoricTaskInstanceByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "selectTaskByNativeQuery", "selectTaskByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "lockDeploymentLockProperty", "lockDeploymentLockProperty_mssql");
+    addDatabaseSpecificStatement(MSSQL, "lockExecution", "lockExecution_mssql");
+    addDatabaseSpecificStatement(MSSQL, "selectExecutionsByParentExecutionIdForUpdate", "selectExecutionsByParentExecutionIdForUpdate_mssql");
 
     constants = new HashMap<String, String>();
     constants.put("constant.event", "'event'");
@@ -249,15 +268,29 @@ public class DbSqlSessionFactory implements SessionFactory {
   protected Map<Class<?>,String>  updateStatements = new ConcurrentHashMap<Class<?>, String>();
   protected Map<Class<?>,String>  deleteStatements = new ConcurrentHashMap<Class<?>, String>();
   protected Map<Class<?>,String>  selectStatements = new ConcurrentHashMap<Class<?>, String>();
+  /** the mapped bulk insert statements; an empty string marks types without a bulk insert statement */
+  protected Map<Class<?>,String>  bulkInsertStatements = new ConcurrentHashMap<Class<?>, String>();
   protected boolean isDbIdentityUsed = true;
   protected boolean isDbHistoryUsed = true;
   protected boolean cmmnEnabled = true;
+  protected boolean bulkInsertEnabled = false;
+  /** the replica which serves the queries of read-only command contexts, if any */
+  protected DbReadReplica readReplica;
 
   public Class< ? > getSessionType() {
     return DbSqlSession.class;
   }
 
   public Session openSession() {
+    if (readReplica != null) {
+      CommandContext commandContext = Context.getCommandContext();
+      if (commandContext != null && commandContext.isReadOnly()) {
+        Connection connection = readReplica.getConnection(commandContext.getAuthenticatedUserId());
+        if (connection != null) {
+          return new DbSqlSession(this, connection, null, null);
+        }
+      }
+    }
     return new DbSqlSession(this);
   }
 
@@ -279,6 +312,27 @@ public class DbSqlSessionFactory implements SessionFactory {
     return getStatement(persistentObjectClass, selectStatements, "select");
   }
 
+  /**
+   * @return the mapped statement which inserts a list of entities of the given type
+   * with a single statement or <code>null</code> if bulk inserts are disabled or the
+   * type has no such statement.
+   */
+  public String getBulkInsertStatement(DbEntity object) {
+    if (!bulkInsertEnabled) {
+      return null;
+    }
+    String statement = bulkInsertStatements.get(object.getClass());
+    if (statement == null) {
+      String insertStatement = getInsertStatement(object);
+      statement = mapStatement("bulk" + Character.toUpperCase(insertStatement.charAt(0)) + insertStatement.substring(1));
+      if (!sqlSessionFactory.getConfiguration().hasStatement(statement)) {
+        statement = "";
+      }
+      bulkInsertStatements.put(object.getClass(), statement);
+    }
+    return statement.length() > 0 ? statement : null;
+  }
+
   private String getStatement(Class<?> persistentObjectClass, Map<Class<?>,String> cachedStatements, String prefix) {
     String statement = cachedStatements.get(persistentObjectClass);
     if (statement!=null) {
@@ -290,6 +344,68 @@ public class DbSqlSessionFactory implements SessionFactory {
     return statement;
   }
 
+  // warm-up //////////////////////////////////////////////////////////////////
+
+  /**
+   * Builds the SQL of all mapped statements and resolves the reflection metadata of
+   * their parameter and result types, which MyBatis otherwise does on the first
+   * execution of each statement.
+   */
+  public void warmUp() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+
+    for (String statementName : new ArrayList<String>(configuration.getMappedStatementNames())) {
+      // statements are registered by their full and their short name; only the full name is unique
+      if (statementName.indexOf('.') != -1) {
+        MappedStatement mappedStatement = configuration.getMappedStatement(statementName);
+
+        ParameterMap parameterMap = mappedStatement.getParameterMap();
+        Class<?> parameterType = parameterMap != null ? parameterMap.getType() : null;
+        if (parameterType != null) {
+          warmUpType(parameterType);
+        }
+        for (ResultMap resultMap : mappedStatement.getResultMaps()) {
+          warmUpType(resultMap.getType());
+        }
+
+        warmUpBoundSql(mappedStatement, parameterType);
+      }
+    }
+  }
+
+  /**
+   * Builds the SQL of the statement for an empty parameter object. For dynamic SQL this
+   * parses and caches the OGNL expressions of the statement. Statements which cannot be
+   * built without actual parameters are built on their first execution instead.
+   */
+  protected void warmUpBoundSql(MappedStatement mappedStatement, Class<?> parameterType) {
+    try {
+      mappedStatement.getBoundSql(createWarmUpParameter(parameterType));
+    } catch (Exception e) {
+      log.log(Level.FINEST, "Could not build statement '" + mappedStatement.getId() + "' during warm-up", e);
+    }
+  }
+
+  protected Object createWarmUpParameter(Class<?> parameterType) {
+    if (parameterType != null
+        && !parameterType.isInterface()
+        && !Modifier.isAbstract(parameterType.getModifiers())
+        && !parameterType.getName().startsWith("java.")) {
+      try {
+        return parameterType.newInstance();
+      } catch (Exception e) {
+        // no accessible default constructor
+      }
+    }
+    return new HashMap<String, Object>();
+  }
+
+  protected void warmUpType(Class<?> type) {
+    if (!type.isPrimitive() && !type.getName().startsWith("java.")) {
+      MetaClass.forClass(type);
+    }
+  }
+
   // db specific mappings /////////////////////////////////////////////////////
 
   protected static void addDatabaseSpecificStatement(String databaseType, String activitiStatement, String ibatisStatement) {
@@ -413,6 +529,22 @@ public class DbSqlSessionFactory implements SessionFactory {
     this.cmmnEnabled = cmmnEnabled;
   }
 
+  public boolean isBulkInsertEnabled() {
+    return bulkInsertEnabled;
+  }
+
+  public void setBulkInsertEnabled(boolean bulkInsertEnabled) {
+    this.bulkInsertEnabled = bulkInsertEnabled;
+  }
+
+  public DbReadReplica getReadReplica() {
+    return readReplica;
+  }
+
+  public void setReadReplica(DbReadReplica readReplica) {
+    this.readReplica = readReplica;
+  }
+
   public void setDatabaseTablePrefix(String databaseTablePrefix) {
     this.databaseTablePrefix = databaseTablePrefix;
   }
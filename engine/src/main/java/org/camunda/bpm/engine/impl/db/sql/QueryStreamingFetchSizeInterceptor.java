@@ -0,0 +1,65 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.camunda.bpm.engine.impl.AbstractQuery;
+
+/**
+ * Sets the fetch size of the JDBC statements executed for queries whose results
+ * are streamed (see {@link AbstractQuery#isStreaming()}). Other statements keep
+ * the default fetch size of the driver.
+ */
+@Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+public class QueryStreamingFetchSizeInterceptor implements Interceptor {
+
+  protected int fetchSize;
+
+  public QueryStreamingFetchSizeInterceptor(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  public Object intercept(Invocation invocation) throws Throwable {
+    Statement statement = (Statement) invocation.proceed();
+
+    StatementHandler statementHandler = (StatementHandler) invocation.getTarget();
+    Object parameter = statementHandler.getParameterHandler().getParameterObject();
+    if (parameter instanceof AbstractQuery && ((AbstractQuery<?, ?>) parameter).isStreaming()) {
+      statement.setFetchSize(fetchSize);
+    }
+
+    return statement;
+  }
+
+  public Object plugin(Object target) {
+    if (target instanceof StatementHandler) {
+      return Plugin.wrap(target, this);
+    } else {
+      return target;
+    }
+  }
+
+  public void setProperties(Properties properties) {
+    // configured by the process engine configuration
+  }
+
+}
@@ -0,0 +1,86 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.persistence.entity.FilterEntity;
+
+/**
+ * Caches filters with their parsed queries, so that executing a filter neither selects the
+ * filter nor parses its JSON query.
+ *
+ * <p>Executing a query changes it, e.g. by evaluating its expressions. The cache therefore
+ * stores and returns copies of the filters whose queries are copied without parsing them
+ * again. A cached filter is only returned for the revision it was cached with, so that
+ * filters which were changed concurrently or by another process engine are selected
+ * again.</p>
+ *
+ * <p>The least recently used filters are removed if the cache exceeds its capacity.</p>
+ */
+public class FilterCache {
+
+  protected final int capacity;
+  protected Map<String, FilterEntity> filters;
+
+  public FilterCache(int capacity) {
+    this.capacity = capacity;
+    this.filters = new LinkedHashMap<String, FilterEntity>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+      protected boolean removeEldestEntry(Map.Entry<String, FilterEntity> eldest) {
+        return size() > FilterCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * @return a copy of the cached filter with the given id and revision or <code>null</code> if
+   * it is not cached with this revision
+   */
+  public FilterEntity get(String filterId, int revision) {
+    FilterEntity filter;
+    synchronized (this) {
+      filter = filters.get(filterId);
+      if (filter != null && filter.getRevision() != revision) {
+        filters.remove(filterId);
+        filter = null;
+      }
+    }
+    return filter != null ? filter.copyFilterWithParsedQuery() : null;
+  }
+
+  public void put(FilterEntity filter) {
+    FilterEntity copy = filter.copyFilterWithParsedQuery();
+    synchronized (this) {
+      filters.put(filter.getId(), copy);
+    }
+  }
+
+  public synchronized void remove(String filterId) {
+    filters.remove(filterId);
+  }
+
+  public synchronized void clear() {
+    filters.clear();
+  }
+
+  public synchronized int size() {
+    return filters.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+}
@@ -106,7 +106,7 @@ public class DbIdentityServiceProvider extends DbReadOnlyIdentityServiceProvider
     Map<String, Object> parameters = new HashMap<String, Object>();
     parameters.put("userId", userId);
     parameters.put("groupId", groupId);
-    getDbSqlSession().getSqlSession().insert("insertMembership", parameters);
+    getPersistenceSession().insert("insertMembership", parameters);
     createDefaultMembershipAuthorizations(userId, groupId);
   }
 
@@ -0,0 +1,40 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.pvm.runtime.AtomicOperation;
+
+/**
+ * An atomic operation which is queued in the {@link CommandContext} to be
+ * performed on an execution later on.
+ */
+public class AtomicOperationInvocation {
+
+  protected AtomicOperation operation;
+  protected ExecutionEntity execution;
+
+  public AtomicOperationInvocation(AtomicOperation operation, ExecutionEntity execution) {
+    this.operation = operation;
+    this.execution = execution;
+  }
+
+  public AtomicOperation getOperation() {
+    return operation;
+  }
+
+  public ExecutionEntity getExecution() {
+    return execution;
+  }
+
+}
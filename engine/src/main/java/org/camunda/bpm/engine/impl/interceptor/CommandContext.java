@@ -14,7 +14,9 @@ package org.camunda.bpm.engine.impl.interceptor;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -72,12 +74,14 @@ import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.PropertyManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ResourceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterManager;
 import org.camunda.bpm.engine.impl.persistence.entity.StatisticsManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TableDataManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskManager;
 import org.camunda.bpm.engine.impl.persistence.entity.UserOperationLogManager;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
 import org.camunda.bpm.engine.impl.pvm.runtime.AtomicOperation;
+import org.camunda.bpm.engine.impl.pvm.runtime.operation.PvmAtomicOperation;
 
 /**
  * @author Tom Baeyens
@@ -97,6 +101,20 @@ public class CommandContext {
 
   protected List<CommandContextListener> commandContextListeners = new LinkedList<CommandContextListener>();
 
+  protected boolean atomicOperationLoopEnabled;
+
+  /** true if the context was opened for a {@link ReadOnlyCommand}, so that it may read from a read replica */
+  protected boolean readOnly;
+
+  /** the command invocation whose atomic operation loop is currently running, if any */
+  protected CommandInvocationContext operationLoopInvocationContext;
+  /** operations which are invoked by the running atomic operation loop, in order */
+  protected Deque<AtomicOperationInvocation> operationQueue;
+  /** operations which were queued by the currently invoked operation */
+  protected List<AtomicOperationInvocation> queuedOperations;
+  /** if true, the next queueable operation is not queued but completed before it returns */
+  protected boolean completeNextQueueableOperation;
+
   public CommandContext(ProcessEngineConfigurationImpl processEngineConfiguration) {
     this(processEngineConfiguration, processEngineConfiguration.getTransactionContextFactory());
   }
@@ -104,11 +122,102 @@ public class CommandContext {
   public CommandContext(ProcessEngineConfigurationImpl processEngineConfiguration, TransactionContextFactory transactionContextFactory) {
     this.processEngineConfiguration = processEngineConfiguration;
     this.failedJobCommandFactory = processEngineConfiguration.getFailedJobCommandFactory();
+    this.atomicOperationLoopEnabled = processEngineConfiguration.isAtomicOperationLoopEnabled();
     sessionFactories = processEngineConfiguration.getSessionFactories();
     this.transactionContext = transactionContextFactory.openTransactionContext(this);
   }
 
   public void performOperation(final AtomicOperation executionOperation, final ExecutionEntity execution) {
+    if (!atomicOperationLoopEnabled) {
+      invokeOperation(executionOperation, execution);
+    }
+    else if (!isOperationLoopRunning()) {
+      runOperationLoop(executionOperation, execution);
+    }
+    else if (isQueueable(executionOperation) && completeNextQueueableOperation) {
+      completeNextQueueableOperation = false;
+      runOperationLoop(executionOperation, execution);
+    }
+    else if (isQueueable(executionOperation)) {
+      queuedOperations.add(new AtomicOperationInvocation(executionOperation, execution));
+    }
+    else {
+      invokeOperation(executionOperation, execution);
+    }
+  }
+
+  /**
+   * Invokes the given operation and then all operations that are queued while the loop
+   * is running. Operations queued by one invocation are invoked before the ones that were
+   * queued earlier, so that an execution continues up to its next wait state before a
+   * concurrent execution continues, just like with recursive invocation.
+   */
+  protected void runOperationLoop(AtomicOperation executionOperation, ExecutionEntity execution) {
+    // a nested command invocation runs its own loop
+    CommandInvocationContext outerInvocationContext = operationLoopInvocationContext;
+    Deque<AtomicOperationInvocation> outerOperationQueue = operationQueue;
+    List<AtomicOperationInvocation> outerQueuedOperations = queuedOperations;
+
+    operationLoopInvocationContext = Context.getCommandInvocationContext();
+    operationQueue = new ArrayDeque<AtomicOperationInvocation>();
+    queuedOperations = new ArrayList<AtomicOperationInvocation>();
+
+    try {
+      invokeOperation(executionOperation, execution);
+      scheduleQueuedOperations();
+
+      while (!operationQueue.isEmpty()) {
+        AtomicOperationInvocation invocation = operationQueue.removeFirst();
+        ExecutionEntity queuedExecution = invocation.getExecution();
+
+        // a concurrent execution may have been ended by the preceding operations
+        if (queuedExecution.isEnded()) {
+          log.fine("Not performing " + invocation.getOperation() + ", " + queuedExecution + " has ended.");
+        } else {
+          invokeOperation(invocation.getOperation(), queuedExecution);
+          scheduleQueuedOperations();
+        }
+      }
+
+    } finally {
+      operationLoopInvocationContext = outerInvocationContext;
+      operationQueue = outerOperationQueue;
+      queuedOperations = outerQueuedOperations;
+    }
+  }
+
+  /**
+   * Ensures that the next queueable operation and all operations it queues are performed
+   * before the operation performing it returns. This is used by operations which continue
+   * several executions one after the other: without it, the listeners of the later
+   * executions would be notified before the earlier executions reached their wait states.
+   *
+   * @param completeNextQueueableOperation true before continuing an execution, false after it
+   */
+  public void setCompleteNextQueueableOperation(boolean completeNextQueueableOperation) {
+    this.completeNextQueueableOperation = completeNextQueueableOperation;
+  }
+
+  protected void scheduleQueuedOperations() {
+    for (int i = queuedOperations.size() - 1; i >= 0; i--) {
+      operationQueue.addFirst(queuedOperations.get(i));
+    }
+    queuedOperations.clear();
+  }
+
+  protected boolean isOperationLoopRunning() {
+    return operationQueue != null && operationLoopInvocationContext == Context.getCommandInvocationContext();
+  }
+
+  /**
+   * Only operations which are always performed as the last step of the operation that
+   * performs them may be queued: nothing is done after them which relies on their effects.
+   */
+  protected boolean isQueueable(AtomicOperation executionOperation) {
+    return executionOperation == PvmAtomicOperation.TRANSITION_CREATE_SCOPE;
+  }
+
+  protected void invokeOperation(final AtomicOperation executionOperation, final ExecutionEntity execution) {
 
     ProcessApplicationReference targetProcessApplication = getTargetProcessApplication(execution);
 
@@ -116,7 +225,7 @@ public class CommandContext {
 
       Context.executeWithinProcessApplication(new Callable<Void>() {
         public Void call() throws Exception {
-          performOperation(executionOperation, execution);
+          invokeOperation(executionOperation, execution);
           return null;
         }
 
@@ -405,6 +514,10 @@ public class CommandContext {
     return getSession(StatisticsManager.class);
   }
 
+  public RuntimeStatisticsCounterManager getRuntimeStatisticsCounterManager() {
+    return getSession(RuntimeStatisticsCounterManager.class);
+  }
+
   public HistoricStatisticsManager getHistoricStatisticsManager() {
     return getSession(HistoricStatisticsManager.class);
   }
@@ -495,6 +608,14 @@ public class CommandContext {
     }
   }
 
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  public void setReadOnly(boolean readOnly) {
+    this.readOnly = readOnly;
+  }
+
   public List<String> getAuthenticatedGroupIds() {
     IdentityService identityService = processEngineConfiguration.getIdentityService();
     Authentication currentAuthentication = identityService.getCurrentAuthentication();
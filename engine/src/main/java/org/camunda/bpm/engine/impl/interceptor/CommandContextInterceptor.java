@@ -84,6 +84,7 @@ public class CommandContextInterceptor extends CommandInterceptor {
       if(openNew) {
         LOGGER.log(Level.FINE, "Opening new command context.");
         context = commandContextFactory.createCommandContext();
+        context.setReadOnly(command instanceof ReadOnlyCommand);
 
       } else {
         LOGGER.log(Level.FINE, "Reusing existing command context.");
@@ -13,9 +13,13 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -27,6 +31,8 @@ public class AcquiredJobs {
 
   protected List<List<String>> acquiredJobBatches = new ArrayList<List<String>>();
   protected Set<String> acquiredJobs = new HashSet<String>();
+  protected Map<List<String>, String> executionLanes = new IdentityHashMap<List<String>, String>();
+  protected Map<String, Date> timersToPark = new LinkedHashMap<String, Date>();
 
   protected int numberOfJobsFailedToLock = 0;
 
@@ -39,6 +45,36 @@ public class AcquiredJobs {
     acquiredJobs.addAll(jobIds);
   }
 
+  public void addJobIdBatch(List<String> jobIds, String executionLaneName) {
+    addJobIdBatch(jobIds);
+    if (executionLaneName != null) {
+      executionLanes.put(jobIds, executionLaneName);
+    }
+  }
+
+  /**
+   * @return the name of the {@link JobExecutionLane} the batch is executed in or
+   * <code>null</code> if it is executed by the job executor as usual
+   */
+  public String getExecutionLane(List<String> jobIdBatch) {
+    return executionLanes.get(jobIdBatch);
+  }
+
+  /**
+   * Adds a timer which was locked before it is due. It is not executed with the job batches
+   * but parked until its due date.
+   */
+  public void addTimerToPark(String jobId, Date duedate) {
+    timersToPark.put(jobId, duedate);
+  }
+
+  /**
+   * @return the due dates of the timers to park by job id
+   */
+  public Map<String, Date> getTimersToPark() {
+    return timersToPark;
+  }
+
   public boolean contains(String jobId) {
     return acquiredJobs.contains(jobId);
   }
@@ -51,6 +87,7 @@ public class AcquiredJobs {
     numberOfJobsFailedToLock++;
 
     acquiredJobs.remove(id);
+    timersToPark.remove(id);
 
     Iterator<List<String>> batchIterator = acquiredJobBatches.iterator();
     while (batchIterator.hasNext()) {
@@ -60,6 +97,7 @@ public class AcquiredJobs {
       // remove batch if it is now empty
       if(batch.isEmpty()) {
         batchIterator.remove();
+        executionLanes.remove(batch);
       }
 
     }
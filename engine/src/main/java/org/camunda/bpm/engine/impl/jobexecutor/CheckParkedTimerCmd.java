@@ -0,0 +1,58 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * Reloads a timer which was parked by the {@link TimerWheelRunnable} and checks that it may
+ * be executed now: it is still locked by the given lock owner, it is not suspended and it is
+ * due. If it is locked by the lock owner but may not be executed, its lock is released, so
+ * that it is acquired again when it is due.
+ *
+ * @return the timer or <code>null</code> if it must not be executed
+ */
+public class CheckParkedTimerCmd implements Command<JobEntity> {
+
+  protected String jobId;
+  protected String lockOwner;
+
+  public CheckParkedTimerCmd(String jobId, String lockOwner) {
+    this.jobId = jobId;
+    this.lockOwner = lockOwner;
+  }
+
+  public JobEntity execute(CommandContext commandContext) {
+    JobEntity job = commandContext.getJobManager().findJobById(jobId);
+
+    // the timer was deleted or acquired by another job executor after its lock expired
+    if (job == null || !lockOwner.equals(job.getLockOwner())) {
+      return null;
+    }
+
+    Date duedate = job.getDuedate();
+    if (job.isSuspended() || (duedate != null && duedate.after(ClockUtil.getCurrentTime()))) {
+      job.setLockOwner(null);
+      job.setLockExpirationTime(null);
+      return null;
+    }
+
+    return job;
+  }
+
+}
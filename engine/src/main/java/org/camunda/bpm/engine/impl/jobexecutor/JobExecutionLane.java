@@ -0,0 +1,231 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.container.impl.jmx.services.JmxManagedThreadPool;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+
+/**
+ * <p>A bounded thread pool of a {@link JobExecutor} which executes the jobs selected
+ * by their job handler type, job definition or process definition key. Each lane
+ * has its own acquisition quota, so that jobs of one lane (e.g. slow service calls)
+ * can neither occupy the threads nor the acquisitions of other jobs.</p>
+ *
+ * <p>Jobs which do not match any lane are executed by the job executor as usual. The
+ * exclusive jobs of a process instance are acquired together and executed one after
+ * another in the lane of the job which was selected first, even if some of them
+ * belong to another lane or to no lane.</p>
+ */
+public class JobExecutionLane {
+
+  private static Logger log = Logger.getLogger(JobExecutionLane.class.getName());
+
+  protected String name;
+
+  protected Set<String> jobHandlerTypes = new HashSet<String>();
+  protected Set<String> jobDefinitionIds = new HashSet<String>();
+  protected Set<String> processDefinitionKeys = new HashSet<String>();
+
+  protected int queueSize = 3;
+  protected int corePoolSize = 3;
+  protected int maxPoolSize = 10;
+  protected int maxJobsPerAcquisition = 3;
+
+  protected JobExecutor jobExecutor;
+  protected JmxManagedThreadPool threadPool;
+
+  /** true if jobs of this lane were not acquired since the quota was exhausted */
+  protected volatile boolean isAcquisitionThrottled = false;
+
+  public JobExecutionLane() {
+  }
+
+  public JobExecutionLane(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return true if the job belongs to this lane
+   */
+  public boolean matches(JobEntity job) {
+    return jobHandlerTypes.contains(job.getJobHandlerType())
+        || (job.getJobDefinitionId() != null && jobDefinitionIds.contains(job.getJobDefinitionId()))
+        || (job.getProcessDefinitionKey() != null && processDefinitionKeys.contains(job.getProcessDefinitionKey()));
+  }
+
+  /**
+   * @return true if the lane selects any jobs
+   */
+  public boolean hasSelectionCriteria() {
+    return !jobHandlerTypes.isEmpty() || !jobDefinitionIds.isEmpty() || !processDefinitionKeys.isEmpty();
+  }
+
+  public synchronized void start(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+
+    if (threadPool == null) {
+      BlockingQueue<Runnable> threadPoolQueue = new ArrayBlockingQueue<Runnable>(queueSize);
+      ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 0L, TimeUnit.MILLISECONDS, threadPoolQueue);
+      threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+      threadPool = new JmxManagedThreadPool(threadPoolQueue, threadPoolExecutor);
+    }
+  }
+
+  public synchronized void stop() {
+    if (threadPool == null) {
+      return;
+    }
+
+    ThreadPoolExecutor threadPoolExecutor = threadPool.getThreadPoolExecutor();
+    threadPoolExecutor.shutdown();
+
+    // Waits for 1 minute to finish all currently executing jobs
+    try {
+      if(!threadPoolExecutor.awaitTermination(60L, TimeUnit.SECONDS)) {
+        log.log(Level.WARNING, "Timeout during shutdown of job execution lane '" + name + "'. "
+                + "The current running jobs could not end within 60 seconds after shutdown operation.");
+      }
+    } catch (InterruptedException e) {
+      log.log(Level.WARNING, "Interrupted while shutting down the job execution lane '" + name + "'. ", e);
+    }
+
+    threadPool = null;
+  }
+
+  /**
+   * @return false if the runnable was rejected by the thread pool of this lane
+   */
+  public boolean execute(final Runnable runnable) {
+    return threadPool.schedule(new Runnable() {
+      public void run() {
+        try {
+          runnable.run();
+        } finally {
+          // the lane has free capacity again: jobs which were left behind can be acquired now
+          if (isAcquisitionThrottled) {
+            isAcquisitionThrottled = false;
+            jobExecutor.jobWasAdded();
+          }
+        }
+      }
+    }, false);
+  }
+
+  /**
+   * @return the number of jobs of this lane which can be acquired now, limited by
+   * {@link #getMaxJobsPerAcquisition()} and the free capacity of the thread pool
+   */
+  public int getAcquisitionQuota() {
+    if (threadPool == null) {
+      return maxJobsPerAcquisition;
+    }
+
+    ThreadPoolExecutor threadPoolExecutor = threadPool.getThreadPoolExecutor();
+    int freeCapacity = threadPoolExecutor.getQueue().remainingCapacity()
+        + threadPoolExecutor.getMaximumPoolSize() - threadPoolExecutor.getActiveCount();
+
+    return Math.max(0, Math.min(maxJobsPerAcquisition, freeCapacity));
+  }
+
+  public void setAcquisitionThrottled(boolean isAcquisitionThrottled) {
+    this.isAcquisitionThrottled = isAcquisitionThrottled;
+  }
+
+  public boolean isAcquisitionThrottled() {
+    return isAcquisitionThrottled;
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Set<String> getJobHandlerTypes() {
+    return jobHandlerTypes;
+  }
+
+  public void setJobHandlerTypes(Set<String> jobHandlerTypes) {
+    this.jobHandlerTypes = jobHandlerTypes;
+  }
+
+  public Set<String> getJobDefinitionIds() {
+    return jobDefinitionIds;
+  }
+
+  public void setJobDefinitionIds(Set<String> jobDefinitionIds) {
+    this.jobDefinitionIds = jobDefinitionIds;
+  }
+
+  public Set<String> getProcessDefinitionKeys() {
+    return processDefinitionKeys;
+  }
+
+  public void setProcessDefinitionKeys(Set<String> processDefinitionKeys) {
+    this.processDefinitionKeys = processDefinitionKeys;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public int getCorePoolSize() {
+    return corePoolSize;
+  }
+
+  public void setCorePoolSize(int corePoolSize) {
+    this.corePoolSize = corePoolSize;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  public void setMaxPoolSize(int maxPoolSize) {
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  public int getMaxJobsPerAcquisition() {
+    return maxJobsPerAcquisition;
+  }
+
+  public void setMaxJobsPerAcquisition(int maxJobsPerAcquisition) {
+    this.maxJobsPerAcquisition = maxJobsPerAcquisition;
+  }
+
+  /**
+   * @return the thread pool of this lane, <code>null</code> if the lane is not started
+   */
+  public JmxManagedThreadPool getThreadPool() {
+    return threadPool;
+  }
+
+}
@@ -13,7 +13,10 @@
 
 package org.camunda.bpm.engine.impl.jobexecutor;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
@@ -21,8 +24,10 @@ import java.util.logging.Logger;
 
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
 import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.cmd.UnlockJobsCmd;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.runtime.Job;
 
 /**
@@ -57,12 +62,28 @@ public abstract class JobExecutor {
   protected String lockOwner = UUID.randomUUID().toString();
   protected int lockTimeInMillis = 5 * 60 * 1000;
 
+  protected List<JobExecutionLane> executionLanes = new ArrayList<JobExecutionLane>();
+
+  /**
+   * If greater than zero, the acquisition also locks timers which are due within this time and
+   * parks them in a {@link TimerWheel}, which executes them at their due time. The timers then
+   * do not depend on the wait time between acquisitions.
+   */
+  protected int timerLookaheadInMillis = 0;
+  protected int maxTimersPerAcquisition = 100;
+  protected TimerWheelRunnable timerWheelRunnable;
+  protected Thread timerWheelThread;
+
   public void start() {
     if (isActive) {
       return;
     }
     log.info("Starting up the JobExecutor["+getClass().getName()+"].");
     ensureInitialization();
+    for (JobExecutionLane executionLane : executionLanes) {
+      executionLane.start(this);
+    }
+    startTimerWheel();
     startExecutingJobs();
     isActive = true;
   }
@@ -73,7 +94,14 @@ public abstract class JobExecutor {
     }
     log.info("Shutting down the JobExecutor["+getClass().getName()+"].");
     acquireJobsRunnable.stop();
+    if (timerWheelRunnable != null) {
+      timerWheelRunnable.stop();
+    }
     stopExecutingJobs();
+    stopTimerWheel();
+    for (JobExecutionLane executionLane : executionLanes) {
+      executionLane.stop();
+    }
     ensureCleanup();
     isActive = false;
   }
@@ -88,6 +116,42 @@ public abstract class JobExecutor {
     acquireJobsRunnable = null;
   }
 
+  protected void startTimerWheel() {
+    if (timerLookaheadInMillis > 0 && timerWheelThread == null) {
+      timerWheelRunnable = new TimerWheelRunnable(this);
+      timerWheelThread = new Thread(timerWheelRunnable, getName() + "-timer-wheel");
+      timerWheelThread.setDaemon(true);
+      timerWheelThread.start();
+    }
+  }
+
+  protected void stopTimerWheel() {
+    if (timerWheelThread != null) {
+      try {
+        timerWheelThread.join();
+      } catch (InterruptedException e) {
+        log.log(Level.WARNING, "Interrupted while waiting for the timer wheel thread to terminate", e);
+      }
+      // timers may have been parked by the acquisition until it stopped
+      timerWheelRunnable.unlockParkedTimers();
+      timerWheelRunnable = null;
+      timerWheelThread = null;
+    }
+  }
+
+  /**
+   * Parks timers which were locked by the acquisition before they are due until their due date.
+   * If no timer wheel is running, the timers are executed when their lock expires.
+   */
+  public void parkTimers(Map<String, Date> duedates, ProcessEngineImpl processEngine) {
+    TimerWheelRunnable timerWheelRunnable = this.timerWheelRunnable;
+    if (timerWheelRunnable != null) {
+      for (Map.Entry<String, Date> duedate : duedates.entrySet()) {
+        timerWheelRunnable.park(duedate.getKey(), duedate.getValue(), processEngine);
+      }
+    }
+  }
+
   public void jobWasAdded() {
     if(isActive) {
       acquireJobsRunnable.jobWasAdded();
@@ -116,6 +180,105 @@ public abstract class JobExecutor {
   protected abstract void stopExecutingJobs();
   public abstract void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine);
 
+  /**
+   * Executes jobs in the given {@link JobExecutionLane execution lane}. If the name is
+   * <code>null</code> or no such lane exists, the jobs are executed by {@link #executeJobs(List, ProcessEngineImpl)}.
+   */
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine, String executionLaneName) {
+    JobExecutionLane executionLane = getExecutionLane(executionLaneName);
+
+    if (executionLane == null) {
+      executeJobs(jobIds, processEngine);
+
+    } else if (!executionLane.execute(new ExecuteJobsRunnable(jobIds, processEngine))) {
+      // the lane is full: rather than executing the jobs in the acquisition thread
+      // (as the rejected jobs handler may do), release them for a later acquisition
+      executionLane.setAcquisitionThrottled(true);
+      unlockJobs(jobIds, processEngine);
+
+    }
+  }
+
+  /**
+   * Releases the locks this job executor holds on the given jobs, so that they are acquired
+   * again. If that fails, the jobs are acquired once their locks expired.
+   */
+  public void unlockJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    try {
+      processEngine.getProcessEngineConfiguration()
+        .getCommandExecutorTxRequiresNew()
+        .execute(new UnlockJobsCmd(jobIds, lockOwner));
+
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not unlock jobs " + jobIds, e);
+    }
+  }
+
+  /**
+   * @return the first execution lane the job belongs to or <code>null</code> if it
+   * belongs to none of them
+   */
+  public JobExecutionLane getExecutionLane(JobEntity job) {
+    for (JobExecutionLane executionLane : executionLanes) {
+      if (executionLane.matches(job)) {
+        return executionLane;
+      }
+    }
+    return null;
+  }
+
+  public JobExecutionLane getExecutionLane(String name) {
+    if (name != null) {
+      for (JobExecutionLane executionLane : executionLanes) {
+        if (name.equals(executionLane.getName())) {
+          return executionLane;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Executes jobs which were created and locked by this job executor's lock owner
+   * without acquiring them. In contrast to {@link #executeJobs(List, ProcessEngineImpl)},
+   * jobs which cannot be executed right now are not passed to the {@link RejectedJobsHandler}.
+   *
+   * @return false if the jobs were not taken, i.e. they have to be unlocked and acquired
+   */
+  public boolean handOffJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    return false;
+  }
+
+  /**
+   * Hands off jobs to the given {@link JobExecutionLane execution lane}. If the name is
+   * <code>null</code> or no such lane exists, the jobs are handed off by {@link #handOffJobs(List, ProcessEngineImpl)}.
+   *
+   * @return false if the jobs were not taken, i.e. they have to be unlocked and acquired
+   */
+  public boolean handOffJobs(List<String> jobIds, ProcessEngineImpl processEngine, String executionLaneName) {
+    JobExecutionLane executionLane = getExecutionLane(executionLaneName);
+
+    if (executionLane == null) {
+      return handOffJobs(jobIds, processEngine);
+
+    } else if (!executionLane.execute(new ExecuteJobsRunnable(jobIds, processEngine))) {
+      // acquire the jobs of the lane once it has capacity again
+      executionLane.setAcquisitionThrottled(true);
+      return false;
+
+    } else {
+      return true;
+
+    }
+  }
+
+  /**
+   * @return true if {@link #handOffJobs(List, ProcessEngineImpl)} is supported
+   */
+  public boolean isJobHandoffSupported() {
+    return false;
+  }
+
   /**
    * Deprecated: use {@link #executeJobs(List, ProcessEngineImpl)} instead
    * @param jobIds
@@ -214,6 +377,34 @@ public abstract class JobExecutor {
     return isActive;
   }
 
+  public List<JobExecutionLane> getExecutionLanes() {
+    return executionLanes;
+  }
+
+  public void setExecutionLanes(List<JobExecutionLane> executionLanes) {
+    this.executionLanes = executionLanes;
+  }
+
+  public int getTimerLookaheadInMillis() {
+    return timerLookaheadInMillis;
+  }
+
+  public void setTimerLookaheadInMillis(int timerLookaheadInMillis) {
+    this.timerLookaheadInMillis = timerLookaheadInMillis;
+  }
+
+  public int getMaxTimersPerAcquisition() {
+    return maxTimersPerAcquisition;
+  }
+
+  public void setMaxTimersPerAcquisition(int maxTimersPerAcquisition) {
+    this.maxTimersPerAcquisition = maxTimersPerAcquisition;
+  }
+
+  public TimerWheelRunnable getTimerWheelRunnable() {
+    return timerWheelRunnable;
+  }
+
   public RejectedJobsHandler getRejectedJobsHandler() {
     return rejectedJobsHandler;
   }
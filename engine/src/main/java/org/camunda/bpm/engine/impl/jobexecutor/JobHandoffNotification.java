@@ -0,0 +1,92 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+
+/**
+ * Hands the jobs which were created (and locked by the job executor) in a transaction
+ * over to the job executor once the transaction is committed. If the job executor
+ * cannot take the jobs, they are unlocked so that they are acquired as usual.
+ *
+ * <p>The jobs are handed off to their {@link JobExecutionLane execution lane}. Like
+ * during acquisition, the exclusive jobs of a process instance are handed off to the
+ * lane of the first of them, so that they are executed one after another.</p>
+ */
+public class JobHandoffNotification implements TransactionListener {
+
+  private static Logger log = Logger.getLogger(JobHandoffNotification.class.getName());
+
+  protected JobExecutor jobExecutor;
+  protected ProcessEngineImpl processEngine;
+
+  /** the ids of the jobs per name of their execution lane; the key null stands for no lane */
+  protected Map<String, List<String>> jobIdsByExecutionLane = new LinkedHashMap<String, List<String>>();
+
+  /** the name of the execution lane per process instance whose exclusive jobs are handed off */
+  protected Map<String, String> exclusiveJobExecutionLanes = new HashMap<String, String>();
+
+  public JobHandoffNotification(JobExecutor jobExecutor, ProcessEngineImpl processEngine) {
+    this.jobExecutor = jobExecutor;
+    this.processEngine = processEngine;
+  }
+
+  public void addJob(JobEntity job) {
+    JobExecutionLane executionLane = jobExecutor.getExecutionLane(job);
+    String executionLaneName = executionLane != null ? executionLane.getName() : null;
+
+    String processInstanceId = job.getProcessInstanceId();
+    if (job.isExclusive() && processInstanceId != null) {
+      if (exclusiveJobExecutionLanes.containsKey(processInstanceId)) {
+        executionLaneName = exclusiveJobExecutionLanes.get(processInstanceId);
+      } else {
+        exclusiveJobExecutionLanes.put(processInstanceId, executionLaneName);
+      }
+    }
+
+    List<String> jobIds = jobIdsByExecutionLane.get(executionLaneName);
+    if (jobIds == null) {
+      jobIds = new ArrayList<String>();
+      jobIdsByExecutionLane.put(executionLaneName, jobIds);
+    }
+    jobIds.add(job.getId());
+  }
+
+  public void execute(CommandContext commandContext) {
+    for (Entry<String, List<String>> executionLaneJobIds : jobIdsByExecutionLane.entrySet()) {
+      String executionLaneName = executionLaneJobIds.getKey();
+      List<String> jobIds = executionLaneJobIds.getValue();
+
+      if (jobExecutor.handOffJobs(jobIds, processEngine, executionLaneName)) {
+        log.fine("handed off new jobs " + jobIds + " to job executor");
+
+      } else {
+        log.fine("job executor rejected new jobs " + jobIds + ", unlocking them for acquisition");
+        jobExecutor.unlockJobs(jobIds, processEngine);
+        jobExecutor.jobWasAdded();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import org.camunda.bpm.engine.impl.bpmn.behavior.ParallelMultiInstanceActivityBehavior;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.pvm.delegate.ActivityBehavior;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+
+/**
+ * Creates the next batch of instances of a parallel multi-instance activity. The
+ * configuration is the loop counter of the first instance of the batch.
+ */
+public class MultiInstanceBatchJobHandler implements JobHandler {
+
+  public final static String TYPE = "multi-instance-batch";
+
+  public String getType() {
+    return TYPE;
+  }
+
+  public void execute(String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    ActivityImpl activity = execution.getActivity();
+
+    // if the execution has left the multi-instance body, ignore
+    if (activity != null) {
+      ActivityBehavior activityBehavior = activity.getActivityBehavior();
+      if (activityBehavior instanceof ParallelMultiInstanceActivityBehavior) {
+        ((ParallelMultiInstanceActivityBehavior) activityBehavior).createInstanceBatch(execution, Integer.parseInt(configuration));
+      }
+    }
+  }
+
+}
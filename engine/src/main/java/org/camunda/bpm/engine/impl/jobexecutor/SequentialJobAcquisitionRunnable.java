@@ -64,12 +64,16 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
           AcquiredJobs acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd());
 
           for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
-            jobExecutor.executeJobs(jobIds, currentProcessEngine);
+            jobExecutor.executeJobs(jobIds, currentProcessEngine, acquiredJobs.getExecutionLane(jobIds));
           }
 
+          jobExecutor.parkTimers(acquiredJobs.getTimersToPark(), currentProcessEngine);
+
           // add number of jobs which we attempted to acquire but could not obtain a lock for -> do not wait if we could not acquire jobs.
           int jobsAcquired = acquiredJobs.getJobIdBatches().size() + acquiredJobs.getNumberOfJobsFailedToLock();
-          if (jobsAcquired < maxJobsPerAcquisition) {
+          // do not wait either if more timers are due within the lookahead than could be parked
+          if (jobsAcquired < maxJobsPerAcquisition
+              && acquiredJobs.getTimersToPark().size() < jobExecutor.getMaxTimersPerAcquisition()) {
             idleEngines.add(currentProcessEngine.getName());
           }
 
@@ -44,6 +44,21 @@ public class ThreadPoolJobExecutor extends JobExecutor {
     }
   }
   
+  public boolean handOffJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    try {
+      threadPoolExecutor.execute(new ExecuteJobsRunnable(jobIds, processEngine));
+      return true;
+
+    } catch (RejectedExecutionException e) {
+      return false;
+
+    }
+  }
+
+  public boolean isJobHandoffSupported() {
+    return true;
+  }
+
   // getters / setters
 
   public ThreadPoolExecutor getThreadPoolExecutor() {
@@ -0,0 +1,195 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A hierarchical timing wheel which holds elements until their due time.</p>
+ *
+ * <p>The lowest level has one bucket per tick. Each higher level has one bucket per full
+ * rotation of the level below it. An element is put into the lowest level whose range covers
+ * its due time. When the wheel reaches the start of a bucket of a higher level, the elements
+ * of the bucket are moved down to the lower levels, so that adding an element and advancing
+ * by one tick take constant time regardless of the number of elements.</p>
+ *
+ * <p>The wheel is not thread-safe.</p>
+ */
+public class TimerWheel<T> {
+
+  public static final long DEFAULT_TICK_MILLIS = 10;
+  public static final int DEFAULT_WHEEL_SIZE = 64;
+  public static final int DEFAULT_LEVELS = 4;
+
+  protected final long tickMillis;
+  protected final int wheelSize;
+  protected final List<List<List<Entry<T>>>> levels;
+
+  protected long currentTick;
+  protected int size = 0;
+
+  public TimerWheel(long currentTime) {
+    this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, DEFAULT_LEVELS, currentTime);
+  }
+
+  public TimerWheel(long tickMillis, int wheelSize, int nrOfLevels, long currentTime) {
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.currentTick = currentTime / tickMillis;
+
+    levels = new ArrayList<List<List<Entry<T>>>>();
+    for (int i = 0; i < nrOfLevels; i++) {
+      List<List<Entry<T>>> buckets = new ArrayList<List<Entry<T>>>();
+      for (int j = 0; j < wheelSize; j++) {
+        buckets.add(new ArrayList<Entry<T>>());
+      }
+      levels.add(buckets);
+    }
+  }
+
+  /**
+   * Adds an element which is due at the given time.
+   *
+   * @return false if the element is already due, in which case it is not added
+   */
+  public boolean add(T element, long dueTime) {
+    long dueTick = dueTime / tickMillis;
+    if (dueTick <= currentTick) {
+      return false;
+    }
+    addEntry(new Entry<T>(element, dueTick));
+    return true;
+  }
+
+  protected void addEntry(Entry<T> entry) {
+    long ticks = entry.dueTick - currentTick;
+
+    int level = 0;
+    long unit = 1;
+    while (level < levels.size() - 1 && ticks >= unit * wheelSize) {
+      unit *= wheelSize;
+      level++;
+    }
+
+    int index;
+    if (ticks < unit * wheelSize) {
+      index = (int) ((entry.dueTick / unit) % wheelSize);
+    } else {
+      // beyond the range of the wheel: the entry is added again after a full rotation
+      index = (int) ((currentTick / unit) % wheelSize);
+    }
+
+    levels.get(level).get(index).add(entry);
+    size++;
+  }
+
+  /**
+   * Advances the wheel to the given time.
+   *
+   * @return the elements which became due, in the order of their due time
+   */
+  public List<T> advanceTo(long time) {
+    long targetTick = time / tickMillis;
+    List<T> dueElements = new ArrayList<T>();
+
+    while (currentTick < targetTick) {
+      if (size == 0) {
+        currentTick = targetTick;
+        break;
+      }
+
+      currentTick++;
+
+      // move the elements of the higher level buckets which start at this tick down,
+      // starting with the highest level so that no element is moved into a bucket
+      // which has already been moved down
+      int topLevel = 0;
+      long unit = 1;
+      while (topLevel < levels.size() - 1 && currentTick % (unit * wheelSize) == 0) {
+        unit *= wheelSize;
+        topLevel++;
+      }
+      for (int level = topLevel; level > 0; level--) {
+        cascade(levels.get(level).get((int) ((currentTick / unit) % wheelSize)), dueElements);
+        unit /= wheelSize;
+      }
+
+      cascade(levels.get(0).get((int) (currentTick % wheelSize)), dueElements);
+    }
+
+    return dueElements;
+  }
+
+  protected void cascade(List<Entry<T>> bucket, List<T> dueElements) {
+    if (bucket.isEmpty()) {
+      return;
+    }
+
+    List<Entry<T>> entries = new ArrayList<Entry<T>>(bucket);
+    bucket.clear();
+    size -= entries.size();
+
+    for (Entry<T> entry : entries) {
+      if (entry.dueTick <= currentTick) {
+        dueElements.add(entry.element);
+      } else {
+        addEntry(entry);
+      }
+    }
+  }
+
+  /**
+   * Removes all elements from the wheel.
+   *
+   * @return the removed elements
+   */
+  public List<T> removeAll() {
+    List<T> elements = new ArrayList<T>();
+    for (List<List<Entry<T>>> buckets : levels) {
+      for (List<Entry<T>> bucket : buckets) {
+        for (Entry<T> entry : bucket) {
+          elements.add(entry.element);
+        }
+        bucket.clear();
+      }
+    }
+    size = 0;
+    return elements;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public long getTickMillis() {
+    return tickMillis;
+  }
+
+  protected static class Entry<T> {
+
+    protected final T element;
+    protected final long dueTick;
+
+    public Entry(T element, long dueTick) {
+      this.element = element;
+      this.dueTick = dueTick;
+    }
+
+  }
+
+}
@@ -0,0 +1,191 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>Holds timer jobs which were acquired before they are due in a {@link TimerWheel} and
+ * executes them at their due time, without acquiring them again.</p>
+ *
+ * <p>The timers stay locked by the job executor while they are parked. When the job executor
+ * shuts down, the locks of the timers which have not been executed yet are released. A due
+ * timer is reloaded before it is executed; if it was suspended or rescheduled meanwhile, or
+ * its execution lane or the job executor rejects it, its lock is released as well and it is
+ * acquired again. Timers are never executed in the timer wheel thread itself.</p>
+ */
+public class TimerWheelRunnable implements Runnable {
+
+  private static Logger log = Logger.getLogger(TimerWheelRunnable.class.getName());
+
+  protected final JobExecutor jobExecutor;
+  protected final TimerWheel<ParkedTimer> timerWheel;
+  protected final List<ParkedTimer> dueTimers = new ArrayList<ParkedTimer>();
+
+  protected final Object MONITOR = new Object();
+  protected volatile boolean isInterrupted = false;
+
+  public TimerWheelRunnable(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+    this.timerWheel = new TimerWheel<ParkedTimer>(ClockUtil.getCurrentTime().getTime());
+  }
+
+  public void run() {
+    log.info(jobExecutor.getName() + " starting to execute parked timers");
+
+    while (!isInterrupted) {
+      List<ParkedTimer> timersToExecute;
+
+      synchronized (MONITOR) {
+        timersToExecute = new ArrayList<ParkedTimer>(dueTimers);
+        dueTimers.clear();
+        timersToExecute.addAll(timerWheel.advanceTo(ClockUtil.getCurrentTime().getTime()));
+
+        if (timersToExecute.isEmpty()) {
+          try {
+            // wait for the next tick or, if no timer is parked, until a timer is parked
+            MONITOR.wait(timerWheel.isEmpty() ? 0 : timerWheel.getTickMillis());
+          } catch (InterruptedException e) {
+            log.fine("timer wheel wait interrupted");
+          }
+          continue;
+        }
+      }
+
+      for (ParkedTimer timer : timersToExecute) {
+        execute(timer);
+      }
+    }
+
+    log.info(jobExecutor.getName() + " stopped executing parked timers");
+  }
+
+  protected void execute(ParkedTimer timer) {
+    // the process engine may have been unregistered; its timers are acquired again after their lock expired
+    if (!jobExecutor.getProcessEngines().contains(timer.processEngine)) {
+      return;
+    }
+
+    List<String> jobIds = new ArrayList<String>();
+    jobIds.add(timer.jobId);
+
+    try {
+      // the timer may have been changed, deleted or suspended while it was parked
+      JobEntity job = timer.processEngine.getProcessEngineConfiguration()
+        .getCommandExecutorTxRequired()
+        .execute(new CheckParkedTimerCmd(timer.jobId, jobExecutor.getLockOwner()));
+
+      if (job != null && !handOff(job, jobIds, timer.processEngine)) {
+        // the timer is not executed in this thread, so that the other parked timers stay on time
+        jobExecutor.unlockJobs(jobIds, timer.processEngine);
+      }
+
+    } catch (RuntimeException e) {
+      log.log(Level.SEVERE, "exception while executing parked timer " + timer.jobId + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Passes the timer to its execution lane or the job executor without blocking. The timer
+   * is never executed in this thread, also not if the job executor does not support the
+   * handoff of jobs or its {@link RejectedJobsHandler} would execute rejected jobs in the
+   * calling thread.
+   *
+   * @return false if the timer was rejected
+   */
+  protected boolean handOff(JobEntity job, List<String> jobIds, ProcessEngineImpl processEngine) {
+    JobExecutionLane executionLane = jobExecutor.getExecutionLane(job);
+    String executionLaneName = executionLane != null ? executionLane.getName() : null;
+
+    return jobExecutor.handOffJobs(jobIds, processEngine, executionLaneName);
+  }
+
+  /**
+   * Parks a timer which is locked by the job executor until its due date.
+   */
+  public void park(String jobId, Date duedate, ProcessEngineImpl processEngine) {
+    ParkedTimer timer = new ParkedTimer(jobId, processEngine);
+
+    synchronized (MONITOR) {
+      if (!timerWheel.add(timer, duedate.getTime())) {
+        dueTimers.add(timer);
+      }
+      MONITOR.notifyAll();
+    }
+  }
+
+  public void stop() {
+    synchronized (MONITOR) {
+      isInterrupted = true;
+      MONITOR.notifyAll();
+    }
+  }
+
+  /**
+   * Releases the locks of the timers which are parked and not executed yet.
+   */
+  public void unlockParkedTimers() {
+    List<ParkedTimer> parkedTimers;
+    synchronized (MONITOR) {
+      parkedTimers = timerWheel.removeAll();
+      parkedTimers.addAll(dueTimers);
+      dueTimers.clear();
+    }
+
+    Map<ProcessEngineImpl, List<String>> jobIdsByProcessEngine = new HashMap<ProcessEngineImpl, List<String>>();
+    for (ParkedTimer timer : parkedTimers) {
+      List<String> jobIds = jobIdsByProcessEngine.get(timer.processEngine);
+      if (jobIds == null) {
+        jobIds = new ArrayList<String>();
+        jobIdsByProcessEngine.put(timer.processEngine, jobIds);
+      }
+      jobIds.add(timer.jobId);
+    }
+
+    for (Map.Entry<ProcessEngineImpl, List<String>> entry : jobIdsByProcessEngine.entrySet()) {
+      jobExecutor.unlockJobs(entry.getValue(), entry.getKey());
+    }
+  }
+
+  /**
+   * @return the number of timers which are parked and not executed yet
+   */
+  public int getNumberOfParkedTimers() {
+    synchronized (MONITOR) {
+      return timerWheel.size() + dueTimers.size();
+    }
+  }
+
+  protected static class ParkedTimer {
+
+    protected final String jobId;
+    protected final ProcessEngineImpl processEngine;
+
+    public ParkedTimer(String jobId, ProcessEngineImpl processEngine) {
+      this.jobId = jobId;
+      this.processEngine = processEngine;
+    }
+
+  }
+
+}
@@ -23,6 +23,7 @@ import org.camunda.bpm.engine.impl.cmmn.entity.repository.CaseDefinitionManager;
 import org.camunda.bpm.engine.impl.cmmn.entity.runtime.CaseExecutionManager;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.PersistenceSession;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
 import org.camunda.bpm.engine.impl.identity.Authentication;
@@ -49,6 +50,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ResourceManager;
+import org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskManager;
 import org.camunda.bpm.engine.impl.persistence.entity.UserOperationLogManager;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
@@ -75,6 +77,10 @@ public abstract class AbstractManager implements Session {
     return getSession(DbSqlSession.class);
   }
 
+  protected PersistenceSession getPersistenceSession() {
+    return getSession(PersistenceSession.class);
+  }
+
   protected <T> T getSession(Class<T> sessionClass) {
     return Context.getCommandContext().getSession(sessionClass);
   }
@@ -179,6 +185,10 @@ public abstract class AbstractManager implements Session {
     return getSession(IdentityInfoManager.class);
   }
 
+  protected RuntimeStatisticsCounterManager getRuntimeStatisticsCounterManager() {
+    return getSession(RuntimeStatisticsCounterManager.class);
+  }
+
   protected AttachmentManager getAttachmentManager() {
     return getSession(AttachmentManager.class);
   }
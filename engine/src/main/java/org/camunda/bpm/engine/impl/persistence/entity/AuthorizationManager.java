@@ -46,6 +46,8 @@ import org.camunda.bpm.engine.impl.ProcessDefinitionQueryImpl;
 import org.camunda.bpm.engine.impl.ProcessDefinitionStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.TaskQueryImpl;
 import org.camunda.bpm.engine.impl.VariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.AuthorizationCache;
 import org.camunda.bpm.engine.impl.db.AuthorizationCheck;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.PermissionCheck;
@@ -61,6 +63,20 @@ public class AuthorizationManager extends AbstractManager {
 
   public static final String DEFAULT_AUTHORIZATION_CHECK = "defaultAuthorizationCheck";
 
+  /**
+   * the property whose revision is incremented whenever authorizations are changed,
+   * except for the authorizations of resources whose checks are not cached
+   * (see {@link AuthorizationCache#isCachedResourceType(int)})
+   */
+  public static final String AUTHORIZATION_REVISION_PROPERTY = "authorization.revision";
+
+  /** the revision of the authorizations read by this command, see {@link #getAuthorizationRevision()} */
+  protected Integer authorizationRevision;
+  protected boolean authorizationRevisionRead = false;
+
+  /** true if this command changed authorizations, i.e. cached results must not be used anymore */
+  protected boolean authorizationsChanged = false;
+
   public Authorization createNewAuthorization(int type) {
     checkAuthorization(CREATE, AUTHORIZATION, null);
     return new AuthorizationEntity(type);
@@ -69,6 +85,7 @@ public class AuthorizationManager extends AbstractManager {
   public void insert(DbEntity authorization) {
     checkAuthorization(CREATE, AUTHORIZATION, null);
     getDbEntityManager().insert(authorization);
+    incrementAuthorizationRevision(authorization);
   }
 
   public List<Authorization> selectAuthorizationByQueryCriteria(AuthorizationQueryImpl authorizationQuery) {
@@ -107,12 +124,14 @@ public class AuthorizationManager extends AbstractManager {
   public void update(AuthorizationEntity authorization) {
     checkAuthorization(UPDATE, AUTHORIZATION, authorization.getId());
     getDbEntityManager().merge(authorization);
+    incrementAuthorizationRevision(authorization);
   }
 
   public void delete(DbEntity authorization) {
     checkAuthorization(DELETE, AUTHORIZATION, authorization.getId());
     deleteAuthorizationsByResourceId(AUTHORIZATION, authorization.getId());
     super.delete(authorization);
+    incrementAuthorizationRevision(authorization);
   }
 
   // authorization checks ///////////////////////////////////////////
@@ -198,11 +217,70 @@ public class AuthorizationManager extends AbstractManager {
   }
 
   public boolean isAuthorized(String userId, List<String> groupIds, List<PermissionCheck> permissionChecks) {
+    AuthorizationCache authorizationCache = Context.getProcessEngineConfiguration().getAuthorizationCache();
+
+    Integer revision = null;
+    String cacheKey = null;
+
+    if (authorizationCache != null && !authorizationsChanged) {
+      revision = getAuthorizationRevision();
+      if (revision != null) {
+        cacheKey = AuthorizationCache.createKey(userId, groupIds, permissionChecks);
+      }
+      if (cacheKey != null) {
+        Boolean cachedResult = authorizationCache.get(revision, cacheKey);
+        if (cachedResult != null) {
+          return cachedResult;
+        }
+      }
+    }
+
     AuthorizationCheck authCheck = new AuthorizationCheck();
     authCheck.setAuthUserId(userId);
     authCheck.setAuthGroupIds(groupIds);
     authCheck.setPermissionChecks(permissionChecks);
-    return getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+    boolean isAuthorized = getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+
+    if (cacheKey != null && !authorizationsChanged) {
+      authorizationCache.put(revision, cacheKey, isAuthorized);
+    }
+
+    return isAuthorized;
+  }
+
+  // authorization cache ////////////////////////////////////////////
+
+  /**
+   * @return the revision of the authorizations, which is read once per command, or
+   * <code>null</code> if the database does not contain the revision property.
+   */
+  protected Integer getAuthorizationRevision() {
+    if (!authorizationRevisionRead) {
+      PropertyEntity property = getDbEntityManager().selectById(PropertyEntity.class, AUTHORIZATION_REVISION_PROPERTY);
+      if (property != null) {
+        authorizationRevision = property.getRevision();
+      }
+      authorizationRevisionRead = true;
+    }
+    return authorizationRevision;
+  }
+
+  /**
+   * Increments the revision of the authorizations with the flush of this command, so
+   * that the process engines which share the database discard their cached results.
+   */
+  protected void incrementAuthorizationRevision() {
+    if (!authorizationsChanged && Context.getProcessEngineConfiguration().isAuthorizationCacheEnabled()) {
+      getDbEntityManager().update(PropertyEntity.class, "incrementPropertyRevision", AUTHORIZATION_REVISION_PROPERTY);
+    }
+    authorizationsChanged = true;
+  }
+
+  protected void incrementAuthorizationRevision(DbEntity authorization) {
+    if (!(authorization instanceof AuthorizationEntity)
+        || AuthorizationCache.isCachedResourceType(((AuthorizationEntity) authorization).getResourceType())) {
+      incrementAuthorizationRevision();
+    }
   }
 
   // authorization checks on queries ////////////////////////////////
@@ -265,11 +343,24 @@ public class AuthorizationManager extends AbstractManager {
       Map<String, Object> deleteParams = new HashMap<String, Object>();
       deleteParams.put("resourceType", resource.resourceType());
       deleteParams.put("resourceId", resourceId);
+
+      // the cached results only become stale if authorizations are actually deleted
+      if (!authorizationsChanged
+          && Context.getProcessEngineConfiguration().isAuthorizationCacheEnabled()
+          && AuthorizationCache.isCachedResourceType(resource.resourceType())
+          && countAuthorizationsForResourceId(deleteParams) > 0) {
+        incrementAuthorizationRevision();
+      }
+
       getDbEntityManager().delete(AuthorizationEntity.class, "deleteAuthorizationsForResourceId", deleteParams);
     }
 
   }
 
+  protected long countAuthorizationsForResourceId(Map<String, Object> parameters) {
+    return (Long) getDbEntityManager().selectOne("selectAuthorizationCountForResourceId", parameters);
+  }
+
   // predefined authorization checks
 
   /* PROCESS DEFINITION */
@@ -16,6 +16,7 @@ import java.io.Serializable;
 
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
 
 /**
  * @author Tom Baeyens
@@ -52,6 +53,18 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
     return (bytes != null ? bytes : PERSISTENTSTATE_NULL);
   }
 
+  /**
+   * @return the bytes as they are stored in the database, i.e. compressed if they exceed the
+   * compression threshold
+   */
+  public byte[] getPersistentBytes() {
+    return CompressionUtil.compressForStorage(bytes);
+  }
+
+  public void setPersistentBytes(byte[] persistentBytes) {
+    this.bytes = CompressionUtil.decompress(persistentBytes);
+  }
+
   public int getRevisionNext() {
     return revision+1;
   }
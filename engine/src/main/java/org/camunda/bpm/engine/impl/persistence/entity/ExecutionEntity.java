@@ -1270,10 +1270,35 @@ public class ExecutionEntity extends PvmExecutionImpl implements
 
   protected void ensureEventSubscriptionsInitialized() {
     if (eventSubscriptions == null) {
+      if (isDependentEntityPrefetchEnabled()) {
+        prefetchEventSubscriptions();
 
-      eventSubscriptions = Context.getCommandContext()
-        .getEventSubscriptionManager()
-        .findEventSubscriptionsByExecution(id);
+      } else {
+        eventSubscriptions = Context.getCommandContext()
+          .getEventSubscriptionManager()
+          .findEventSubscriptionsByExecution(id);
+      }
+    }
+  }
+
+  protected void prefetchEventSubscriptions() {
+    Map<String, ExecutionEntity> executions = new HashMap<String, ExecutionEntity>();
+    for (ExecutionEntity execution : getCachedExecutionsOfProcessInstance()) {
+      if (execution.eventSubscriptions == null) {
+        execution.eventSubscriptions = new ArrayList<EventSubscriptionEntity>();
+        executions.put(execution.getId(), execution);
+      }
+    }
+
+    List<EventSubscriptionEntity> processInstanceEventSubscriptions = Context.getCommandContext()
+      .getEventSubscriptionManager()
+      .findEventSubscriptionsByProcessInstanceId(processInstanceId);
+
+    for (EventSubscriptionEntity eventSubscription : processInstanceEventSubscriptions) {
+      ExecutionEntity execution = executions.get(eventSubscription.getExecutionId());
+      if (execution != null) {
+        execution.eventSubscriptions.add(eventSubscription);
+      }
     }
   }
 
@@ -1292,9 +1317,35 @@ public class ExecutionEntity extends PvmExecutionImpl implements
 
   protected void ensureJobsInitialized() {
     if(jobs == null) {
-      jobs = Context.getCommandContext()
-        .getJobManager()
-        .findJobsByExecutionId(id);
+      if (isDependentEntityPrefetchEnabled()) {
+        prefetchJobs();
+
+      } else {
+        jobs = Context.getCommandContext()
+          .getJobManager()
+          .findJobsByExecutionId(id);
+      }
+    }
+  }
+
+  protected void prefetchJobs() {
+    Map<String, ExecutionEntity> executions = new HashMap<String, ExecutionEntity>();
+    for (ExecutionEntity execution : getCachedExecutionsOfProcessInstance()) {
+      if (execution.jobs == null) {
+        execution.jobs = new ArrayList<JobEntity>();
+        executions.put(execution.getId(), execution);
+      }
+    }
+
+    List<JobEntity> processInstanceJobs = Context.getCommandContext()
+      .getJobManager()
+      .findJobsByProcessInstanceId(processInstanceId);
+
+    for (JobEntity job : processInstanceJobs) {
+      ExecutionEntity execution = executions.get(job.getExecutionId());
+      if (execution != null) {
+        execution.jobs.add(job);
+      }
     }
   }
 
@@ -1322,9 +1373,35 @@ public class ExecutionEntity extends PvmExecutionImpl implements
 
   protected void ensureIncidentsInitialized() {
     if(incidents == null) {
-      incidents = Context.getCommandContext()
-        .getIncidentManager()
-        .findIncidentsByExecution(id);
+      if (isDependentEntityPrefetchEnabled()) {
+        prefetchIncidents();
+
+      } else {
+        incidents = Context.getCommandContext()
+          .getIncidentManager()
+          .findIncidentsByExecution(id);
+      }
+    }
+  }
+
+  protected void prefetchIncidents() {
+    Map<String, ExecutionEntity> executions = new HashMap<String, ExecutionEntity>();
+    for (ExecutionEntity execution : getCachedExecutionsOfProcessInstance()) {
+      if (execution.incidents == null) {
+        execution.incidents = new ArrayList<IncidentEntity>();
+        executions.put(execution.getId(), execution);
+      }
+    }
+
+    List<IncidentEntity> processInstanceIncidents = Context.getCommandContext()
+      .getIncidentManager()
+      .findIncidentsByProcessInstance(processInstanceId);
+
+    for (IncidentEntity incident : processInstanceIncidents) {
+      ExecutionEntity execution = executions.get(incident.getExecutionId());
+      if (execution != null) {
+        execution.incidents.add(incident);
+      }
     }
   }
 
@@ -1363,12 +1440,74 @@ public class ExecutionEntity extends PvmExecutionImpl implements
   @SuppressWarnings({ "unchecked", "rawtypes" })
   protected void ensureTasksInitialized() {
     if(tasks == null) {
-      tasks = (List)Context.getCommandContext()
-        .getTaskManager()
-        .findTasksByExecutionId(id);
+      if (isDependentEntityPrefetchEnabled()) {
+        prefetchTasks();
+
+      } else {
+        tasks = (List)Context.getCommandContext()
+          .getTaskManager()
+          .findTasksByExecutionId(id);
+      }
     }
   }
 
+  protected void prefetchTasks() {
+    Map<String, ExecutionEntity> executions = new HashMap<String, ExecutionEntity>();
+    for (ExecutionEntity execution : getCachedExecutionsOfProcessInstance()) {
+      if (execution.tasks == null) {
+        execution.tasks = new ArrayList<TaskEntity>();
+        executions.put(execution.getId(), execution);
+      }
+    }
+
+    List<TaskEntity> processInstanceTasks = Context.getCommandContext()
+      .getTaskManager()
+      .findTasksByProcessInstanceId(processInstanceId);
+
+    for (TaskEntity task : processInstanceTasks) {
+      ExecutionEntity execution = executions.get(task.getExecutionId());
+      if (execution != null) {
+        execution.tasks.add(task);
+      }
+    }
+  }
+
+  // prefetch of dependent entities /////////////////////////////////////////////
+
+  /**
+   * @return true if the tasks, jobs, event subscriptions and incidents are fetched for the
+   * whole process instance at once (see {@link #getCachedExecutionsOfProcessInstance()})
+   */
+  protected boolean isDependentEntityPrefetchEnabled() {
+    ProcessEngineConfigurationImpl configuration = Context.getProcessEngineConfiguration();
+    return processInstanceId != null
+        && configuration.isExecutionTreePrefetchEnabled()
+        && configuration.isDependentEntityPrefetchEnabled();
+  }
+
+  /**
+   * Returns this execution and the other executions of the same process instance which
+   * are already loaded. Once the dependent entities of one type are needed for one of them,
+   * the entities of the whole process instance are fetched with a single query and
+   * distributed to all executions whose list is not initialized yet. Like the prefetch of
+   * the execution tree, this trades a bit more data for fewer roundtrips: cancelling a scope
+   * with many concurrent executions would otherwise query each entity type per execution.
+   */
+  protected List<ExecutionEntity> getCachedExecutionsOfProcessInstance() {
+    List<ExecutionEntity> cachedExecutions = Context.getCommandContext()
+      .getDbEntityManager()
+      .getCachedEntitiesByType(ExecutionEntity.class);
+
+    List<ExecutionEntity> executions = new ArrayList<ExecutionEntity>();
+    executions.add(this);
+    for (ExecutionEntity execution : cachedExecutions) {
+      if (execution != this && processInstanceId.equals(execution.getProcessInstanceId())) {
+        executions.add(execution);
+      }
+    }
+    return executions;
+  }
+
   protected List<TaskEntity> getTasksInternal() {
     ensureTasksInitialized();
     return tasks;
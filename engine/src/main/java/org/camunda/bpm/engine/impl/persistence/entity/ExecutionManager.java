@@ -24,6 +24,8 @@ import org.camunda.bpm.engine.impl.ExecutionQueryImpl;
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.ProcessInstanceQueryImpl;
 import org.camunda.bpm.engine.impl.cfg.auth.ResourceAuthorizationProvider;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.db.PersistenceSession;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 import org.camunda.bpm.engine.runtime.Execution;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
@@ -94,6 +96,25 @@ public class ExecutionManager extends AbstractManager {
     return getDbEntityManager().selectList("selectExecutionsByParentExecutionId", parentExecutionId);
   }
 
+  /**
+   * Selects and locks the child executions as committed in the database, bypassing the entity cache.
+   * The select is a locking read, so that it sees the latest committed rows even if the isolation
+   * level of the transaction is repeatable read. The returned executions are not attached to the
+   * command context and must not be changed.
+   */
+  @SuppressWarnings("unchecked")
+  public List<ExecutionEntity> findCommittedChildExecutions(String parentExecutionId) {
+    return (List<ExecutionEntity>) getSession(PersistenceSession.class)
+      .selectList("selectExecutionsByParentExecutionIdForUpdate", new ListQueryParameterObject(parentExecutionId, 0, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Locks the row of the given execution until the end of the transaction.
+   */
+  public void lockExecution(ExecutionEntity execution) {
+    getDbEntityManager().lock("lockExecution", execution.getId());
+  }
+
   @SuppressWarnings("unchecked")
   public List<ExecutionEntity> findChildExecutionsByProcessInstanceId(String processInstanceId) {
     return getDbEntityManager().selectList("selectExecutionsByProcessInstanceId", processInstanceId);
@@ -18,6 +18,7 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNull;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.filter.Filter;
 import org.camunda.bpm.engine.impl.AbstractQuery;
+import org.camunda.bpm.engine.impl.QueryOrderingProperty;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.json.JsonObjectConverter;
@@ -173,7 +175,8 @@ public class FilterEntity implements Filter, Serializable, DbEntity, HasDbRevisi
       throw new NotValidException("Unable to extend a query of class '" + query.getClass() + "' by a query of class '" + extendingQuery.getClass() + "'");
     }
 
-    FilterEntity copy = copyFilter();
+    // the query of the copy is replaced, so it is not copied
+    FilterEntity copy = copyFilterWithoutQuery();
     copy.setQuery(query.extend(extendingQuery));
 
     return copy;
@@ -199,6 +202,47 @@ public class FilterEntity implements Filter, Serializable, DbEntity, HasDbRevisi
     return persistentState;
   }
 
+  /**
+   * @return a copy of this filter with a copy of its query. In contrast to {@link #copyFilter()},
+   * the copy keeps the id and revision of this filter and the query is copied without
+   * converting it to JSON and parsing it again.
+   */
+  public FilterEntity copyFilterWithParsedQuery() {
+    FilterEntity copy = copyFilterWithoutQuery();
+    copy.id = id;
+    copy.revision = revision;
+    copy.query = copyQuery();
+    return copy;
+  }
+
+  protected FilterEntity copyFilterWithoutQuery() {
+    FilterEntity copy = new FilterEntity();
+    copy.resourceType = resourceType;
+    copy.name = name;
+    copy.owner = owner;
+    if (properties != null) {
+      copy.properties = new HashMap<String, Object>(properties);
+    }
+    return copy;
+  }
+
+  /**
+   * Copies the query by extending it with an empty query.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected AbstractQuery<?, ?> copyQuery() {
+    AbstractQuery emptyQuery;
+    try {
+      emptyQuery = query.getClass().newInstance();
+    } catch (Exception e) {
+      throw new ProcessEngineException("Unable to copy the query of filter '" + id + "'", e);
+    }
+    AbstractQuery queryCopy = (AbstractQuery) query.extend(emptyQuery);
+    // the ordering properties are shared by extending queries
+    queryCopy.setOrderingProperties(new ArrayList<QueryOrderingProperty>(query.getOrderingProperties()));
+    return queryCopy;
+  }
+
   protected FilterEntity copyFilter() {
     FilterEntity copy = new FilterEntity(getResourceType());
     copy.setName(getName());
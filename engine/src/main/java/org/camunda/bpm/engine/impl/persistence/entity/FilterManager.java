@@ -24,6 +24,8 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 import java.util.List;
 
 import org.camunda.bpm.engine.filter.Filter;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.filter.FilterCache;
 import org.camunda.bpm.engine.impl.filter.FilterQueryImpl;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 
@@ -47,6 +49,7 @@ public class FilterManager extends AbstractManager {
     else {
       checkAuthorization(UPDATE, FILTER, filter.getId());
       getDbEntityManager().merge((FilterEntity) filter);
+      removeCachedFilter(filter.getId());
     }
 
     return filter;
@@ -62,6 +65,7 @@ public class FilterManager extends AbstractManager {
     deleteAuthorizations(FILTER, filterId);
     // delete the filter itself
     getDbEntityManager().delete(filter);
+    removeCachedFilter(filterId);
   }
 
   public Filter findFilterById(String filterId) {
@@ -70,6 +74,35 @@ public class FilterManager extends AbstractManager {
     return findFilterByIdInternal(filterId);
   }
 
+  /**
+   * Finds a filter to execute. If the filter cache is enabled, only the revision of the filter
+   * is selected if the filter is cached with this revision. The returned filter must not be saved.
+   */
+  public Filter findFilterToExecute(String filterId) {
+    ensureNotNull("Invalid filter id", "filterId", filterId);
+    checkAuthorization(READ, FILTER, filterId);
+
+    FilterCache filterCache = Context.getProcessEngineConfiguration().getFilterCache();
+    if (filterCache == null) {
+      return findFilterByIdInternal(filterId);
+    }
+
+    Integer revision = (Integer) getDbEntityManager().selectOne("selectFilterRevision", filterId);
+    if (revision == null) {
+      filterCache.remove(filterId);
+      return null;
+    }
+
+    FilterEntity filter = filterCache.get(filterId, revision);
+    if (filter == null) {
+      filter = findFilterByIdInternal(filterId);
+      if (filter != null) {
+        filterCache.put(filter);
+      }
+    }
+    return filter;
+  }
+
   protected FilterEntity findFilterByIdInternal(String filterId) {
     return getDbEntityManager().selectById(FilterEntity.class, filterId);
   }
@@ -85,6 +118,14 @@ public class FilterManager extends AbstractManager {
     return (Long) getDbEntityManager().selectOne("selectFilterCountByQueryCriteria", filterQuery);
   }
 
+  protected void removeCachedFilter(String filterId) {
+    // if the old revision is cached again before this transaction is committed, it is not returned by the cache
+    FilterCache filterCache = Context.getProcessEngineConfiguration().getFilterCache();
+    if (filterCache != null) {
+      filterCache.remove(filterId);
+    }
+  }
+
   // authorization utils /////////////////////////////////
 
   protected void createDefaultAuthorizations(Filter filter) {
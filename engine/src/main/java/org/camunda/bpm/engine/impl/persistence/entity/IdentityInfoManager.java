@@ -19,7 +19,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 
 
@@ -68,11 +67,7 @@ public class IdentityInfoManager extends AbstractManager {
 
   @SuppressWarnings("unchecked")
   protected List<IdentityInfoEntity> findIdentityInfoDetails(String identityInfoId) {
-    return Context
-      .getCommandContext()
-      .getDbSqlSession()
-      .getSqlSession()
-      .selectList("selectIdentityInfoDetails", identityInfoId);
+    return (List) getPersistenceSession().selectList("selectIdentityInfoDetails", identityInfoId);
   }
 
   public void setUserInfo(String userId, String userPassword, String type, String key, String value, String accountPassword, Map<String, String> accountDetails) {
@@ -155,7 +150,7 @@ public class IdentityInfoManager extends AbstractManager {
     Map<String, String> parameters = new HashMap<String, String>();
     parameters.put("userId", userId);
     parameters.put("type", type);
-    return (List) getDbSqlSession().getSqlSession().selectList("selectIdentityInfoKeysByUserIdAndType", parameters);
+    return (List) getPersistenceSession().selectList("selectIdentityInfoKeysByUserIdAndType", parameters);
   }
 
   public void deleteUserInfoByUserId(String userId) {
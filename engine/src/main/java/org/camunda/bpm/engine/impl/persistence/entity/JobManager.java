@@ -19,18 +19,22 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.camunda.bpm.engine.impl.JobQueryImpl;
 import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cfg.TransactionListener;
 import org.camunda.bpm.engine.impl.cfg.TransactionState;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.jobexecutor.ExclusiveJobAddedNotification;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutionLane;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandoffNotification;
 import org.camunda.bpm.engine.impl.jobexecutor.MessageAddedNotification;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerCatchIntermediateEventJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerExecuteNestedActivityJobHandler;
@@ -47,6 +51,8 @@ import org.camunda.bpm.engine.runtime.Job;
  */
 public class JobManager extends AbstractManager {
 
+  protected JobHandoffNotification jobHandoffNotification;
+
   public void insertJob(JobEntity job) {
     getDbEntityManager().insert(job);
     getHistoricJobLogManager().fireJobCreatedEvent(job);
@@ -72,6 +78,34 @@ public class JobManager extends AbstractManager {
     }
   }
 
+  /**
+   * @return true if the given job can be handed off to the job executor of this process engine
+   * after the transaction committed (see {@link ProcessEngineConfigurationImpl#isLocalJobHandoffEnabled()})
+   */
+  protected boolean isJobHandoffPossible(JobEntity job, JobExecutor jobExecutor) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (!processEngineConfiguration.isLocalJobHandoffEnabled()
+        || !(job instanceof MessageEntity)
+        || job.isSuspended()
+        || !jobExecutor.isActive()
+        || !jobExecutor.isJobHandoffSupported()
+        || !jobExecutor.getProcessEngines().contains(processEngineConfiguration.getProcessEngine())) {
+      return false;
+    }
+
+    Date duedate = job.getDuedate();
+    if (duedate != null && duedate.after(ClockUtil.getCurrentTime())) {
+      return false;
+    }
+
+    if (processEngineConfiguration.isJobExecutorDeploymentAware()) {
+      String deploymentId = job.getDeploymentId();
+      return deploymentId == null || processEngineConfiguration.getRegisteredDeployments().contains(deploymentId);
+    }
+
+    return true;
+  }
+
   public void schedule(TimerEntity timer) {
     Date duedate = timer.getDuedate();
     ensureNotNull("duedate", duedate);
@@ -102,13 +136,25 @@ public class JobManager extends AbstractManager {
       job.setLockExpirationTime(new Date(currentTime.getTime() + jobExecutor.getLockTimeInMillis()));
       job.setLockOwner(jobExecutor.getLockOwner());
       transactionListener = new ExclusiveJobAddedNotification(job.getId(), jobExecutorContext);
+    } else if (isJobHandoffPossible(job, jobExecutor)) {
+      // lock job & hand it off to the job executor once the transaction committed
+      Date currentTime = ClockUtil.getCurrentTime();
+      job.setLockExpirationTime(new Date(currentTime.getTime() + jobExecutor.getLockTimeInMillis()));
+      job.setLockOwner(jobExecutor.getLockOwner());
+      if (jobHandoffNotification == null) {
+        jobHandoffNotification = new JobHandoffNotification(jobExecutor, Context.getProcessEngineConfiguration().getProcessEngine());
+        transactionListener = jobHandoffNotification;
+      }
+      jobHandoffNotification.addJob(job);
     } else {
       // notify job executor:
       transactionListener = new MessageAddedNotification(jobExecutor);
     }
-    Context.getCommandContext()
-    .getTransactionContext()
-    .addTransactionListener(TransactionState.COMMITTED, transactionListener);
+    if (transactionListener != null) {
+      Context.getCommandContext()
+      .getTransactionContext()
+      .addTransactionListener(TransactionState.COMMITTED, transactionListener);
+    }
   }
 
   public void cancelTimers(ExecutionEntity execution) {
@@ -128,6 +174,57 @@ public class JobManager extends AbstractManager {
 
   @SuppressWarnings("unchecked")
   public List<JobEntity> findNextJobsToExecute(Page page) {
+    Map<String,Object> params = createAcquisitionParameters();
+    return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+  }
+
+  /**
+   * @param executionLane the lane to select the jobs of, <code>null</code> to select jobs of any lane
+   * @param excludedExecutionLanes the lanes whose jobs are not selected
+   */
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findNextJobsToExecute(JobExecutionLane executionLane, List<JobExecutionLane> excludedExecutionLanes, Page page) {
+    Map<String,Object> params = createAcquisitionParameters();
+
+    params.put("executionLane", executionLane != null);
+    if (executionLane != null) {
+      putIfNotEmpty(params, "laneJobHandlerTypes", executionLane.getJobHandlerTypes());
+      putIfNotEmpty(params, "laneJobDefinitionIds", executionLane.getJobDefinitionIds());
+      putIfNotEmpty(params, "laneProcessDefinitionKeys", executionLane.getProcessDefinitionKeys());
+    }
+
+    Set<String> excludedJobHandlerTypes = new HashSet<String>();
+    Set<String> excludedJobDefinitionIds = new HashSet<String>();
+    Set<String> excludedProcessDefinitionKeys = new HashSet<String>();
+    for (JobExecutionLane excludedExecutionLane : excludedExecutionLanes) {
+      excludedJobHandlerTypes.addAll(excludedExecutionLane.getJobHandlerTypes());
+      excludedJobDefinitionIds.addAll(excludedExecutionLane.getJobDefinitionIds());
+      excludedProcessDefinitionKeys.addAll(excludedExecutionLane.getProcessDefinitionKeys());
+    }
+    putIfNotEmpty(params, "excludedJobHandlerTypes", excludedJobHandlerTypes);
+    putIfNotEmpty(params, "excludedJobDefinitionIds", excludedJobDefinitionIds);
+    putIfNotEmpty(params, "excludedProcessDefinitionKeys", excludedProcessDefinitionKeys);
+
+    return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+  }
+
+  protected void putIfNotEmpty(Map<String, Object> params, String name, Set<String> values) {
+    if (values != null && !values.isEmpty()) {
+      params.put(name, values);
+    }
+  }
+
+  /**
+   * @return the unlocked timers which are not due yet but before the given lookahead end
+   */
+  @SuppressWarnings("unchecked")
+  public List<TimerEntity> findNextTimersToPark(Date lookaheadEnd, Page page) {
+    Map<String,Object> params = createAcquisitionParameters();
+    params.put("lookaheadEnd", lookaheadEnd);
+    return getDbEntityManager().selectList("selectNextTimersToPark", params, page);
+  }
+
+  protected Map<String, Object> createAcquisitionParameters() {
     Map<String,Object> params = new HashMap<String, Object>();
     Date now = ClockUtil.getCurrentTime();
     params.put("now", now);
@@ -138,7 +235,7 @@ public class JobManager extends AbstractManager {
         params.put("deploymentIds", registeredDeployments);
       }
     }
-    return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+    return params;
   }
 
   @SuppressWarnings("unchecked")
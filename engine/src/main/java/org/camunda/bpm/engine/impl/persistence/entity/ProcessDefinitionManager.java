@@ -124,6 +124,7 @@ public class ProcessDefinitionManager extends AbstractManager {
   // delete  ///////////////////////////////////////////////////////////
 
   public void deleteProcessDefinitionsByDeploymentId(String deploymentId) {
+    getRuntimeStatisticsCounterManager().deleteCountersByDeploymentId(deploymentId);
     getDbEntityManager().delete(ProcessDefinitionEntity.class, "deleteProcessDefinitionsByDeploymentId", deploymentId);
   }
 
@@ -16,6 +16,7 @@ package org.camunda.bpm.engine.impl.persistence.entity;
 import java.io.Serializable;
 
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
 import org.camunda.bpm.engine.repository.Resource;
 
 
@@ -56,6 +57,18 @@ public class ResourceEntity implements Serializable, DbEntity, Resource {
     this.bytes = bytes;
   }
 
+  /**
+   * @return the bytes as they are stored in the database, i.e. compressed if they exceed the
+   * compression threshold
+   */
+  public byte[] getPersistentBytes() {
+    return CompressionUtil.compressForStorage(bytes);
+  }
+
+  public void setPersistentBytes(byte[] persistentBytes) {
+    this.bytes = CompressionUtil.decompress(persistentBytes);
+  }
+
   public String getDeploymentId() {
     return deploymentId;
   }
@@ -0,0 +1,157 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+
+/**
+ * One stripe of an incrementally maintained runtime statistics counter.
+ *
+ * <p>A counter is identified by the process definition, the activity (<code>null</code>
+ * for counters on process definition level), the counter type and - for incident
+ * counters - the incident type. Each counter is split into a fixed number of stripes
+ * so that concurrent transactions touching different process instances do not update
+ * the same row. The value of a counter is the sum of all its stripes.</p>
+ *
+ * <p>The same class is used to carry a delta which is added to a stripe during flush.</p>
+ */
+public class RuntimeStatisticsCounterEntity implements DbEntity, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  public static final String TYPE_INSTANCES = "instances";
+  public static final String TYPE_FAILED_JOBS = "failedJobs";
+  public static final String TYPE_INCIDENTS = "incidents";
+
+  protected String id;
+  protected String processDefinitionId;
+  protected String activityId;
+  protected String counterType;
+  protected String incidentType;
+  protected int stripe;
+  protected long value;
+
+  public RuntimeStatisticsCounterEntity() {
+  }
+
+  public RuntimeStatisticsCounterEntity(String processDefinitionId, String activityId, String counterType, String incidentType, int stripe) {
+    this.processDefinitionId = processDefinitionId;
+    this.activityId = activityId;
+    this.counterType = counterType;
+    this.incidentType = incidentType;
+    this.stripe = stripe;
+    this.id = createId(processDefinitionId, activityId, counterType, incidentType, stripe);
+  }
+
+  /**
+   * The id of a counter stripe is derived from its key. Concurrent transactions
+   * creating the same stripe therefore collide on the primary key instead of
+   * silently creating two rows for the same stripe.
+   */
+  public static String createId(String processDefinitionId, String activityId, String counterType, String incidentType, int stripe) {
+    StringBuilder key = new StringBuilder()
+      .append(processDefinitionId).append('|')
+      .append(activityId).append('|')
+      .append(counterType).append('|')
+      .append(incidentType).append('|')
+      .append(stripe);
+    return UUID.nameUUIDFromBytes(key.toString().getBytes(UTF_8)).toString();
+  }
+
+  public void addValue(long delta) {
+    value += delta;
+  }
+
+  // persistent object methods ////////////////////////////////////////////////
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public Object getPersistentState() {
+    return value;
+  }
+
+  // getters / setters ////////////////////////////////////////////////////////
+
+  public String getProcessDefinitionId() {
+    return processDefinitionId;
+  }
+
+  public void setProcessDefinitionId(String processDefinitionId) {
+    this.processDefinitionId = processDefinitionId;
+  }
+
+  public String getActivityId() {
+    return activityId;
+  }
+
+  public void setActivityId(String activityId) {
+    this.activityId = activityId;
+  }
+
+  public String getCounterType() {
+    return counterType;
+  }
+
+  public void setCounterType(String counterType) {
+    this.counterType = counterType;
+  }
+
+  public String getIncidentType() {
+    return incidentType;
+  }
+
+  public void setIncidentType(String incidentType) {
+    this.incidentType = incidentType;
+  }
+
+  public int getStripe() {
+    return stripe;
+  }
+
+  public void setStripe(int stripe) {
+    this.stripe = stripe;
+  }
+
+  public long getValue() {
+    return value;
+  }
+
+  public void setValue(long value) {
+    this.value = value;
+  }
+
+  public String toString() {
+    return this.getClass().getSimpleName()
+        + "[id=" + id
+        + ", processDefinitionId=" + processDefinitionId
+        + ", activityId=" + activityId
+        + ", counterType=" + counterType
+        + ", incidentType=" + incidentType
+        + ", stripe=" + stripe
+        + ", value=" + value
+        + "]";
+  }
+
+}
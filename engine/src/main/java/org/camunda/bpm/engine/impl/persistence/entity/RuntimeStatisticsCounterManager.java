@@ -0,0 +1,91 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import static org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity.TYPE_FAILED_JOBS;
+import static org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity.TYPE_INCIDENTS;
+import static org.camunda.bpm.engine.impl.persistence.entity.RuntimeStatisticsCounterEntity.TYPE_INSTANCES;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.db.entitymanager.RuntimeStatisticsCounterCollector;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
+import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+
+/**
+ * Manages the incrementally maintained runtime statistics counters
+ * (see {@link RuntimeStatisticsCounterEntity}).
+ */
+public class RuntimeStatisticsCounterManager extends AbstractManager {
+
+  @SuppressWarnings("unchecked")
+  public List<RuntimeStatisticsCounterEntity> findCountersByProcessDefinitionId(String processDefinitionId) {
+    return getDbEntityManager().selectList("selectRuntimeStatisticsCountersByProcessDefinitionId", processDefinitionId);
+  }
+
+  public void deleteCountersByDeploymentId(String deploymentId) {
+    RuntimeStatisticsCounterCollector collector = getDbEntityManager().getRuntimeStatisticsCounterCollector();
+    if(collector != null) {
+      // changes of the instances which are deleted together with the definitions must not recreate counters
+      for (ProcessDefinition processDefinition : getProcessDefinitionManager().findProcessDefinitionsByDeploymentId(deploymentId)) {
+        collector.processDefinitionRemoved(processDefinition.getId());
+      }
+    }
+
+    getDbEntityManager().delete(RuntimeStatisticsCounterEntity.class, "deleteRuntimeStatisticsCountersByDeploymentId", deploymentId);
+  }
+
+  /**
+   * Replaces all counters with values computed from the runtime tables. Required once
+   * after the counters have been enabled for a database which already contains
+   * runtime data. The computed values are stored in the first stripe of each counter.
+   */
+  public void rebuildCounters() {
+    // the delete must be executed before the counters are inserted by the flush
+    DbBulkOperation deleteAll = new DbBulkOperation();
+    deleteAll.setOperationType(DbOperationType.DELETE_BULK);
+    deleteAll.setEntityType(RuntimeStatisticsCounterEntity.class);
+    deleteAll.setStatement("deleteAllRuntimeStatisticsCounters");
+    getPersistenceSession().executeDbOperation(deleteAll);
+
+    // counters which have been loaded or created by this command are deleted as well
+    DbEntityCache dbEntityCache = getDbEntityManager().getDbEntityCache();
+    for (RuntimeStatisticsCounterEntity cachedCounter : dbEntityCache.getEntitiesByType(RuntimeStatisticsCounterEntity.class)) {
+      dbEntityCache.remove(cachedCounter);
+    }
+
+    insertCounters("selectProcessInstanceCountsForRuntimeStatisticsCounters", TYPE_INSTANCES);
+    insertCounters("selectActivityInstanceCountsForRuntimeStatisticsCounters", TYPE_INSTANCES);
+    insertCounters("selectFailedJobCountsForRuntimeStatisticsCounters", TYPE_FAILED_JOBS);
+    insertCounters("selectActivityFailedJobCountsForRuntimeStatisticsCounters", TYPE_FAILED_JOBS);
+    insertCounters("selectIncidentCountsForRuntimeStatisticsCounters", TYPE_INCIDENTS);
+    insertCounters("selectActivityIncidentCountsForRuntimeStatisticsCounters", TYPE_INCIDENTS);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected void insertCounters(String statement, String counterType) {
+    // the computed values are no entities; bypass the entity cache
+    List<RuntimeStatisticsCounterEntity> values = (List<RuntimeStatisticsCounterEntity>) getPersistenceSession().selectList(statement, null);
+
+    for (RuntimeStatisticsCounterEntity value : values) {
+      RuntimeStatisticsCounterEntity counter = new RuntimeStatisticsCounterEntity(value.getProcessDefinitionId(),
+          value.getActivityId(), counterType, value.getIncidentType(), 0);
+      counter.setValue(value.getValue());
+      getDbEntityManager().insert(counter);
+    }
+  }
+
+}
@@ -17,10 +17,12 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.List;
 
+import org.camunda.bpm.engine.impl.AbstractQuery;
 import org.camunda.bpm.engine.impl.ActivityStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.DeploymentStatisticsQueryImpl;
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.ProcessDefinitionStatisticsQueryImpl;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 import org.camunda.bpm.engine.management.ActivityStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatistics;
@@ -31,11 +33,17 @@ public class StatisticsManager extends AbstractManager {
   @SuppressWarnings("unchecked")
   public List<ProcessDefinitionStatistics> getStatisticsGroupedByProcessDefinitionVersion(ProcessDefinitionStatisticsQueryImpl query, Page page) {
     getAuthorizationManager().configureProcessDefinitionStatisticsQuery(query);
+    if (isRuntimeStatisticsCountersUsable(query)) {
+      return getDbEntityManager().selectList("selectProcessDefinitionStatisticsFromCounters", query, page);
+    }
     return getDbEntityManager().selectList("selectProcessDefinitionStatistics", query, page);
   }
 
   public long getStatisticsCountGroupedByProcessDefinitionVersion(ProcessDefinitionStatisticsQueryImpl query) {
     getAuthorizationManager().configureProcessDefinitionStatisticsQuery(query);
+    if (isRuntimeStatisticsCountersUsable(query)) {
+      return (Long) getDbEntityManager().selectOne("selectProcessDefinitionStatisticsCountFromCounters", query);
+    }
     return (Long) getDbEntityManager().selectOne("selectProcessDefinitionStatisticsCount", query);
   }
 
@@ -43,12 +51,18 @@ public class StatisticsManager extends AbstractManager {
   public List<ActivityStatistics> getStatisticsGroupedByActivity(ActivityStatisticsQueryImpl query, Page page) {
     checkReadProcessDefinition(query);
     getAuthorizationManager().configureActivityStatisticsQuery(query);
+    if (isRuntimeStatisticsCountersUsable(query)) {
+      return getDbEntityManager().selectList("selectActivityStatisticsFromCounters", query, page);
+    }
     return getDbEntityManager().selectList("selectActivityStatistics", query, page);
   }
 
   public long getStatisticsCountGroupedByActivity(ActivityStatisticsQueryImpl query) {
     checkReadProcessDefinition(query);
     getAuthorizationManager().configureActivityStatisticsQuery(query);
+    if (isRuntimeStatisticsCountersUsable(query)) {
+      return (Long) getDbEntityManager().selectOne("selectActivityStatisticsCountFromCounters", query);
+    }
     return (Long) getDbEntityManager().selectOne("selectActivityStatisticsCount", query);
   }
 
@@ -61,6 +75,16 @@ public class StatisticsManager extends AbstractManager {
     return (Long) getDbEntityManager().selectOne("selectDeploymentStatisticsCount", query);
   }
 
+  /**
+   * The runtime statistics counters are not maintained per process instance and can
+   * therefore not be used if the statistics have to be restricted to the instances
+   * the current user is authorized for.
+   */
+  protected boolean isRuntimeStatisticsCountersUsable(AbstractQuery<?, ?> query) {
+    return Context.getProcessEngineConfiguration().isRuntimeStatisticsCountersEnabled()
+        && !(query.isAuthorizationCheckEnabled() && query.getAuthUserId() != null);
+  }
+
   protected void checkReadProcessDefinition(ActivityStatisticsQueryImpl query) {
     if (isAuthorizationEnabled() && getCurrentAuthentication() != null) {
       String processDefinitionId = query.getProcessDefinitionId();
@@ -13,11 +13,9 @@
 
 package org.camunda.bpm.engine.impl.persistence.entity;
 
-import java.sql.*;
 import java.util.*;
 import java.util.logging.Logger;
 
-import org.apache.ibatis.session.RowBounds;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.filter.Filter;
 import org.camunda.bpm.engine.history.HistoricActivityInstance;
@@ -32,8 +30,6 @@ import org.camunda.bpm.engine.history.HistoricVariableUpdate;
 import org.camunda.bpm.engine.impl.TablePageQueryImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntity;
-import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
-import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
 import org.camunda.bpm.engine.impl.history.event.HistoricDetailEventEntity;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 import org.camunda.bpm.engine.management.TableMetaData;
@@ -77,6 +73,8 @@ public class TableDataManager extends AbstractManager {
 
     persistentObjectToTableNameMap.put(FilterEntity.class, "ACT_RU_FILTER");
 
+    persistentObjectToTableNameMap.put(RuntimeStatisticsCounterEntity.class, "ACT_RU_STATS_COUNTER");
+
     // repository
     persistentObjectToTableNameMap.put(DeploymentEntity.class, "ACT_RE_DEPLOYMENT");
     persistentObjectToTableNameMap.put(ProcessDefinitionEntity.class, "ACT_RE_PROCDEF");
@@ -149,81 +147,7 @@ public class TableDataManager extends AbstractManager {
   }
 
   public List<String> getTablesPresentInDatabase() {
-    List<String> tableNames = new ArrayList<String>();
-
-    try {
-      ResultSet tablesRs = null;
-
-      try {
-        if (DbSqlSessionFactory.ORACLE.equals(getDbSqlSession().getDbSqlSessionFactory().getDatabaseType())) {
-          tableNames = getTablesPresentInOracleDatabase();
-        } else {
-          Connection connection = getDbSqlSession().getSqlSession().getConnection();
-          DatabaseMetaData databaseMetaData = connection.getMetaData();
-
-          log.fine("retrieving process engine tables from jdbc metadata");
-          String databaseTablePrefix = getDbSqlSession().getDbSqlSessionFactory().getDatabaseTablePrefix();
-          String tableNameFilter = databaseTablePrefix+"ACT_%";
-
-          if (DbSqlSessionFactory.POSTGRES.equals(getDbSqlSession().getDbSqlSessionFactory().getDatabaseType())) {
-            tableNameFilter = databaseTablePrefix+"act_%";
-          }
-          tablesRs = databaseMetaData.getTables(null, null, tableNameFilter, DbSqlSession.JDBC_METADATA_TABLE_TYPES);
-
-          while (tablesRs.next()) {
-            String tableName = tablesRs.getString("TABLE_NAME");
-            tableName = tableName.toUpperCase();
-            tableNames.add(tableName);
-            log.fine("  retrieved process engine table name "+tableName);
-          }
-        }
-      } catch (SQLException se) {
-        throw se;
-      } finally {
-        if (tablesRs != null) {
-          tablesRs.close();
-        }
-      }
-    } catch (Exception e) {
-      throw new ProcessEngineException("couldn't get process engine table names: "+e.getMessage(), e);
-    }
-
-    return tableNames;
-  }
-
-  protected List<String> getTablesPresentInOracleDatabase() throws SQLException {
-    List<String> tableNames = new ArrayList<String>();
-    Connection connection = null;
-    PreparedStatement prepStat = null;
-    ResultSet tablesRs = null;
-    String selectTableNamesFromOracle = "SELECT table_name FROM all_tables WHERE table_name LIKE ?";
-    String databaseTablePrefix = getDbSqlSession().getDbSqlSessionFactory().getDatabaseTablePrefix();
-
-    try {
-        connection = Context.getProcessEngineConfiguration().getDataSource().getConnection();
-        prepStat = connection.prepareStatement(selectTableNamesFromOracle);
-        prepStat.setString(1, databaseTablePrefix + "ACT_%");
-        log.fine("retrieving process engine tables from oracle all_tables");
-        tablesRs = prepStat.executeQuery();
-        while (tablesRs.next()) {
-          String tableName = tablesRs.getString("TABLE_NAME");
-          tableName = tableName.toUpperCase();
-          tableNames.add(tableName);
-          log.fine("  retrieved process engine table name "+tableName);
-        }
-    } finally {
-      if (tablesRs != null) {
-        tablesRs.close();
-      }
-      if (prepStat != null) {
-        prepStat.close();
-      }
-      if (connection != null) {
-        connection.close();
-      }
-    }
-
-    return tableNames;
+    return getPersistenceSession().getTableNamesPresent();
   }
 
   protected long getTableCount(String tableName) {
@@ -239,8 +163,7 @@ public class TableDataManager extends AbstractManager {
     TablePage tablePage = new TablePage();
 
     @SuppressWarnings("rawtypes")
-    List tableData = getDbSqlSession().getSqlSession()
-      .selectList("selectTableData", tablePageQuery, new RowBounds(firstResult, maxResults));
+    List tableData = getPersistenceSession().selectList("selectTableData", tablePageQuery, firstResult, maxResults);
 
     tablePage.setTableName(tablePageQuery.getTableName());
     tablePage.setTotal(getTableCount(tablePageQuery.getTableName()));
@@ -251,7 +174,7 @@ public class TableDataManager extends AbstractManager {
   }
 
   public String getTableName(Class<?> entityClass, boolean withPrefix) {
-    String databaseTablePrefix = getDbSqlSession().getDbSqlSessionFactory().getDatabaseTablePrefix();
+    String databaseTablePrefix = Context.getProcessEngineConfiguration().getDatabaseTablePrefix();
     String tableName = null;
 
     if (DbEntity.class.isAssignableFrom(entityClass)) {
@@ -269,44 +192,8 @@ public class TableDataManager extends AbstractManager {
   }
 
   public TableMetaData getTableMetaData(String tableName) {
-    TableMetaData result = new TableMetaData();
-    ResultSet resultSet = null;
-
-    try {
-      try {
-        result.setTableName(tableName);
-        DatabaseMetaData metaData = getDbSqlSession()
-            .getSqlSession()
-            .getConnection()
-            .getMetaData();
-
-        if (DbSqlSessionFactory.POSTGRES.equals(getDbSqlSession().getDbSqlSessionFactory().getDatabaseType())) {
-          tableName = tableName.toLowerCase();
-        }
-
-        resultSet = metaData.getColumns(null, null, tableName, null);
-        while(resultSet.next()) {
-          String name = resultSet.getString("COLUMN_NAME").toUpperCase();
-          String type = resultSet.getString("TYPE_NAME").toUpperCase();
-          result.addColumnMetaData(name, type);
-        }
-
-      } catch (SQLException se) {
-        throw se;
-      } finally {
-        if (resultSet != null) {
-          resultSet.close();
-        }
-      }
-    } catch (Exception e) {
-      throw new ProcessEngineException("Could not retrieve database metadata: " + e.getMessage());
-    }
-
-    if(result.getColumnNames().size() == 0) {
-      // According to API, when a table doesn't exist, null should be returned
-      result = null;
-    }
-    return result;
+    return getPersistenceSession().getTableMetaData(tableName);
   }
 
+
 }
@@ -17,6 +17,8 @@ import java.util.List;
 import java.util.logging.Logger;
 
 import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.pvm.PvmActivity;
 import org.camunda.bpm.engine.impl.pvm.PvmTransition;
 import org.camunda.bpm.engine.impl.pvm.process.TransitionImpl;
@@ -116,8 +118,19 @@ public class PvmAtomicOperationTransitionDestroyScope implements PvmAtomicOperat
         outgoingExecutions.add(new OutgoingExecution(concurrentExecution, transition));
       }
 
+      // each outgoing execution continues up to its next wait state before the next one is taken
+      CommandContext commandContext = Context.getCommandContext();
       for (OutgoingExecution outgoingExecution : outgoingExecutions) {
-        outgoingExecution.take();
+        if (commandContext != null) {
+          commandContext.setCompleteNextQueueableOperation(true);
+        }
+        try {
+          outgoingExecution.take();
+        } finally {
+          if (commandContext != null) {
+            commandContext.setCompleteNextQueueableOperation(false);
+          }
+        }
       }
     }
 
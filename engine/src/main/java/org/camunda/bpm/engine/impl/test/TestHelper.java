@@ -270,7 +270,7 @@ public abstract class TestHelper {
     processEngineConfiguration.getCommandExecutorTxRequired()
         .execute(new Command<Object>() {
          public Object execute(CommandContext commandContext) {
-           commandContext.getDbSqlSession().dbSchemaDrop();
+           commandContext.getSession(PersistenceSession.class).dbSchemaDrop();
            return null;
          }
         });
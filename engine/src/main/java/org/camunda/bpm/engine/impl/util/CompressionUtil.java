@@ -0,0 +1,149 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+
+/**
+ * <p>Compresses the contents of byte arrays before they are stored in the database
+ * (see {@link ProcessEngineConfigurationImpl#getByteArrayCompressionThreshold()}).</p>
+ *
+ * <p>A compressed byte array starts with a marker followed by the uncompressed length
+ * and the deflated bytes. Byte arrays without the marker are returned as they are,
+ * so byte arrays which were stored uncompressed remain readable.</p>
+ */
+public class CompressionUtil {
+
+  private static final Logger LOG = Logger.getLogger(CompressionUtil.class.getName());
+
+  protected static final byte[] MARKER = { 0x00, 'C', 'Z', 0x01 };
+
+  protected static final int HEADER_LENGTH = MARKER.length + 4;
+
+  /**
+   * Compresses the bytes if they are larger than the compression threshold of the current
+   * process engine configuration and if compressing them saves space.
+   */
+  public static byte[] compressForStorage(byte[] bytes) {
+    if (isCompressed(bytes)) {
+      // the bytes happen to start with the marker: store them compressed, so that they are not mistaken as compressed
+      return compress(bytes);
+    }
+
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (bytes == null || processEngineConfiguration == null) {
+      return bytes;
+    }
+
+    int threshold = processEngineConfiguration.getByteArrayCompressionThreshold();
+    if (threshold <= 0 || bytes.length <= threshold) {
+      return bytes;
+    }
+
+    byte[] compressed = compress(bytes);
+    return compressed.length < bytes.length ? compressed : bytes;
+  }
+
+  public static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HEADER_LENGTH);
+    out.write(MARKER, 0, MARKER.length);
+    out.write(bytes.length >>> 24);
+    out.write(bytes.length >>> 16);
+    out.write(bytes.length >>> 8);
+    out.write(bytes.length);
+
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+
+      byte[] buffer = new byte[8 * 1024];
+      while (!deflater.finished()) {
+        int length = deflater.deflate(buffer);
+        out.write(buffer, 0, length);
+      }
+    } finally {
+      deflater.end();
+    }
+
+    return out.toByteArray();
+  }
+
+  /**
+   * @return the uncompressed bytes if the bytes are compressed, the bytes themselves otherwise
+   */
+  public static byte[] decompress(byte[] bytes) {
+    if (!isCompressed(bytes)) {
+      return bytes;
+    }
+
+    int length = ((bytes[4] & 0xFF) << 24)
+        | ((bytes[5] & 0xFF) << 16)
+        | ((bytes[6] & 0xFF) << 8)
+        | (bytes[7] & 0xFF);
+
+    if (length < 0 || length / 1024 > bytes.length) {
+      // cannot be the length of deflated bytes
+      return bytes;
+    }
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+
+      byte[] result = new byte[length];
+      int offset = 0;
+      while (offset < length && !inflater.finished()) {
+        int inflated = inflater.inflate(result, offset, length - offset);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        offset += inflated;
+      }
+
+      if (offset != length || !inflater.finished()) {
+        LOG.fine("Byte array starts with the compression marker but is not compressed, returning it as it is");
+        return bytes;
+      }
+      return result;
+
+    } catch (DataFormatException e) {
+      LOG.log(Level.FINE, "Byte array starts with the compression marker but is not compressed, returning it as it is", e);
+      return bytes;
+
+    } finally {
+      inflater.end();
+    }
+  }
+
+  public static boolean isCompressed(byte[] bytes) {
+    if (bytes == null || bytes.length < HEADER_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < MARKER.length; i++) {
+      if (bytes[i] != MARKER[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.logging.Logger;
 
 import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 import org.camunda.bpm.engine.BpmnParseException;
 import org.camunda.bpm.engine.ProcessEngineException;
@@ -40,10 +39,6 @@ public class Parse extends DefaultHandler {
   
   private static final Logger LOGGER = Logger.getLogger(Parse.class.getName());
   
-  private static final String JAXP_SCHEMA_SOURCE = "http://java.sun.com/xml/jaxp/properties/schemaSource";
-  private static final String JAXP_SCHEMA_LANGUAGE = "http://java.sun.com/xml/jaxp/properties/schemaLanguage";
-  private static final String W3C_XML_SCHEMA = "http://www.w3.org/2001/XMLSchema";
-  
   private static final String NEW_LINE = System.getProperty("line.separator");
   
   protected Parser parser;
@@ -118,16 +113,7 @@ public class Parse extends DefaultHandler {
     try {
       InputStream inputStream = streamSource.getInputStream();
 
-      if (schemaResource == null) { // must be done before parser is created
-        parser.getSaxParserFactory().setNamespaceAware(false);
-        parser.getSaxParserFactory().setValidating(false);
-      }
-
-      SAXParser saxParser = parser.getSaxParser(); 
-      if (schemaResource != null) { 
-        saxParser.setProperty(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
-        saxParser.setProperty(JAXP_SCHEMA_SOURCE, schemaResource);
-      }
+      SAXParser saxParser = parser.getSaxParser(schemaResource);
       saxParser.parse(inputStream, new ParseHandler(this));
       
     } catch (Exception e) { // any exception can happen (Activiti, Io, etc.)
@@ -188,15 +174,11 @@ public class Parse extends DefaultHandler {
     throw new ProcessEngineException(strb.toString());
   }
   
+  /**
+   * Sets the url of the schema the source is validated against. The schema is
+   * compiled once per {@link Parser}. If <code>null</code>, the source is not validated.
+   */
   public void setSchemaResource(String schemaResource) {
-    SAXParserFactory saxParserFactory = parser.getSaxParserFactory();
-    saxParserFactory.setNamespaceAware(true);
-    saxParserFactory.setValidating(true);
-    try {
-      saxParserFactory.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
-    } catch (Exception e) {
-      LOGGER.warning(e.getMessage());
-    }
     this.schemaResource = schemaResource;
   }
 
@@ -12,8 +12,16 @@
  */
 package org.camunda.bpm.engine.impl.util.xml;
 
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import javax.xml.XMLConstants;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
 
 
 /**
@@ -21,19 +29,73 @@ import javax.xml.parsers.SAXParserFactory;
  */
 public class Parser {
 
+  private static final Logger LOGGER = Logger.getLogger(Parser.class.getName());
+
   protected static SAXParserFactory defaultSaxParserFactory = SAXParserFactory.newInstance();
   
   public static final Parser INSTANCE = new Parser();
 
+  /**
+   * The factories of validating parsers by the url of their schema. Each factory
+   * holds the compiled {@link Schema}, so that the schema is only loaded once.
+   */
+  protected Map<String, SAXParserFactory> validatingSaxParserFactories = new ConcurrentHashMap<String, SAXParserFactory>();
+
   public Parse createParse() {
     return new Parse(this);
   }
 
   protected SAXParser getSaxParser() throws Exception {
-    return getSaxParserFactory().newSAXParser();
+    SAXParserFactory saxParserFactory = getSaxParserFactory();
+    synchronized (saxParserFactory) {
+      return saxParserFactory.newSAXParser();
+    }
+  }
+
+  /**
+   * @return a parser which validates against the given schema or a non-validating
+   * parser if the schema is <code>null</code>
+   */
+  protected SAXParser getSaxParser(String schemaResource) throws Exception {
+    if (schemaResource == null) {
+      return getSaxParser();
+    }
+
+    SAXParserFactory saxParserFactory = getValidatingSaxParserFactory(schemaResource);
+    synchronized (saxParserFactory) {
+      return saxParserFactory.newSAXParser();
+    }
   }
 
   protected SAXParserFactory getSaxParserFactory() {
     return defaultSaxParserFactory;
   }
+
+  protected SAXParserFactory getValidatingSaxParserFactory(String schemaResource) throws Exception {
+    SAXParserFactory saxParserFactory = validatingSaxParserFactories.get(schemaResource);
+    if (saxParserFactory == null) {
+      saxParserFactory = createValidatingSaxParserFactory(compileSchema(schemaResource));
+      validatingSaxParserFactories.put(schemaResource, saxParserFactory);
+    }
+    return saxParserFactory;
+  }
+
+  protected Schema compileSchema(String schemaResource) throws Exception {
+    SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    return schemaFactory.newSchema(new URL(schemaResource));
+  }
+
+  protected SAXParserFactory createValidatingSaxParserFactory(Schema schema) {
+    SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+    saxParserFactory.setNamespaceAware(true);
+    // the schema is validated against, DTDs are not
+    saxParserFactory.setValidating(false);
+    saxParserFactory.setSchema(schema);
+    try {
+      saxParserFactory.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+    } catch (Exception e) {
+      LOGGER.warning(e.getMessage());
+    }
+    return saxParserFactory;
+  }
 }
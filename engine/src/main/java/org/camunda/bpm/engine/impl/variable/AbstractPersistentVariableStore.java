@@ -15,10 +15,12 @@ package org.camunda.bpm.engine.impl.variable;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.camunda.bpm.engine.delegate.VariableListener;
@@ -140,6 +142,55 @@ public abstract class AbstractPersistentVariableStore extends AbstractVariableSt
     return variableInstance;
   }
 
+  /**
+   * Creates or updates the given variables and hands the history events of all
+   * variables to the history event handler at once. The variable listeners are
+   * notified after all variables are written.
+   */
+  public void createOrUpdateVariables(Map<String, TypedValue> variables, AbstractVariableScope sourceActivityExecution) {
+    ensureVariableInstancesInitialized();
+
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    HistoryLevel historyLevel = processEngineConfiguration.getHistoryLevel();
+    HistoryEventProducer eventProducer = processEngineConfiguration.getHistoryEventProducer();
+    boolean autoFireHistoryEvents = isAutoFireHistoryEvents();
+
+    List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>();
+    List<VariableEvent> variableEvents = new ArrayList<VariableEvent>();
+
+    for (Entry<String, TypedValue> variable : variables.entrySet()) {
+      String variableName = variable.getKey();
+      VariableInstanceEntity variableInstance = variableInstances.get(variableName);
+
+      if (variableInstance == null) {
+        variableInstance = VariableInstanceEntity.createAndInsert(variableName, variable.getValue());
+        initializeVariableInstanceBackPointer(variableInstance);
+        variableInstances.put(variableName, variableInstance);
+
+        if (autoFireHistoryEvents && historyLevel.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_CREATE, variableInstance)) {
+          historyEvents.add(eventProducer.createHistoricVariableCreateEvt(variableInstance, sourceActivityExecution));
+        }
+        variableEvents.add(new VariableEvent(variableInstance, VariableListener.CREATE, sourceActivityExecution));
+      }
+      else {
+        variableInstance.setValue(variable.getValue());
+        variableInstance.incrementSequenceCounter();
+
+        if (autoFireHistoryEvents && historyLevel.isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_UPDATE, variableInstance)) {
+          historyEvents.add(eventProducer.createHistoricVariableUpdateEvt(variableInstance, sourceActivityExecution));
+        }
+        variableEvents.add(new VariableEvent(variableInstance, VariableListener.UPDATE, sourceActivityExecution));
+      }
+    }
+
+    if (!historyEvents.isEmpty()) {
+      processEngineConfiguration.getHistoryEventHandler().handleEvents(historyEvents);
+    }
+
+    for (VariableEvent variableEvent : variableEvents) {
+      sourceActivityExecution.dispatchEvent(variableEvent);
+    }
+  }
 
   protected boolean isAutoFireHistoryEvents() {
     return true;
@@ -0,0 +1,132 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.camunda.bpm.engine.impl.variable.serializer.compact.CompactBinaryFormat;
+import org.camunda.bpm.engine.impl.variable.serializer.compact.CompactBinaryReader;
+import org.camunda.bpm.engine.impl.variable.serializer.compact.CompactBinaryWriter;
+import org.camunda.bpm.engine.variable.Variables.SerializationDataFormats;
+
+/**
+ * Serializes java objects in the compact binary format (see {@link CompactBinaryFormat}).
+ * Compared to Java serialization, class descriptors are written only once per class and
+ * numbers are written with a variable length. Values larger than the compression threshold
+ * are deflated. Strings, dates and byte arrays are written by value, so their identity is not
+ * preserved when they are shared (see {@link CompactBinaryFormat}).
+ */
+public class CompactBinaryObjectSerializer extends AbstractObjectValueSerializer {
+
+  public static final String NAME = "compact-binary";
+
+  /** values larger than this number of bytes are deflated, values &lt;= 0 disable the compression */
+  protected int compressionThreshold;
+
+  public CompactBinaryObjectSerializer() {
+    this(0);
+  }
+
+  public CompactBinaryObjectSerializer(int compressionThreshold) {
+    super(SerializationDataFormats.COMPACT_BINARY.getName());
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  public String getName() {
+    return NAME;
+  }
+
+  protected boolean isSerializationTextBased() {
+    return false;
+  }
+
+  protected byte[] serializeToByteArray(Object deserializedObject) throws Exception {
+    ByteArrayOutputStream value = new ByteArrayOutputStream();
+    CompactBinaryWriter writer = new CompactBinaryWriter(value);
+    writer.writeValue(deserializedObject);
+    writer.flush();
+
+    boolean deflate = compressionThreshold > 0 && value.size() > compressionThreshold;
+
+    ByteArrayOutputStream result = new ByteArrayOutputStream(value.size() + 3);
+    result.write(CompactBinaryFormat.MAGIC);
+    result.write(CompactBinaryFormat.VERSION);
+    result.write(deflate ? CompactBinaryFormat.FLAG_DEFLATED : 0);
+
+    if (deflate) {
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+        DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(result, deflater);
+        value.writeTo(deflaterOutputStream);
+        deflaterOutputStream.finish();
+      } finally {
+        deflater.end();
+      }
+    } else {
+      value.writeTo(result);
+    }
+
+    return result.toByteArray();
+  }
+
+  protected Object deserializeFromByteArray(byte[] bytes, String objectTypeName) throws Exception {
+    if (bytes.length < 3 || (bytes[0] & 0xFF) != CompactBinaryFormat.MAGIC) {
+      throw new StreamCorruptedException("Value is not in the compact binary format");
+    }
+    if (bytes[1] != CompactBinaryFormat.VERSION) {
+      throw new StreamCorruptedException("Unsupported version " + bytes[1] + " of the compact binary format");
+    }
+
+    InputStream value = new ByteArrayInputStream(bytes, 3, bytes.length - 3);
+    if ((bytes[2] & CompactBinaryFormat.FLAG_DEFLATED) != 0) {
+      value = new InflaterInputStream(value);
+    }
+
+    try {
+      CompactBinaryReader reader = new CompactBinaryReader(value) {
+        protected ObjectInputStream createObjectInputStream(InputStream in) throws IOException {
+          return new JavaObjectSerializer.ClassloaderAwareObjectInputStream(in);
+        }
+      };
+      return reader.readValue();
+    } finally {
+      value.close();
+    }
+  }
+
+  protected String getTypeNameForDeserialized(Object deserializedObject) {
+    return deserializedObject.getClass().getName();
+  }
+
+  protected boolean canSerializeValue(Object value) {
+    return value instanceof Serializable;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+}
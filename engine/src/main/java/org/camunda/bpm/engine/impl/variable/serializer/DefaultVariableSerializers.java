@@ -14,6 +14,7 @@ package org.camunda.bpm.engine.impl.variable.serializer;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,9 @@ public class DefaultVariableSerializers implements Serializable, VariableSeriali
   protected List<TypedValueSerializer<?>> serializerList = new ArrayList<TypedValueSerializer<?>>();
   protected Map<String, TypedValueSerializer<?>> serializerMap = new HashMap<String, TypedValueSerializer<?>>();
 
+  /** the serializers of each value type in the order of the serializer list, keyed by the name of the type */
+  protected Map<String, List<TypedValueSerializer<?>>> serializersByType = new HashMap<String, List<TypedValueSerializer<?>>>();
+
   public TypedValueSerializer<?> getSerializerByName(String serializerName) {
     return serializerMap.get(serializerName);
   }
@@ -49,7 +53,16 @@ public class DefaultVariableSerializers implements Serializable, VariableSeriali
       throw new ProcessEngineException("Cannot serialize value of abstract type " + type.getName());
     }
 
-    for (TypedValueSerializer<?> serializer : serializerList) {
+    // typed values only need to ask the serializers of their type
+    List<TypedValueSerializer<?>> candidates = serializerList;
+    if (type != null) {
+      candidates = serializersByType.get(type.getName());
+      if (candidates == null) {
+        candidates = Collections.emptyList();
+      }
+    }
+
+    for (TypedValueSerializer<?> serializer : candidates) {
       if(type == null || serializer.getType().equals(type)) {
 
         // if type is null => ask handler whether it can handle the value
@@ -93,6 +106,7 @@ public class DefaultVariableSerializers implements Serializable, VariableSeriali
   public DefaultVariableSerializers addSerializer(TypedValueSerializer<?> serializer, int index) {
     serializerList.add(index, serializer);
     serializerMap.put(serializer.getName(), serializer);
+    updateSerializersByType();
     return this;
   }
 
@@ -103,6 +117,7 @@ public class DefaultVariableSerializers implements Serializable, VariableSeriali
     for (TypedValueSerializer<?> serializer : serializerList) {
       serializerMap.put(serializer.getName(), serializer);
     }
+    updateSerializersByType();
   }
 
   public int getSerializerIndex(TypedValueSerializer<?> serializer) {
@@ -121,8 +136,25 @@ public class DefaultVariableSerializers implements Serializable, VariableSeriali
   public VariableSerializers removeSerializer(TypedValueSerializer<?> serializer) {
     serializerList.remove(serializer);
     serializerMap.remove(serializer.getName());
+    updateSerializersByType();
     return this;
   }
 
+  protected void updateSerializersByType() {
+    Map<String, List<TypedValueSerializer<?>>> serializersByType = new HashMap<String, List<TypedValueSerializer<?>>>();
+    for (TypedValueSerializer<?> serializer : serializerList) {
+      ValueType type = serializer.getType();
+      if (type != null) {
+        List<TypedValueSerializer<?>> serializers = serializersByType.get(type.getName());
+        if (serializers == null) {
+          serializers = new ArrayList<TypedValueSerializer<?>>();
+          serializersByType.put(type.getName(), serializers);
+        }
+        serializers.add(serializer);
+      }
+    }
+    this.serializersByType = serializersByType;
+  }
+
 
 }
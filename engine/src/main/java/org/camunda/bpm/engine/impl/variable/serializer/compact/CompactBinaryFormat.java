@@ -0,0 +1,209 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.compact;
+
+import java.io.Externalizable;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Constants and class introspection shared by the {@link CompactBinaryWriter} and the
+ * {@link CompactBinaryReader}.</p>
+ *
+ * <p>A serialized value starts with a header (magic byte, version, flags) which is
+ * followed by the (optionally deflated) value. Each value is written as a tag followed by
+ * its content. Objects are written as their non-static, non-transient fields in the
+ * order of a class descriptor; the descriptor (class name and field names) is written
+ * only once per class and referenced by its index afterwards. Objects which are
+ * referenced more than once (including cycles) are written once and referenced by their
+ * handle afterwards. This does not apply to values which are written by value: strings,
+ * boxed primitives, dates, big numbers and byte arrays. A <code>byte[]</code> (or a
+ * {@link java.util.Date}) which is referenced more than once is read as separate copies,
+ * so changes to one of them are not visible through the other references.</p>
+ *
+ * <p>Objects whose classes customize their Java serialization (<code>writeObject</code>,
+ * <code>readResolve</code>, {@link Externalizable}, ...) or cannot be instantiated by a
+ * no-arg constructor are embedded using Java serialization.</p>
+ */
+public final class CompactBinaryFormat {
+
+  public static final int MAGIC = 0xCB;
+  public static final int VERSION = 1;
+
+  public static final int FLAG_DEFLATED = 0x01;
+
+  public static final int TAG_NULL = 0;
+  public static final int TAG_TRUE = 1;
+  public static final int TAG_FALSE = 2;
+  public static final int TAG_BYTE = 3;
+  public static final int TAG_SHORT = 4;
+  public static final int TAG_CHAR = 5;
+  public static final int TAG_INT = 6;
+  public static final int TAG_LONG = 7;
+  public static final int TAG_FLOAT = 8;
+  public static final int TAG_DOUBLE = 9;
+  public static final int TAG_STRING = 10;
+  public static final int TAG_DATE = 11;
+  public static final int TAG_BIG_INTEGER = 12;
+  public static final int TAG_BIG_DECIMAL = 13;
+  public static final int TAG_ENUM = 14;
+  public static final int TAG_BYTE_ARRAY = 15;
+  public static final int TAG_ARRAY = 16;
+  public static final int TAG_COLLECTION = 17;
+  public static final int TAG_MAP = 18;
+  public static final int TAG_OBJECT = 19;
+  public static final int TAG_REFERENCE = 20;
+  public static final int TAG_JAVA_SERIALIZED = 21;
+
+  /** collections which are written element by element */
+  protected static final Set<Class<?>> COLLECTION_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+      ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class, TreeSet.class));
+
+  /** maps which are written entry by entry */
+  protected static final Set<Class<?>> MAP_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+      HashMap.class, LinkedHashMap.class, TreeMap.class, Hashtable.class, ConcurrentHashMap.class));
+
+  protected static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+  static {
+    Class<?>[] primitiveTypes = { boolean.class, byte.class, short.class, char.class, int.class,
+        long.class, float.class, double.class };
+    for (Class<?> primitiveType : primitiveTypes) {
+      PRIMITIVE_TYPES.put(primitiveType.getName(), primitiveType);
+    }
+  }
+
+  private CompactBinaryFormat() {
+  }
+
+  public static boolean isCollectionType(Object value) {
+    if (value instanceof TreeSet && ((TreeSet<?>) value).comparator() != null) {
+      return false;
+    }
+    return COLLECTION_TYPES.contains(value.getClass());
+  }
+
+  public static boolean isMapType(Object value) {
+    if (value instanceof TreeMap && ((TreeMap<?, ?>) value).comparator() != null) {
+      return false;
+    }
+    return MAP_TYPES.contains(value.getClass());
+  }
+
+  public static Class<?> getPrimitiveType(String name) {
+    return PRIMITIVE_TYPES.get(name);
+  }
+
+  /**
+   * @return true if the objects of the class must be embedded using Java serialization
+   */
+  public static boolean requiresJavaSerialization(Class<?> type) {
+    if (Externalizable.class.isAssignableFrom(type)) {
+      return true;
+    }
+
+    if (getNoArgConstructor(type) == null) {
+      return true;
+    }
+
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      if (declaresMethod(current, "writeObject", ObjectOutputStream.class)
+          || declaresMethod(current, "readObject", ObjectInputStream.class)
+          || declaresMethod(current, "readObjectNoData")
+          || declaresMethod(current, "writeReplace")
+          || declaresMethod(current, "readResolve")
+          || declaresField(current, "serialPersistentFields")) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @return the fields which are written for objects of the class: the non-static,
+   * non-transient fields of the serializable classes in its hierarchy
+   */
+  public static List<Field> getSerializableFields(Class<?> type) throws NotSerializableException {
+    if (!Serializable.class.isAssignableFrom(type)) {
+      throw new NotSerializableException(type.getName());
+    }
+
+    List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+    for (Class<?> current = type; current != null && Serializable.class.isAssignableFrom(current); current = current.getSuperclass()) {
+      hierarchy.add(0, current);
+    }
+
+    List<Field> fields = new ArrayList<Field>();
+    for (Class<?> current : hierarchy) {
+      for (Field field : current.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+          field.setAccessible(true);
+          fields.add(field);
+        }
+      }
+    }
+    return fields;
+  }
+
+  public static Constructor<?> getNoArgConstructor(Class<?> type) {
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return constructor;
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (SecurityException e) {
+      return null;
+    }
+  }
+
+  protected static boolean declaresMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      type.getDeclaredMethod(name, parameterTypes);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  protected static boolean declaresField(Class<?> type, String name) {
+    try {
+      type.getDeclaredField(name);
+      return true;
+    } catch (NoSuchFieldException e) {
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,298 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.compact;
+
+import static org.camunda.bpm.engine.impl.variable.serializer.compact.CompactBinaryFormat.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.util.ReflectUtil;
+
+/**
+ * Reads an object graph written by the {@link CompactBinaryWriter}.
+ * A reader must only be used for a single value.
+ */
+public class CompactBinaryReader {
+
+  protected final DataInputStream in;
+
+  protected final List<Object> handles = new ArrayList<Object>();
+  protected final List<Class<?>> classes = new ArrayList<Class<?>>();
+  protected final List<Class<?>> classDescriptorTypes = new ArrayList<Class<?>>();
+  protected final List<Field[]> classDescriptorFields = new ArrayList<Field[]>();
+
+  public CompactBinaryReader(InputStream in) {
+    this.in = new DataInputStream(in);
+  }
+
+  public Object readValue() throws IOException, ClassNotFoundException {
+    int tag = in.readUnsignedByte();
+
+    switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_TRUE:
+        return Boolean.TRUE;
+      case TAG_FALSE:
+        return Boolean.FALSE;
+      case TAG_BYTE:
+        return in.readByte();
+      case TAG_SHORT:
+        return (short) readVarLong();
+      case TAG_CHAR:
+        return in.readChar();
+      case TAG_INT:
+        return (int) readVarLong();
+      case TAG_LONG:
+        return readVarLong();
+      case TAG_FLOAT:
+        return in.readFloat();
+      case TAG_DOUBLE:
+        return in.readDouble();
+      case TAG_STRING:
+        return readString();
+      case TAG_DATE:
+        return new Date(readVarLong());
+      case TAG_BIG_INTEGER:
+        return new BigInteger(readBytes());
+      case TAG_BIG_DECIMAL:
+        return new BigDecimal(new BigInteger(readBytes()), (int) readVarLong());
+      case TAG_ENUM:
+        return readEnum();
+      case TAG_BYTE_ARRAY:
+        return readBytes();
+      case TAG_REFERENCE:
+        return handles.get(readVarInt());
+      case TAG_ARRAY:
+        return readArray();
+      case TAG_COLLECTION:
+        return readCollection();
+      case TAG_MAP:
+        return readMap();
+      case TAG_OBJECT:
+        return readObject();
+      case TAG_JAVA_SERIALIZED:
+        return readJavaSerialized();
+      default:
+        throw new StreamCorruptedException("Unknown tag " + tag);
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected Object readEnum() throws IOException, ClassNotFoundException {
+    Class enumType = readClass();
+    return Enum.valueOf(enumType, readString());
+  }
+
+  protected Object readArray() throws IOException, ClassNotFoundException {
+    int handle = reserveHandle();
+    Class<?> componentType = readClass();
+    int length = readVarInt();
+
+    Object array = Array.newInstance(componentType, length);
+    handles.set(handle, array);
+
+    for (int i = 0; i < length; i++) {
+      Array.set(array, i, readValue());
+    }
+    return array;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Object readCollection() throws IOException, ClassNotFoundException {
+    int handle = reserveHandle();
+    Collection<Object> collection = (Collection<Object>) newInstance(readClass());
+    handles.set(handle, collection);
+
+    int size = readVarInt();
+    for (int i = 0; i < size; i++) {
+      collection.add(readValue());
+    }
+    return collection;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Object readMap() throws IOException, ClassNotFoundException {
+    int handle = reserveHandle();
+    Map<Object, Object> map = (Map<Object, Object>) newInstance(readClass());
+    handles.set(handle, map);
+
+    int size = readVarInt();
+    for (int i = 0; i < size; i++) {
+      Object key = readValue();
+      map.put(key, readValue());
+    }
+    return map;
+  }
+
+  protected Object readObject() throws IOException, ClassNotFoundException {
+    int handle = reserveHandle();
+
+    int index = readVarInt();
+    Class<?> type;
+    Field[] fields;
+    if (index == 0) {
+      type = readClass();
+      fields = readFieldNames(type);
+      classDescriptorTypes.add(type);
+      classDescriptorFields.add(fields);
+    } else {
+      type = classDescriptorTypes.get(index - 1);
+      fields = classDescriptorFields.get(index - 1);
+    }
+
+    Object object = newInstance(type);
+    handles.set(handle, object);
+
+    for (Field field : fields) {
+      Object value = readValue();
+      // fields which no longer exist in the class are skipped
+      if (field != null) {
+        try {
+          field.set(object, value);
+        } catch (IllegalAccessException e) {
+          throw new IOException("Cannot set field '" + field.getName() + "' of " + type.getName() + ": " + e.getMessage());
+        }
+      }
+    }
+    return object;
+  }
+
+  protected Field[] readFieldNames(Class<?> type) throws IOException {
+    // a field name may occur more than once in the hierarchy; the fields
+    // are written in the order of the hierarchy, starting with the superclass
+    Map<String, LinkedList<Field>> fieldsByName = new HashMap<String, LinkedList<Field>>();
+    for (Field field : getSerializableFields(type)) {
+      LinkedList<Field> fieldsWithName = fieldsByName.get(field.getName());
+      if (fieldsWithName == null) {
+        fieldsWithName = new LinkedList<Field>();
+        fieldsByName.put(field.getName(), fieldsWithName);
+      }
+      fieldsWithName.add(field);
+    }
+
+    Field[] fields = new Field[readVarInt()];
+    for (int i = 0; i < fields.length; i++) {
+      LinkedList<Field> fieldsWithName = fieldsByName.get(readString());
+      if (fieldsWithName != null) {
+        fields[i] = fieldsWithName.poll();
+      }
+    }
+    return fields;
+  }
+
+  protected Object readJavaSerialized() throws IOException, ClassNotFoundException {
+    int handle = reserveHandle();
+
+    ObjectInputStream objectInputStream = createObjectInputStream(new ByteArrayInputStream(readBytes()));
+    try {
+      Object object = objectInputStream.readObject();
+      handles.set(handle, object);
+      return object;
+    } finally {
+      objectInputStream.close();
+    }
+  }
+
+  /**
+   * Creates the stream which reads the values embedded using Java serialization.
+   * Subclasses may override this to resolve classes with another class loader.
+   */
+  protected ObjectInputStream createObjectInputStream(InputStream in) throws IOException {
+    return new ObjectInputStream(in);
+  }
+
+  protected int reserveHandle() {
+    handles.add(null);
+    return handles.size() - 1;
+  }
+
+  protected Object newInstance(Class<?> type) throws IOException {
+    Constructor<?> constructor = getNoArgConstructor(type);
+    if (constructor == null) {
+      throw new IOException("Cannot instantiate " + type.getName() + ": no no-arg constructor");
+    }
+    try {
+      return constructor.newInstance();
+    } catch (Exception e) {
+      throw new IOException("Cannot instantiate " + type.getName() + ": " + e.getMessage());
+    }
+  }
+
+  protected Class<?> readClass() throws IOException, ClassNotFoundException {
+    int index = readVarInt();
+    if (index > 0) {
+      return classes.get(index - 1);
+    }
+
+    String className = readString();
+    Class<?> type = getPrimitiveType(className);
+    if (type == null) {
+      type = ReflectUtil.loadClass(className);
+    }
+    classes.add(type);
+    return type;
+  }
+
+  protected String readString() throws IOException {
+    return new String(readBytes(), "UTF-8");
+  }
+
+  protected byte[] readBytes() throws IOException {
+    byte[] bytes = new byte[readVarInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  protected int readVarInt() throws IOException {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  protected long readVarLong() throws IOException {
+    long zigZag = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      zigZag |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+
+}
@@ -0,0 +1,253 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer.compact;
+
+import static org.camunda.bpm.engine.impl.variable.serializer.compact.CompactBinaryFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes an object graph in the compact binary format (see {@link CompactBinaryFormat}).
+ * A writer must only be used for a single value.
+ */
+public class CompactBinaryWriter {
+
+  protected final DataOutputStream out;
+
+  /** the handles of the objects written so far */
+  protected final Map<Object, Integer> handles = new IdentityHashMap<Object, Integer>();
+
+  protected final Map<String, Integer> classNames = new HashMap<String, Integer>();
+  protected final Map<Class<?>, Integer> classDescriptors = new HashMap<Class<?>, Integer>();
+  protected final Map<Class<?>, List<Field>> classFields = new HashMap<Class<?>, List<Field>>();
+
+  public CompactBinaryWriter(OutputStream out) {
+    this.out = new DataOutputStream(out);
+  }
+
+  public void writeValue(Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(TAG_NULL);
+
+    } else if (value instanceof Boolean) {
+      out.writeByte(((Boolean) value) ? TAG_TRUE : TAG_FALSE);
+
+    } else if (value instanceof Byte) {
+      out.writeByte(TAG_BYTE);
+      out.writeByte((Byte) value);
+
+    } else if (value instanceof Short) {
+      out.writeByte(TAG_SHORT);
+      writeVarLong((Short) value);
+
+    } else if (value instanceof Character) {
+      out.writeByte(TAG_CHAR);
+      out.writeChar((Character) value);
+
+    } else if (value instanceof Integer) {
+      out.writeByte(TAG_INT);
+      writeVarLong((Integer) value);
+
+    } else if (value instanceof Long) {
+      out.writeByte(TAG_LONG);
+      writeVarLong((Long) value);
+
+    } else if (value instanceof Float) {
+      out.writeByte(TAG_FLOAT);
+      out.writeFloat((Float) value);
+
+    } else if (value instanceof Double) {
+      out.writeByte(TAG_DOUBLE);
+      out.writeDouble((Double) value);
+
+    } else if (value instanceof String) {
+      out.writeByte(TAG_STRING);
+      writeString((String) value);
+
+    } else if (value.getClass() == Date.class) {
+      out.writeByte(TAG_DATE);
+      writeVarLong(((Date) value).getTime());
+
+    } else if (value.getClass() == BigInteger.class) {
+      out.writeByte(TAG_BIG_INTEGER);
+      writeBytes(((BigInteger) value).toByteArray());
+
+    } else if (value.getClass() == BigDecimal.class) {
+      BigDecimal bigDecimal = (BigDecimal) value;
+      out.writeByte(TAG_BIG_DECIMAL);
+      writeBytes(bigDecimal.unscaledValue().toByteArray());
+      writeVarLong(bigDecimal.scale());
+
+    } else if (value instanceof Enum) {
+      Enum<?> enumValue = (Enum<?>) value;
+      out.writeByte(TAG_ENUM);
+      writeClassName(enumValue.getDeclaringClass().getName());
+      writeString(enumValue.name());
+
+    } else if (value instanceof byte[]) {
+      out.writeByte(TAG_BYTE_ARRAY);
+      writeBytes((byte[]) value);
+
+    } else {
+      Integer handle = handles.get(value);
+      if (handle != null) {
+        out.writeByte(TAG_REFERENCE);
+        writeVarInt(handle);
+
+      } else {
+        handles.put(value, handles.size());
+        writeReferenceableValue(value);
+      }
+    }
+  }
+
+  protected void writeReferenceableValue(Object value) throws IOException {
+    Class<?> type = value.getClass();
+
+    if (type.isArray()) {
+      out.writeByte(TAG_ARRAY);
+      writeClassName(type.getComponentType().getName());
+      int length = Array.getLength(value);
+      writeVarInt(length);
+      for (int i = 0; i < length; i++) {
+        writeValue(Array.get(value, i));
+      }
+
+    } else if (isCollectionType(value)) {
+      Collection<?> collection = (Collection<?>) value;
+      out.writeByte(TAG_COLLECTION);
+      writeClassName(type.getName());
+      writeVarInt(collection.size());
+      for (Object element : collection) {
+        writeValue(element);
+      }
+
+    } else if (isMapType(value)) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      out.writeByte(TAG_MAP);
+      writeClassName(type.getName());
+      writeVarInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(entry.getKey());
+        writeValue(entry.getValue());
+      }
+
+    } else if (requiresJavaSerialization(type)) {
+      out.writeByte(TAG_JAVA_SERIALIZED);
+      writeBytes(serializeWithJava(value));
+
+    } else {
+      out.writeByte(TAG_OBJECT);
+      List<Field> fields = writeClassDescriptor(type);
+      for (Field field : fields) {
+        try {
+          writeValue(field.get(value));
+        } catch (IllegalAccessException e) {
+          throw new IOException("Cannot read field '" + field.getName() + "' of " + type.getName() + ": " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  protected List<Field> writeClassDescriptor(Class<?> type) throws IOException {
+    Integer index = classDescriptors.get(type);
+    if (index != null) {
+      writeVarInt(index + 1);
+      return classFields.get(type);
+    }
+
+    List<Field> fields = getSerializableFields(type);
+    classDescriptors.put(type, classDescriptors.size());
+    classFields.put(type, fields);
+
+    writeVarInt(0);
+    writeClassName(type.getName());
+    writeVarInt(fields.size());
+    for (Field field : fields) {
+      writeString(field.getName());
+    }
+    return fields;
+  }
+
+  protected void writeClassName(String className) throws IOException {
+    Integer index = classNames.get(className);
+    if (index != null) {
+      writeVarInt(index + 1);
+
+    } else {
+      classNames.put(className, classNames.size());
+      writeVarInt(0);
+      writeString(className);
+    }
+  }
+
+  protected byte[] serializeWithJava(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes);
+    objectOutputStream.writeObject(value);
+    objectOutputStream.close();
+    return bytes.toByteArray();
+  }
+
+  protected void writeString(String value) throws IOException {
+    writeBytes(value.getBytes("UTF-8"));
+  }
+
+  protected void writeBytes(byte[] bytes) throws IOException {
+    writeVarInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Writes a non-negative int using 7 bits per byte.
+   */
+  protected void writeVarInt(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Writes a signed long in zig-zag encoding using 7 bits per byte, so that numbers
+   * with a small absolute value need few bytes.
+   */
+  protected void writeVarLong(long value) throws IOException {
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ((zigZag & ~0x7FL) != 0) {
+      out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+      zigZag >>>= 7;
+    }
+    out.writeByte((int) zigZag);
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+}
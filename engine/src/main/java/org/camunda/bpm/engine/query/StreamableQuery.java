@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.query;
+
+/**
+ * A query whose results can be passed to a {@link QueryResultHandler} while they
+ * are read from the database instead of being returned as a list. All queries
+ * created by the services of the process engine implement this interface:
+ *
+ * <pre>
+ * StreamableQuery&lt;Task&gt; query = (StreamableQuery&lt;Task&gt;) taskService.createTaskQuery();
+ * query.forEach(handler);
+ * </pre>
+ *
+ * @param <U> the type of the query results
+ */
+public interface StreamableQuery<U> {
+
+  /**
+   * Executes the query and passes the resulting entities to the given handler
+   * while they are read from the database. In contrast to {@link Query#list()}, the
+   * results are neither collected nor kept in the entity cache, so the memory
+   * consumption does not depend on the number of results. The results are read
+   * with the fetch size configured by <code>queryStreamingFetchSize</code>.
+   *
+   * <p>If the results have to be completed by further statements (e.g. the values
+   * of variables), they are read in pages of that size, as no further statement can
+   * be executed while a result set is streamed on some databases.</p>
+   *
+   * <p>The results are meant for read-only processing: changes to them are not
+   * persisted.</p>
+   */
+  void forEach(QueryResultHandler<U> resultHandler);
+
+  /**
+   * Executes the query and passes the resulting entities of the given page to the
+   * handler while they are read from the database (see {@link #forEach(QueryResultHandler)}).
+   */
+  void forEachPage(int firstResult, int maxResults, QueryResultHandler<U> resultHandler);
+
+}
@@ -597,6 +597,25 @@ public interface TaskQuery extends Query<TaskQuery, Task>{
    */
   TaskQuery initializeFormKeys();
 
+  /**
+   * Only select tasks which follow the given sort key values in the ordering of this query.
+   * Allows to page through large result sets without the cost of skipping the previous pages:
+   * pass the sort key values of the last task of a page to fetch the next page with
+   * <code>listPage(0, maxResults)</code>.
+   *
+   * <p>The ordering has to end with {@link #orderByTaskId()} (the default ordering is by id) and
+   * must not contain orderings by variables. The sort key values are the values of the ordered
+   * properties of the last task in the order of the ordering, ending with its id; they may be
+   * <code>null</code> except for the id. For example, for <code>orderByDueDate().asc().orderByTaskId().asc()</code>
+   * pass <code>afterCursor(task.getDueDate(), task.getId())</code>. The task does not have to
+   * exist anymore.</p>
+   *
+   * @param sortKeyValues the values of the ordered properties of the last task of the previous page
+   * @return the query itself
+   * @since 7.3
+   */
+  TaskQuery afterCursor(Object... sortKeyValues);
+
   // ordering ////////////////////////////////////////////////////////////
 
   /** Order by task id (needs to be followed by {@link #asc()} or {@link #desc()}). */
@@ -104,7 +104,16 @@ public class Variables {
      * If you want to serialize objects using the Xml dataformat, you need to provide a serializer. The optinal
      * camunda Spin process engine plugin provides such a serializer.</p>
      */
-    XML("application/xml");
+    XML("application/xml"),
+
+    /**
+     * <p>The compact binary Serialization Data format. If this data format is used for serializing an object,
+     * the object is serialized field by field, writing the class descriptors only once per class.
+     * Objects which customize their Java serialization are embedded using Java serialization.</p>
+     *
+     * <p>The process engine provides a serializer for this dataformat out of the box.</p>
+     */
+    COMPACT_BINARY("application/x-camunda-compact-binary");
 
     private final String name;
 
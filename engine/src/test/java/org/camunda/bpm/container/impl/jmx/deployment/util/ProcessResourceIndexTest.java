@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2011, 2012 camunda services GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.container.impl.jmx.deployment.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.camunda.bpm.container.impl.deployment.scanning.ClassPathProcessApplicationScanner;
+import org.camunda.bpm.container.impl.deployment.scanning.ProcessResourceIndex;
+import org.camunda.bpm.container.impl.deployment.scanning.ProcessResourceIndexGenerator;
+import org.junit.Test;
+
+/**
+ * Tests process archives whose resources are read from a {@link ProcessResourceIndex} instead of scanning them.
+ */
+public class ProcessResourceIndexTest {
+
+  protected static final String RESOURCE_PATH = "src/test/resources/org/camunda/bpm/container/impl/jmx/deployment/util/";
+  protected static final String INDEXED_ARCHIVE_URL = "file:" + RESOURCE_PATH + "ProcessResourceIndexTest.testIndexedProcessArchive/";
+  protected static final String NOT_INDEXED_ARCHIVE_URL = "file:" + RESOURCE_PATH + "ClassPathScannerTest.testScanClassPathWithFilesRecursive/";
+
+  @Test
+  public void testFindIndexedResources() throws MalformedURLException {
+    Map<String, byte[]> resources = findResources(INDEXED_ARCHIVE_URL, null);
+
+    assertEquals(3, resources.size());
+    assertTrue(resources.containsKey("directory/testDeployProcessArchive.bpmn20.xml"));
+    assertTrue(resources.containsKey("directory/testDeployProcessArchive.png"));
+    assertTrue(resources.containsKey("directory/copyOfTestDeployProcessArchive.bpmn20.xml"));
+    // the resource which is not indexed is not scanned
+    assertFalse(resources.containsKey("notIndexed.bpmn20.xml"));
+  }
+
+  @Test
+  public void testResourcesWithSameHashAreReadOnce() throws MalformedURLException {
+    Map<String, byte[]> resources = findResources(INDEXED_ARCHIVE_URL, null);
+
+    assertSame(resources.get("directory/testDeployProcessArchive.bpmn20.xml"), resources.get("directory/copyOfTestDeployProcessArchive.bpmn20.xml"));
+  }
+
+  @Test
+  public void testFindIndexedResourcesBelowResourceRootPath() throws MalformedURLException {
+    Map<String, byte[]> resources = findResources(INDEXED_ARCHIVE_URL, "pa:directory");
+
+    assertEquals(3, resources.size());
+    assertTrue(resources.containsKey("testDeployProcessArchive.bpmn20.xml"));
+    assertTrue(resources.containsKey("testDeployProcessArchive.png"));
+    assertTrue(resources.containsKey("copyOfTestDeployProcessArchive.bpmn20.xml"));
+
+    assertEquals(0, findResources(INDEXED_ARCHIVE_URL, "pa:nonexisting").size());
+  }
+
+  @Test
+  public void testNoIndex() throws MalformedURLException {
+    assertNull(ProcessResourceIndex.read(new URL(NOT_INDEXED_ARCHIVE_URL + "META-INF/processes.xml")));
+
+    // the process archive is scanned
+    assertEquals(2, findResources(NOT_INDEXED_ARCHIVE_URL, null).size());
+  }
+
+  @Test
+  public void testGenerateIndex() throws IOException {
+    ProcessResourceIndex index = ProcessResourceIndexGenerator.generateIndex(new File(RESOURCE_PATH + "ProcessResourceIndexTest.testIndexedProcessArchive"), null);
+    Map<String, String> resourceHashes = index.getResourceHashes();
+
+    assertEquals(4, resourceHashes.size());
+    assertTrue(resourceHashes.containsKey("notIndexed.bpmn20.xml"));
+
+    // the generated index matches the index of the process archive
+    ProcessResourceIndex existingIndex = ProcessResourceIndex.read(new URL(INDEXED_ARCHIVE_URL + "META-INF/processes.xml"));
+    for (Map.Entry<String, String> resource : existingIndex.getResourceHashes().entrySet()) {
+      assertEquals(resource.getValue(), resourceHashes.get(resource.getKey()));
+    }
+
+    // write and read the index
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    index.write(outputStream);
+    ProcessResourceIndex readIndex = ProcessResourceIndex.read(new ByteArrayInputStream(outputStream.toByteArray()), "index");
+    assertEquals(resourceHashes, readIndex.getResourceHashes());
+  }
+
+  @Test
+  public void testIndexedResourceWhichDoesNotExistIsSkipped() throws MalformedURLException {
+    String indexContent = "0 directory/testDeployProcessArchive.bpmn20.xml\n1 nonExisting.bpmn20.xml\n";
+    ProcessResourceIndex index = ProcessResourceIndex.read(new ByteArrayInputStream(indexContent.getBytes()), "index");
+
+    // the changed and the missing resource are logged as warnings
+    Map<String, byte[]> resources = index.findResources(new URL(INDEXED_ARCHIVE_URL + "META-INF/processes.xml"), null, null);
+
+    assertEquals(1, resources.size());
+    assertTrue(resources.containsKey("directory/testDeployProcessArchive.bpmn20.xml"));
+  }
+
+  @Test
+  public void testFindDeployableResourcesNotIndexed() throws MalformedURLException {
+    URL metaFileUrl = new URL(INDEXED_ARCHIVE_URL + "META-INF/processes.xml");
+    ProcessResourceIndex index = ProcessResourceIndex.read(metaFileUrl);
+
+    assertEquals(Arrays.asList("notIndexed.bpmn20.xml"), index.findDeployableResourcesNotIndexed(metaFileUrl, null, null));
+    assertTrue(index.findDeployableResourcesNotIndexed(metaFileUrl, "directory/", null).isEmpty());
+  }
+
+  @Test
+  public void testHash() {
+    assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", ProcessResourceIndex.hash("abc".getBytes()));
+  }
+
+  protected Map<String, byte[]> findResources(String archiveUrl, String paResourceRootPath) throws MalformedURLException {
+    URLClassLoader classLoader = new URLClassLoader(new URL[] { new URL(archiveUrl) });
+    return new ClassPathProcessApplicationScanner().findResources(classLoader, paResourceRootPath, new URL(archiveUrl + "META-INF/processes.xml"));
+  }
+
+}
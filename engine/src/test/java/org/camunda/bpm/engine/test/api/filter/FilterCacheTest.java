@@ -0,0 +1,204 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.filter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.exception.NullValueException;
+import org.camunda.bpm.engine.filter.Filter;
+import org.camunda.bpm.engine.impl.filter.FilterCache;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.FilterEntity;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.task.TaskQuery;
+
+/**
+ * Tests the execution of filters which are cached with their parsed queries.
+ */
+public class FilterCacheTest extends ResourceProcessEngineTestCase {
+
+  protected FilterCache filterCache;
+
+  public FilterCacheTest() {
+    super("org/camunda/bpm/engine/test/api/filter/FilterCacheTest.camunda.cfg.xml");
+  }
+
+  public void setUp() {
+    filterCache = processEngineConfiguration.getFilterCache();
+    createTask("task1", "kermit");
+    createTask("task2", "kermit");
+    createTask("task3", "gonzo");
+  }
+
+  public void tearDown() {
+    identityService.clearAuthentication();
+    for (Filter filter : filterService.createTaskFilterQuery().list()) {
+      filterService.deleteFilter(filter.getId());
+    }
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.deleteTask(task.getId(), true);
+    }
+    filterCache.clear();
+  }
+
+  public void testExecuteCachedFilter() {
+    String filterId = createFilter(taskService.createTaskQuery().taskAssignee("kermit"));
+
+    assertEquals(2, filterService.count(filterId).longValue());
+    assertEquals(1, filterCache.size());
+
+    assertEquals(2, filterService.count(filterId).longValue());
+    assertEquals(2, filterService.list(filterId).size());
+    assertEquals(1, filterCache.size());
+  }
+
+  public void testExecuteCachedFilterWithExpression() {
+    String filterId = createFilter(taskService.createTaskQuery().taskAssigneeExpression("${currentUser()}"));
+
+    identityService.setAuthenticatedUserId("kermit");
+    assertEquals(2, filterService.count(filterId).longValue());
+
+    // the expression of the cached query is evaluated again
+    identityService.setAuthenticatedUserId("gonzo");
+    List<Task> tasks = filterService.list(filterId);
+    assertEquals(1, tasks.size());
+    assertEquals("gonzo", tasks.get(0).getAssignee());
+  }
+
+  public void testExecuteCachedFilterWithOrdering() {
+    String filterId = createFilter(taskService.createTaskQuery().orderByTaskName().asc());
+
+    assertTaskNames(filterService.<Task>list(filterId), "task1", "task2", "task3");
+
+    // the ordering of the extending query is not added to the cached query
+    TaskQuery extendingQuery = taskService.createTaskQuery().orderByTaskAssignee().desc();
+    assertEquals(3, filterService.list(filterId, extendingQuery).size());
+
+    assertTaskNames(filterService.<Task>list(filterId), "task1", "task2", "task3");
+    assertTaskNames(filterService.<Task>listPage(filterId, 1, 2), "task2", "task3");
+  }
+
+  public void testCachedFilterIsRemovedOnSave() {
+    String filterId = createFilter(taskService.createTaskQuery().taskAssignee("kermit"));
+    assertEquals(2, filterService.count(filterId).longValue());
+
+    Filter filter = filterService.getFilter(filterId);
+    filter.setQuery(taskService.createTaskQuery().taskAssignee("gonzo"));
+    filterService.saveFilter(filter);
+
+    assertEquals(0, filterCache.size());
+    assertEquals(1, filterService.count(filterId).longValue());
+  }
+
+  public void testCachedFilterIsRemovedOnDelete() {
+    String filterId = createFilter(taskService.createTaskQuery());
+    assertEquals(3, filterService.count(filterId).longValue());
+
+    filterService.deleteFilter(filterId);
+    assertEquals(0, filterCache.size());
+
+    try {
+      filterService.count(filterId);
+      fail("exception expected");
+    } catch (NullValueException e) {
+      // expected
+    }
+  }
+
+  public void testFilterChangedByOtherProcessEngineIsSelectedAgain() {
+    final String filterId = createFilter(taskService.createTaskQuery().taskAssignee("kermit"));
+    assertEquals(2, filterService.count(filterId).longValue());
+    assertEquals(1, filterCache.size());
+
+    // another process engine changes the filter without removing it from this cache
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        FilterEntity filter = commandContext.getDbEntityManager().selectById(FilterEntity.class, filterId);
+        filter.setQuery(taskService.createTaskQuery().taskAssignee("gonzo"));
+        return null;
+      }
+    });
+    assertEquals(1, filterCache.size());
+
+    assertEquals(1, filterService.count(filterId).longValue());
+  }
+
+  public void testFilterDeletedByOtherProcessEngineIsNotExecuted() {
+    final String filterId = createFilter(taskService.createTaskQuery());
+    assertEquals(3, filterService.count(filterId).longValue());
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getDbEntityManager().delete(commandContext.getDbEntityManager().selectById(FilterEntity.class, filterId));
+        return null;
+      }
+    });
+
+    try {
+      filterService.count(filterId);
+      fail("exception expected");
+    } catch (NullValueException e) {
+      // expected
+    }
+    assertEquals(0, filterCache.size());
+  }
+
+  public void testCountFilters() {
+    String allTasksFilterId = createFilter(taskService.createTaskQuery());
+    String kermitFilterId = createFilter(taskService.createTaskQuery().taskAssignee("kermit"));
+    String gonzoFilterId = createFilter(taskService.createTaskQuery().taskAssignee("gonzo"));
+
+    Map<String, Long> counts = filterService.count(Arrays.asList(kermitFilterId, gonzoFilterId, allTasksFilterId));
+
+    assertEquals(Arrays.asList(kermitFilterId, gonzoFilterId, allTasksFilterId), Arrays.asList(counts.keySet().toArray()));
+    assertEquals(2, counts.get(kermitFilterId).longValue());
+    assertEquals(1, counts.get(gonzoFilterId).longValue());
+    assertEquals(3, counts.get(allTasksFilterId).longValue());
+  }
+
+  public void testCountNonExistingFilter() {
+    String filterId = createFilter(taskService.createTaskQuery());
+
+    try {
+      filterService.count(Arrays.asList(filterId, "nonExisting"));
+      fail("exception expected");
+    } catch (NullValueException e) {
+      // expected
+    }
+  }
+
+  protected String createFilter(TaskQuery query) {
+    Filter filter = filterService.newTaskFilter("filter").setQuery(query);
+    filterService.saveFilter(filter);
+    return filter.getId();
+  }
+
+  protected void createTask(String name, String assignee) {
+    Task task = taskService.newTask();
+    task.setName(name);
+    task.setAssignee(assignee);
+    taskService.saveTask(task);
+  }
+
+  protected void assertTaskNames(List<Task> tasks, String... names) {
+    assertEquals(names.length, tasks.size());
+    for (int i = 0; i < names.length; i++) {
+      assertEquals(names[i], tasks.get(i).getName());
+    }
+  }
+
+}
@@ -0,0 +1,222 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cmd.RebuildRuntimeStatisticsCountersCmd;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.management.ActivityStatistics;
+import org.camunda.bpm.engine.management.IncidentStatistics;
+import org.camunda.bpm.engine.management.ProcessDefinitionStatistics;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+
+/**
+ * Statistics queries answered from the incrementally maintained runtime statistics counters.
+ */
+public class RuntimeStatisticsCountersTest extends PluggableProcessEngineTestCase {
+
+  protected static final String FAILED_JOBS_PROCESS = "org/camunda/bpm/engine/test/api/mgmt/StatisticsTest.testStatisticsQueryWithFailedJobs.bpmn20.xml";
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(false);
+    super.tearDown();
+  }
+
+  @Deployment(resources = FAILED_JOBS_PROCESS)
+  public void testProcessDefinitionStatisticsWithFailedJobsAndIncidents() {
+    startInstances();
+
+    List<ProcessDefinitionStatistics> statistics = managementService
+        .createProcessDefinitionStatisticsQuery()
+        .includeFailedJobs()
+        .includeIncidents()
+        .list();
+
+    assertEquals(1, statistics.size());
+
+    ProcessDefinitionStatistics definitionResult = statistics.get(0);
+    assertEquals(2, definitionResult.getInstances());
+    assertEquals(1, definitionResult.getFailedJobs());
+
+    List<IncidentStatistics> incidentStatistics = definitionResult.getIncidentStatistics();
+    assertEquals(1, incidentStatistics.size());
+    assertEquals("failedJob", incidentStatistics.get(0).getIncidentType());
+    assertEquals(1, incidentStatistics.get(0).getIncidentCount());
+
+    assertEquals(1, managementService.createProcessDefinitionStatisticsQuery().count());
+  }
+
+  @Deployment(resources = FAILED_JOBS_PROCESS)
+  public void testActivityStatisticsWithFailedJobsAndIncidents() {
+    startInstances();
+
+    ProcessDefinition definition = repositoryService.createProcessDefinitionQuery().singleResult();
+
+    List<ActivityStatistics> statistics = managementService
+        .createActivityStatisticsQuery(definition.getId())
+        .includeFailedJobs()
+        .includeIncidents()
+        .list();
+
+    assertEquals(2, statistics.size());
+
+    for (ActivityStatistics activityResult : statistics) {
+      if ("theServiceTask".equals(activityResult.getId())) {
+        assertEquals(1, activityResult.getInstances());
+        assertEquals(1, activityResult.getFailedJobs());
+        assertEquals(1, activityResult.getIncidentStatistics().size());
+        assertEquals(1, activityResult.getIncidentStatistics().get(0).getIncidentCount());
+
+      } else if ("theUserTask".equals(activityResult.getId())) {
+        assertEquals(1, activityResult.getInstances());
+        assertEquals(0, activityResult.getFailedJobs());
+        assertTrue(activityResult.getIncidentStatistics().isEmpty());
+
+      } else {
+        fail("Unexpected activity " + activityResult.getId());
+      }
+    }
+  }
+
+  @Deployment(resources = FAILED_JOBS_PROCESS)
+  public void testCountersFollowCompletion() {
+    runtimeService.startProcessInstanceByKey("ExampleProcess");
+    executeAvailableJobs();
+
+    ProcessDefinitionStatistics definitionResult = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+    assertEquals(1, definitionResult.getInstances());
+
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+
+    definitionResult = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+    assertEquals(0, definitionResult.getInstances());
+
+    ProcessDefinition definition = repositoryService.createProcessDefinitionQuery().singleResult();
+    assertEquals(0, managementService.createActivityStatisticsQuery(definition.getId()).count());
+  }
+
+  @Deployment(resources = FAILED_JOBS_PROCESS)
+  public void testRebuildCounters() {
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(false);
+    startInstances();
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(true);
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new RebuildRuntimeStatisticsCountersCmd());
+
+    ProcessDefinitionStatistics definitionResult = managementService
+        .createProcessDefinitionStatisticsQuery()
+        .includeFailedJobs()
+        .singleResult();
+
+    assertEquals(2, definitionResult.getInstances());
+    assertEquals(1, definitionResult.getFailedJobs());
+  }
+
+  @Deployment(resources = FAILED_JOBS_PROCESS)
+  public void testDecrementCreatesMissingStripe() {
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(false);
+    for (int i = 0; i < 10; i++) {
+      runtimeService.startProcessInstanceByKey("ExampleProcess");
+    }
+    executeAvailableJobs();
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(true);
+
+    // the rebuilt values are stored in the first stripe only
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new RebuildRuntimeStatisticsCountersCmd());
+
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+
+    ProcessDefinitionStatistics definitionResult = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+    assertEquals(0, definitionResult.getInstances());
+  }
+
+  public void testCountersAreRemovedWithDeployment() {
+    String deploymentId = repositoryService.createDeployment()
+      .addClasspathResource(FAILED_JOBS_PROCESS)
+      .deploy()
+      .getId();
+
+    startInstances();
+
+    repositoryService.deleteDeployment(deploymentId, true);
+
+    assertEquals(Long.valueOf(0), managementService.getTableCount().get("ACT_RU_STATS_COUNTER"));
+  }
+
+  @Deployment
+  public void testParallelJoin() {
+    runtimeService.startProcessInstanceByKey("parallelJoin");
+    String processInstanceId = runtimeService.startProcessInstanceByKey("parallelJoin").getId();
+
+    // the join forces an update of the concurrent root
+    for (Task task : taskService.createTaskQuery().processInstanceId(processInstanceId).list()) {
+      taskService.complete(task.getId());
+    }
+
+    assertCountersMatchFullCount();
+
+    ProcessDefinitionStatistics definitionResult = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+    assertEquals(2, definitionResult.getInstances());
+  }
+
+  protected void assertCountersMatchFullCount() {
+    ProcessDefinition definition = repositoryService.createProcessDefinitionQuery().singleResult();
+
+    ProcessDefinitionStatistics countedDefinition = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+    Map<String, Integer> countedActivities = getActivityInstances(definition.getId());
+
+    processEngineConfiguration.setRuntimeStatisticsCountersEnabled(false);
+    try {
+      ProcessDefinitionStatistics scannedDefinition = managementService.createProcessDefinitionStatisticsQuery().singleResult();
+      assertEquals(scannedDefinition.getInstances(), countedDefinition.getInstances());
+      assertEquals(getActivityInstances(definition.getId()), countedActivities);
+
+    } finally {
+      processEngineConfiguration.setRuntimeStatisticsCountersEnabled(true);
+    }
+  }
+
+  protected Map<String, Integer> getActivityInstances(String processDefinitionId) {
+    Map<String, Integer> activityInstances = new HashMap<String, Integer>();
+    for (ActivityStatistics activityResult : managementService.createActivityStatisticsQuery(processDefinitionId).list()) {
+      activityInstances.put(activityResult.getId(), activityResult.getInstances());
+    }
+    return activityInstances;
+  }
+
+  protected void startInstances() {
+    runtimeService.startProcessInstanceByKey("ExampleProcess");
+
+    Map<String, Object> parameters = Collections.<String, Object>singletonMap("fail", true);
+    runtimeService.startProcessInstanceByKey("ExampleProcess", parameters);
+
+    executeAvailableJobs();
+  }
+
+}
@@ -0,0 +1,158 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+/**
+ * Tests setting many variables at once, which writes them with a single
+ * call to the variable store and inserts them with multi-row statements.
+ */
+public class BulkSetVariablesTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml";
+
+  protected static final int VARIABLE_COUNT = 2000;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setBulkInsertEnabled(true);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setBulkInsertEnabled(false);
+    super.tearDown();
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetManyVariables() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("oneTaskProcess").getId();
+
+    runtimeService.setVariables(processInstanceId, createVariables(0, VARIABLE_COUNT));
+
+    assertVariables(processInstanceId, VARIABLE_COUNT);
+    assertHistoricVariables(processInstanceId, VARIABLE_COUNT, VARIABLE_COUNT);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetManyVariablesWithoutBulkInsert() {
+    processEngineConfiguration.setBulkInsertEnabled(false);
+    String processInstanceId = runtimeService.startProcessInstanceByKey("oneTaskProcess").getId();
+
+    runtimeService.setVariables(processInstanceId, createVariables(0, VARIABLE_COUNT));
+
+    assertVariables(processInstanceId, VARIABLE_COUNT);
+    assertHistoricVariables(processInstanceId, VARIABLE_COUNT, VARIABLE_COUNT);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testStartProcessInstanceWithManyVariables() {
+    String processInstanceId = runtimeService
+        .startProcessInstanceByKey("oneTaskProcess", createVariables(0, VARIABLE_COUNT))
+        .getId();
+
+    assertVariables(processInstanceId, VARIABLE_COUNT);
+    assertHistoricVariables(processInstanceId, VARIABLE_COUNT, VARIABLE_COUNT);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testUpdateAndCreateVariables() {
+    String processInstanceId = runtimeService
+        .startProcessInstanceByKey("oneTaskProcess", createVariables(0, 100))
+        .getId();
+
+    // updates the first 100 variables and creates 100 new ones
+    Map<String, Object> variables = createVariables(0, 200);
+    for (String variableName : variables.keySet()) {
+      variables.put(variableName, "updated");
+    }
+    runtimeService.setVariables(processInstanceId, variables);
+
+    assertEquals(200, runtimeService.createVariableInstanceQuery().processInstanceIdIn(processInstanceId).count());
+    for (VariableInstance variableInstance : runtimeService.createVariableInstanceQuery().processInstanceIdIn(processInstanceId).list()) {
+      assertEquals("updated", variableInstance.getValue());
+    }
+    assertHistoricVariables(processInstanceId, 200, 300);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetTaskVariables() {
+    String processInstanceId = runtimeService
+        .startProcessInstanceByKey("oneTaskProcess", createVariables(0, 100))
+        .getId();
+    Task task = taskService.createTaskQuery().processInstanceId(processInstanceId).singleResult();
+
+    taskService.setVariablesLocal(task.getId(), createVariables(100, 200));
+    // task variables are updated in the task, all others are updated or created in the process instance
+    taskService.setVariables(task.getId(), createVariables(50, 300));
+
+    assertEquals(100, runtimeService.createVariableInstanceQuery().taskIdIn(task.getId()).count());
+    assertEquals(300, runtimeService.createVariableInstanceQuery().processInstanceIdIn(processInstanceId).count());
+
+    assertEquals("value75", runtimeService.getVariableLocal(processInstanceId, "var75"));
+    assertEquals("value150", taskService.getVariableLocal(task.getId(), "var150"));
+    assertNull(runtimeService.getVariableLocal(processInstanceId, "var150"));
+    assertEquals("value250", runtimeService.getVariableLocal(processInstanceId, "var250"));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetTypedVariables() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("oneTaskProcess").getId();
+
+    runtimeService.setVariables(processInstanceId, Variables.createVariables()
+        .putValueTyped("string", Variables.stringValue("value"))
+        .putValueTyped("integer", Variables.integerValue(42))
+        .putValueTyped("null", Variables.stringValue(null))
+        .putValue("untyped", 42L));
+
+    assertEquals("string", runtimeService.createVariableInstanceQuery().variableName("string").singleResult().getTypeName());
+    assertEquals("integer", runtimeService.createVariableInstanceQuery().variableName("integer").singleResult().getTypeName());
+    assertEquals("string", runtimeService.createVariableInstanceQuery().variableName("null").singleResult().getTypeName());
+    assertEquals("long", runtimeService.createVariableInstanceQuery().variableName("untyped").singleResult().getTypeName());
+  }
+
+  protected Map<String, Object> createVariables(int from, int to) {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    for (int i = from; i < to; i++) {
+      variables.put("var" + i, "value" + i);
+    }
+    return variables;
+  }
+
+  protected void assertVariables(String processInstanceId, int count) {
+    assertEquals(count, runtimeService.createVariableInstanceQuery().processInstanceIdIn(processInstanceId).count());
+
+    Map<String, Object> variables = runtimeService.getVariables(processInstanceId);
+    for (int i = 0; i < count; i++) {
+      assertEquals("value" + i, variables.get("var" + i));
+    }
+  }
+
+  protected void assertHistoricVariables(String processInstanceId, int instanceCount, int detailCount) {
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      assertEquals(instanceCount, historyService.createHistoricVariableInstanceQuery().processInstanceId(processInstanceId).count());
+    }
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      assertEquals(detailCount, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).variableUpdates().count());
+    }
+  }
+
+}
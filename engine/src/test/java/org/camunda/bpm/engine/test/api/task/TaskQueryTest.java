@@ -50,6 +50,8 @@ import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.query.QueryResultHandler;
+import org.camunda.bpm.engine.query.StreamableQuery;
 import org.camunda.bpm.engine.repository.CaseDefinition;
 import org.camunda.bpm.engine.runtime.CaseExecution;
 import org.camunda.bpm.engine.runtime.CaseInstance;
@@ -1499,6 +1501,212 @@ public class TaskQueryTest extends PluggableProcessEngineTestCase {
     assertEquals(10, query.listPage(0, 15).size()); // there are only 10 tasks
   }
 
+  public void testQueryForEach() {
+    List<Task> expectedTasks = taskService.createTaskQuery()
+        .orderByTaskPriority().desc()
+        .orderByTaskId().asc()
+        .list();
+    assertEquals(12, expectedTasks.size());
+
+    final List<Task> streamedTasks = new ArrayList<Task>();
+    TaskQuery query = taskService.createTaskQuery()
+        .orderByTaskPriority().desc()
+        .orderByTaskId().asc();
+    ((StreamableQuery<Task>) query)
+        .forEach(new QueryResultHandler<Task>() {
+          public void handleResult(Task task) {
+            streamedTasks.add(task);
+          }
+        });
+
+    assertEquals(expectedTasks.size(), streamedTasks.size());
+    for (int i = 0; i < expectedTasks.size(); i++) {
+      assertEquals(expectedTasks.get(i).getId(), streamedTasks.get(i).getId());
+    }
+  }
+
+  public void testQueryForEachPage() {
+    List<Task> expectedTasks = taskService.createTaskQuery()
+        .orderByTaskId().asc()
+        .listPage(3, 5);
+    assertEquals(5, expectedTasks.size());
+
+    final List<Task> streamedTasks = new ArrayList<Task>();
+    TaskQuery query = taskService.createTaskQuery()
+        .orderByTaskId().asc();
+    ((StreamableQuery<Task>) query)
+        .forEachPage(3, 5, new QueryResultHandler<Task>() {
+          public void handleResult(Task task) {
+            streamedTasks.add(task);
+          }
+        });
+
+    assertEquals(expectedTasks.size(), streamedTasks.size());
+    for (int i = 0; i < expectedTasks.size(); i++) {
+      assertEquals(expectedTasks.get(i).getId(), streamedTasks.get(i).getId());
+    }
+  }
+
+  public void testQueryForEachInitializesResultsInPages() {
+    int fetchSize = processEngineConfiguration.getQueryStreamingFetchSize();
+    processEngineConfiguration.setQueryStreamingFetchSize(5);
+
+    try {
+      List<Task> expectedTasks = taskService.createTaskQuery()
+          .orderByTaskId().asc()
+          .list();
+      assertEquals(12, expectedTasks.size());
+
+      // the form keys are initialized after each page was read
+      TaskQuery query = taskService.createTaskQuery()
+          .orderByTaskId().asc()
+          .initializeFormKeys();
+
+      final List<Task> streamedTasks = new ArrayList<Task>();
+      ((StreamableQuery<Task>) query).forEachPage(1, 10, new QueryResultHandler<Task>() {
+        public void handleResult(Task task) {
+          streamedTasks.add(task);
+        }
+      });
+
+      assertEquals(10, streamedTasks.size());
+      for (int i = 0; i < streamedTasks.size(); i++) {
+        assertEquals(expectedTasks.get(i + 1).getId(), streamedTasks.get(i).getId());
+      }
+    }
+    finally {
+      processEngineConfiguration.setQueryStreamingFetchSize(fetchSize);
+    }
+  }
+
+  public void testQueryForEachWithoutHandler() {
+    try {
+      ((StreamableQuery<Task>) taskService.createTaskQuery()).forEach(null);
+      fail();
+    } catch (NullValueException e) {
+      // expected
+    }
+  }
+
+  public void testQueryPagingByCursor() {
+    List<Task> expectedTasks = taskService.createTaskQuery()
+        .orderByTaskPriority().desc()
+        .orderByTaskId().asc()
+        .list();
+    assertEquals(12, expectedTasks.size());
+
+    List<Task> pagedTasks = new ArrayList<Task>();
+    List<Task> page = taskService.createTaskQuery()
+        .orderByTaskPriority().desc()
+        .orderByTaskId().asc()
+        .listPage(0, 5);
+
+    while (!page.isEmpty()) {
+      pagedTasks.addAll(page);
+      Task last = page.get(page.size() - 1);
+      page = taskService.createTaskQuery()
+          .orderByTaskPriority().desc()
+          .orderByTaskId().asc()
+          .afterCursor(last.getPriority(), last.getId())
+          .listPage(0, 5);
+    }
+
+    assertEquals(expectedTasks.size(), pagedTasks.size());
+    for (int i = 0; i < expectedTasks.size(); i++) {
+      assertEquals(expectedTasks.get(i).getId(), pagedTasks.get(i).getId());
+    }
+  }
+
+  public void testQueryPagingByCursorWithDefaultOrdering() {
+    List<Task> tasks = taskService.createTaskQuery().list();
+
+    List<Task> remainingTasks = taskService.createTaskQuery().afterCursor(tasks.get(3).getId()).list();
+    assertEquals(8, remainingTasks.size());
+    assertEquals(tasks.get(4).getId(), remainingTasks.get(0).getId());
+
+    assertEquals(8, taskService.createTaskQuery().afterCursor(tasks.get(3).getId()).count());
+  }
+
+  public void testQueryPagingByCursorWithNullSortValues() {
+    // only some of the tasks have a due date
+    Calendar dueDate = Calendar.getInstance();
+    for (int i = 0; i < 12; i += 3) {
+      Task task = taskService.createTaskQuery().taskId(taskIds.get(i)).singleResult();
+      dueDate.add(Calendar.DAY_OF_YEAR, 1);
+      task.setDueDate(dueDate.getTime());
+      taskService.saveTask(task);
+    }
+
+    assertPagingByDueDate(taskService.createTaskQuery().orderByDueDate().asc().orderByTaskId().asc());
+    assertPagingByDueDate(taskService.createTaskQuery().orderByDueDate().desc().orderByTaskId().asc());
+    assertPagingByDueDate(taskService.createTaskQuery().orderByDueDate().asc().orderByTaskId().desc());
+  }
+
+  protected void assertPagingByDueDate(TaskQuery query) {
+    List<Task> expectedTasks = query.list();
+    assertEquals(12, expectedTasks.size());
+
+    List<Task> pagedTasks = new ArrayList<Task>();
+    List<Task> page = query.listPage(0, 2);
+
+    while (!page.isEmpty()) {
+      pagedTasks.addAll(page);
+      Task last = page.get(page.size() - 1);
+      page = query.afterCursor(last.getDueDate(), last.getId()).listPage(0, 2);
+    }
+
+    assertEquals(expectedTasks.size(), pagedTasks.size());
+    for (int i = 0; i < expectedTasks.size(); i++) {
+      assertEquals(expectedTasks.get(i).getId(), pagedTasks.get(i).getId());
+    }
+  }
+
+  public void testQueryPagingByCursorAfterDeletedTask() {
+    List<Task> tasks = taskService.createTaskQuery().list();
+    String cursor = tasks.get(3).getId();
+
+    taskService.deleteTask(cursor, true);
+    taskIds.remove(cursor);
+
+    // the cursor does not have to refer to an existing task
+    List<Task> remainingTasks = taskService.createTaskQuery().afterCursor(cursor).list();
+    assertEquals(8, remainingTasks.size());
+    assertEquals(tasks.get(4).getId(), remainingTasks.get(0).getId());
+  }
+
+  public void testQueryPagingByCursorRequiresOrderingById() {
+    String cursor = taskService.createTaskQuery().list().get(0).getId();
+
+    try {
+      taskService.createTaskQuery().orderByTaskName().asc().afterCursor(cursor).list();
+      fail("expected exception");
+    } catch (BadUserRequestException e) {
+      // expected
+    }
+
+    try {
+      // a sort key value is required for each ordering property
+      taskService.createTaskQuery().orderByTaskPriority().desc().orderByTaskId().asc().afterCursor(cursor).list();
+      fail("expected exception");
+    } catch (BadUserRequestException e) {
+      // expected
+    }
+
+    try {
+      taskService.createTaskQuery().afterCursor((Object[]) null);
+      fail("expected exception");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+
+    try {
+      taskService.createTaskQuery().afterCursor(3, null);
+      fail("expected exception");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
   public void testQuerySorting() {
     // default ordering is by id
     int expectedCount = 12;
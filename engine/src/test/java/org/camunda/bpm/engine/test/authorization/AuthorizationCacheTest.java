@@ -0,0 +1,213 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.authorization;
+
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GRANT;
+import static org.camunda.bpm.engine.authorization.Permissions.READ;
+import static org.camunda.bpm.engine.authorization.Resources.PROCESS_DEFINITION;
+import static org.camunda.bpm.engine.authorization.Resources.TASK;
+
+import java.util.Arrays;
+
+import org.camunda.bpm.engine.authorization.Authorization;
+import org.camunda.bpm.engine.impl.db.AuthorizationCache;
+import org.camunda.bpm.engine.impl.db.PermissionCheck;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+
+/**
+ * Tests the cache of authorization check results, which is enabled by
+ * <code>authorizationCacheEnabled</code>.
+ */
+public class AuthorizationCacheTest extends AuthorizationTest {
+
+  protected static final String PROCESS_KEY = "oneTaskProcess";
+
+  protected AuthorizationCache authorizationCache;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    authorizationCache = new AuthorizationCache(10);
+    processEngineConfiguration
+      .setAuthorizationCacheEnabled(true)
+      .setAuthorizationCache(authorizationCache);
+  }
+
+  public void tearDown() {
+    super.tearDown();
+
+    processEngineConfiguration
+      .setAuthorizationCacheEnabled(false)
+      .setAuthorizationCache(null);
+  }
+
+  public void testCheckResultIsCached() {
+    assertFalse(isAuthorizedToReadProcessDefinition());
+    assertEquals(1, authorizationCache.size());
+
+    assertFalse(isAuthorizedToReadProcessDefinition());
+    assertEquals(1, authorizationCache.size());
+
+    // another group is another cache entry
+    assertFalse(authorizationService.isUserAuthorized(userId, Arrays.asList("sales"), READ, PROCESS_DEFINITION, PROCESS_KEY));
+    assertEquals(2, authorizationCache.size());
+  }
+
+  public void testCacheIsInvalidatedByNewAuthorization() {
+    int revision = getAuthorizationRevision();
+    assertFalse(isAuthorizedToReadProcessDefinition());
+
+    createGrantAuthorization(PROCESS_DEFINITION, PROCESS_KEY, userId, READ);
+
+    assertEquals(revision + 1, getAuthorizationRevision());
+    assertTrue(isAuthorizedToReadProcessDefinition());
+    assertEquals(1, authorizationCache.size());
+  }
+
+  public void testCacheIsInvalidatedByUpdatedAuthorization() {
+    createGrantAuthorization(PROCESS_DEFINITION, PROCESS_KEY, userId, READ);
+    assertTrue(isAuthorizedToReadProcessDefinition());
+
+    Authorization authorization = authorizationService.createAuthorizationQuery()
+      .resourceType(PROCESS_DEFINITION)
+      .resourceId(PROCESS_KEY)
+      .singleResult();
+    authorization.removePermission(READ);
+    saveAuthorization(authorization);
+
+    assertFalse(isAuthorizedToReadProcessDefinition());
+  }
+
+  public void testCacheIsInvalidatedByDeletedAuthorization() {
+    createGrantAuthorization(PROCESS_DEFINITION, PROCESS_KEY, userId, READ);
+    assertTrue(isAuthorizedToReadProcessDefinition());
+
+    Authorization authorization = authorizationService.createAuthorizationQuery()
+      .resourceType(PROCESS_DEFINITION)
+      .resourceId(PROCESS_KEY)
+      .singleResult();
+    authorizationService.deleteAuthorization(authorization.getId());
+
+    assertFalse(isAuthorizedToReadProcessDefinition());
+  }
+
+  public void testCacheIsNotInvalidatedIfNoAuthorizationIsDeleted() {
+    int revision = getAuthorizationRevision();
+    assertFalse(isAuthorizedToReadProcessDefinition());
+
+    // there are no authorizations for the resource
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getAuthorizationManager().deleteAuthorizationsByResourceId(PROCESS_DEFINITION, "unknownProcess");
+        return null;
+      }
+    });
+
+    assertEquals(revision, getAuthorizationRevision());
+    assertFalse(isAuthorizedToReadProcessDefinition());
+    assertEquals(1, authorizationCache.size());
+  }
+
+  public void testCacheIsNotInvalidatedByTaskAuthorizations() {
+    createTask("myTask");
+    int revision = getAuthorizationRevision();
+    assertFalse(isAuthorizedToReadProcessDefinition());
+
+    // the assignment creates an authorization for the assignee
+    identityService.clearAuthentication();
+    taskService.setAssignee("myTask", userId);
+    assertEquals(1, authorizationService.createAuthorizationQuery().resourceType(TASK).resourceId("myTask").count());
+    identityService.setAuthentication(userId, Arrays.asList(groupId));
+
+    assertEquals(revision, getAuthorizationRevision());
+    assertEquals(1, authorizationCache.size());
+
+    // checks on tasks are not cached, since their authorizations do not increment the revision
+    assertTrue(authorizationService.isUserAuthorized(userId, Arrays.asList(groupId), READ, TASK, "myTask"));
+    assertEquals(1, authorizationCache.size());
+
+    deleteTask("myTask", true);
+  }
+
+  public void testCacheIsInvalidatedByChangeOfOtherProcessEngine() {
+    assertFalse(isAuthorizedToReadProcessDefinition());
+
+    // another process engine of the cluster inserts an authorization and increments the revision
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        AuthorizationEntity authorization = new AuthorizationEntity(AUTH_TYPE_GRANT);
+        authorization.setUserId(userId);
+        authorization.setResource(PROCESS_DEFINITION);
+        authorization.setResourceId(PROCESS_KEY);
+        authorization.addPermission(READ);
+        commandContext.getDbEntityManager().insert(authorization);
+        commandContext.getDbEntityManager().update(PropertyEntity.class, "incrementPropertyRevision",
+            AuthorizationManager.AUTHORIZATION_REVISION_PROPERTY);
+        return null;
+      }
+    });
+
+    assertTrue(isAuthorizedToReadProcessDefinition());
+  }
+
+  public void testCheckResultIsNotCachedWithoutRevision() {
+    managementService.deleteProperty(AuthorizationManager.AUTHORIZATION_REVISION_PROPERTY);
+
+    assertFalse(isAuthorizedToReadProcessDefinition());
+    assertEquals(0, authorizationCache.size());
+
+    managementService.setProperty(AuthorizationManager.AUTHORIZATION_REVISION_PROPERTY, "0");
+  }
+
+  public void testCacheKey() {
+    String key = AuthorizationCache.createKey(userId, Arrays.asList("b", "a"), Arrays.asList(createPermissionCheck(PROCESS_KEY)));
+
+    assertEquals(key, AuthorizationCache.createKey(userId, Arrays.asList("a", "b"), Arrays.asList(createPermissionCheck(PROCESS_KEY))));
+    assertFalse(key.equals(AuthorizationCache.createKey(userId, Arrays.asList("a"), Arrays.asList(createPermissionCheck(PROCESS_KEY)))));
+    assertFalse(key.equals(AuthorizationCache.createKey(userId, Arrays.asList("a", "b"), Arrays.asList(createPermissionCheck("other")))));
+
+    // checks against the resources of a query are not cached
+    PermissionCheck queryCheck = createPermissionCheck(null);
+    queryCheck.setResourceIdQueryParam("RES.KEY_");
+    assertNull(AuthorizationCache.createKey(userId, Arrays.asList("a", "b"), Arrays.asList(queryCheck)));
+  }
+
+  // helper ////////////////////////////////////////////////////////////
+
+  protected boolean isAuthorizedToReadProcessDefinition() {
+    return authorizationService.isUserAuthorized(userId, Arrays.asList(groupId), READ, PROCESS_DEFINITION, PROCESS_KEY);
+  }
+
+  protected PermissionCheck createPermissionCheck(String resourceId) {
+    PermissionCheck permissionCheck = new PermissionCheck();
+    permissionCheck.setPermission(READ);
+    permissionCheck.setResource(PROCESS_DEFINITION);
+    permissionCheck.setResourceId(resourceId);
+    return permissionCheck;
+  }
+
+  protected int getAuthorizationRevision() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Integer>() {
+      public Integer execute(CommandContext commandContext) {
+        return commandContext.getPropertyManager()
+          .findPropertyById(AuthorizationManager.AUTHORIZATION_REVISION_PROPERTY)
+          .getRevision();
+      }
+    });
+  }
+
+}
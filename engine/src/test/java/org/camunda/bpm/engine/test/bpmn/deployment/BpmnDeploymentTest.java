@@ -17,16 +17,21 @@ import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.impl.RepositoryServiceImpl;
+import org.camunda.bpm.engine.impl.bpmn.deployer.BpmnDeployer;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.impl.pvm.ReadOnlyProcessDefinition;
 import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
+import org.camunda.bpm.engine.impl.util.xml.Element;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.repository.Resource;
 import org.camunda.bpm.engine.test.Deployment;
@@ -35,7 +40,13 @@ import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
@@ -346,6 +357,102 @@ public class BpmnDeploymentTest extends PluggableProcessEngineTestCase {
     }
   }
 
+  public void testDeployResourcesInParallel() {
+    BpmnDeployer bpmnDeployer = getBpmnDeployer();
+    ExecutorService parseExecutor = Executors.newFixedThreadPool(2);
+    bpmnDeployer.setParseExecutor(parseExecutor);
+
+    try {
+      String deploymentId = repositoryService.createDeployment()
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testGetBpmnXmlFileThroughService.bpmn20.xml")
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testProcessDiagramResource.bpmn20.xml")
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testProcessDefinitionDescription.bpmn20.xml")
+        .deploy()
+        .getId();
+
+      assertEquals(3, repositoryService.createProcessDefinitionQuery().deploymentId(deploymentId).count());
+
+      repositoryService.deleteDeployment(deploymentId);
+
+    } finally {
+      bpmnDeployer.setParseExecutor(null);
+      parseExecutor.shutdown();
+    }
+  }
+
+  public void testParallelParseUsesContextClassLoaderOfDeployingThread() {
+    BpmnDeployer bpmnDeployer = getBpmnDeployer();
+    ExecutorService parseExecutor = Executors.newFixedThreadPool(2);
+    bpmnDeployer.setParseExecutor(parseExecutor);
+
+    final List<ClassLoader> parseClassLoaders = Collections.synchronizedList(new ArrayList<ClassLoader>());
+    BpmnParseListener parseListener = new AbstractBpmnParseListener() {
+      public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        parseClassLoaders.add(Thread.currentThread().getContextClassLoader());
+      }
+    };
+    bpmnDeployer.getBpmnParser().getParseListeners().add(parseListener);
+
+    Thread deployingThread = Thread.currentThread();
+    ClassLoader classLoader = deployingThread.getContextClassLoader();
+    ClassLoader deploymentClassLoader = new URLClassLoader(new URL[0], classLoader);
+    deployingThread.setContextClassLoader(deploymentClassLoader);
+
+    try {
+      String deploymentId = repositoryService.createDeployment()
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testGetBpmnXmlFileThroughService.bpmn20.xml")
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testProcessDefinitionDescription.bpmn20.xml")
+        .deploy()
+        .getId();
+
+      assertEquals(2, parseClassLoaders.size());
+      for (ClassLoader parseClassLoader : parseClassLoaders) {
+        assertSame(deploymentClassLoader, parseClassLoader);
+      }
+
+      repositoryService.deleteDeployment(deploymentId);
+
+    } finally {
+      deployingThread.setContextClassLoader(classLoader);
+      bpmnDeployer.getBpmnParser().getParseListeners().remove(parseListener);
+      bpmnDeployer.setParseExecutor(null);
+      parseExecutor.shutdown();
+    }
+  }
+
+  public void testDeployInvalidResourceInParallel() {
+    BpmnDeployer bpmnDeployer = getBpmnDeployer();
+    ExecutorService parseExecutor = Executors.newFixedThreadPool(2);
+    bpmnDeployer.setParseExecutor(parseExecutor);
+
+    try {
+      repositoryService.createDeployment()
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testGetBpmnXmlFileThroughService.bpmn20.xml")
+        .addClasspathResource("org/camunda/bpm/engine/test/bpmn/deployment/BpmnDeploymentTest.testInvalidExpression.bpmn20.xml")
+        .deploy();
+
+      fail("Expected exception when deploying process with invalid expression.");
+
+    } catch (ProcessEngineException expected) {
+      assertEquals(0, repositoryService.createDeploymentQuery().count());
+      assertTrue(expected.getMessage().startsWith("Error while parsing process: "));
+
+    } finally {
+      bpmnDeployer.setParseExecutor(null);
+      parseExecutor.shutdown();
+    }
+  }
+
+  protected BpmnDeployer getBpmnDeployer() {
+    for (Deployer deployer : processEngineConfiguration.getDeploymentCache().getDeployers()) {
+      if (deployer instanceof BpmnDeployer) {
+        return (BpmnDeployer) deployer;
+      }
+    }
+    fail("No bpmn deployer configured");
+    return null;
+  }
+
   /**
    * Just assures that diagram creation actually creates something and does not crash.
    * No qualitative evaluation of created diagram.
@@ -0,0 +1,171 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.bpmn.gateway;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.cmd.SignalCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.Execution;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+
+/**
+ * Tests parallel gateway joins which do not update the concurrent root for every arriving execution.
+ */
+public class ConflictFreeJoinTest extends ResourceProcessEngineTestCase {
+
+  protected static final String FORK_JOIN_PROCESS = "org/camunda/bpm/engine/test/bpmn/gateway/ConflictFreeJoinTest.forkJoin.bpmn20.xml";
+
+  public ConflictFreeJoinTest() {
+    super("org/camunda/bpm/engine/test/bpmn/gateway/ConflictFreeJoinTest.camunda.cfg.xml");
+  }
+
+  @Deployment(resources = FORK_JOIN_PROCESS)
+  public void testJoin() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("forkJoin");
+    int revision = getRevision(processInstance.getId());
+
+    runtimeService.signal(getExecutionId(processInstance.getId(), "wait1"));
+
+    // the first arriving execution does not update the concurrent root
+    assertEquals(revision, getRevision(processInstance.getId()));
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("join").count());
+
+    runtimeService.signal(getExecutionId(processInstance.getId(), "wait2"));
+
+    assertEquals(0, runtimeService.createExecutionQuery().activityId("join").count());
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("afterJoin").count());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/gateway/ParallelGatewayTest.testSplitMergeNoWaitstates.bpmn20.xml")
+  public void testJoinInOneTransaction() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("forkJoinNoWaitStates");
+
+    assertProcessEnded(processInstance.getId());
+  }
+
+  @Deployment(resources = FORK_JOIN_PROCESS)
+  public void testArrivalInOtherTransaction() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("forkJoin");
+    final String execution1Id = getExecutionId(processInstance.getId(), "wait1");
+    final String execution2Id = getExecutionId(processInstance.getId(), "wait2");
+
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          // the executions are cached before the other execution arrives at the join
+          commandContext.getExecutionManager().findExecutionById(execution2Id).getParent().getExecutions();
+
+          processEngineConfiguration.getCommandExecutorTxRequiresNew().execute(new SignalCmd(execution1Id, null, null, null));
+
+          runtimeService.signal(execution2Id);
+          return null;
+        }
+      });
+      fail("expected an optimistic locking exception");
+
+    } catch (OptimisticLockingException e) {
+      assertTextPresent("arrived at the gateway in another transaction", e.getMessage());
+    }
+
+    // the retry knows the arrived execution
+    runtimeService.signal(execution2Id);
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("afterJoin").count());
+  }
+
+  @Deployment(resources = FORK_JOIN_PROCESS)
+  public void testConcurrentArrivals() throws Exception {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("forkJoin");
+    final String execution1Id = getExecutionId(processInstance.getId(), "wait1");
+    final String execution2Id = getExecutionId(processInstance.getId(), "wait2");
+
+    final CountDownLatch firstArrived = new CountDownLatch(1);
+    final CountDownLatch firstMayCommit = new CountDownLatch(1);
+
+    // the first transaction holds the lock of the concurrent root until it commits
+    SignalThread firstThread = new SignalThread(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        new SignalCmd(execution1Id, null, null, null).execute(commandContext);
+        firstArrived.countDown();
+        await(firstMayCommit);
+        return null;
+      }
+    });
+    SignalThread secondThread = new SignalThread(new SignalCmd(execution2Id, null, null, null));
+
+    firstThread.start();
+    await(firstArrived);
+
+    // the second transaction waits for the lock instead of failing
+    secondThread.start();
+    Thread.sleep(100);
+    firstMayCommit.countDown();
+
+    firstThread.join();
+    secondThread.join();
+
+    assertNull(firstThread.exception);
+    assertNull(secondThread.exception);
+    assertEquals(0, runtimeService.createExecutionQuery().activityId("join").count());
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("afterJoin").count());
+  }
+
+  protected class SignalThread extends Thread {
+
+    protected Command<?> command;
+    protected Exception exception;
+
+    public SignalThread(Command<?> command) {
+      this.command = command;
+    }
+
+    public void run() {
+      try {
+        processEngineConfiguration.getCommandExecutorTxRequired().execute(command);
+      } catch (Exception e) {
+        exception = e;
+      }
+    }
+  }
+
+  protected static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("timed out waiting for the other transaction");
+      }
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  protected String getExecutionId(String processInstanceId, String activityId) {
+    Execution execution = runtimeService.createExecutionQuery()
+      .processInstanceId(processInstanceId)
+      .activityId(activityId)
+      .singleResult();
+    return execution.getId();
+  }
+
+  protected int getRevision(String executionId) {
+    ExecutionEntity execution = (ExecutionEntity) runtimeService.createExecutionQuery().executionId(executionId).singleResult();
+    return execution.getRevision();
+  }
+
+}
@@ -0,0 +1,215 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.bpmn.multiinstance;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.Execution;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+
+/**
+ * Tests parallel multi-instance activities whose instances complete without updating the scope execution.
+ */
+public class ConflictFreeMultiInstanceTest extends ResourceProcessEngineTestCase {
+
+  protected static final String RECEIVE_TASKS_PROCESS = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelReceiveTasks.bpmn20.xml";
+
+  public ConflictFreeMultiInstanceTest() {
+    super("org/camunda/bpm/engine/test/bpmn/multiinstance/ConflictFreeMultiInstanceTest.camunda.cfg.xml");
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasksCompletionCondition.bpmn20.xml")
+  public void testCompletionCondition() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("miParallelUserTasksCompletionCondition").getId();
+    List<Task> tasks = taskService.createTaskQuery().list();
+    assertEquals(5, tasks.size());
+
+    String scopeExecutionId = getExecution(tasks.get(0).getExecutionId()).getParentId();
+    int revision = getExecution(scopeExecutionId).getRevision();
+
+    taskService.complete(tasks.get(0).getId());
+
+    // the completed instance does not update the scope execution, but holds the current counters
+    assertEquals(revision, getExecution(scopeExecutionId).getRevision());
+    assertEquals(1, runtimeService.getVariableLocal(tasks.get(0).getExecutionId(), "nrOfCompletedInstances"));
+    assertEquals(4, runtimeService.getVariableLocal(tasks.get(0).getExecutionId(), "nrOfActiveInstances"));
+
+    // completing 3 tasks gives 50% of tasks completed, which triggers the completion condition
+    taskService.complete(tasks.get(1).getId());
+    taskService.complete(tasks.get(2).getId());
+
+    assertProcessEnded(processInstanceId);
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelScriptTasksCompletionCondition.bpmn20.xml")
+  public void testInstancesInOneTransaction() {
+    runtimeService.startProcessInstanceByKey("miParallelScriptTaskCompletionCondition");
+
+    Execution waitStateExecution = runtimeService.createExecutionQuery().singleResult();
+    assertEquals(2, runtimeService.getVariable(waitStateExecution.getId(), "sum"));
+  }
+
+  @Deployment(resources = RECEIVE_TASKS_PROCESS)
+  public void testInstanceCompletedInOtherTransaction() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("miParallelReceiveTasks");
+    List<Execution> executions = runtimeService.createExecutionQuery().activityId("miTasks").list();
+
+    // the receive tasks are scopes below the concurrent executions of the instances
+    String concurrentExecutionId = getExecution(executions.get(1).getId()).getParentId();
+
+    completeWithConcurrentCompletion(executions.get(1).getId(), executions.get(0).getId());
+
+    // the counters include the instance which completed in the other transaction
+    assertEquals(2, runtimeService.getVariableLocal(concurrentExecutionId, "nrOfCompletedInstances"));
+    assertEquals(1, runtimeService.getVariableLocal(concurrentExecutionId, "nrOfActiveInstances"));
+
+    runtimeService.messageEventReceived("message", executions.get(2).getId());
+
+    assertProcessEnded(processInstance.getId());
+  }
+
+  @Deployment(resources = RECEIVE_TASKS_PROCESS)
+  public void testLastInstanceCompletedInOtherTransaction() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("miParallelReceiveTasks");
+    List<Execution> executions = runtimeService.createExecutionQuery().activityId("miTasks").list();
+
+    runtimeService.messageEventReceived("message", executions.get(0).getId());
+
+    try {
+      completeWithConcurrentCompletion(executions.get(2).getId(), executions.get(1).getId());
+      fail("expected an optimistic locking exception");
+
+    } catch (OptimisticLockingException e) {
+      assertTextPresent("Instances completed in another transaction concurrently", e.getMessage());
+    }
+
+    // the retry knows the completed instance
+    runtimeService.messageEventReceived("message", executions.get(2).getId());
+
+    assertProcessEnded(processInstance.getId());
+  }
+
+  @Deployment(resources = RECEIVE_TASKS_PROCESS)
+  public void testConcurrentCompletions() throws Exception {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("miParallelReceiveTasks");
+    List<Execution> executions = runtimeService.createExecutionQuery().activityId("miTasks").list();
+    final String execution1Id = executions.get(0).getId();
+    final String execution2Id = executions.get(1).getId();
+    String concurrentExecution2Id = getExecution(execution2Id).getParentId();
+
+    final CountDownLatch firstCompleted = new CountDownLatch(1);
+    final CountDownLatch firstMayCommit = new CountDownLatch(1);
+
+    // the first transaction holds the lock of the scope execution until it commits
+    CompletionThread firstThread = new CompletionThread(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        runtimeService.messageEventReceived("message", execution1Id);
+        firstCompleted.countDown();
+        await(firstMayCommit);
+        return null;
+      }
+    });
+    CompletionThread secondThread = new CompletionThread(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        runtimeService.messageEventReceived("message", execution2Id);
+        return null;
+      }
+    });
+
+    firstThread.start();
+    await(firstCompleted);
+
+    // the second transaction waits for the lock instead of failing
+    secondThread.start();
+    Thread.sleep(100);
+    firstMayCommit.countDown();
+
+    firstThread.join();
+    secondThread.join();
+
+    assertNull(firstThread.exception);
+    assertNull(secondThread.exception);
+
+    // the second completion counts the first one
+    assertEquals(2, runtimeService.getVariableLocal(concurrentExecution2Id, "nrOfCompletedInstances"));
+
+    runtimeService.messageEventReceived("message", executions.get(2).getId());
+
+    assertProcessEnded(processInstance.getId());
+  }
+
+  protected class CompletionThread extends Thread {
+
+    protected Command<?> command;
+    protected Exception exception;
+
+    public CompletionThread(Command<?> command) {
+      this.command = command;
+    }
+
+    public void run() {
+      try {
+        processEngineConfiguration.getCommandExecutorTxRequired().execute(command);
+      } catch (Exception e) {
+        exception = e;
+      }
+    }
+  }
+
+  protected static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("timed out waiting for the other transaction");
+      }
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Completes the instance of the given execution after the instance of the other execution
+   * completed in another transaction.
+   */
+  protected void completeWithConcurrentCompletion(final String executionId, final String otherExecutionId) {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        // the concurrent executions of the instances are cached before the other instance completes
+        commandContext.getExecutionManager().findExecutionById(executionId).getParent().getParent().getExecutions();
+
+        processEngineConfiguration.getCommandExecutorTxRequiresNew().execute(new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            runtimeService.messageEventReceived("message", otherExecutionId);
+            return null;
+          }
+        });
+
+        runtimeService.messageEventReceived("message", executionId);
+        return null;
+      }
+    });
+  }
+
+  protected ExecutionEntity getExecution(String executionId) {
+    return (ExecutionEntity) runtimeService.createExecutionQuery().executionId(executionId).singleResult();
+  }
+
+}
@@ -0,0 +1,171 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.bpmn.multiinstance;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.Execution;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+/**
+ * Tests parallel multi-instance activities whose instances are created in batches of two.
+ */
+public class MultiInstanceBatchTest extends ResourceProcessEngineTestCase {
+
+  public MultiInstanceBatchTest() {
+    super("org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceBatchTest.camunda.cfg.xml");
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasks.bpmn20.xml")
+  public void testInstancesCreatedByJob() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("miParallelUserTasks").getId();
+
+    // the first batch is created when the activity is started
+    assertEquals(2, taskService.createTaskQuery().count());
+
+    Job job = managementService.createJobQuery().singleResult();
+    assertNotNull(job);
+    managementService.executeJob(job.getId());
+
+    List<Task> tasks = taskService.createTaskQuery().orderByTaskName().asc().list();
+    assertEquals(3, tasks.size());
+    assertEquals("My Task 0", tasks.get(0).getName());
+    assertEquals("My Task 1", tasks.get(1).getName());
+    assertEquals("My Task 2", tasks.get(2).getName());
+    assertEquals(0, managementService.createJobQuery().count());
+
+    for (Task task : tasks) {
+      taskService.complete(task.getId());
+    }
+
+    assertProcessEnded(processInstanceId);
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasks.bpmn20.xml")
+  public void testInstancesCompletedBeforeAllInstancesAreCreated() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("miParallelUserTasks").getId();
+
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+
+    // the activity is not completed while an instance is not created yet
+    assertEquals(1, runtimeService.createProcessInstanceQuery().processInstanceId(processInstanceId).count());
+
+    executeAvailableJobs();
+
+    Task task = taskService.createTaskQuery().singleResult();
+    assertEquals("My Task 2", task.getName());
+    taskService.complete(task.getId());
+
+    assertProcessEnded(processInstanceId);
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasks.bpmn20.xml")
+  public void testBatchSizeChangedWhileInstancesAreCreated() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("miParallelUserTasks").getId();
+
+    int batchSize = processEngineConfiguration.getParallelMultiInstanceBatchSize();
+    processEngineConfiguration.setParallelMultiInstanceBatchSize(0);
+    try {
+      for (Task task : taskService.createTaskQuery().list()) {
+        taskService.complete(task.getId());
+      }
+
+      // the activity still waits for the instance of the next batch
+      assertEquals(1, runtimeService.createProcessInstanceQuery().processInstanceId(processInstanceId).count());
+
+      executeAvailableJobs();
+
+      Task task = taskService.createTaskQuery().singleResult();
+      assertEquals("My Task 2", task.getName());
+      taskService.complete(task.getId());
+
+      assertProcessEnded(processInstanceId);
+
+    } finally {
+      processEngineConfiguration.setParallelMultiInstanceBatchSize(batchSize);
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasks.bpmn20.xml")
+  public void testInstancesCompletedWithoutConflictsBeforeAllInstancesAreCreated() {
+    processEngineConfiguration.setConflictFreeMultiInstanceEnabled(true);
+    try {
+      // three instances, more than the batch size of two
+      String processInstanceId = runtimeService.startProcessInstanceByKey("miParallelUserTasks").getId();
+      assertEquals(2, taskService.createTaskQuery().count());
+
+      for (Task task : taskService.createTaskQuery().list()) {
+        taskService.complete(task.getId());
+      }
+
+      // the activity is not completed while an instance is not created yet
+      assertEquals(1, runtimeService.createProcessInstanceQuery().processInstanceId(processInstanceId).count());
+
+      executeAvailableJobs();
+
+      Task task = taskService.createTaskQuery().singleResult();
+      assertEquals("My Task 2", task.getName());
+      taskService.complete(task.getId());
+
+      assertProcessEnded(processInstanceId);
+
+    } finally {
+      processEngineConfiguration.setConflictFreeMultiInstanceEnabled(false);
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelScriptTasks.bpmn20.xml")
+  public void testInstancesCompletedInBatch() {
+    runtimeService.startProcessInstanceByKey("miParallelScriptTask",
+        Variables.createVariables().putValue("nrOfLoops", 5).putValue("sum", 0));
+
+    executeAvailableJobs();
+
+    Execution waitStateExecution = runtimeService.createExecutionQuery().activityId("waitState").singleResult();
+    assertNotNull(waitStateExecution);
+    assertEquals(10, runtimeService.getVariable(waitStateExecution.getId(), "sum"));
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasksBasedOnCollection.bpmn20.xml")
+  public void testCompletionConditionSatisfiedBeforeAllInstancesAreCreated() {
+    List<String> assigneeList = Arrays.asList("kermit", "gonzo", "mispiggy", "fozzie", "bubba");
+    String processInstanceId = runtimeService.startProcessInstanceByKey("miParallelUserTasksBasedOnCollection",
+        Variables.createVariables().putValue("assigneeList", assigneeList)).getId();
+
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+
+    Job job = managementService.createJobQuery().singleResult();
+    managementService.executeJob(job.getId());
+
+    List<Task> tasks = taskService.createTaskQuery().orderByTaskAssignee().asc().list();
+    assertEquals(2, tasks.size());
+    assertEquals("fozzie", tasks.get(0).getAssignee());
+    assertEquals("mispiggy", tasks.get(1).getAssignee());
+
+    // 3 of 5 completed instances satisfy the completion condition
+    taskService.complete(tasks.get(0).getId());
+
+    assertProcessEnded(processInstanceId);
+    assertEquals(0, managementService.createJobQuery().count());
+  }
+
+}
@@ -0,0 +1,157 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.bpmn.sequenceflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.builder.AbstractFlowNodeBuilder;
+
+/**
+ * Tests the invocation of atomic operations in a loop instead of recursively
+ * (see {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#setAtomicOperationLoopEnabled(boolean)}).
+ */
+public class AtomicOperationLoopTest extends PluggableProcessEngineTestCase {
+
+  protected static final int NUMBER_OF_TASKS = 50;
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setAtomicOperationLoopEnabled(false);
+    StackDepthRecordingDelegate.clear();
+    EventRecordingDelegate.clear();
+    super.tearDown();
+  }
+
+  public void testStackDepthIsConstantForLongSequence() {
+    processEngineConfiguration.setAtomicOperationLoopEnabled(true);
+    deployment(createSequence(NUMBER_OF_TASKS));
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    List<Integer> stackDepths = StackDepthRecordingDelegate.stackDepths;
+    assertEquals(NUMBER_OF_TASKS, stackDepths.size());
+    for (Integer stackDepth : stackDepths) {
+      assertEquals(stackDepths.get(0), stackDepth);
+    }
+
+    assertProcessEnded(processInstance.getId());
+  }
+
+  public void testStackDepthGrowsWithoutLoop() {
+    deployment(createSequence(NUMBER_OF_TASKS));
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    List<Integer> stackDepths = StackDepthRecordingDelegate.stackDepths;
+    assertEquals(NUMBER_OF_TASKS, stackDepths.size());
+    assertTrue(stackDepths.get(NUMBER_OF_TASKS - 1) > stackDepths.get(0) + NUMBER_OF_TASKS);
+
+    assertProcessEnded(processInstance.getId());
+  }
+
+  public void testConcurrentPaths() {
+    processEngineConfiguration.setAtomicOperationLoopEnabled(true);
+    deployment(Bpmn.createExecutableProcess("testProcess")
+      .startEvent()
+      .parallelGateway("fork")
+        .serviceTask()
+          .camundaClass(StackDepthRecordingDelegate.class.getName())
+        .serviceTask()
+          .camundaClass(StackDepthRecordingDelegate.class.getName())
+        .parallelGateway("join")
+        .userTask("afterJoin")
+        .endEvent()
+      .moveToNode("fork")
+        .serviceTask()
+          .camundaClass(StackDepthRecordingDelegate.class.getName())
+        .connectTo("join")
+      .done());
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    assertEquals(3, StackDepthRecordingDelegate.stackDepths.size());
+    assertEquals(1, taskService.createTaskQuery().taskDefinitionKey("afterJoin").count());
+    assertEquals(1, runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).count());
+
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+    assertProcessEnded(processInstance.getId());
+  }
+
+  @Deployment
+  public void testListenerOrderOfConcurrentPaths() {
+    List<String> expectedEvents = Arrays.asList("take flowA", "taskA1", "taskA2", "take flowB", "taskB1");
+
+    runtimeService.startProcessInstanceByKey("testProcess");
+    assertEquals(expectedEvents, EventRecordingDelegate.events);
+
+    EventRecordingDelegate.clear();
+    processEngineConfiguration.setAtomicOperationLoopEnabled(true);
+
+    // the first path reaches the join before the second path is taken, just like without the loop
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+    assertEquals(expectedEvents, EventRecordingDelegate.events);
+
+    assertEquals(1, taskService.createTaskQuery().processInstanceId(processInstance.getId()).taskDefinitionKey("afterJoin").count());
+  }
+
+  protected BpmnModelInstance createSequence(int numberOfTasks) {
+    AbstractFlowNodeBuilder<?, ?> builder = Bpmn.createExecutableProcess("testProcess").startEvent();
+    for (int i = 0; i < numberOfTasks; i++) {
+      builder = builder.serviceTask().camundaClass(StackDepthRecordingDelegate.class.getName());
+    }
+    return builder.endEvent().done();
+  }
+
+  public static class StackDepthRecordingDelegate implements JavaDelegate {
+
+    public static List<Integer> stackDepths = new ArrayList<Integer>();
+
+    public void execute(DelegateExecution execution) throws Exception {
+      stackDepths.add(Thread.currentThread().getStackTrace().length);
+    }
+
+    public static void clear() {
+      stackDepths.clear();
+    }
+  }
+
+  public static class EventRecordingDelegate implements JavaDelegate {
+
+    public static List<String> events = new ArrayList<String>();
+
+    public void execute(DelegateExecution execution) throws Exception {
+      events.add(execution.getCurrentActivityId());
+    }
+
+    public static void clear() {
+      events.clear();
+    }
+  }
+
+  public static class EventRecordingListener implements ExecutionListener {
+
+    public void notify(DelegateExecution execution) throws Exception {
+      EventRecordingDelegate.events.add(execution.getEventName() + " " + execution.getCurrentTransitionId());
+    }
+  }
+
+}
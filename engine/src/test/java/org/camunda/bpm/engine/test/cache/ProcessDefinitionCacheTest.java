@@ -17,6 +17,7 @@ import java.util.List;
 
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.ProcessEngines;
 import org.camunda.bpm.engine.RepositoryService;
 import org.camunda.bpm.engine.RuntimeService;
@@ -193,4 +194,70 @@ public class ProcessDefinitionCacheTest extends PvmTestCase {
     processEngine2.close();
   }
  
+
+  public void testWarmUpLoadsLatestProcessDefinitions() {
+    ProcessEngine processEngine1 = new StandaloneProcessEngineConfiguration()
+      .setProcessEngineName("warm-up-test-schema")
+      .setDatabaseSchemaUpdate(org.camunda.bpm.engine.ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE)
+      .setJdbcUrl("jdbc:h2:mem:activiti-warm-up-test;DB_CLOSE_DELAY=1000")
+      .setJobExecutorActivate(false)
+      .buildProcessEngine();
+    ProcessEngine processEngine2 = null;
+
+    String deploymentId = processEngine1.getRepositoryService()
+      .createDeployment()
+      .addClasspathResource("org/camunda/bpm/engine/test/cache/originalProcess.bpmn20.xml")
+      .deploy()
+      .getId();
+
+    try {
+      String processDefinitionId = processEngine1.getRepositoryService()
+        .createProcessDefinitionQuery()
+        .singleResult()
+        .getId();
+
+      // start a second process engine which warms up
+      ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) new StandaloneProcessEngineConfiguration()
+        .setProcessEngineName("warm-up-test")
+        .setDatabaseSchemaUpdate(org.camunda.bpm.engine.ProcessEngineConfiguration.DB_SCHEMA_UPDATE_FALSE)
+        .setJdbcUrl("jdbc:h2:mem:activiti-warm-up-test;DB_CLOSE_DELAY=1000")
+        .setJobExecutorActivate(false);
+      configuration.setWarmUpEnabled(true);
+      processEngine2 = configuration.buildProcessEngine();
+
+      assertTrue(configuration.isWarmUpCompleted());
+      assertTrue(configuration.getDeploymentCache().getProcessDefinitionCache().containsKey(processDefinitionId));
+
+    } finally {
+      processEngine1.getRepositoryService().deleteDeployment(deploymentId, true);
+      processEngine1.close();
+      if (processEngine2 != null) {
+        processEngine2.close();
+      }
+    }
+  }
+
+  public void testFailedWarmUpUnregistersProcessEngine() {
+    ProcessEngineConfigurationImpl configuration = new StandaloneInMemProcessEngineConfiguration() {
+      protected void warmUp() {
+        throw new ProcessEngineException("warm-up failed");
+      }
+    };
+    configuration
+      .setProcessEngineName("failed-warm-up-test")
+      .setJdbcUrl("jdbc:h2:mem:activiti-failed-warm-up-test")
+      .setJobExecutorActivate(false);
+    configuration.setWarmUpEnabled(true);
+
+    try {
+      configuration.buildProcessEngine();
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      assertTextPresent("warm-up failed", e.getMessage());
+    }
+
+    assertFalse(configuration.isWarmUpCompleted());
+    assertFalse(ProcessEngines.getProcessEngines().containsKey("failed-warm-up-test"));
+  }
+
 }
@@ -973,6 +973,9 @@ public class HumanTaskPlanItemHandlerTest extends CmmnElementHandlerTest {
 
     assertEquals(sentryDeclaration, newActivity.getExitCriteria().get(0));
 
+    // the parent knows that the new activity listens to the sentry
+    assertTrue(parent.getCriterionActivityIds("Sentry_1").contains(newActivity.getId()));
+
   }
 
   @Test
@@ -1053,6 +1056,9 @@ public class HumanTaskPlanItemHandlerTest extends CmmnElementHandlerTest {
 
     assertEquals(sentryDeclaration, newActivity.getEntryCriteria().get(0));
 
+    // the parent knows that the new activity listens to the sentry
+    assertTrue(parent.getCriterionActivityIds("Sentry_1").contains(newActivity.getId()));
+
   }
 
   @Test
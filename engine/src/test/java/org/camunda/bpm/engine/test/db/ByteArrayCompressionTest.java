@@ -0,0 +1,132 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.CompressionUtil;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.repository.Resource;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+/**
+ * Tests the compression of byte arrays
+ * (see {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#setByteArrayCompressionThreshold(int)}).
+ */
+public class ByteArrayCompressionTest extends PluggableProcessEngineTestCase {
+
+  protected static final BpmnModelInstance ONE_TASK_PROCESS = Bpmn.createExecutableProcess("testProcess")
+    .startEvent()
+    .userTask()
+    .endEvent()
+    .done();
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setByteArrayCompressionThreshold(0);
+    super.tearDown();
+  }
+
+  public void testResourceIsStoredCompressed() throws Exception {
+    processEngineConfiguration.setByteArrayCompressionThreshold(100);
+    deployment(ONE_TASK_PROCESS);
+    String deploymentId = repositoryService.createDeploymentQuery().singleResult().getId();
+
+    Resource resource = repositoryService.getDeploymentResources(deploymentId).get(0);
+    byte[] storedBytes = selectStoredBytes(resource.getId());
+    assertTrue(CompressionUtil.isCompressed(storedBytes));
+
+    byte[] bytes = IoUtil.readInputStream(repositoryService.getResourceAsStream(deploymentId, resource.getName()), resource.getName());
+    assertTrue(new String(bytes, "UTF-8").contains("testProcess"));
+    assertTrue(storedBytes.length < bytes.length);
+
+    assertNotNull(runtimeService.startProcessInstanceByKey("testProcess"));
+  }
+
+  public void testByteArrayVariableIsStoredCompressed() throws Exception {
+    deployment(ONE_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    processEngineConfiguration.setByteArrayCompressionThreshold(100);
+    byte[] value = new byte[10000];
+    runtimeService.setVariable(processInstance.getId(), "bytes", value);
+
+    byte[] storedBytes = selectStoredBytes(getByteArrayValueId(processInstance.getId(), "bytes"));
+    assertTrue(CompressionUtil.isCompressed(storedBytes));
+    assertTrue(storedBytes.length < value.length);
+
+    assertTrue(Arrays.equals(value, (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes")));
+  }
+
+  public void testSmallByteArrayIsStoredUncompressed() throws Exception {
+    deployment(ONE_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    processEngineConfiguration.setByteArrayCompressionThreshold(100);
+    byte[] value = new byte[50];
+    runtimeService.setVariable(processInstance.getId(), "bytes", value);
+
+    byte[] storedBytes = selectStoredBytes(getByteArrayValueId(processInstance.getId(), "bytes"));
+    assertTrue(Arrays.equals(value, storedBytes));
+  }
+
+  public void testUncompressedByteArrayRemainsReadable() {
+    deployment(ONE_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    byte[] value = new byte[10000];
+    runtimeService.setVariable(processInstance.getId(), "bytes", value);
+
+    processEngineConfiguration.setByteArrayCompressionThreshold(100);
+    assertTrue(Arrays.equals(value, (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes")));
+  }
+
+  public void testByteArrayStartingWithMarker() throws Exception {
+    deployment(ONE_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    // looks like a compressed byte array but is not
+    byte[] value = CompressionUtil.compress(new byte[100]);
+    runtimeService.setVariable(processInstance.getId(), "bytes", value);
+
+    assertTrue(Arrays.equals(value, (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes")));
+  }
+
+  protected String getByteArrayValueId(String processInstanceId, String variableName) {
+    VariableInstanceEntity variableInstance = (VariableInstanceEntity) runtimeService.createVariableInstanceQuery()
+      .processInstanceIdIn(processInstanceId)
+      .variableName(variableName)
+      .singleResult();
+    return variableInstance.getByteArrayValueId();
+  }
+
+  protected byte[] selectStoredBytes(String byteArrayId) throws Exception {
+    Connection connection = processEngineConfiguration.getDataSource().getConnection();
+    try {
+      PreparedStatement statement = connection.prepareStatement("select BYTES_ from ACT_GE_BYTEARRAY where ID_ = ?");
+      statement.setString(1, byteArrayId);
+      ResultSet resultSet = statement.executeQuery();
+      assertTrue(resultSet.next());
+      return resultSet.getBytes(1);
+    } finally {
+      connection.close();
+    }
+  }
+
+}
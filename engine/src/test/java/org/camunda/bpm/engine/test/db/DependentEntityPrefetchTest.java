@@ -0,0 +1,160 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+
+/**
+ * Tests that the tasks, jobs and event subscriptions of a process instance
+ * are fetched at once for all of its executions.
+ */
+public class DependentEntityPrefetchTest extends PluggableProcessEngineTestCase {
+
+  protected static final String PROCESS_RESOURCE = "org/camunda/bpm/engine/test/db/DependentEntityPrefetchTest.concurrentTasksProcess.bpmn20.xml";
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setDependentEntityPrefetchEnabled(true);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setDependentEntityPrefetchEnabled(false);
+    super.tearDown();
+  }
+
+  @Deployment(resources = PROCESS_RESOURCE)
+  public void testPrefetchTasks() {
+    final List<String> executionIds = startProcessInstanceAndGetTaskExecutionIds();
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+        List<ExecutionEntity> executions = findExecutions(commandContext, executionIds);
+
+        executions.get(0).getTasks();
+        assertEquals(3, dbEntityManager.getCachedEntitiesByType(TaskEntity.class).size());
+
+        for (ExecutionEntity execution : executions) {
+          List<TaskEntity> tasks = execution.getTasks();
+          assertEquals(1, tasks.size());
+          assertEquals(execution.getId(), tasks.get(0).getExecutionId());
+        }
+        return null;
+      }
+    });
+  }
+
+  @Deployment(resources = PROCESS_RESOURCE)
+  public void testPrefetchJobs() {
+    final List<String> executionIds = startProcessInstanceAndGetTaskExecutionIds();
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+        List<ExecutionEntity> executions = findExecutions(commandContext, executionIds);
+
+        executions.get(0).getJobs();
+        assertEquals(3, dbEntityManager.getCachedEntitiesByType(JobEntity.class).size());
+
+        for (ExecutionEntity execution : executions) {
+          List<JobEntity> jobs = execution.getJobs();
+          assertEquals(1, jobs.size());
+          assertEquals(execution.getId(), jobs.get(0).getExecutionId());
+        }
+        return null;
+      }
+    });
+  }
+
+  @Deployment(resources = PROCESS_RESOURCE)
+  public void testPrefetchEventSubscriptions() {
+    final List<String> executionIds = startProcessInstanceAndGetTaskExecutionIds();
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+        List<ExecutionEntity> executions = findExecutions(commandContext, executionIds);
+
+        executions.get(0).getEventSubscriptions();
+        assertEquals(3, dbEntityManager.getCachedEntitiesByType(EventSubscriptionEntity.class).size());
+
+        for (ExecutionEntity execution : executions) {
+          List<EventSubscriptionEntity> eventSubscriptions = execution.getEventSubscriptions();
+          assertEquals(1, eventSubscriptions.size());
+          assertEquals(execution.getId(), eventSubscriptions.get(0).getExecutionId());
+        }
+        return null;
+      }
+    });
+  }
+
+  @Deployment(resources = PROCESS_RESOURCE)
+  public void testPrefetchDisabled() {
+    processEngineConfiguration.setDependentEntityPrefetchEnabled(false);
+    final List<String> executionIds = startProcessInstanceAndGetTaskExecutionIds();
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+        List<ExecutionEntity> executions = findExecutions(commandContext, executionIds);
+
+        executions.get(0).getTasks();
+        assertEquals(1, dbEntityManager.getCachedEntitiesByType(TaskEntity.class).size());
+        return null;
+      }
+    });
+  }
+
+  @Deployment(resources = PROCESS_RESOURCE)
+  public void testDeleteProcessInstance() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("concurrentTasks").getId();
+
+    runtimeService.deleteProcessInstance(processInstanceId, null);
+
+    assertProcessEnded(processInstanceId);
+    assertEquals(0, managementService.createJobQuery().count());
+    assertEquals(0, runtimeService.createEventSubscriptionQuery().count());
+  }
+
+  protected List<String> startProcessInstanceAndGetTaskExecutionIds() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("concurrentTasks").getId();
+
+    List<String> executionIds = new ArrayList<String>();
+    for (Task task : taskService.createTaskQuery().processInstanceId(processInstanceId).list()) {
+      executionIds.add(task.getExecutionId());
+    }
+    assertEquals(3, executionIds.size());
+    return executionIds;
+  }
+
+  protected List<ExecutionEntity> findExecutions(CommandContext commandContext, List<String> executionIds) {
+    List<ExecutionEntity> executions = new ArrayList<ExecutionEntity>();
+    for (String executionId : executionIds) {
+      executions.add(commandContext.getExecutionManager().findExecutionById(executionId));
+    }
+    return executions;
+  }
+
+}
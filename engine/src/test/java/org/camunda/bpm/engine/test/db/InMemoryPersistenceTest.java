@@ -0,0 +1,177 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.identity.Group;
+import org.camunda.bpm.engine.identity.User;
+import org.camunda.bpm.engine.impl.db.PersistenceSession;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryPersistenceSession;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.management.TableMetaData;
+import org.camunda.bpm.engine.management.TablePage;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+/**
+ * Tests a process engine which keeps its data in memory instead of a database.
+ */
+public class InMemoryPersistenceTest extends ResourceProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml";
+  protected static final String ONE_JOB_PROCESS = "org/camunda/bpm/engine/test/db/oneJobProcess.bpmn20.xml";
+
+  public InMemoryPersistenceTest() {
+    super("org/camunda/bpm/engine/test/db/InMemoryPersistenceTest.camunda.cfg.xml");
+  }
+
+  public void testInMemoryPersistenceSession() {
+    PersistenceSession persistenceSession = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<PersistenceSession>() {
+      public PersistenceSession execute(CommandContext commandContext) {
+        return commandContext.getSession(PersistenceSession.class);
+      }
+    });
+
+    assertTrue(persistenceSession instanceof InMemoryPersistenceSession);
+    assertNull(processEngineConfiguration.getDataSource());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCompleteTask() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    assertNotNull(task);
+    assertEquals("theTask", task.getTaskDefinitionKey());
+    assertEquals(1, taskService.createTaskQuery().count());
+
+    taskService.complete(task.getId());
+
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    assertEquals(0, taskService.createTaskQuery().count());
+    assertNotNull(historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstance.getId()).singleResult().getEndTime());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testVariables() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("aString", "value").putValue("anInteger", 42));
+
+    runtimeService.setVariable(processInstance.getId(), "aString", "updated");
+    runtimeService.removeVariable(processInstance.getId(), "anInteger");
+
+    Map<String, Object> variables = runtimeService.getVariables(processInstance.getId());
+    assertEquals(1, variables.size());
+    assertEquals("updated", variables.get("aString"));
+    assertEquals(1, runtimeService.createVariableInstanceQuery().variableValueEquals("aString", "updated").count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testOptimisticLocking() {
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Task task1 = taskService.createTaskQuery().singleResult();
+    Task task2 = taskService.createTaskQuery().singleResult();
+
+    task1.setName("first");
+    taskService.saveTask(task1);
+
+    task2.setName("second");
+    try {
+      taskService.saveTask(task2);
+      fail("expected an optimistic locking exception");
+    } catch (OptimisticLockingException e) {
+      // expected
+    }
+
+    assertEquals("first", taskService.createTaskQuery().singleResult().getName());
+  }
+
+  public void testRollback() {
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          taskService.saveTask(taskService.newTask());
+          throw new ProcessEngineException("rollback");
+        }
+      });
+      fail("expected an exception");
+    } catch (ProcessEngineException e) {
+      assertEquals("rollback", e.getMessage());
+    }
+
+    assertEquals(0, taskService.createTaskQuery().count());
+  }
+
+  @Deployment(resources = ONE_JOB_PROCESS)
+  public void testExecuteJob() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Job job = managementService.createJobQuery().processInstanceId(processInstance.getId()).singleResult();
+    assertNotNull(job);
+
+    managementService.executeJob(job.getId());
+
+    assertEquals(0, managementService.createJobQuery().count());
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testTableCount() {
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Map<String, Long> tableCount = managementService.getTableCount();
+    assertEquals(Long.valueOf(1), tableCount.get("ACT_RU_TASK"));
+    assertEquals(Long.valueOf(1), tableCount.get("ACT_RE_PROCDEF"));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testTablePageAndMetaData() {
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    TablePage tablePage = managementService.createTablePageQuery().tableName("ACT_RU_TASK").listPage(0, 10);
+    assertEquals(1, tablePage.getTotal());
+    assertEquals(1, tablePage.getRows().size());
+
+    TableMetaData tableMetaData = managementService.getTableMetaData("ACT_RU_TASK");
+    assertTrue(tableMetaData.getColumnNames().contains("ID_"));
+  }
+
+  public void testMembershipAndUserInfo() {
+    User user = identityService.newUser("kermit");
+    identityService.saveUser(user);
+    Group group = identityService.newGroup("muppets");
+    identityService.saveGroup(group);
+
+    identityService.createMembership("kermit", "muppets");
+    identityService.setUserInfo("kermit", "color", "green");
+
+    try {
+      assertEquals(1, identityService.createGroupQuery().groupMember("kermit").count());
+      assertEquals("green", identityService.getUserInfo("kermit", "color"));
+      assertEquals(1, identityService.getUserInfoKeys("kermit").size());
+    } finally {
+      identityService.deleteUser("kermit");
+      identityService.deleteGroup("muppets");
+    }
+  }
+
+}
@@ -0,0 +1,239 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryExpression.Bindings;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryRow;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.RowSource;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatement.Select;
+import org.camunda.bpm.engine.impl.db.inmemory.InMemoryStatementParser;
+
+/**
+ * Tests that the statements of the in-memory persistence evaluate their conditions,
+ * order and limit like the database.
+ */
+public class InMemoryStatementParserTest extends TestCase {
+
+  protected TestRowSource rowSource;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    rowSource = new TestRowSource();
+
+    rowSource.addRow("ACT_RU_TASK", "ID_", "1", "NAME_", "alpha", "PRIORITY_", 50, "DUE_DATE_", null);
+    rowSource.addRow("ACT_RU_TASK", "ID_", "2", "NAME_", "beta", "PRIORITY_", 20, "DUE_DATE_", new Date(2000));
+    rowSource.addRow("ACT_RU_TASK", "ID_", "3", "NAME_", null, "PRIORITY_", 50, "DUE_DATE_", new Date(1000));
+    rowSource.addRow("ACT_RU_TASK", "ID_", "4", "NAME_", "a_b", "PRIORITY_", 10, "DUE_DATE_", null);
+
+    rowSource.addRow("ACT_RU_JOB", "ID_", "j1", "HANDLER_TYPE_", "timer", "RETRIES_", 3);
+    rowSource.addRow("ACT_RU_JOB", "ID_", "j2", "HANDLER_TYPE_", "message", "RETRIES_", 3);
+    rowSource.addRow("ACT_RU_JOB", "ID_", "j3", "HANDLER_TYPE_", null, "RETRIES_", 3);
+    rowSource.addRow("ACT_RU_JOB", "ID_", "j4", "HANDLER_TYPE_", "timer", "RETRIES_", 0);
+
+    rowSource.addRow("ACT_RU_AUTHORIZATION", "ID_", "a1", "TYPE_", 1, "USER_ID_", "demo", "RESOURCE_TYPE_", 7, "RESOURCE_ID_", "1", "PERMS_", 2);
+    rowSource.addRow("ACT_RU_AUTHORIZATION", "ID_", "a2", "TYPE_", 1, "USER_ID_", "demo", "RESOURCE_TYPE_", 7, "RESOURCE_ID_", "2", "PERMS_", 4);
+    rowSource.addRow("ACT_RU_AUTHORIZATION", "ID_", "a3", "TYPE_", 1, "USER_ID_", "other", "RESOURCE_TYPE_", 7, "RESOURCE_ID_", "1", "PERMS_", 2);
+    rowSource.addRow("ACT_RU_AUTHORIZATION", "ID_", "a4", "TYPE_", 1, "USER_ID_", "admin", "RESOURCE_TYPE_", 7, "RESOURCE_ID_", "*", "PERMS_", Integer.MAX_VALUE);
+  }
+
+  public void testComparisonWithNullIsUnknown() {
+    assertEquals(ids(), selectIds("select ID_ from ACT_RU_TASK where NAME_ = ?", (Object) null));
+    assertEquals(ids("2", "4"), selectIds("select ID_ from ACT_RU_TASK where NAME_ <> 'alpha'"));
+    assertEquals(ids("2", "4"), selectIds("select ID_ from ACT_RU_TASK where not (NAME_ = 'alpha')"));
+  }
+
+  public void testIsNull() {
+    assertEquals(ids("3"), selectIds("select ID_ from ACT_RU_TASK where NAME_ is null"));
+    assertEquals(ids("1", "2", "4"), selectIds("select ID_ from ACT_RU_TASK where NAME_ is not null"));
+  }
+
+  public void testInWithNullIsUnknown() {
+    assertEquals(ids("1"), selectIds("select ID_ from ACT_RU_TASK where NAME_ in ('alpha', null)"));
+    assertEquals(ids(), selectIds("select ID_ from ACT_RU_TASK where ID_ not in (?, ?)", "1", null));
+    assertEquals(ids("2", "3", "4"), selectIds("select ID_ from ACT_RU_TASK where ID_ not in (?)", "1"));
+  }
+
+  public void testLike() {
+    String sql = "select ID_ from ACT_RU_TASK where NAME_ like ?";
+    assertEquals(ids("1", "4"), selectIds(sql, "a%"));
+    assertEquals(ids("1"), selectIds(sql, "%ph_"));
+    // the underscore matches any character unless it is escaped
+    assertEquals(ids("1", "4"), selectIds(sql, "a_%"));
+    assertEquals(ids("4"), selectIds("select ID_ from ACT_RU_TASK where NAME_ like ? escape '\\'", "a\\_%"));
+    assertEquals(ids("2", "3"), selectIds("select ID_ from ACT_RU_TASK where NAME_ not like ? or NAME_ is null", "a%"));
+  }
+
+  public void testOrderPutsNullsFirst() {
+    assertEquals(ids("3", "4", "1", "2"), selectIds("select ID_ from ACT_RU_TASK order by NAME_ asc"));
+    assertEquals(ids("2", "1", "4", "3"), selectIds("select ID_ from ACT_RU_TASK order by NAME_ desc"));
+    assertEquals(ids("2", "3", "1", "4"), selectIds("select RES.ID_ from ACT_RU_TASK RES order by RES.DUE_DATE_ desc, RES.ID_ asc"));
+  }
+
+  public void testLimitAndOffset() {
+    String sql = "select RES.* from ACT_RU_TASK RES order by RES.ID_ asc LIMIT ? OFFSET ?";
+    assertEquals(ids("2", "3"), selectIds(sql, 2, 1));
+    assertEquals(ids("4"), selectIds(sql, 2, 3));
+    assertEquals(ids(), selectIds(sql, 2, 10));
+  }
+
+  public void testSelectForUpdate() {
+    assertEquals(ids("1", "2"), selectIds("select * from ACT_RU_TASK where ID_ in (?, ?) order by ID_ for update", "1", "2"));
+  }
+
+  public void testKeysetCondition() {
+    // the rows after the row with id 1 and no due date, if the rows without due date come last
+    assertEquals(ids("4"), selectIds("select RES.ID_ from ACT_RU_TASK RES where RES.PRIORITY_ > 0 "
+        + "and (( 1 = 0 ) or ( RES.DUE_DATE_ is null and RES.ID_ > ? )) order by RES.DUE_DATE_ asc, RES.ID_ asc", "1"));
+
+    // the same row if the rows without due date come first
+    assertEquals(ids("4", "3", "2"), selectIds("select RES.ID_ from ACT_RU_TASK RES where RES.PRIORITY_ > 0 "
+        + "and (( RES.DUE_DATE_ is not null ) or ( RES.DUE_DATE_ is null and RES.ID_ > ? )) order by RES.DUE_DATE_ asc, RES.ID_ asc", "1"));
+  }
+
+  public void testExecutionLaneCondition() {
+    assertEquals(ids("j1"), selectIds("select RES.* from ACT_RU_JOB RES where (RES.RETRIES_ > 0) "
+        + "and ( 1 = 0 or RES.HANDLER_TYPE_ in ( ? ) )", "timer"));
+    assertEquals(ids("j2", "j3"), selectIds("select RES.* from ACT_RU_JOB RES where (RES.RETRIES_ > 0) "
+        + "and (RES.HANDLER_TYPE_ is null or RES.HANDLER_TYPE_ not in ( ? ) )", "timer"));
+  }
+
+  public void testCount() {
+    String sql = "select count(*) from ACT_RU_AUTHORIZATION where RESOURCE_TYPE_ = ? AND RESOURCE_ID_ = ?";
+    assertEquals(2L, select(sql, 7, "1").get(0).get("EXPR0"));
+    assertEquals(0L, select(sql, 7, "unknown").get(0).get("EXPR0"));
+  }
+
+  public void testAuthorizationCheck() {
+    String sql = "select RES.ID_ from ACT_RU_TASK RES where ("
+        + " SELECT CASE"
+        + "   WHEN RES.ID_ IN (SELECT A.RESOURCE_ID_ FROM ACT_RU_AUTHORIZATION A WHERE A.TYPE_ = 1 AND A.USER_ID_ = ?"
+        + "     AND BITAND(A.PERMS_,?) = ? AND A.RESOURCE_TYPE_ = ? AND A.RESOURCE_ID_ = RES.ID_) THEN 1"
+        + "   WHEN EXISTS (SELECT ID_ FROM ACT_RU_AUTHORIZATION A WHERE A.TYPE_ = 1 AND A.USER_ID_ = ?"
+        + "     AND BITAND(A.PERMS_,?) = ? AND A.RESOURCE_TYPE_ = ? AND A.RESOURCE_ID_ = '*') THEN 1"
+        + "   ELSE ( COALESCE ( (SELECT CASE WHEN 1 = 0 THEN 1 END), 0) )"
+        + " END ) = 1"
+        + " order by RES.ID_";
+
+    assertEquals(ids("1"), selectIds(sql, "demo", 2, 2, 7, "demo", 2, 2, 7));
+    assertEquals(ids("2"), selectIds(sql, "demo", 4, 4, 7, "demo", 4, 4, 7));
+    assertEquals(ids("1", "2", "3", "4"), selectIds(sql, "admin", 2, 2, 7, "admin", 2, 2, 7));
+    assertEquals(ids(), selectIds(sql, "nobody", 2, 2, 7, "nobody", 2, 2, 7));
+  }
+
+  public void testGroupByInDerivedTable() {
+    List<Map<String, Object>> rows = select("select RES.* from ACT_RU_TASK T"
+        + " left outer join (select P.PRIORITY_, count(P.ID_) as TASK_COUNT_ from ACT_RU_TASK P group by P.PRIORITY_) RES"
+        + " on T.PRIORITY_ = RES.PRIORITY_"
+        + " where T.ID_ = ?", "3");
+
+    assertEquals(1, rows.size());
+    assertEquals(50, rows.get(0).get("PRIORITY_"));
+    assertEquals(2L, rows.get(0).get("TASK_COUNT_"));
+
+    rows = select("select PRIORITY_, count(*) as TASK_COUNT_ from ACT_RU_TASK group by PRIORITY_ order by PRIORITY_ desc");
+    assertEquals(3, rows.size());
+    assertEquals(50, rows.get(0).get("PRIORITY_"));
+    assertEquals(2L, rows.get(0).get("TASK_COUNT_"));
+    assertEquals(10, rows.get(2).get("PRIORITY_"));
+    assertEquals(1L, rows.get(2).get("TASK_COUNT_"));
+  }
+
+  public void testUnion() {
+    String union = "select ID_ from ACT_RU_TASK where PRIORITY_ = 50 UNION select ID_ from ACT_RU_TASK where NAME_ like 'a%'";
+    assertEquals(ids("1", "3", "4"), selectIds("select RES.* from (" + union + ") RES order by RES.ID_"));
+
+    String unionAll = "select ID_ from ACT_RU_TASK where PRIORITY_ = 50 UNION ALL select ID_ from ACT_RU_TASK where NAME_ like 'a%'";
+    assertEquals(ids("1", "1", "3", "4"), selectIds("select RES.* from (" + unionAll + ") RES order by RES.ID_"));
+  }
+
+  public void testSelectWithoutTable() {
+    List<Map<String, Object>> rows = select("select COALESCE(?, ?, 'c') as VALUE_", null, "b");
+    assertEquals(1, rows.size());
+    assertEquals("b", rows.get(0).get("VALUE_"));
+  }
+
+  public void testUnsupportedStatement() {
+    try {
+      new InMemoryStatementParser("select PRIORITY_, count(*) from ACT_RU_TASK group by PRIORITY_ having count(*) > 1").parse();
+      fail("expected an exception");
+    } catch (ProcessEngineException e) {
+      assertTrue(e.getMessage().contains("HAVING"));
+    }
+  }
+
+  // helper ///////////////////////////////////////////////////////////////////
+
+  protected List<Map<String, Object>> select(String sql, Object... parameters) {
+    Select select = (Select) new InMemoryStatementParser(sql).parse();
+    return select.execute(new Bindings(rowSource, parameters));
+  }
+
+  protected List<Object> selectIds(String sql, Object... parameters) {
+    List<Object> ids = new ArrayList<Object>();
+    for (Map<String, Object> row : select(sql, parameters)) {
+      ids.add(row.get("ID_"));
+    }
+    return ids;
+  }
+
+  protected List<Object> ids(Object... ids) {
+    return Arrays.asList(ids);
+  }
+
+  /**
+   * Provides the rows of the tables without an in-memory database.
+   */
+  protected static class TestRowSource implements RowSource {
+
+    protected Map<String, List<InMemoryRow>> tables = new HashMap<String, List<InMemoryRow>>();
+
+    public void addRow(String table, Object... columnsAndValues) {
+      Map<String, Object> values = new LinkedHashMap<String, Object>();
+      for (int i = 0; i < columnsAndValues.length; i += 2) {
+        values.put((String) columnsAndValues[i], columnsAndValues[i + 1]);
+      }
+
+      List<InMemoryRow> rows = tables.get(table);
+      if (rows == null) {
+        rows = new ArrayList<InMemoryRow>();
+        tables.put(table, rows);
+      }
+      rows.add(new InMemoryRow((String) values.get("ID_"), values));
+    }
+
+    public Collection<InMemoryRow> getRows(String table, String column, Object value) {
+      List<InMemoryRow> rows = new ArrayList<InMemoryRow>();
+      if (tables.containsKey(table)) {
+        for (InMemoryRow row : tables.get(table)) {
+          if (column == null || value.equals(row.getValue(column))) {
+            rows.add(row);
+          }
+        }
+      }
+      return rows;
+    }
+  }
+
+}
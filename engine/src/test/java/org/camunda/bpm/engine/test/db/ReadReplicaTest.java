@@ -0,0 +1,182 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.sql.Connection;
+
+import junit.framework.TestCase;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.impl.DeploymentQueryImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.util.ReflectUtil;
+
+/**
+ * Tests that queries are read from the read replica unless it may lag behind the caller's own changes or is not available.
+ */
+public class ReadReplicaTest extends TestCase {
+
+  protected PooledDataSource replicaDataSource;
+  protected ProcessEngine processEngine;
+
+  protected void tearDown() throws Exception {
+    if (processEngine != null) {
+      processEngine.close();
+    }
+    if (replicaDataSource != null) {
+      replicaDataSource.forceCloseAll();
+    }
+    super.tearDown();
+  }
+
+  public void testQueryReadsFromReplica() throws Exception {
+    replicaDataSource = createDataSource("jdbc:h2:mem:ReadReplicaTest-replica-" + getName());
+    processEngine = buildProcessEngine(replicaDataSource, 0);
+
+    createReplicaSchema();
+
+    RepositoryService repositoryService = processEngine.getRepositoryService();
+    repositoryService.createDeployment()
+      .addClasspathResource("org/camunda/bpm/engine/test/db/oneJobProcess.bpmn20.xml")
+      .deploy();
+
+    assertEquals(0, repositoryService.createDeploymentQuery().count());
+
+    // the replica may lag behind the deployment
+    ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration()).setReadReplicaMaxLag(60000);
+
+    assertEquals(1, repositoryService.createDeploymentQuery().count());
+
+    repositoryService.deleteDeployment(repositoryService.createDeploymentQuery().singleResult().getId(), true);
+  }
+
+  public void testChangeOfOtherThreadDoesNotPreventReadingFromReplica() throws Exception {
+    replicaDataSource = createDataSource("jdbc:h2:mem:ReadReplicaTest-replica-" + getName());
+    processEngine = buildProcessEngine(replicaDataSource, 60000);
+    createReplicaSchema();
+
+    final RepositoryService repositoryService = processEngine.getRepositoryService();
+    Thread deployer = new Thread() {
+      public void run() {
+        repositoryService.createDeployment()
+          .addClasspathResource("org/camunda/bpm/engine/test/db/oneJobProcess.bpmn20.xml")
+          .deploy();
+      }
+    };
+    deployer.start();
+    deployer.join();
+
+    // the deployment was committed by another thread, so the query reads from the replica
+    assertEquals(0, repositoryService.createDeploymentQuery().count());
+
+    // a command which is not read-only reads from the primary database
+    String deploymentId = getDeploymentIdFromPrimary();
+    assertNotNull(deploymentId);
+
+    repositoryService.deleteDeployment(deploymentId, true);
+  }
+
+  public void testChangeOfAuthenticatedUserPreventsReadingFromReplica() throws Exception {
+    replicaDataSource = createDataSource("jdbc:h2:mem:ReadReplicaTest-replica-" + getName());
+    processEngine = buildProcessEngine(replicaDataSource, 60000);
+    createReplicaSchema();
+
+    final IdentityService identityService = processEngine.getIdentityService();
+    final RepositoryService repositoryService = processEngine.getRepositoryService();
+    Thread deployer = new Thread() {
+      public void run() {
+        identityService.setAuthenticatedUserId("kermit");
+        try {
+          repositoryService.createDeployment()
+            .addClasspathResource("org/camunda/bpm/engine/test/db/oneJobProcess.bpmn20.xml")
+            .deploy();
+        } finally {
+          identityService.clearAuthentication();
+        }
+      }
+    };
+    deployer.start();
+    deployer.join();
+
+    // the same user reads its own change from the primary database
+    identityService.setAuthenticatedUserId("kermit");
+    try {
+      assertEquals(1, repositoryService.createDeploymentQuery().count());
+    } finally {
+      identityService.clearAuthentication();
+    }
+
+    // other callers read from the replica
+    assertEquals(0, repositoryService.createDeploymentQuery().count());
+
+    repositoryService.deleteDeployment(getDeploymentIdFromPrimary(), true);
+  }
+
+  public void testQueryFallsBackIfReplicaIsNotAvailable() {
+    replicaDataSource = createDataSource("jdbc:h2:./target/ReadReplicaTest-missing;IFEXISTS=TRUE");
+    processEngine = buildProcessEngine(replicaDataSource, 0);
+
+    RepositoryService repositoryService = processEngine.getRepositoryService();
+    String deploymentId = repositoryService.createDeployment()
+      .addClasspathResource("org/camunda/bpm/engine/test/db/oneJobProcess.bpmn20.xml")
+      .deploy()
+      .getId();
+
+    assertEquals(1, repositoryService.createDeploymentQuery().count());
+    assertEquals(1, repositoryService.createProcessDefinitionQuery().count());
+
+    repositoryService.deleteDeployment(deploymentId, true);
+  }
+
+  protected void createReplicaSchema() throws Exception {
+    // the replica has the schema but none of the data of the process engine
+    Connection connection = replicaDataSource.getConnection();
+    try {
+      processEngine.getManagementService().databaseSchemaUpgrade(connection, null, null);
+    } finally {
+      connection.close();
+    }
+  }
+
+  protected String getDeploymentIdFromPrimary() {
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+    return configuration.getCommandExecutorTxRequired().execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        return new DeploymentQueryImpl().singleResult().getId();
+      }
+    });
+  }
+
+  protected PooledDataSource createDataSource(String url) {
+    return new PooledDataSource(ReflectUtil.getClassLoader(), "org.h2.Driver", url + ";DB_CLOSE_DELAY=1000", "sa", "");
+  }
+
+  protected ProcessEngine buildProcessEngine(PooledDataSource readReplicaDataSource, long maxLag) {
+    return new StandaloneInMemProcessEngineConfiguration()
+      .setReadReplicaDataSource(readReplicaDataSource)
+      .setReadReplicaMaxLag(maxLag)
+      .setProcessEngineName("ReadReplicaTest-engine")
+      .setJdbcUrl("jdbc:h2:mem:ReadReplicaTest")
+      .setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP)
+      .setHistory(ProcessEngineConfiguration.HISTORY_FULL)
+      .buildProcessEngine();
+  }
+
+}
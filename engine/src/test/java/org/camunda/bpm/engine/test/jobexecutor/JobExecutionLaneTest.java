@@ -0,0 +1,196 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.container.impl.jmx.services.JmxManagedThreadPool;
+import org.camunda.bpm.engine.history.HistoricJobLog;
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutionLane;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+
+/**
+ * Tests the execution of jobs in {@link JobExecutionLane execution lanes}.
+ */
+public class JobExecutionLaneTest extends JobExecutorTestCase {
+
+  protected JobExecutionLane executionLane;
+
+  public void setUp() throws Exception {
+    super.setUp();
+
+    executionLane = new JobExecutionLane("tweets");
+    executionLane.getJobHandlerTypes().add(tweetHandler.getType());
+    processEngineConfiguration.getJobExecutor().getExecutionLanes().add(executionLane);
+  }
+
+  public void tearDown() throws Exception {
+    processEngineConfiguration.getJobExecutor().getExecutionLanes().remove(executionLane);
+    deleteHistoricJobLogs();
+    super.tearDown();
+  }
+
+  public void testJobsAreExecutedInMatchingLane() {
+    sendTweets("message-one", "message-two", "message-three");
+
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.start();
+    JmxManagedThreadPool threadPool = executionLane.getThreadPool();
+
+    waitForJobExecutorToProcessAllJobs(10000);
+
+    assertEquals(3, tweetHandler.getMessages().size());
+    assertEquals(3, threadPool.getTaskCount());
+    assertNull(executionLane.getThreadPool());
+  }
+
+  public void testAcquisitionQuotaOfLane() {
+    executionLane.setMaxJobsPerAcquisition(1);
+    sendTweets("message-one", "message-two", "message-three");
+
+    final JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AcquireJobsCmd(jobExecutor));
+
+    assertEquals(1, acquiredJobs.getJobIdBatches().size());
+    assertEquals("tweets", acquiredJobs.getExecutionLane(acquiredJobs.getJobIdBatches().get(0)));
+    assertTrue(executionLane.isAcquisitionThrottled());
+
+    executeAvailableJobs();
+    assertEquals(3, tweetHandler.getMessages().size());
+  }
+
+  public void testJobsWithoutLaneAreNotAssignedToLane() {
+    executionLane.getJobHandlerTypes().clear();
+    sendTweets("message-one");
+
+    AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AcquireJobsCmd(processEngineConfiguration.getJobExecutor()));
+
+    assertEquals(1, acquiredJobs.getJobIdBatches().size());
+    assertNull(acquiredJobs.getExecutionLane(acquiredJobs.getJobIdBatches().get(0)));
+
+    executeAvailableJobs();
+  }
+
+  public void testLaneAtQuotaDoesNotBlockOtherJobs() {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    int maxJobsPerAcquisition = jobExecutor.getMaxJobsPerAcquisition();
+    jobExecutor.setMaxJobsPerAcquisition(1);
+
+    executionLane.getJobHandlerTypes().clear();
+    executionLane.getJobDefinitionIds().add("laneJobDefinition");
+    executionLane.setMaxJobsPerAcquisition(1);
+
+    // the jobs of the lane exceed both quotas
+    sendTweetsInLane("laneJobDefinition", false, null, "lane-one", "lane-two", "lane-three");
+    sendTweets("message-one");
+
+    try {
+      AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+          .execute(new AcquireJobsCmd(jobExecutor));
+
+      // one job of the lane and the job without lane are acquired
+      List<List<String>> jobIdBatches = acquiredJobs.getJobIdBatches();
+      assertEquals(2, jobIdBatches.size());
+      assertEquals("tweets", acquiredJobs.getExecutionLane(jobIdBatches.get(0)));
+      assertNull(acquiredJobs.getExecutionLane(jobIdBatches.get(1)));
+
+    } finally {
+      jobExecutor.setMaxJobsPerAcquisition(maxJobsPerAcquisition);
+    }
+
+    executeAvailableJobs();
+    assertEquals(4, tweetHandler.getMessages().size());
+  }
+
+  public void testExclusiveJobsOfProcessInstanceShareOneLane() {
+    executionLane.getJobHandlerTypes().clear();
+    executionLane.getJobDefinitionIds().add("laneJobDefinition");
+
+    sendTweetsInLane("laneJobDefinition", true, "processInstance", "lane-one", "lane-two");
+    sendTweetsInLane(null, true, "processInstance", "message-one");
+
+    AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AcquireJobsCmd(processEngineConfiguration.getJobExecutor()));
+
+    // the exclusive jobs of the process instance are acquired in one batch in the lane of the
+    // job which was selected first, so that they are not executed at the same time
+    List<List<String>> jobIdBatches = new ArrayList<List<String>>();
+    for (List<String> jobIdBatch : acquiredJobs.getJobIdBatches()) {
+      if (!jobIdBatch.isEmpty()) {
+        jobIdBatches.add(jobIdBatch);
+      }
+    }
+    assertEquals(1, jobIdBatches.size());
+    assertEquals("tweets", acquiredJobs.getExecutionLane(jobIdBatches.get(0)));
+    assertEquals(3, jobIdBatches.get(0).size());
+
+    executeAvailableJobs();
+    assertEquals(3, tweetHandler.getMessages().size());
+  }
+
+  protected void sendTweetsInLane(final String jobDefinitionId, final boolean exclusive, final String processInstanceId, final String... messages) {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        JobManager jobManager = commandContext.getJobManager();
+        for (String message : messages) {
+          MessageEntity tweetMessage = createTweetMessage(message);
+          tweetMessage.setJobDefinitionId(jobDefinitionId);
+          tweetMessage.setExclusive(exclusive);
+          tweetMessage.setProcessInstanceId(processInstanceId);
+          jobManager.send(tweetMessage);
+        }
+        return null;
+      }
+    });
+  }
+
+  protected void sendTweets(final String... messages) {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        JobManager jobManager = commandContext.getJobManager();
+        for (String message : messages) {
+          jobManager.send(createTweetMessage(message));
+        }
+        return null;
+      }
+    });
+  }
+
+  protected void deleteHistoricJobLogs() {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        List<HistoricJobLog> historicJobLogs = processEngineConfiguration
+            .getHistoryService()
+            .createHistoricJobLogQuery()
+            .list();
+
+        for (HistoricJobLog historicJobLog : historicJobLogs) {
+          commandContext
+            .getHistoricJobLogManager()
+            .deleteHistoricJobLogById(historicJobLog.getId());
+        }
+        return null;
+      }
+    });
+  }
+
+}
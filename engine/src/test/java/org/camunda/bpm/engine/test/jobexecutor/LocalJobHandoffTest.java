@@ -0,0 +1,186 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.camunda.bpm.container.impl.jmx.services.JmxManagedThreadPool;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutionLane;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+/**
+ * Tests the hand-off of new jobs to the local job executor
+ * (see {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#setLocalJobHandoffEnabled(boolean)}).
+ */
+public class LocalJobHandoffTest extends PluggableProcessEngineTestCase {
+
+  protected static final BpmnModelInstance ASYNC_PROCESS = Bpmn.createExecutableProcess("testProcess")
+    .startEvent()
+    .userTask("asyncTask")
+      .camundaAsyncBefore()
+    .endEvent()
+    .done();
+
+  protected JobExecutor defaultJobExecutor;
+  protected RecordingJobExecutor recordingJobExecutor;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setLocalJobHandoffEnabled(true);
+
+    defaultJobExecutor = processEngineConfiguration.getJobExecutor();
+    recordingJobExecutor = new RecordingJobExecutor();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setLocalJobHandoffEnabled(false);
+    processEngineConfiguration.setJobExecutor(defaultJobExecutor);
+    recordingJobExecutor.shutdown();
+    recordingJobExecutor.unregisterProcessEngine((ProcessEngineImpl) processEngine);
+    super.tearDown();
+  }
+
+  public void testJobIsHandedOffToActiveJobExecutor() {
+    deployment(ASYNC_PROCESS);
+    useRecordingJobExecutor();
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    // the job is locked by the job executor and handed off without being acquired
+    JobEntity job = (JobEntity) managementService.createJobQuery().singleResult();
+    assertEquals(recordingJobExecutor.getLockOwner(), job.getLockOwner());
+    assertNotNull(job.getLockExpirationTime());
+
+    assertEquals(Collections.singletonList(job.getId()), recordingJobExecutor.handedOffJobIds);
+    assertTrue(recordingJobExecutor.executedJobIds.isEmpty());
+    assertEquals(0, recordingJobExecutor.jobsAdded);
+
+    managementService.executeJob(job.getId());
+    assertNotNull(taskService.createTaskQuery().processInstanceId(processInstance.getId()).taskDefinitionKey("asyncTask").singleResult());
+  }
+
+  public void testRejectedJobIsUnlockedForAcquisition() {
+    deployment(ASYNC_PROCESS);
+    useRecordingJobExecutor();
+    recordingJobExecutor.acceptHandoff = false;
+
+    runtimeService.startProcessInstanceByKey("testProcess");
+
+    // the job executor could not take the job, so it is released and the acquisition is notified
+    JobEntity job = (JobEntity) managementService.createJobQuery().singleResult();
+    assertEquals(Collections.singletonList(job.getId()), recordingJobExecutor.handedOffJobIds);
+    assertNull(job.getLockOwner());
+    assertNull(job.getLockExpirationTime());
+    assertEquals(1, recordingJobExecutor.jobsAdded);
+
+    executeAvailableJobs();
+    assertEquals(0, managementService.createJobQuery().count());
+  }
+
+  public void testJobIsHandedOffToExecutionLane() {
+    deployment(ASYNC_PROCESS);
+
+    JobExecutionLane executionLane = new JobExecutionLane("testProcessLane");
+    executionLane.getProcessDefinitionKeys().add("testProcess");
+    recordingJobExecutor.getExecutionLanes().add(executionLane);
+    useRecordingJobExecutor();
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    // waits until the lane executed the job
+    JmxManagedThreadPool threadPool = executionLane.getThreadPool();
+    recordingJobExecutor.shutdown();
+
+    // the job bypassed the thread pool of the job executor
+    assertTrue(recordingJobExecutor.handedOffJobIds.isEmpty());
+    assertEquals(1, threadPool.getTaskCount());
+
+    assertEquals(0, managementService.createJobQuery().count());
+    assertNotNull(taskService.createTaskQuery().processInstanceId(processInstance.getId()).taskDefinitionKey("asyncTask").singleResult());
+  }
+
+  public void testHandedOffJobIsExecuted() {
+    deployment(ASYNC_PROCESS);
+
+    processEngineConfiguration.getJobExecutor().start();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    waitForJobExecutorToProcessAllJobs(10000);
+
+    assertEquals(0, managementService.createJobQuery().count());
+    assertNotNull(taskService.createTaskQuery().processInstanceId(processInstance.getId()).taskDefinitionKey("asyncTask").singleResult());
+  }
+
+  public void testJobIsNotLockedIfJobExecutorIsNotActive() {
+    deployment(ASYNC_PROCESS);
+
+    runtimeService.startProcessInstanceByKey("testProcess");
+
+    JobEntity job = (JobEntity) managementService.createJobQuery().singleResult();
+    assertNotNull(job);
+    assertNull(job.getLockOwner());
+    assertNull(job.getLockExpirationTime());
+
+    executeAvailableJobs();
+    assertEquals(0, managementService.createJobQuery().count());
+  }
+
+  protected void useRecordingJobExecutor() {
+    processEngineConfiguration.setJobExecutor(recordingJobExecutor);
+    recordingJobExecutor.registerProcessEngine((ProcessEngineImpl) processEngine);
+    recordingJobExecutor.start();
+  }
+
+  /**
+   * A job executor which never acquires jobs but records the jobs it is given.
+   */
+  public static class RecordingJobExecutor extends JobExecutor {
+
+    protected boolean acceptHandoff = true;
+    protected List<String> handedOffJobIds = new ArrayList<String>();
+    protected List<String> executedJobIds = new ArrayList<String>();
+    protected int jobsAdded = 0;
+
+    protected void startExecutingJobs() {
+    }
+
+    protected void stopExecutingJobs() {
+    }
+
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+      executedJobIds.addAll(jobIds);
+    }
+
+    public boolean handOffJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+      handedOffJobIds.addAll(jobIds);
+      return acceptHandoff;
+    }
+
+    public boolean isJobHandoffSupported() {
+      return true;
+    }
+
+    public void jobWasAdded() {
+      jobsAdded++;
+    }
+  }
+
+}
@@ -0,0 +1,267 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.history.HistoricJobLog;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.CheckParkedTimerCmd;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerWheel;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerWheelRunnable;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TimerEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
+
+/**
+ * Tests timers which are parked in a {@link TimerWheel} until they are due.
+ */
+public class TimerWheelTest extends JobExecutorTestCase {
+
+  protected JobExecutor jobExecutor;
+  protected int waitTimeInMillis;
+
+  public void setUp() throws Exception {
+    super.setUp();
+    jobExecutor = processEngineConfiguration.getJobExecutor();
+    waitTimeInMillis = jobExecutor.getWaitTimeInMillis();
+    jobExecutor.setTimerLookaheadInMillis(30000);
+  }
+
+  public void tearDown() throws Exception {
+    jobExecutor.shutdown();
+    jobExecutor.setTimerLookaheadInMillis(0);
+    jobExecutor.setWaitTimeInMillis(waitTimeInMillis);
+    ClockUtil.reset();
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        for (Job job : managementService.createJobQuery().list()) {
+          commandContext.getJobManager().findJobById(job.getId()).delete();
+        }
+        for (HistoricJobLog historicJobLog : historyService.createHistoricJobLogQuery().list()) {
+          commandContext.getHistoricJobLogManager().deleteHistoricJobLogById(historicJobLog.getId());
+        }
+        return null;
+      }
+    });
+    super.tearDown();
+  }
+
+  public void testTimerWheel() {
+    TimerWheel<String> timerWheel = new TimerWheel<String>(10, 4, 2, 1000);
+
+    assertFalse(timerWheel.add("due", 1000));
+    assertTrue(timerWheel.add("first", 1020));
+    assertTrue(timerWheel.add("second", 1200));
+    // beyond the range of the wheel
+    assertTrue(timerWheel.add("third", 2000));
+    assertEquals(3, timerWheel.size());
+
+    assertTrue(timerWheel.advanceTo(1019).isEmpty());
+    assertEquals(Arrays.asList("first"), timerWheel.advanceTo(1020));
+    assertEquals(Arrays.asList("second"), timerWheel.advanceTo(1500));
+    assertTrue(timerWheel.advanceTo(1999).isEmpty());
+    assertEquals(Arrays.asList("third"), timerWheel.advanceTo(2000));
+    assertTrue(timerWheel.isEmpty());
+  }
+
+  public void testTimerIsLockedUntilDuedate() {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    Date duedate = new Date(1010000);
+    createTimer("message", duedate);
+
+    AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AcquireJobsCmd(jobExecutor));
+
+    assertTrue(acquiredJobs.getJobIdBatches().isEmpty());
+    assertEquals(1, acquiredJobs.getTimersToPark().size());
+    assertEquals(duedate, acquiredJobs.getTimersToPark().values().iterator().next());
+
+    JobEntity timer = (JobEntity) managementService.createJobQuery().singleResult();
+    assertEquals(jobExecutor.getLockOwner(), timer.getLockOwner());
+    assertEquals(duedate.getTime() + jobExecutor.getLockTimeInMillis(), timer.getLockExpirationTime().getTime());
+  }
+
+  public void testTimerAfterLookaheadIsNotLocked() {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    createTimer("message", new Date(1060000));
+
+    AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AcquireJobsCmd(jobExecutor));
+
+    assertTrue(acquiredJobs.getTimersToPark().isEmpty());
+    assertNull(((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+  }
+
+  public void testParkedTimerIsExecutedAtDuedate() throws Exception {
+    // the acquisition does not poll again before the timer is due
+    jobExecutor.setWaitTimeInMillis(60000);
+    createTimer("message", new Date(ClockUtil.getCurrentTime().getTime() + 1000));
+
+    jobExecutor.start();
+
+    long maxWaitTime = System.currentTimeMillis() + 10000;
+    while (managementService.createJobQuery().count() > 0 && System.currentTimeMillis() < maxWaitTime) {
+      Thread.sleep(100);
+    }
+
+    assertEquals(0, managementService.createJobQuery().count());
+    assertEquals(Arrays.asList("message"), tweetHandler.getMessages());
+  }
+
+  public void testLocksOfParkedTimersAreReleasedOnShutdown() throws Exception {
+    createTimer("message", new Date(ClockUtil.getCurrentTime().getTime() + 20000));
+
+    jobExecutor.start();
+
+    long maxWaitTime = System.currentTimeMillis() + 10000;
+    while (jobExecutor.getTimerWheelRunnable().getNumberOfParkedTimers() == 0 && System.currentTimeMillis() < maxWaitTime) {
+      Thread.sleep(100);
+    }
+    assertEquals(1, jobExecutor.getTimerWheelRunnable().getNumberOfParkedTimers());
+
+    jobExecutor.shutdown();
+
+    JobEntity timer = (JobEntity) managementService.createJobQuery().singleResult();
+    assertNull(timer.getLockOwner());
+    assertNull(timer.getLockExpirationTime());
+    assertTrue(tweetHandler.getMessages().isEmpty());
+  }
+
+  public void testDueParkedTimerIsExecuted() {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    Date duedate = new Date(1010000);
+    String timerId = createAndAcquireTimer(duedate);
+
+    ClockUtil.setCurrentTime(duedate);
+
+    assertNotNull(checkParkedTimer(timerId));
+    assertEquals(jobExecutor.getLockOwner(), ((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+  }
+
+  public void testParkedTimerWhichIsNotDueIsUnlocked() {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    String timerId = createAndAcquireTimer(new Date(1010000));
+
+    // e.g. the due date was changed after the timer was parked
+    assertNull(checkParkedTimer(timerId));
+    assertNull(((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+  }
+
+  public void testSuspendedParkedTimerIsUnlocked() {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    Date duedate = new Date(1010000);
+    String timerId = createAndAcquireTimer(duedate);
+
+    managementService.suspendJobById(timerId);
+    ClockUtil.setCurrentTime(duedate);
+
+    assertNull(checkParkedTimer(timerId));
+    assertNull(((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+  }
+
+  public void testParkedTimerOfOtherLockOwnerIsNotExecuted() {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    Date duedate = new Date(1010000);
+    final String timerId = createAndAcquireTimer(duedate);
+    ClockUtil.setCurrentTime(duedate);
+
+    JobEntity timer = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new CheckParkedTimerCmd(timerId, "otherLockOwner"));
+
+    assertNull(timer);
+    assertEquals(jobExecutor.getLockOwner(), ((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+  }
+
+  public void testDueParkedTimerIsUnlockedIfHandoffIsNotSupported() throws Exception {
+    ClockUtil.setCurrentTime(new Date(1000000));
+    Date duedate = new Date(1010000);
+    String timerId = createAndAcquireTimer(duedate);
+
+    NonHandoffJobExecutor nonHandoffJobExecutor = new NonHandoffJobExecutor();
+    nonHandoffJobExecutor.setAutoActivate(false);
+    nonHandoffJobExecutor.setLockOwner(jobExecutor.getLockOwner());
+    nonHandoffJobExecutor.registerProcessEngine((ProcessEngineImpl) processEngine);
+
+    TimerWheelRunnable timerWheelRunnable = new TimerWheelRunnable(nonHandoffJobExecutor);
+    Thread timerWheelThread = new Thread(timerWheelRunnable);
+    timerWheelThread.start();
+
+    try {
+      ClockUtil.setCurrentTime(duedate);
+      timerWheelRunnable.park(timerId, duedate, (ProcessEngineImpl) processEngine);
+
+      long maxWaitTime = System.currentTimeMillis() + 10000;
+      while (((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner() != null
+          && System.currentTimeMillis() < maxWaitTime) {
+        Thread.sleep(100);
+      }
+
+    } finally {
+      timerWheelRunnable.stop();
+      timerWheelThread.join();
+    }
+
+    // the timer is acquired again instead of being executed in the timer wheel thread
+    assertNull(((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+    assertTrue(nonHandoffJobExecutor.executedJobIds.isEmpty());
+  }
+
+  protected String createAndAcquireTimer(Date duedate) {
+    createTimer("message", duedate);
+    AcquiredJobs acquiredJobs = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AcquireJobsCmd(jobExecutor));
+    return acquiredJobs.getTimersToPark().keySet().iterator().next();
+  }
+
+  protected JobEntity checkParkedTimer(String timerId) {
+    return processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new CheckParkedTimerCmd(timerId, jobExecutor.getLockOwner()));
+  }
+
+  protected void createTimer(final String message, final Date duedate) {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        TimerEntity timer = createTweetTimer(message, duedate);
+        commandContext.getJobManager().schedule(timer);
+        return null;
+      }
+    });
+  }
+
+  public static class NonHandoffJobExecutor extends JobExecutor {
+
+    protected List<String> executedJobIds = new ArrayList<String>();
+
+    protected void startExecutingJobs() {
+    }
+
+    protected void stopExecutingJobs() {
+    }
+
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+      executedJobIds.addAll(jobIds);
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.variables;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class CompactBinarySerializable implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public enum Status { ACTIVE, CLOSED }
+
+  protected String name;
+  protected int count;
+  protected long amountInCents;
+  protected double rate;
+  protected boolean flagged;
+  protected Date created;
+  protected BigDecimal price;
+  protected Status status;
+  protected UUID reference;
+  protected int[] scores;
+  protected List<CompactBinarySerializable> children = new ArrayList<CompactBinarySerializable>();
+  protected Map<String, Object> properties = new LinkedHashMap<String, Object>();
+  protected CompactBinarySerializable parent;
+  protected transient String cachedDescription;
+
+  public CompactBinarySerializable() {
+  }
+
+  public CompactBinarySerializable(String name, int count) {
+    this.name = name;
+    this.count = count;
+    this.amountInCents = count * 100000000L;
+    this.rate = count / 3.0;
+    this.flagged = count % 2 == 0;
+    this.created = new Date(1000000L * count);
+    this.price = new BigDecimal("12.34").multiply(BigDecimal.valueOf(count));
+    this.status = flagged ? Status.ACTIVE : Status.CLOSED;
+    this.reference = new UUID(count, count);
+    this.scores = new int[] { count, -count };
+    this.properties.put("name", name);
+    this.properties.put("count", count);
+    this.cachedDescription = name + count;
+  }
+
+  public void addChild(CompactBinarySerializable child) {
+    child.parent = this;
+    children.add(child);
+  }
+
+  public List<CompactBinarySerializable> getChildren() {
+    return children;
+  }
+
+  public CompactBinarySerializable getParent() {
+    return parent;
+  }
+
+  public String getCachedDescription() {
+    return cachedDescription;
+  }
+
+  public int hashCode() {
+    return name == null ? 0 : name.hashCode();
+  }
+
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    // the parent is not compared to avoid the cycle
+    CompactBinarySerializable other = (CompactBinarySerializable) obj;
+    return equal(name, other.name)
+        && count == other.count
+        && amountInCents == other.amountInCents
+        && rate == other.rate
+        && flagged == other.flagged
+        && equal(created, other.created)
+        && equal(price, other.price)
+        && status == other.status
+        && equal(reference, other.reference)
+        && java.util.Arrays.equals(scores, other.scores)
+        && equal(children, other.children)
+        && equal(properties, other.properties);
+  }
+
+  protected static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+}
@@ -0,0 +1,143 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.variables;
+
+import static org.camunda.bpm.engine.variable.Variables.objectValue;
+import static org.camunda.bpm.engine.variable.Variables.serializedObjectValue;
+
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+
+public class CompactBinarySerializationTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/variables/oneTaskProcess.bpmn20.xml";
+
+  protected static final String COMPACT_BINARY_DATA_FORMAT = Variables.SerializationDataFormats.COMPACT_BINARY.getName();
+  protected static final String JAVA_DATA_FORMAT = Variables.SerializationDataFormats.JAVA.getName();
+
+  protected String originalSerializationFormat;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    originalSerializationFormat = processEngineConfiguration.getDefaultSerializationFormat();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setDefaultSerializationFormat(originalSerializationFormat);
+    getSerializer().setCompressionThreshold(0);
+    super.tearDown();
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSerializationAsCompactBinary() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    CompactBinarySerializable bean = createObjectGraph(3);
+    runtimeService.setVariable(instance.getId(), "bean", objectValue(bean).serializationDataFormat(COMPACT_BINARY_DATA_FORMAT).create());
+
+    CompactBinarySerializable value = (CompactBinarySerializable) runtimeService.getVariable(instance.getId(), "bean");
+    assertEquals(bean, value);
+    assertNull(value.getCachedDescription());
+
+    // references are preserved, including cycles
+    for (CompactBinarySerializable child : value.getChildren()) {
+      assertSame(value, child.getParent());
+    }
+
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "bean");
+    assertEquals(COMPACT_BINARY_DATA_FORMAT, typedValue.getSerializationDataFormat());
+    assertEquals(CompactBinarySerializable.class.getName(), typedValue.getObjectTypeName());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testDefaultSerializationFormat() {
+    processEngineConfiguration.setDefaultSerializationFormat(COMPACT_BINARY_DATA_FORMAT);
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    CompactBinarySerializable bean = createObjectGraph(2);
+    runtimeService.setVariable(instance.getId(), "bean", bean);
+
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "bean");
+    assertEquals(COMPACT_BINARY_DATA_FORMAT, typedValue.getSerializationDataFormat());
+    assertEquals(bean, typedValue.getValue());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSetSerializedValue() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    CompactBinarySerializable bean = createObjectGraph(2);
+    runtimeService.setVariable(instance.getId(), "bean", objectValue(bean).serializationDataFormat(COMPACT_BINARY_DATA_FORMAT).create());
+    ObjectValue serializedValue = runtimeService.getVariableTyped(instance.getId(), "bean", false);
+
+    runtimeService.setVariable(instance.getId(), "copy",
+        serializedObjectValue(serializedValue.getValueSerialized())
+        .serializationDataFormat(COMPACT_BINARY_DATA_FORMAT)
+        .objectTypeName(CompactBinarySerializable.class.getName())
+        .create());
+
+    assertEquals(bean, runtimeService.getVariable(instance.getId(), "copy"));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCompactBinaryIsSmallerThanJavaSerialization() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    CompactBinarySerializable bean = createObjectGraph(50);
+    runtimeService.setVariable(instance.getId(), "compact", objectValue(bean).serializationDataFormat(COMPACT_BINARY_DATA_FORMAT).create());
+    runtimeService.setVariable(instance.getId(), "java", objectValue(bean).serializationDataFormat(JAVA_DATA_FORMAT).create());
+
+    ObjectValue compactValue = runtimeService.getVariableTyped(instance.getId(), "compact", false);
+    ObjectValue javaValue = runtimeService.getVariableTyped(instance.getId(), "java", false);
+
+    assertTrue(compactValue.getValueSerialized().length() < javaValue.getValueSerialized().length());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCompression() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    CompactBinarySerializable bean = createObjectGraph(50);
+    runtimeService.setVariable(instance.getId(), "uncompressed", objectValue(bean).serializationDataFormat(COMPACT_BINARY_DATA_FORMAT).create());
+
+    getSerializer().setCompressionThreshold(100);
+    runtimeService.setVariable(instance.getId(), "compressed", objectValue(bean).serializationDataFormat(COMPACT_BINARY_DATA_FORMAT).create());
+
+    ObjectValue uncompressedValue = runtimeService.getVariableTyped(instance.getId(), "uncompressed", false);
+    ObjectValue compressedValue = runtimeService.getVariableTyped(instance.getId(), "compressed", false);
+    assertTrue(compressedValue.getValueSerialized().length() < uncompressedValue.getValueSerialized().length());
+
+    // both values can be read regardless of the threshold
+    getSerializer().setCompressionThreshold(0);
+    assertEquals(bean, runtimeService.getVariable(instance.getId(), "compressed"));
+    assertEquals(bean, runtimeService.getVariable(instance.getId(), "uncompressed"));
+  }
+
+  protected CompactBinarySerializable createObjectGraph(int numberOfChildren) {
+    CompactBinarySerializable root = new CompactBinarySerializable("root", 0);
+    for (int i = 1; i <= numberOfChildren; i++) {
+      root.addChild(new CompactBinarySerializable("child" + i, i));
+    }
+    return root;
+  }
+
+  protected CompactBinaryObjectSerializer getSerializer() {
+    return (CompactBinaryObjectSerializer) processEngineConfiguration.getVariableSerializers()
+        .getSerializerByName(CompactBinaryObjectSerializer.NAME);
+  }
+
+}
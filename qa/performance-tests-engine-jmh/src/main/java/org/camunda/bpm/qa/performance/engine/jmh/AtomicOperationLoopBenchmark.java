@@ -0,0 +1,75 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures starting a process instance which runs through a sequence of manual tasks in one
+ * transaction, with and without executing the atomic operations in a loop instead of
+ * recursively.
+ */
+@State(Scope.Thread)
+public class AtomicOperationLoopBenchmark extends ProcessEngineBenchmarkState {
+
+  public static final String PROCESS_KEY = "sequence";
+
+  @Param({"false", "true"})
+  public boolean atomicOperationLoopEnabled;
+
+  @Param({"10", "100"})
+  public int numberOfTasks;
+
+  protected void configure(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    processEngineConfiguration.setAtomicOperationLoopEnabled(atomicOperationLoopEnabled);
+  }
+
+  protected void setUp() {
+    deploy("sequence.bpmn", createSequenceProcess(numberOfTasks));
+  }
+
+  protected String createSequenceProcess(int numberOfTasks) {
+    StringBuilder process = new StringBuilder()
+      .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+      .append("<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\" targetNamespace=\"Examples\">")
+      .append("<process id=\"").append(PROCESS_KEY).append("\" isExecutable=\"true\">")
+      .append("<startEvent id=\"start\" />");
+
+    String previousActivityId = "start";
+    for (int i = 0; i < numberOfTasks; i++) {
+      String activityId = "task" + i;
+      process.append("<sequenceFlow id=\"flow").append(i).append("\" sourceRef=\"").append(previousActivityId)
+        .append("\" targetRef=\"").append(activityId).append("\" />")
+        .append("<manualTask id=\"").append(activityId).append("\" />");
+      previousActivityId = activityId;
+    }
+
+    return process
+      .append("<sequenceFlow id=\"flowToEnd\" sourceRef=\"").append(previousActivityId).append("\" targetRef=\"end\" />")
+      .append("<endEvent id=\"end\" />")
+      .append("</process>")
+      .append("</definitions>")
+      .toString();
+  }
+
+  @Benchmark
+  public ProcessInstance startProcessInstance() {
+    return runtimeService.startProcessInstanceByKey(PROCESS_KEY);
+  }
+
+}
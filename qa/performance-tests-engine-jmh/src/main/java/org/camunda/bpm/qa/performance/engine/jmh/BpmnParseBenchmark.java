@@ -0,0 +1,64 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.camunda.bpm.engine.impl.bpmn.deployer.BpmnDeployer;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParser;
+import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
+import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the throughput of parsing a BPMN 2.0 process with the parser of the process engine,
+ * including schema validation and the parse listeners.
+ */
+@State(Scope.Thread)
+public class BpmnParseBenchmark extends ProcessEngineBenchmarkState {
+
+  public static final String PROCESS_RESOURCE = "org/camunda/bpm/qa/performance/engine/jmh/parseBenchmark.bpmn";
+
+  protected BpmnParser bpmnParser;
+  protected byte[] processBytes;
+
+  protected void setUp() {
+    for (Deployer deployer : processEngineConfiguration.getDeployers()) {
+      if (deployer instanceof BpmnDeployer) {
+        bpmnParser = ((BpmnDeployer) deployer).getBpmnParser();
+      }
+    }
+
+    InputStream resource = getClass().getClassLoader().getResourceAsStream(PROCESS_RESOURCE);
+    try {
+      processBytes = IoUtil.readInputStream(resource, PROCESS_RESOURCE);
+    } finally {
+      IoUtil.closeSilently(resource);
+    }
+  }
+
+  @Benchmark
+  public BpmnParse parse() {
+    return bpmnParser.createParse()
+      .sourceInputStream(new ByteArrayInputStream(processBytes))
+      .deployment(new DeploymentEntity())
+      .name(PROCESS_RESOURCE)
+      .execute();
+  }
+
+}
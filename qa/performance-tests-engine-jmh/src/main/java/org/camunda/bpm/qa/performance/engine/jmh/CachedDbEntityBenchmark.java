@@ -0,0 +1,104 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityState;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link CachedDbEntity#isDirty()}, which is checked for each persistent entity in the
+ * entity cache when a command is flushed, for unchanged and changed entities.
+ */
+@State(Scope.Thread)
+public class CachedDbEntityBenchmark {
+
+  protected CachedDbEntity unchangedExecution;
+  protected CachedDbEntity changedExecution;
+  protected CachedDbEntity unchangedTask;
+  protected CachedDbEntity changedTask;
+
+  @Setup(Level.Trial)
+  public void cacheEntities() {
+    unchangedExecution = cache(createExecution("execution1"));
+
+    ExecutionEntity execution = createExecution("execution2");
+    changedExecution = cache(execution);
+    execution.setActivityInstanceId("task:2");
+
+    unchangedTask = cache(createTask("task1"));
+
+    TaskEntity task = createTask("task2");
+    changedTask = cache(task);
+    task.setAssigneeWithoutCascade("gonzo");
+  }
+
+  protected ExecutionEntity createExecution(String id) {
+    ExecutionEntity execution = new ExecutionEntity();
+    execution.setId(id);
+    execution.setProcessInstanceId("processInstance");
+    execution.setParentId("processInstance");
+    execution.setProcessDefinitionId("process:1:1");
+    execution.setActivityId("task");
+    execution.setActivityInstanceId("task:1");
+    execution.setBusinessKey("businessKey");
+    return execution;
+  }
+
+  protected TaskEntity createTask(String id) {
+    TaskEntity task = new TaskEntity(id);
+    task.setNameWithoutCascade("Review Order");
+    task.setAssigneeWithoutCascade("kermit");
+    task.setExecutionId("execution");
+    task.setProcessInstanceId("processInstance");
+    task.setProcessDefinitionId("process:1:1");
+    task.setTaskDefinitionKey("task");
+    return task;
+  }
+
+  protected CachedDbEntity cache(DbEntity entity) {
+    CachedDbEntity cachedEntity = new CachedDbEntity();
+    cachedEntity.setEntity(entity);
+    cachedEntity.setEntityState(DbEntityState.PERSISTENT);
+    cachedEntity.makeCopy();
+    return cachedEntity;
+  }
+
+  @Benchmark
+  public boolean unchangedExecution() {
+    return unchangedExecution.isDirty();
+  }
+
+  @Benchmark
+  public boolean changedExecution() {
+    return changedExecution.isDirty();
+  }
+
+  @Benchmark
+  public boolean unchangedTask() {
+    return unchangedTask.isDirty();
+  }
+
+  @Benchmark
+  public boolean changedTask() {
+    return changedTask.isDirty();
+  }
+
+}
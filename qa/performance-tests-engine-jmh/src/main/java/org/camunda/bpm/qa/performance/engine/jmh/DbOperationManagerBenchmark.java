@@ -0,0 +1,96 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationManager;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>Measures how long {@link DbOperationManager#calculateFlush()} takes to order the operations
+ * of a command which inserts a process instance with a number of concurrent child executions,
+ * a task and a variable per child execution, and deletes the executions of a previous
+ * process instance.</p>
+ *
+ * <p>Executions reference each other, so that their inserts and deletes are sorted by their
+ * references.</p>
+ */
+@State(Scope.Thread)
+public class DbOperationManagerBenchmark {
+
+  @Param({"1", "10", "50"})
+  public int executionsPerProcessInstance;
+
+  protected DbOperationManager operationManager;
+
+  @Setup(Level.Trial)
+  public void addOperations() {
+    operationManager = new DbOperationManager();
+
+    // the ids order the child executions before their parent, so that they are reordered by their references
+    addExecutionTree("inserted", DbOperationType.INSERT);
+    addExecutionTree("deleted", DbOperationType.DELETE);
+
+    for (int i = 0; i < executionsPerProcessInstance; i++) {
+      TaskEntity task = new TaskEntity();
+      task.setId("task" + i);
+      addOperation(task, DbOperationType.INSERT);
+
+      VariableInstanceEntity variable = new VariableInstanceEntity();
+      variable.setId("variable" + i);
+      addOperation(variable, DbOperationType.UPDATE);
+    }
+  }
+
+  protected void addExecutionTree(String idPrefix, DbOperationType operationType) {
+    ExecutionEntity processInstance = new ExecutionEntity();
+    processInstance.setId(idPrefix + "-processInstance");
+
+    for (int i = 0; i < executionsPerProcessInstance; i++) {
+      ExecutionEntity child = new ExecutionEntity();
+      child.setId(idPrefix + "-child" + i);
+      child.setParentId(processInstance.getId());
+      child.setProcessInstanceId(processInstance.getId());
+      addOperation(child, operationType);
+    }
+
+    addOperation(processInstance, operationType);
+  }
+
+  protected void addOperation(DbEntity entity, DbOperationType operationType) {
+    DbEntityOperation operation = new DbEntityOperation();
+    operation.setEntity(entity);
+    operation.setEntityType(entity.getClass());
+    operation.setOperationType(operationType);
+    operationManager.addOperation(operation);
+  }
+
+  @Benchmark
+  public List<DbOperation> calculateFlush() {
+    return operationManager.calculateFlush();
+  }
+
+}
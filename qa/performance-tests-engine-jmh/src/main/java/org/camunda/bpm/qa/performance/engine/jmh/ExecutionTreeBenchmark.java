@@ -0,0 +1,103 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ProcessDefinitionImpl;
+import org.camunda.bpm.engine.impl.pvm.runtime.PvmExecutionImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>Measures the navigation of an execution tree which is completely loaded, as it is after the
+ * execution tree was prefetched.</p>
+ *
+ * <p>The process instance has a number of concurrent executions, each of which has a scope
+ * execution for a task.</p>
+ */
+@State(Scope.Thread)
+public class ExecutionTreeBenchmark {
+
+  @Param({"10", "100"})
+  public int numberOfConcurrentExecutions;
+
+  protected ExecutionEntity processInstance;
+  protected ExecutionEntity lastTaskExecution;
+  protected String lastTaskId;
+
+  @Setup(Level.Trial)
+  public void createExecutionTree() {
+    ProcessDefinitionImpl processDefinition = new ProcessDefinitionImpl("process");
+
+    processInstance = createExecution("processInstance", null);
+    processInstance.setProcessInstance(processInstance);
+
+    for (int i = 0; i < numberOfConcurrentExecutions; i++) {
+      ExecutionEntity concurrentExecution = createExecution("concurrent" + i, processInstance);
+      concurrentExecution.setConcurrent(true);
+      concurrentExecution.setScope(false);
+
+      lastTaskId = "task" + i;
+      lastTaskExecution = createExecution("scope" + i, concurrentExecution);
+      lastTaskExecution.setActivity(processDefinition.createActivity(lastTaskId));
+    }
+  }
+
+  protected ExecutionEntity createExecution(String id, ExecutionEntity parent) {
+    ExecutionEntity execution = new ExecutionEntity();
+    execution.setId(id);
+    execution.setExecutions(new ArrayList<ExecutionEntity>());
+    if (parent != null) {
+      execution.setParent(parent);
+      execution.setProcessInstance(parent.getProcessInstance());
+      parent.getExecutions().add(execution);
+    }
+    return execution;
+  }
+
+  @Benchmark
+  public PvmExecutionImpl findExecutionByActivity() {
+    return processInstance.findExecution(lastTaskId);
+  }
+
+  @Benchmark
+  public ExecutionEntity navigateToProcessInstance() {
+    ExecutionEntity execution = lastTaskExecution;
+    while (execution.getParent() != null) {
+      execution = execution.getParent();
+    }
+    return execution.getProcessInstance();
+  }
+
+  @Benchmark
+  public int collectExecutions() {
+    List<ExecutionEntity> executions = new ArrayList<ExecutionEntity>();
+    collectExecutions(processInstance, executions);
+    return executions.size();
+  }
+
+  protected void collectExecutions(ExecutionEntity execution, List<ExecutionEntity> executions) {
+    executions.add(execution);
+    for (ExecutionEntity childExecution : execution.getExecutions()) {
+      collectExecutions(childExecution, executions);
+    }
+  }
+
+}
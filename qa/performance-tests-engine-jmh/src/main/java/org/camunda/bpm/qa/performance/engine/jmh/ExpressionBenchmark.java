@@ -0,0 +1,60 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.delegate.Expression;
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+import org.camunda.bpm.engine.impl.pvm.runtime.ExecutionImpl;
+import org.camunda.bpm.qa.performance.engine.jmh.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the evaluation of JUEL expressions as they are used in sequence flow conditions,
+ * task assignments and expression delegates. The expressions are parsed once, like the
+ * expressions of a deployed process, and evaluated against an in-memory execution.
+ */
+@State(Scope.Thread)
+public class ExpressionBenchmark extends ProcessEngineBenchmarkState {
+
+  @Param({
+    "${approved}",
+    "${amount > 1000 && customer == 'kermit'}",
+    "${order.items[0].price * order.items[0].quantity}",
+    "${order.getItems().size() > 5}",
+    "${customer.concat('-').concat(order.id)}"
+  })
+  public String expressionText;
+
+  protected Expression expression;
+  protected ExecutionImpl execution;
+
+  protected void setUp() {
+    ExpressionManager expressionManager = processEngineConfiguration.getExpressionManager();
+    expression = expressionManager.createExpression(expressionText);
+
+    execution = new ExecutionImpl();
+    execution.setVariable("approved", true);
+    execution.setVariable("amount", 1500);
+    execution.setVariable("customer", "kermit");
+    execution.setVariable("order", Order.createOrder(10));
+  }
+
+  @Benchmark
+  public Object evaluate() {
+    return expression.getValue(execution);
+  }
+
+}
@@ -0,0 +1,141 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultSet;
+import org.camunda.bpm.qa.performance.engine.util.CsvUtil;
+import org.camunda.bpm.qa.performance.engine.util.FileUtil;
+import org.camunda.bpm.qa.performance.engine.util.ReportUtil;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the microbenchmarks and writes their results in the same formats as the benchmark
+ * report: a JSON and a CSV serialization of a {@link TabularResultSet} and an HTML report.</p>
+ *
+ * <p>The benchmarks to run and the number of forks and iterations are read from the system
+ * properties <code>benchmarks</code> (a regular expression), <code>forks</code>,
+ * <code>warmupIterations</code> and <code>measurementIterations</code>. If the system property
+ * <code>longTermBenchmarkResultFile</code> is set, the results are appended to this CSV file.</p>
+ */
+public class MicrobenchmarkReport {
+
+  public static final List<String> RESULT_COLUMN_NAMES = Arrays.asList(
+      "benchmark", "parameters", "mode", "score", "error", "units");
+
+  public static void main(String[] args) throws RunnerException {
+
+    final String reportsFolder = "target"+File.separatorChar+"reports";
+
+    Options options = new OptionsBuilder()
+      .include(System.getProperty("benchmarks", MicrobenchmarkReport.class.getPackage().getName()))
+      .forks(Integer.getInteger("forks", 1))
+      .warmupIterations(Integer.getInteger("warmupIterations", 5))
+      .measurementIterations(Integer.getInteger("measurementIterations", 5))
+      .build();
+
+    Collection<RunResult> runResults = new Runner(options).run();
+
+    TabularResultSet resultSet = createResultSet(runResults);
+
+    String longTermBenchmarkResultFilename = System.getProperty("longTermBenchmarkResultFile");
+    if (longTermBenchmarkResultFilename != null && longTermBenchmarkResultFilename.length() > 0) {
+      appendLongTermResults(resultSet, longTermBenchmarkResultFilename);
+    }
+
+    ReportUtil.writeReport(reportsFolder, "microbenchmark", resultSet, "Microbenchmark Report", null, false);
+  }
+
+  public static TabularResultSet createResultSet(Collection<RunResult> runResults) {
+    TabularResultSet resultSet = new TabularResultSet();
+    resultSet.setResultColumnNames(new ArrayList<String>(RESULT_COLUMN_NAMES));
+
+    for (RunResult runResult : runResults) {
+      BenchmarkParams params = runResult.getParams();
+      String benchmarkName = params.getBenchmark().substring(MicrobenchmarkReport.class.getPackage().getName().length() + 1);
+
+      resultSet.addResultRow(createResultRow(benchmarkName, params, runResult.getPrimaryResult()));
+
+      // secondary results like the auxiliary counters of a benchmark get a row of their own
+      for (Entry<String, Result> secondaryResult : runResult.getSecondaryResults().entrySet()) {
+        resultSet.addResultRow(createResultRow(benchmarkName + ":" + secondaryResult.getKey(), params, secondaryResult.getValue()));
+      }
+    }
+
+    return resultSet;
+  }
+
+  protected static List<Object> createResultRow(String benchmarkName, BenchmarkParams params, Result<?> result) {
+    List<Object> row = new ArrayList<Object>();
+    row.add(benchmarkName);
+    row.add(formatParameters(params));
+    row.add(params.getMode().shortLabel());
+    row.add(result.getScore());
+    row.add(result.getScoreError());
+    row.add(result.getScoreUnit());
+    return row;
+  }
+
+  protected static String formatParameters(BenchmarkParams params) {
+    StringBuilder parameters = new StringBuilder();
+    for (String key : params.getParamsKeys()) {
+      if (parameters.length() > 0) {
+        parameters.append(", ");
+      }
+      parameters.append(key).append("=").append(params.getParam(key));
+    }
+    return parameters.toString();
+  }
+
+  protected static void appendLongTermResults(TabularResultSet resultSet, String longTermBenchmarkResultFilename) {
+    File longTermBenchmarkResultFile = new File(longTermBenchmarkResultFilename);
+    if (longTermBenchmarkResultFile.getParentFile() != null) {
+      longTermBenchmarkResultFile.getParentFile().mkdirs();
+    }
+
+    TabularResultSet longTermResultSet = new TabularResultSet();
+    List<String> columnNames = new ArrayList<String>();
+    columnNames.add("starttime");
+    columnNames.addAll(resultSet.getResultColumnNames());
+    longTermResultSet.setResultColumnNames(columnNames);
+
+    String startTime = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+    for (List<Object> row : resultSet.getResults()) {
+      List<Object> longTermRow = new ArrayList<Object>();
+      longTermRow.add(startTime);
+      longTermRow.addAll(row);
+      longTermResultSet.addResultRow(longTermRow);
+    }
+
+    if (longTermBenchmarkResultFile.exists()) {
+      FileUtil.appendStringToFile(CsvUtil.resultSetAsCsvLine(longTermResultSet), longTermBenchmarkResultFilename);
+    } else {
+      FileUtil.appendStringToFile(CsvUtil.resultSetAsCsv(longTermResultSet), longTermBenchmarkResultFilename);
+    }
+  }
+
+}
@@ -0,0 +1,178 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.JavaObjectSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.camunda.bpm.qa.performance.engine.jmh.model.Order;
+import org.camunda.spin.DataFormats;
+import org.camunda.spin.plugin.impl.SpinProcessEnginePlugin;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>Measures how object variables are written to and read from the value fields of a variable
+ * instance with Java serialization, the compact binary format and Spin JSON.</p>
+ *
+ * <p>{@link #serialize(SerializedBytes)} reports the number of bytes it writes as the secondary
+ * result <code>serializedBytes</code>. Divided by the score, it is the size of a serialized
+ * order.</p>
+ */
+@State(Scope.Thread)
+public class ObjectSerializerBenchmark extends ProcessEngineBenchmarkState {
+
+  public static final String SPIN_JSON = "spin-json";
+
+  @Param({JavaObjectSerializer.NAME, CompactBinaryObjectSerializer.NAME, SPIN_JSON})
+  public String serializerName;
+
+  @Param({"1", "100"})
+  public int numberOfItems;
+
+  @SuppressWarnings("rawtypes")
+  protected TypedValueSerializer serializer;
+  protected Order order;
+  protected InMemoryValueFields serializedOrder;
+
+  protected void configure(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    processEngineConfiguration.getProcessEnginePlugins().add(new SpinProcessEnginePlugin());
+  }
+
+  @SuppressWarnings("unchecked")
+  protected void setUp() {
+    if (SPIN_JSON.equals(serializerName)) {
+      serializer = processEngineConfiguration.getVariableSerializers()
+          .getSerializerByName("spin://" + DataFormats.json().getName());
+    } else {
+      serializer = processEngineConfiguration.getVariableSerializers().getSerializerByName(serializerName);
+    }
+
+    order = Order.createOrder(numberOfItems);
+
+    serializedOrder = new InMemoryValueFields();
+    serializer.writeValue(Variables.objectValue(order).create(), serializedOrder);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark
+  public ValueFields serialize(SerializedBytes counters) {
+    ObjectValue value = Variables.objectValue(order).create();
+    InMemoryValueFields valueFields = new InMemoryValueFields();
+    serializer.writeValue(value, valueFields);
+    counters.serializedBytes += valueFields.getByteArrayValue().getBytes().length;
+    return valueFields;
+  }
+
+  @Benchmark
+  public TypedValue deserialize() {
+    return serializer.readValue(serializedOrder, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark
+  public TypedValue roundTrip() {
+    InMemoryValueFields valueFields = new InMemoryValueFields();
+    serializer.writeValue(Variables.objectValue(order).create(), valueFields);
+    return serializer.readValue(valueFields, true);
+  }
+
+  /**
+   * Counts the bytes written by the serializer of a benchmark thread.
+   */
+  @State(Scope.Thread)
+  @AuxCounters
+  public static class SerializedBytes {
+
+    public long serializedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      serializedBytes = 0;
+    }
+
+  }
+
+  /**
+   * Holds the value fields of a variable in memory instead of a variable instance entity.
+   */
+  public static class InMemoryValueFields implements ValueFields {
+
+    protected String textValue;
+    protected String textValue2;
+    protected Long longValue;
+    protected Double doubleValue;
+    protected ByteArrayEntity byteArrayValue;
+
+    public String getName() {
+      return "order";
+    }
+
+    public String getTextValue() {
+      return textValue;
+    }
+
+    public void setTextValue(String textValue) {
+      this.textValue = textValue;
+    }
+
+    public String getTextValue2() {
+      return textValue2;
+    }
+
+    public void setTextValue2(String textValue2) {
+      this.textValue2 = textValue2;
+    }
+
+    public Long getLongValue() {
+      return longValue;
+    }
+
+    public void setLongValue(Long longValue) {
+      this.longValue = longValue;
+    }
+
+    public Double getDoubleValue() {
+      return doubleValue;
+    }
+
+    public void setDoubleValue(Double doubleValue) {
+      this.doubleValue = doubleValue;
+    }
+
+    public String getByteArrayValueId() {
+      return null;
+    }
+
+    public ByteArrayEntity getByteArrayValue() {
+      return byteArrayValue;
+    }
+
+    public void setByteArrayValue(byte[] bytes) {
+      byteArrayValue = new ByteArrayEntity(bytes);
+    }
+
+  }
+
+}
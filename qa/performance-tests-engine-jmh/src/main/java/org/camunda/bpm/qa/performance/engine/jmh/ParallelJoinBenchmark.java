@@ -0,0 +1,90 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * <p>Measures a process instance whose parallel gateway forks into a number of user tasks which
+ * are joined again, with and without the conflict-free join.</p>
+ *
+ * <p>{@link #runProcessInstance()} completes the branches of a process instance one after another.
+ * {@link #completeBranchConcurrently(OptimisticLockingCounters)} completes the branches of the same
+ * process instance from several threads, so that the branches arrive at the join concurrently. Its
+ * secondary result <code>optimisticLockingFailures</code> counts the completions which had to be
+ * retried.</p>
+ */
+@State(Scope.Benchmark)
+public class ParallelJoinBenchmark extends UserTaskCompletionBenchmarkState {
+
+  public static final String PROCESS_KEY = "parallelJoin";
+
+  @Param({"false", "true"})
+  public boolean conflictFreeJoinEnabled;
+
+  @Param({"2", "10", "50"})
+  public int numberOfBranches;
+
+  protected String getProcessDefinitionKey() {
+    return PROCESS_KEY;
+  }
+
+  protected void configure(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    processEngineConfiguration.setConflictFreeJoinEnabled(conflictFreeJoinEnabled);
+  }
+
+  protected void setUp() {
+    deploy("parallelJoin.bpmn", createParallelProcess(numberOfBranches));
+  }
+
+  protected String createParallelProcess(int numberOfBranches) {
+    StringBuilder process = new StringBuilder()
+      .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+      .append("<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\" targetNamespace=\"Examples\">")
+      .append("<process id=\"").append(PROCESS_KEY).append("\" isExecutable=\"true\">")
+      .append("<startEvent id=\"start\" />")
+      .append("<sequenceFlow id=\"flowToFork\" sourceRef=\"start\" targetRef=\"fork\" />")
+      .append("<parallelGateway id=\"fork\" />");
+
+    for (int i = 0; i < numberOfBranches; i++) {
+      process.append("<sequenceFlow id=\"flowToTask").append(i).append("\" sourceRef=\"fork\" targetRef=\"task").append(i).append("\" />")
+        .append("<userTask id=\"task").append(i).append("\" />")
+        .append("<sequenceFlow id=\"flowToJoin").append(i).append("\" sourceRef=\"task").append(i).append("\" targetRef=\"join\" />");
+    }
+
+    return process
+      .append("<parallelGateway id=\"join\" />")
+      .append("<sequenceFlow id=\"flowToEnd\" sourceRef=\"join\" targetRef=\"end\" />")
+      .append("<endEvent id=\"end\" />")
+      .append("</process>")
+      .append("</definitions>")
+      .toString();
+  }
+
+  @Benchmark
+  public String runProcessInstance() {
+    return startAndCompleteProcessInstance();
+  }
+
+  @Benchmark
+  @Threads(CONCURRENT_THREADS)
+  public void completeBranchConcurrently(OptimisticLockingCounters counters) {
+    completeNextTask(counters);
+  }
+
+}
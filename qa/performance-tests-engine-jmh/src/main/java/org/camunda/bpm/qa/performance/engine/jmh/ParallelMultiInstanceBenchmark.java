@@ -0,0 +1,80 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * <p>Measures a process instance with a parallel multi-instance user task, with and without
+ * completing the instances without conflicting updates of the instance counters.</p>
+ *
+ * <p>{@link #runProcessInstance()} completes the instances of the task one after another.
+ * {@link #completeInstanceConcurrently(OptimisticLockingCounters)} completes the instances of the
+ * same multi-instance activity from several threads. Its secondary result
+ * <code>optimisticLockingFailures</code> counts the completions which had to be retried.</p>
+ */
+@State(Scope.Benchmark)
+public class ParallelMultiInstanceBenchmark extends UserTaskCompletionBenchmarkState {
+
+  public static final String PROCESS_KEY = "parallelMultiInstance";
+
+  @Param({"false", "true"})
+  public boolean conflictFreeMultiInstanceEnabled;
+
+  @Param({"2", "10", "50"})
+  public int numberOfInstances;
+
+  protected String getProcessDefinitionKey() {
+    return PROCESS_KEY;
+  }
+
+  protected void configure(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    processEngineConfiguration.setConflictFreeMultiInstanceEnabled(conflictFreeMultiInstanceEnabled);
+  }
+
+  protected void setUp() {
+    deploy("parallelMultiInstance.bpmn", new StringBuilder()
+      .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+      .append("<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\" targetNamespace=\"Examples\">")
+      .append("<process id=\"").append(PROCESS_KEY).append("\" isExecutable=\"true\">")
+      .append("<startEvent id=\"start\" />")
+      .append("<sequenceFlow id=\"flowToTask\" sourceRef=\"start\" targetRef=\"task\" />")
+      .append("<userTask id=\"task\">")
+      .append("<multiInstanceLoopCharacteristics isSequential=\"false\">")
+      .append("<loopCardinality>").append(numberOfInstances).append("</loopCardinality>")
+      .append("</multiInstanceLoopCharacteristics>")
+      .append("</userTask>")
+      .append("<sequenceFlow id=\"flowToEnd\" sourceRef=\"task\" targetRef=\"end\" />")
+      .append("<endEvent id=\"end\" />")
+      .append("</process>")
+      .append("</definitions>")
+      .toString());
+  }
+
+  @Benchmark
+  public String runProcessInstance() {
+    return startAndCompleteProcessInstance();
+  }
+
+  @Benchmark
+  @Threads(CONCURRENT_THREADS)
+  public void completeInstanceConcurrently(OptimisticLockingCounters counters) {
+    completeNextTask(counters);
+  }
+
+}
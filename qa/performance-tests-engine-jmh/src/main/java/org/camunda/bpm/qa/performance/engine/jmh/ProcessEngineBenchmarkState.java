@@ -0,0 +1,93 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * <p>Base class for benchmarks which need a process engine. Each benchmark thread builds its own
+ * process engine on an in-memory h2 database for each trial, unless a subclass shares its state
+ * between the benchmark threads. The database uses row locks, so that concurrent transactions
+ * conflict on the rows they update instead of waiting for table locks.</p>
+ *
+ * <p>The configuration of the process engine is set as the current {@link Context} of the benchmark
+ * thread, so that engine internals which are used outside of a command can be benchmarked.</p>
+ */
+@State(Scope.Thread)
+public abstract class ProcessEngineBenchmarkState {
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected ProcessEngine processEngine;
+
+  protected RepositoryService repositoryService;
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+
+  @Setup(Level.Trial)
+  public void buildProcessEngine() {
+    String name = getClass().getSimpleName() + "-" + System.identityHashCode(this);
+
+    processEngineConfiguration = new StandaloneInMemProcessEngineConfiguration();
+    processEngineConfiguration.setProcessEngineName(name);
+    processEngineConfiguration.setJdbcUrl("jdbc:h2:mem:" + name + ";MVCC=TRUE");
+    processEngineConfiguration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP);
+    processEngineConfiguration.setJobExecutorActivate(false);
+    configure(processEngineConfiguration);
+
+    processEngine = processEngineConfiguration.buildProcessEngine();
+    repositoryService = processEngine.getRepositoryService();
+    runtimeService = processEngine.getRuntimeService();
+    taskService = processEngine.getTaskService();
+
+    Context.setProcessEngineConfiguration(processEngineConfiguration);
+
+    setUp();
+  }
+
+  @TearDown(Level.Trial)
+  public void closeProcessEngine() {
+    Context.removeProcessEngineConfiguration();
+    processEngine.close();
+  }
+
+  /**
+   * Allows subclasses to change the configuration before the process engine is built.
+   */
+  protected void configure(ProcessEngineConfigurationImpl processEngineConfiguration) {
+  }
+
+  /**
+   * Allows subclasses to prepare the benchmark after the process engine is built.
+   */
+  protected void setUp() {
+  }
+
+  protected void deploy(String resourceName, String bpmnXml) {
+    repositoryService.createDeployment()
+      .addString(resourceName, bpmnXml)
+      .deploy();
+  }
+
+}
@@ -0,0 +1,87 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.task.Task;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>Base class for benchmarks which complete the user tasks of a process instance. The process
+ * engine is shared by all benchmark threads, so that the tasks of a process instance can be
+ * completed one after another by a single thread or concurrently by {@link #CONCURRENT_THREADS}
+ * threads.</p>
+ *
+ * <p>A concurrent completion which fails with an {@link OptimisticLockingException} is retried
+ * until it succeeds, and the failure is counted in the {@link OptimisticLockingCounters} of the
+ * benchmark thread.</p>
+ */
+@State(Scope.Benchmark)
+public abstract class UserTaskCompletionBenchmarkState extends ProcessEngineBenchmarkState {
+
+  public static final int CONCURRENT_THREADS = 4;
+
+  protected Queue<String> taskIds = new ConcurrentLinkedQueue<String>();
+
+  protected abstract String getProcessDefinitionKey();
+
+  /**
+   * Starts a process instance and completes all of its tasks on the calling thread.
+   */
+  protected String startAndCompleteProcessInstance() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey(getProcessDefinitionKey()).getId();
+
+    for (Task task : taskService.createTaskQuery().processInstanceId(processInstanceId).list()) {
+      taskService.complete(task.getId());
+    }
+
+    return processInstanceId;
+  }
+
+  /**
+   * Completes the next open task. The benchmark threads take the tasks of the same process
+   * instance until all of them are taken, then the next process instance is started.
+   */
+  protected void completeNextTask(OptimisticLockingCounters counters) {
+    String taskId = taskIds.poll();
+    while (taskId == null) {
+      startProcessInstance();
+      taskId = taskIds.poll();
+    }
+
+    while (true) {
+      try {
+        taskService.complete(taskId);
+        return;
+
+      } catch (OptimisticLockingException e) {
+        counters.optimisticLockingFailures++;
+      }
+    }
+  }
+
+  protected synchronized void startProcessInstance() {
+    if (taskIds.isEmpty()) {
+      String processInstanceId = runtimeService.startProcessInstanceByKey(getProcessDefinitionKey()).getId();
+
+      for (Task task : taskService.createTaskQuery().processInstanceId(processInstanceId).list()) {
+        taskIds.add(task.getId());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.camunda.bpm.qa.performance.engine.jmh.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the lookup of the serializer for a variable value, which is performed whenever a
+ * variable is set. Untyped values are offered to all serializers while typed values are only
+ * offered to the serializers of their type.
+ */
+@State(Scope.Thread)
+public class VariableSerializersBenchmark extends ProcessEngineBenchmarkState {
+
+  @Param({"untypedString", "untypedDate", "untypedObject", "typedString", "typedObject"})
+  public String value;
+
+  protected VariableSerializers variableSerializers;
+  protected TypedValue typedValue;
+
+  protected void setUp() {
+    variableSerializers = processEngineConfiguration.getVariableSerializers();
+
+    if ("untypedString".equals(value)) {
+      typedValue = Variables.untypedValue("kermit");
+    } else if ("untypedDate".equals(value)) {
+      typedValue = Variables.untypedValue(new Date());
+    } else if ("untypedObject".equals(value)) {
+      typedValue = Variables.untypedValue(Order.createOrder(10));
+    } else if ("typedString".equals(value)) {
+      typedValue = Variables.stringValue("kermit");
+    } else {
+      typedValue = Variables.objectValue(Order.createOrder(10)).create();
+    }
+  }
+
+  @Benchmark
+  public TypedValueSerializer<?> findSerializer() {
+    return variableSerializers.findSerializerForValue(typedValue);
+  }
+
+}
@@ -0,0 +1,104 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.jmh.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An order which is used as an object variable in the benchmarks.
+ */
+public class Order implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String id;
+  protected String customer;
+  protected Date orderDate;
+  protected double amount;
+  protected boolean express;
+  protected List<OrderItem> items = new ArrayList<OrderItem>();
+
+  public static Order createOrder(int numberOfItems) {
+    Order order = new Order();
+    order.setId("order-4711");
+    order.setCustomer("kermit");
+    order.setOrderDate(new Date(1420070400000L));
+    order.setExpress(true);
+
+    double amount = 0;
+    for (int i = 0; i < numberOfItems; i++) {
+      OrderItem item = new OrderItem();
+      item.setArticleId("article-" + i);
+      item.setDescription("Article number " + i + " of the order");
+      item.setQuantity(i % 5 + 1);
+      item.setPrice(9.99 * (i + 1));
+      order.getItems().add(item);
+      amount += item.getQuantity() * item.getPrice();
+    }
+    order.setAmount(amount);
+
+    return order;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getCustomer() {
+    return customer;
+  }
+
+  public void setCustomer(String customer) {
+    this.customer = customer;
+  }
+
+  public Date getOrderDate() {
+    return orderDate;
+  }
+
+  public void setOrderDate(Date orderDate) {
+    this.orderDate = orderDate;
+  }
+
+  public double getAmount() {
+    return amount;
+  }
+
+  public void setAmount(double amount) {
+    this.amount = amount;
+  }
+
+  public boolean isExpress() {
+    return express;
+  }
+
+  public void setExpress(boolean express) {
+    this.express = express;
+  }
+
+  public List<OrderItem> getItems() {
+    return items;
+  }
+
+  public void setItems(List<OrderItem> items) {
+    this.items = items;
+  }
+
+}
@@ -13,12 +13,10 @@
 package org.camunda.bpm.qa.performance.engine.benchmark;
 
 import java.io.File;
-import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultAggregator;
 import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultSet;
-import org.camunda.bpm.qa.performance.engine.framework.report.HtmlReportBuilder;
 import org.camunda.bpm.qa.performance.engine.util.CsvUtil;
 import org.camunda.bpm.qa.performance.engine.util.FileUtil;
-import org.camunda.bpm.qa.performance.engine.util.JsonUtil;
+import org.camunda.bpm.qa.performance.engine.util.ReportUtil;
 
 /**
  * @author Daniel Meyer, Ingo Richtsmeier
@@ -58,51 +56,11 @@ public class BenchmarkReport {
           longTermBenchmarkResultFilename);
     }
 
-    writeReport(
+    ReportUtil.writeReport(
         resultsFolder,
         reportsFolder,
         "benchmark",
         new BenchmarkAggregator(resultsFolder),
         "Benchmark Duration Report");
   }
-
-  private static void writeReport(String resultsFolder,
-      String reportsFolder,
-      String benchmarkName,
-      TabularResultAggregator aggregator,
-      String reportDescription) {
-
-    final String htmlReportFilename = reportsFolder + File.separatorChar + benchmarkName+"-report.html";
-
-    final String jsonReportFilename = benchmarkName+"-report.json";
-    final String jsonReportPath = reportsFolder + File.separatorChar + jsonReportFilename;
-
-    final String csvReportFilename = benchmarkName+"-report.csv";
-    final String csvReportPath = reportsFolder + File.separatorChar + csvReportFilename;
-
-    // make sure reports folder exists
-    File reportsFolderFile = new File(reportsFolder);
-    if(!reportsFolderFile.exists()) {
-      reportsFolderFile.mkdir();
-    }
-
-    TabularResultSet aggregatedResults = aggregator.execute();
-
-    // write Json report
-    JsonUtil.writeObjectToFile(jsonReportPath, aggregatedResults);
-
-    // format HTML report
-    HtmlReportBuilder reportWriter = new HtmlReportBuilder(aggregatedResults)
-      .name(reportDescription)
-      .resultDetailsFolder(".."+File.separatorChar+"results"+File.separatorChar)
-      .createImageLinks(true)
-      .jsonSource(jsonReportFilename)
-      .csvSource(csvReportFilename);
-
-    String report = reportWriter.execute();
-    FileUtil.writeStringToFile(report, htmlReportFilename);
-
-    // write CSV report
-    CsvUtil.saveResultSetToFile(csvReportPath, aggregatedResults);
-  }
 }
@@ -35,12 +35,20 @@ public class PerfTestConfiguration {
   
   protected String platform;
 
+  /** the number of scenarios started per second by a load test */
+  protected int arrivalRate = 10;
+
+  /** the number of seconds a load test keeps starting scenarios */
+  protected int loadDuration = 30;
+
   public PerfTestConfiguration(Properties properties) {
     numberOfRuns = Integer.parseInt(properties.getProperty("numberOfRuns"));
     numberOfThreads =  Integer.parseInt(properties.getProperty("numberOfThreads"));
     testWatchers = properties.getProperty("testWatchers", null);
     databaseName = properties.getProperty("databaseDriver", null);
     historyLevel = properties.getProperty("historyLevel");
+    arrivalRate = Integer.parseInt(properties.getProperty("arrivalRate", String.valueOf(arrivalRate)));
+    loadDuration = Integer.parseInt(properties.getProperty("loadDuration", String.valueOf(loadDuration)));
   }
 
   public PerfTestConfiguration() {
@@ -98,4 +106,20 @@ public class PerfTestConfiguration {
     this.platform = platform;
   }
 
+  public int getArrivalRate() {
+    return arrivalRate;
+  }
+
+  public void setArrivalRate(int arrivalRate) {
+    this.arrivalRate = arrivalRate;
+  }
+
+  public int getLoadDuration() {
+    return loadDuration;
+  }
+
+  public void setLoadDuration(int loadDuration) {
+    this.loadDuration = loadDuration;
+  }
+
 }
@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.junit;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestException;
+import org.camunda.bpm.qa.performance.engine.load.LoadTestResults;
+import org.camunda.bpm.qa.performance.engine.util.JsonUtil;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+/**
+ * JUnit rule recording the load test result. The results are recorded separately from
+ * the results of the performance tests, since they have a different format.
+ */
+public class LoadTestResultRecorderRule extends TestWatcher {
+
+  public static final Logger LOG = Logger.getLogger(LoadTestResultRecorderRule.class.getName());
+
+  protected LoadTestResults results;
+
+  @Override
+  protected void succeeded(Description description) {
+    if(results != null) {
+      results.setTestName(description.getTestClass().getSimpleName() +"."+description.getMethodName());
+
+      String resultFileName = formatResultFileName(description);
+      LOG.info("Recording load test results to "+resultFileName);
+
+      try {
+        File directory = new File(formatResultFileDirName());
+        if (!directory.exists()) {
+          directory.mkdirs();
+        }
+
+        JsonUtil.writeObjectToFile(resultFileName, results);
+
+      } catch ( Exception e ){
+        throw new PerfTestException("Could not record results to file "+resultFileName, e);
+
+      }
+    }
+  }
+
+  protected String formatResultFileDirName() {
+    return "target"+File.separatorChar + "load-results";
+  }
+
+  protected String formatResultFileName(Description description) {
+    return formatResultFileDirName() + File.separatorChar + description.getTestClass().getSimpleName() + "."+description.getMethodName() +".json";
+  }
+
+  public void setResults(LoadTestResults results) {
+    this.results = results;
+  }
+
+}
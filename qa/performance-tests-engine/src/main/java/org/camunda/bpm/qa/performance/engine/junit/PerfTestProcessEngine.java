@@ -58,6 +58,9 @@ public class PerfTestProcessEngine {
 
     processEngineConfiguration.setHistory(properties.getProperty("historyLevel"));
 
+    // the job executor is only activated by load tests
+    processEngineConfiguration.setJobExecutorActivate(Boolean.valueOf(properties.getProperty("jobExecutorActivate", "false")));
+
     // load plugins
     String processEnginePlugins = properties.getProperty("processEnginePlugins", "");
     for (String pluginName : processEnginePlugins.split(",")) {
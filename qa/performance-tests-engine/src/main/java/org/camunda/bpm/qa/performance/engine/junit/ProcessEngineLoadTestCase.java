@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.junit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestConfiguration;
+import org.camunda.bpm.qa.performance.engine.load.LoadTestBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+
+/**
+ * <p>Base class for implementing a process engine load test</p>
+ *
+ * <p>A load test starts a scenario at a constant arrival rate and executes the scenarios
+ * on multiple threads while the job executor of the process engine is active.</p>
+ */
+public abstract class ProcessEngineLoadTestCase {
+
+  @Rule
+  public ProcessEngineRule processEngineRule = new ProcessEngineRule(PerfTestProcessEngine.getInstance());
+
+  @Rule
+  public PerfTestConfigurationRule testConfigurationRule = new PerfTestConfigurationRule();
+
+  @Rule
+  public LoadTestResultRecorderRule resultRecorderRule = new LoadTestResultRecorderRule();
+
+  protected ProcessEngine engine;
+
+  @Before
+  public void setup() {
+    engine = processEngineRule.getProcessEngine();
+  }
+
+  protected LoadTestBuilder loadTest() {
+    PerfTestConfiguration configuration = testConfigurationRule.getPerformanceTestConfiguration();
+    configuration.setPlatform("camunda BPM");
+    return new LoadTestBuilder(configuration, resultRecorderRule, engine);
+  }
+}
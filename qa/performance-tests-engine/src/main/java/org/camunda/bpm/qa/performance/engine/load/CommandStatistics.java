@@ -0,0 +1,99 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Counts the commands executed by the process engine and the commands which failed with an
+ * optimistic locking exception, per command class.</p>
+ *
+ * <p>The statistics are recorded by the {@link CommandStatisticsInterceptor} and include the
+ * commands executed by the job executor.</p>
+ */
+public class CommandStatistics {
+
+  protected static final CommandStatistics INSTANCE = new CommandStatistics();
+
+  protected final ConcurrentMap<String, CommandCounter> counters = new ConcurrentHashMap<String, CommandCounter>();
+  protected final AtomicLong totalCount = new AtomicLong();
+  protected final AtomicLong totalOptimisticLockingFailures = new AtomicLong();
+
+  public static CommandStatistics getInstance() {
+    return INSTANCE;
+  }
+
+  public void commandExecuted(String commandName, boolean optimisticLockingFailure) {
+    CommandCounter counter = counters.get(commandName);
+    if(counter == null) {
+      CommandCounter newCounter = new CommandCounter();
+      counter = counters.putIfAbsent(commandName, newCounter);
+      if(counter == null) {
+        counter = newCounter;
+      }
+    }
+
+    counter.count.incrementAndGet();
+    totalCount.incrementAndGet();
+
+    if(optimisticLockingFailure) {
+      counter.optimisticLockingFailures.incrementAndGet();
+      totalOptimisticLockingFailures.incrementAndGet();
+    }
+  }
+
+  public long getTotalCount() {
+    return totalCount.get();
+  }
+
+  public long getTotalOptimisticLockingFailures() {
+    return totalOptimisticLockingFailures.get();
+  }
+
+  public List<LoadTestCommandResult> getCommandResults() {
+    List<LoadTestCommandResult> commandResults = new ArrayList<LoadTestCommandResult>();
+    for (Entry<String, CommandCounter> counter : counters.entrySet()) {
+      LoadTestCommandResult commandResult = new LoadTestCommandResult();
+      commandResult.setCommandName(counter.getKey());
+      commandResult.setCount(counter.getValue().count.get());
+      commandResult.setOptimisticLockingFailures(counter.getValue().optimisticLockingFailures.get());
+      commandResults.add(commandResult);
+    }
+
+    Collections.sort(commandResults, new Comparator<LoadTestCommandResult>() {
+      public int compare(LoadTestCommandResult o1, LoadTestCommandResult o2) {
+        return o1.getCommandName().compareTo(o2.getCommandName());
+      }
+    });
+    return commandResults;
+  }
+
+  public void reset() {
+    counters.clear();
+    totalCount.set(0);
+    totalOptimisticLockingFailures.set(0);
+  }
+
+  protected static class CommandCounter {
+    protected final AtomicLong count = new AtomicLong();
+    protected final AtomicLong optimisticLockingFailures = new AtomicLong();
+  }
+
+}
@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * Records each command in the {@link CommandStatistics}.
+ */
+public class CommandStatisticsInterceptor extends CommandInterceptor {
+
+  public <T> T execute(Command<T> command) {
+    boolean optimisticLockingFailure = false;
+    try {
+      return next.execute(command);
+
+    } catch(OptimisticLockingException e) {
+      optimisticLockingFailure = true;
+      throw e;
+
+    } finally {
+      CommandStatistics.getInstance().commandExecuted(getCommandName(command), optimisticLockingFailure);
+
+    }
+  }
+
+  protected String getCommandName(Command<?> command) {
+    // keep the name of anonymous commands, which have no simple name
+    String className = command.getClass().getName();
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
+}
@@ -0,0 +1,40 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * <p>ProcessEnginePlugin registering the {@link CommandStatisticsInterceptor}.</p>
+ *
+ * <p>The interceptor is added in front of the interceptors of the command executor which
+ * requires a transaction, which is used both by the services and by the job executor.</p>
+ */
+public class CommandStatisticsProcessEnginePlugin extends AbstractProcessEnginePlugin {
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    List<CommandInterceptor> interceptors = processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired();
+    if(interceptors == null) {
+      interceptors = new ArrayList<CommandInterceptor>();
+      processEngineConfiguration.setCustomPreCommandInterceptorsTxRequired(interceptors);
+    }
+    interceptors.add(new CommandStatisticsInterceptor());
+  }
+
+}
@@ -0,0 +1,110 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A histogram of latencies which can be recorded concurrently by multiple threads.</p>
+ *
+ * <p>Values are counted in logarithmic buckets which are divided into 32 linear sub buckets,
+ * so that a percentile is reported with a relative error of at most ~3% while the histogram
+ * has a fixed size regardless of the number of recorded values.</p>
+ */
+public class LatencyHistogram {
+
+  protected static final int SUB_BUCKET_BITS = 5;
+  protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  protected static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  protected final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  protected final AtomicLong totalCount = new AtomicLong();
+  protected final AtomicLong totalValue = new AtomicLong();
+  protected final AtomicLong maxValue = new AtomicLong();
+
+  public void recordValue(long value) {
+    if(value < 0) {
+      value = 0;
+    }
+
+    counts.incrementAndGet(bucketIndex(value));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(value);
+
+    long currentMax = maxValue.get();
+    while(value > currentMax && !maxValue.compareAndSet(currentMax, value)) {
+      currentMax = maxValue.get();
+    }
+  }
+
+  /**
+   * @param percentile the percentile between 0 and 100
+   * @return the highest value which is counted in the same bucket as the value at the given percentile
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = totalCount.get();
+    if(count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long max = maxValue.get();
+
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if(seen >= rank) {
+        return Math.min(highestValueInBucket(i), max);
+      }
+    }
+    return max;
+  }
+
+  public long getTotalCount() {
+    return totalCount.get();
+  }
+
+  public long getMaxValue() {
+    return maxValue.get();
+  }
+
+  public double getMean() {
+    long count = totalCount.get();
+    if(count == 0) {
+      return 0;
+    } else {
+      return (double) totalValue.get() / count;
+    }
+  }
+
+  protected static int bucketIndex(long value) {
+    if(value < 2 * SUB_BUCKET_COUNT) {
+      // small values are counted exactly
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+  }
+
+  protected static long highestValueInBucket(int index) {
+    if(index < 2 * SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    // overflows to Long.MAX_VALUE for the last bucket
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+}
@@ -0,0 +1,54 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTest;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestConfiguration;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStep;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStepBehavior;
+import org.camunda.bpm.qa.performance.engine.junit.LoadTestResultRecorderRule;
+
+/**
+ * Builds the scenario of a load test from a sequence of steps.
+ */
+public class LoadTestBuilder {
+
+  protected final PerfTest perfTest;
+  protected PerfTestConfiguration perfTestConfiguration;
+  protected LoadTestResultRecorderRule resultRecorder;
+  protected ProcessEngine processEngine;
+
+  public LoadTestBuilder(PerfTestConfiguration perfTestConfiguration,
+                         LoadTestResultRecorderRule resultRecorder,
+                         ProcessEngine processEngine) {
+    this.perfTestConfiguration = perfTestConfiguration;
+    this.resultRecorder = resultRecorder;
+    this.processEngine = processEngine;
+    perfTest = new PerfTest();
+  }
+
+  public LoadTestBuilder step(PerfTestStepBehavior behavior) {
+    PerfTestStep step = new PerfTestStep(behavior);
+    perfTest.addStep(step);
+    return this;
+  }
+
+  public LoadTestResults run() {
+    LoadTestRunner testRunner = new LoadTestRunner(perfTest, perfTestConfiguration, processEngine);
+    LoadTestResults results = testRunner.execute();
+    resultRecorder.setResults(results);
+    return results;
+  }
+
+}
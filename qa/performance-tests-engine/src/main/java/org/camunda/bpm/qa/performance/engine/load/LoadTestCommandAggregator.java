@@ -0,0 +1,54 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultSet;
+
+/**
+ * Aggregates the executed commands and their optimistic locking failures, including the
+ * commands of the job executor.
+ */
+public class LoadTestCommandAggregator extends LoadTestResultAggregator {
+
+  public LoadTestCommandAggregator(String resultsFolderPath) {
+    super(resultsFolderPath);
+  }
+
+  protected TabularResultSet createAggrgatedResultsInstance() {
+    TabularResultSet tabularResultSet = new TabularResultSet();
+    tabularResultSet.setResultColumnNames(Arrays.asList(
+        "Test Name",
+        "Command",
+        "Count",
+        "Optimistic Locking Failures",
+        "Optimistic Locking Failure Rate (%)"));
+    return tabularResultSet;
+  }
+
+  protected void processResults(LoadTestResults results, TabularResultSet tabularResultSet) {
+    for (LoadTestCommandResult commandResult : results.getCommandResults()) {
+      List<Object> row = new ArrayList<Object>();
+      row.add(results.getTestName());
+      row.add(commandResult.getCommandName());
+      row.add(commandResult.getCount());
+      row.add(commandResult.getOptimisticLockingFailures());
+      row.add(percentage(commandResult.getOptimisticLockingFailures(), commandResult.getCount()));
+      tabularResultSet.addResultRow(row);
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+/**
+ * The number of executions of a command during a load test.
+ */
+public class LoadTestCommandResult {
+
+  protected String commandName;
+  protected long count;
+  protected long optimisticLockingFailures;
+
+  // getter / setters ////////////////////////////
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public void setCommandName(String commandName) {
+    this.commandName = commandName;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getOptimisticLockingFailures() {
+    return optimisticLockingFailures;
+  }
+
+  public void setOptimisticLockingFailures(long optimisticLockingFailures) {
+    this.optimisticLockingFailures = optimisticLockingFailures;
+  }
+
+}
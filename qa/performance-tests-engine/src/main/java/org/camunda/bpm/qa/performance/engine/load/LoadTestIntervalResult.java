@@ -0,0 +1,83 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+/**
+ * The throughput of a load test during one second.
+ */
+public class LoadTestIntervalResult {
+
+  /** the second of the test, starting with 1 */
+  protected int second;
+
+  protected long startedScenarios;
+  protected long completedScenarios;
+  protected long failedScenarios;
+
+  /** the executed commands, including the commands of the job executor */
+  protected long executedCommands;
+
+  /** the commands which failed with an optimistic locking exception */
+  protected long optimisticLockingFailures;
+
+  // getter / setters ////////////////////////////
+
+  public int getSecond() {
+    return second;
+  }
+
+  public void setSecond(int second) {
+    this.second = second;
+  }
+
+  public long getStartedScenarios() {
+    return startedScenarios;
+  }
+
+  public void setStartedScenarios(long startedScenarios) {
+    this.startedScenarios = startedScenarios;
+  }
+
+  public long getCompletedScenarios() {
+    return completedScenarios;
+  }
+
+  public void setCompletedScenarios(long completedScenarios) {
+    this.completedScenarios = completedScenarios;
+  }
+
+  public long getFailedScenarios() {
+    return failedScenarios;
+  }
+
+  public void setFailedScenarios(long failedScenarios) {
+    this.failedScenarios = failedScenarios;
+  }
+
+  public long getExecutedCommands() {
+    return executedCommands;
+  }
+
+  public void setExecutedCommands(long executedCommands) {
+    this.executedCommands = executedCommands;
+  }
+
+  public long getOptimisticLockingFailures() {
+    return optimisticLockingFailures;
+  }
+
+  public void setOptimisticLockingFailures(long optimisticLockingFailures) {
+    this.optimisticLockingFailures = optimisticLockingFailures;
+  }
+
+}
@@ -0,0 +1,67 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultSet;
+
+/**
+ * Aggregates the latencies in milliseconds and the failures of the operations of the load tests.
+ */
+public class LoadTestLatencyAggregator extends LoadTestResultAggregator {
+
+  public LoadTestLatencyAggregator(String resultsFolderPath) {
+    super(resultsFolderPath);
+  }
+
+  protected TabularResultSet createAggrgatedResultsInstance() {
+    TabularResultSet tabularResultSet = new TabularResultSet();
+    tabularResultSet.setResultColumnNames(Arrays.asList(
+        "Test Name",
+        "Operation",
+        "Count",
+        "Failures",
+        "Optimistic Locking Failures",
+        "Optimistic Locking Failure Rate (%)",
+        "Mean",
+        "p50",
+        "p99",
+        "p99.9",
+        "Max"));
+    return tabularResultSet;
+  }
+
+  protected void processResults(LoadTestResults results, TabularResultSet tabularResultSet) {
+    for (LoadTestOperationResult operationResult : results.getOperationResults()) {
+      long executions = operationResult.getCount() + operationResult.getFailures();
+
+      List<Object> row = new ArrayList<Object>();
+      row.add(results.getTestName());
+      row.add(operationResult.getOperationName());
+      row.add(operationResult.getCount());
+      row.add(operationResult.getFailures());
+      row.add(operationResult.getOptimisticLockingFailures());
+      row.add(percentage(operationResult.getOptimisticLockingFailures(), executions));
+      row.add(operationResult.getMean());
+      row.add(operationResult.getP50());
+      row.add(operationResult.getP99());
+      row.add(operationResult.getP999());
+      row.add(operationResult.getMax());
+      tabularResultSet.addResultRow(row);
+    }
+  }
+
+}
@@ -0,0 +1,127 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+/**
+ * The latencies of an operation of a load test in milliseconds.
+ */
+public class LoadTestOperationResult {
+
+  protected String operationName;
+
+  /** the number of successful executions */
+  protected long count;
+
+  /** the number of executions which failed, after retrying optimistic locking exceptions */
+  protected long failures;
+
+  /** the number of optimistic locking exceptions which caused a retry or a failure */
+  protected long optimisticLockingFailures;
+
+  protected double p50;
+  protected double p99;
+  protected double p999;
+  protected double max;
+  protected double mean;
+
+  public static LoadTestOperationResult fromHistogram(String operationName, LatencyHistogram histogram) {
+    LoadTestOperationResult result = new LoadTestOperationResult();
+    result.setOperationName(operationName);
+    result.setCount(histogram.getTotalCount());
+    result.setP50(toMillis(histogram.getValueAtPercentile(50)));
+    result.setP99(toMillis(histogram.getValueAtPercentile(99)));
+    result.setP999(toMillis(histogram.getValueAtPercentile(99.9)));
+    result.setMax(toMillis(histogram.getMaxValue()));
+    result.setMean(toMillis(histogram.getMean()));
+    return result;
+  }
+
+  protected static double toMillis(double micros) {
+    return Math.round(micros / 10) / 100.0;
+  }
+
+  // getter / setters ////////////////////////////
+
+  public String getOperationName() {
+    return operationName;
+  }
+
+  public void setOperationName(String operationName) {
+    this.operationName = operationName;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public void setFailures(long failures) {
+    this.failures = failures;
+  }
+
+  public long getOptimisticLockingFailures() {
+    return optimisticLockingFailures;
+  }
+
+  public void setOptimisticLockingFailures(long optimisticLockingFailures) {
+    this.optimisticLockingFailures = optimisticLockingFailures;
+  }
+
+  public double getP50() {
+    return p50;
+  }
+
+  public void setP50(double p50) {
+    this.p50 = p50;
+  }
+
+  public double getP99() {
+    return p99;
+  }
+
+  public void setP99(double p99) {
+    this.p99 = p99;
+  }
+
+  public double getP999() {
+    return p999;
+  }
+
+  public void setP999(double p999) {
+    this.p999 = p999;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  public void setMax(double max) {
+    this.max = max;
+  }
+
+  public double getMean() {
+    return mean;
+  }
+
+  public void setMean(double mean) {
+    this.mean = mean;
+  }
+
+}
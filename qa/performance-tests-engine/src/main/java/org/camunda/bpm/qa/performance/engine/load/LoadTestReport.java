@@ -0,0 +1,64 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.io.File;
+
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultAggregator;
+import org.camunda.bpm.qa.performance.engine.util.ReportUtil;
+
+/**
+ * Writes the reports of the load tests: the latencies of the operations, the executed
+ * commands and the throughput over time.
+ */
+public class LoadTestReport {
+
+  public static void main(String[] args) {
+
+    final String resultsFolder = "target"+File.separatorChar+"load-results";
+    final String reportsFolder = "target"+File.separatorChar+"reports";
+
+    writeReport(
+        reportsFolder,
+        "load-test-latency",
+        new LoadTestLatencyAggregator(resultsFolder),
+        "Load Test Latency Report (ms)");
+
+    writeReport(
+        reportsFolder,
+        "load-test-commands",
+        new LoadTestCommandAggregator(resultsFolder),
+        "Load Test Command Report");
+
+    writeReport(
+        reportsFolder,
+        "load-test-throughput",
+        new LoadTestThroughputAggregator(resultsFolder),
+        "Load Test Throughput Report (per second)");
+  }
+
+  protected static void writeReport(String reportsFolder,
+      String reportName,
+      TabularResultAggregator aggregator,
+      String reportDescription) {
+
+    ReportUtil.writeReport(
+        reportsFolder,
+        reportName,
+        aggregator.execute(),
+        reportDescription,
+        ".."+File.separatorChar+"load-results"+File.separatorChar,
+        false);
+  }
+
+}
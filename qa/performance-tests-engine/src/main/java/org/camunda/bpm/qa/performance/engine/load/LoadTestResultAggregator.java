@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.io.File;
+
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestException;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestResults;
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultAggregator;
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultSet;
+import org.camunda.bpm.qa.performance.engine.util.JsonUtil;
+
+/**
+ * Aggregates the {@link LoadTestResults} of a load test run as a table.
+ */
+public abstract class LoadTestResultAggregator extends TabularResultAggregator {
+
+  public LoadTestResultAggregator(String resultsFolderPath) {
+    super(resultsFolderPath);
+  }
+
+  protected TabularResultSet createAggrgatedResultsInstance() {
+    return new TabularResultSet();
+  }
+
+  @Override
+  protected void processFile(File resultFile, TabularResultSet tabularResultSet) {
+    LoadTestResults results = JsonUtil.readObjectFromFile(resultFile.getAbsolutePath(), LoadTestResults.class);
+    processResults(results, tabularResultSet);
+  }
+
+  protected void processResults(PerfTestResults results, TabularResultSet tabularResultSet) {
+    throw new PerfTestException("Load test results are read as "+LoadTestResults.class.getSimpleName());
+  }
+
+  protected abstract void processResults(LoadTestResults results, TabularResultSet tabularResultSet);
+
+  protected static double percentage(long part, long total) {
+    if(total == 0) {
+      return 0;
+    } else {
+      return Math.round(10000.0 * part / total) / 100.0;
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestConfiguration;
+
+/**
+ * The results of a load test.
+ */
+public class LoadTestResults {
+
+  /** the name of the test */
+  protected String testName;
+
+  /** the configuration used */
+  protected PerfTestConfiguration configuration;
+
+  /** the duration of the test in milliseconds, including waiting for the remaining jobs */
+  protected long duration;
+
+  /** the latencies of the individual steps and of the complete scenario */
+  protected List<LoadTestOperationResult> operationResults = new ArrayList<LoadTestOperationResult>();
+
+  /** the throughput per second of the test */
+  protected List<LoadTestIntervalResult> intervalResults = new ArrayList<LoadTestIntervalResult>();
+
+  /** the executed commands, recorded if the {@link CommandStatisticsProcessEnginePlugin} is used */
+  protected List<LoadTestCommandResult> commandResults = new ArrayList<LoadTestCommandResult>();
+
+  public LoadTestResults(PerfTestConfiguration configuration) {
+    this.configuration = configuration;
+  }
+
+  public LoadTestResults() {
+  }
+
+  // getter / setters ////////////////////////////
+
+  public String getTestName() {
+    return testName;
+  }
+
+  public void setTestName(String testName) {
+    this.testName = testName;
+  }
+
+  public PerfTestConfiguration getConfiguration() {
+    return configuration;
+  }
+
+  public void setConfiguration(PerfTestConfiguration configuration) {
+    this.configuration = configuration;
+  }
+
+  public long getDuration() {
+    return duration;
+  }
+
+  public void setDuration(long duration) {
+    this.duration = duration;
+  }
+
+  public List<LoadTestOperationResult> getOperationResults() {
+    return operationResults;
+  }
+
+  public void setOperationResults(List<LoadTestOperationResult> operationResults) {
+    this.operationResults = operationResults;
+  }
+
+  public List<LoadTestIntervalResult> getIntervalResults() {
+    return intervalResults;
+  }
+
+  public void setIntervalResults(List<LoadTestIntervalResult> intervalResults) {
+    this.intervalResults = intervalResults;
+  }
+
+  public List<LoadTestCommandResult> getCommandResults() {
+    return commandResults;
+  }
+
+  public void setCommandResults(List<LoadTestCommandResult> commandResults) {
+    this.commandResults = commandResults;
+  }
+
+}
@@ -0,0 +1,294 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTest;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestConfiguration;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestException;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStep;
+
+/**
+ * <p>Runs a {@link PerfTest} as a load test: scenarios executing the steps of the test are
+ * started at the configured arrival rate and executed by the configured number of threads,
+ * for the configured load duration.</p>
+ *
+ * <p>The latency of each step is recorded in a {@link LatencyHistogram}. The latency of a
+ * complete scenario is measured from the time at which it should have been started, so that
+ * a backlog of scenarios waiting for a thread shows up in the latencies. Steps failing with
+ * an {@link OptimisticLockingException} are retried.</p>
+ *
+ * <p>After the load duration, the runner waits for the started scenarios and for the jobs
+ * which are left for the job executor.</p>
+ */
+public class LoadTestRunner {
+
+  public static final Logger LOG = Logger.getLogger(LoadTestRunner.class.getName());
+
+  public static final String SCENARIO_OPERATION_NAME = "Scenario";
+
+  protected static final int MAX_RETRIES = 3;
+  protected static final long COMPLETION_TIMEOUT_SECONDS = 120;
+
+  protected PerfTest test;
+  protected PerfTestConfiguration configuration;
+  protected ProcessEngine processEngine;
+
+  protected ScheduledExecutorService scheduler;
+  protected ExecutorService executor;
+
+  protected Map<String, LoadTestOperation> operations;
+  protected LoadTestOperation scenarioOperation;
+
+  protected AtomicLong startedScenarios;
+  protected AtomicLong completedScenarios;
+  protected AtomicLong failedScenarios;
+
+  // interval state
+  protected List<LoadTestIntervalResult> intervalResults;
+  protected long sampledStartedScenarios;
+  protected long sampledCompletedScenarios;
+  protected long sampledFailedScenarios;
+  protected long sampledCommands;
+  protected long sampledOptimisticLockingFailures;
+
+  public LoadTestRunner(PerfTest test, PerfTestConfiguration configuration, ProcessEngine processEngine) {
+    this.test = test;
+    this.configuration = configuration;
+    this.processEngine = processEngine;
+    init();
+  }
+
+  protected void init() {
+    if(configuration.getArrivalRate() <= 0) {
+      throw new PerfTestException("The arrival rate of a load test must be positive but is "+configuration.getArrivalRate());
+    }
+
+    operations = new LinkedHashMap<String, LoadTestOperation>();
+    PerfTestStep step = test.getFirstStep();
+    while(step != null) {
+      if(!operations.containsKey(step.getStepName())) {
+        operations.put(step.getStepName(), new LoadTestOperation());
+      }
+      step = step.getNextStep();
+    }
+    scenarioOperation = new LoadTestOperation();
+
+    startedScenarios = new AtomicLong();
+    completedScenarios = new AtomicLong();
+    failedScenarios = new AtomicLong();
+    intervalResults = new ArrayList<LoadTestIntervalResult>();
+
+    CommandStatistics.getInstance().reset();
+    configuration.setStartTime(new Date(System.currentTimeMillis()));
+  }
+
+  public LoadTestResults execute() {
+    long startTime = System.currentTimeMillis();
+    final long startNanos = System.nanoTime();
+    final long arrivalPeriod = TimeUnit.SECONDS.toNanos(1) / configuration.getArrivalRate();
+
+    executor = Executors.newFixedThreadPool(configuration.getNumberOfThreads());
+    scheduler = Executors.newScheduledThreadPool(2);
+
+    ScheduledFuture<?> arrivals = scheduler.scheduleAtFixedRate(new Runnable() {
+      protected long arrivalCount = 0;
+      public void run() {
+        long intendedStartTime = startNanos + arrivalCount * arrivalPeriod;
+        arrivalCount++;
+        executor.execute(new LoadTestScenario(LoadTestRunner.this, intendedStartTime));
+        startedScenarios.incrementAndGet();
+      }
+    }, 0, arrivalPeriod, TimeUnit.NANOSECONDS);
+
+    scheduler.scheduleAtFixedRate(new Runnable() {
+      public void run() {
+        sampleInterval();
+      }
+    }, 1, 1, TimeUnit.SECONDS);
+
+    try {
+      Thread.sleep(TimeUnit.SECONDS.toMillis(configuration.getLoadDuration()));
+      arrivals.cancel(false);
+
+      // wait for the started scenarios and the jobs they created
+      executor.shutdown();
+      if(!executor.awaitTermination(COMPLETION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        throw new PerfTestException("Scenarios of the load test did not complete within "+COMPLETION_TIMEOUT_SECONDS+" seconds.");
+      }
+      waitForJobs();
+
+      scheduler.shutdownNow();
+      scheduler.awaitTermination(COMPLETION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    } catch (InterruptedException e) {
+      throw new PerfTestException("Interrupted while running the load test.", e);
+
+    } finally {
+      executor.shutdownNow();
+      scheduler.shutdownNow();
+
+    }
+
+    // record the last, partial interval
+    sampleInterval();
+
+    return createResults(System.currentTimeMillis() - startTime);
+  }
+
+  protected void waitForJobs() throws InterruptedException {
+    JobExecutor jobExecutor = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration()).getJobExecutor();
+    if(jobExecutor == null || !jobExecutor.isActive()) {
+      return;
+    }
+
+    ManagementService managementService = processEngine.getManagementService();
+    long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(COMPLETION_TIMEOUT_SECONDS);
+    while(managementService.createJobQuery().executable().count() > 0) {
+      if(System.currentTimeMillis() > timeout) {
+        throw new PerfTestException("Jobs of the load test were not executed within "+COMPLETION_TIMEOUT_SECONDS+" seconds.");
+      }
+      Thread.sleep(100);
+    }
+  }
+
+  /**
+   * Executes a step of a scenario and retries it if it fails with an {@link OptimisticLockingException}.
+   *
+   * @return true if the step was executed successfully
+   */
+  public boolean executeStep(LoadTestScenario scenario, PerfTestStep step) {
+    LoadTestOperation operation = operations.get(step.getStepName());
+
+    long startTime = System.nanoTime();
+    for (int attempt = 0; ; attempt++) {
+      try {
+        step.getStepBehavior().execute(scenario);
+        operation.histogram.recordValue(toMicros(System.nanoTime() - startTime));
+        return true;
+
+      } catch(OptimisticLockingException e) {
+        operation.optimisticLockingFailures.incrementAndGet();
+        if(attempt == MAX_RETRIES) {
+          failedStep(step, operation, e);
+          return false;
+        }
+
+      } catch(Exception e) {
+        failedStep(step, operation, e);
+        return false;
+
+      }
+    }
+  }
+
+  protected void failedStep(PerfTestStep step, LoadTestOperation operation, Exception e) {
+    // log the first failure only, the others are counted
+    if(operation.failures.incrementAndGet() == 1) {
+      LOG.log(Level.WARNING, "Step "+step.getStepName()+" of load test failed", e);
+    }
+  }
+
+  public void completedScenario(LoadTestScenario scenario) {
+    scenarioOperation.histogram.recordValue(toMicros(System.nanoTime() - scenario.getIntendedStartTime()));
+    completedScenarios.incrementAndGet();
+  }
+
+  public void failedScenario(LoadTestScenario scenario) {
+    scenarioOperation.failures.incrementAndGet();
+    failedScenarios.incrementAndGet();
+  }
+
+  protected synchronized void sampleInterval() {
+    long started = startedScenarios.get();
+    long completed = completedScenarios.get();
+    long failed = failedScenarios.get();
+    long commands = CommandStatistics.getInstance().getTotalCount();
+    long optimisticLockingFailures = CommandStatistics.getInstance().getTotalOptimisticLockingFailures();
+
+    LoadTestIntervalResult interval = new LoadTestIntervalResult();
+    interval.setSecond(intervalResults.size() + 1);
+    interval.setStartedScenarios(started - sampledStartedScenarios);
+    interval.setCompletedScenarios(completed - sampledCompletedScenarios);
+    interval.setFailedScenarios(failed - sampledFailedScenarios);
+    interval.setExecutedCommands(commands - sampledCommands);
+    interval.setOptimisticLockingFailures(optimisticLockingFailures - sampledOptimisticLockingFailures);
+    intervalResults.add(interval);
+
+    sampledStartedScenarios = started;
+    sampledCompletedScenarios = completed;
+    sampledFailedScenarios = failed;
+    sampledCommands = commands;
+    sampledOptimisticLockingFailures = optimisticLockingFailures;
+  }
+
+  protected synchronized LoadTestResults createResults(long duration) {
+    LoadTestResults results = new LoadTestResults(configuration);
+    results.setDuration(duration);
+
+    for (Entry<String, LoadTestOperation> operation : operations.entrySet()) {
+      results.getOperationResults().add(operation.getValue().toResult(operation.getKey()));
+    }
+    results.getOperationResults().add(scenarioOperation.toResult(SCENARIO_OPERATION_NAME));
+
+    results.setIntervalResults(intervalResults);
+    results.setCommandResults(CommandStatistics.getInstance().getCommandResults());
+
+    return results;
+  }
+
+  protected static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  public PerfTest getTest() {
+    return test;
+  }
+
+  /**
+   * The latencies and failures recorded for an operation.
+   */
+  protected static class LoadTestOperation {
+
+    protected final LatencyHistogram histogram = new LatencyHistogram();
+    protected final AtomicLong failures = new AtomicLong();
+    protected final AtomicLong optimisticLockingFailures = new AtomicLong();
+
+    public LoadTestOperationResult toResult(String operationName) {
+      LoadTestOperationResult result = LoadTestOperationResult.fromHistogram(operationName, histogram);
+      result.setFailures(failures.get());
+      result.setOptimisticLockingFailures(optimisticLockingFailures.get());
+      return result;
+    }
+  }
+
+}
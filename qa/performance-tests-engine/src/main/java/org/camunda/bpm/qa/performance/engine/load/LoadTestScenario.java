@@ -0,0 +1,71 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRunContext;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestStep;
+
+/**
+ * A single scenario of a load test. Executes all steps of the test in sequence on one
+ * thread and holds the context data passed from one step to another.
+ */
+public class LoadTestScenario implements PerfTestRunContext, Runnable {
+
+  protected LoadTestRunner runner;
+
+  /** the time in nanoseconds at which the scenario should have been started at the arrival rate */
+  protected long intendedStartTime;
+
+  protected Map<String, Object> runContext = new HashMap<String, Object>();
+
+  public LoadTestScenario(LoadTestRunner runner, long intendedStartTime) {
+    this.runner = runner;
+    this.intendedStartTime = intendedStartTime;
+  }
+
+  public void run() {
+    PerfTestRunContext.currentContext.set(this);
+    try {
+      PerfTestStep step = runner.getTest().getFirstStep();
+      while(step != null) {
+        if(!runner.executeStep(this, step)) {
+          runner.failedScenario(this);
+          return;
+        }
+        step = step.getNextStep();
+      }
+      runner.completedScenario(this);
+
+    } finally {
+      PerfTestRunContext.currentContext.remove();
+
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T getVariable(String name) {
+    return (T) runContext.get(name);
+  }
+
+  public void setVariable(String name, Object value) {
+    runContext.put(name, value);
+  }
+
+  public long getIntendedStartTime() {
+    return intendedStartTime;
+  }
+
+}
@@ -0,0 +1,57 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.qa.performance.engine.framework.aggregate.TabularResultSet;
+
+/**
+ * Aggregates the throughput of the load tests per second.
+ */
+public class LoadTestThroughputAggregator extends LoadTestResultAggregator {
+
+  public LoadTestThroughputAggregator(String resultsFolderPath) {
+    super(resultsFolderPath);
+  }
+
+  protected TabularResultSet createAggrgatedResultsInstance() {
+    TabularResultSet tabularResultSet = new TabularResultSet();
+    tabularResultSet.setResultColumnNames(Arrays.asList(
+        "Test Name",
+        "Second",
+        "Started Scenarios",
+        "Completed Scenarios",
+        "Failed Scenarios",
+        "Executed Commands",
+        "Optimistic Locking Failures"));
+    return tabularResultSet;
+  }
+
+  protected void processResults(LoadTestResults results, TabularResultSet tabularResultSet) {
+    for (LoadTestIntervalResult intervalResult : results.getIntervalResults()) {
+      List<Object> row = new ArrayList<Object>();
+      row.add(results.getTestName());
+      row.add(intervalResult.getSecond());
+      row.add(intervalResult.getStartedScenarios());
+      row.add(intervalResult.getCompletedScenarios());
+      row.add(intervalResult.getFailedScenarios());
+      row.add(intervalResult.getExecutedCommands());
+      row.add(intervalResult.getOptimisticLockingFailures());
+      tabularResultSet.addResultRow(row);
+    }
+  }
+
+}
@@ -30,30 +30,50 @@ public class ReportUtil {
       TabularResultAggregator aggregator,
       String reportDescription) {
 
-    final String htmlReportFilename = reportsFolder + File.separatorChar + benchmarkName+"-report.html";
+    writeReport(
+        reportsFolder,
+        benchmarkName,
+        aggregator.execute(),
+        reportDescription,
+        ".."+File.separatorChar+"results"+File.separatorChar,
+        true);
+  }
+
+  /**
+   * Writes the result set as JSON, CSV and HTML report to the reports folder.
+   *
+   * @param resultDetailsFolder the folder with the results of the single runs which are linked from the
+   *   HTML report, relative to the reports folder, or null if the report has no details
+   */
+  public static void writeReport(String reportsFolder,
+      String reportName,
+      TabularResultSet resultSet,
+      String reportDescription,
+      String resultDetailsFolder,
+      boolean createImageLinks) {
 
-    final String jsonReportFilename = benchmarkName+"-report.json";
+    final String htmlReportFilename = reportsFolder + File.separatorChar + reportName+"-report.html";
+
+    final String jsonReportFilename = reportName+"-report.json";
     final String jsonReportPath = reportsFolder + File.separatorChar + jsonReportFilename;
 
-    final String csvReportFilename = benchmarkName+"-report.csv";
+    final String csvReportFilename = reportName+"-report.csv";
     final String csvReportPath = reportsFolder + File.separatorChar + csvReportFilename;
 
     // make sure reports folder exists
     File reportsFolderFile = new File(reportsFolder);
     if(!reportsFolderFile.exists()) {
-      reportsFolderFile.mkdir();
+      reportsFolderFile.mkdirs();
     }
 
-    TabularResultSet aggregatedResults = aggregator.execute();
-
     // write Json report
-    JsonUtil.writeObjectToFile(jsonReportPath, aggregatedResults);
+    JsonUtil.writeObjectToFile(jsonReportPath, resultSet);
 
     // format HTML report
-    HtmlReportBuilder reportWriter = new HtmlReportBuilder(aggregatedResults)
+    HtmlReportBuilder reportWriter = new HtmlReportBuilder(resultSet)
       .name(reportDescription)
-      .resultDetailsFolder(".."+File.separatorChar+"results"+File.separatorChar)
-      .createImageLinks(true)
+      .resultDetailsFolder(resultDetailsFolder)
+      .createImageLinks(createImageLinks)
       .jsonSource(jsonReportFilename)
       .csvSource(csvReportFilename);
 
@@ -61,7 +81,7 @@ public class ReportUtil {
     FileUtil.writeStringToFile(report, htmlReportFilename);
 
     // write CSV report
-    CsvUtil.saveResultSetToFile(csvReportPath, aggregatedResults);
+    CsvUtil.saveResultSetToFile(csvReportPath, resultSet);
   }
 
 }
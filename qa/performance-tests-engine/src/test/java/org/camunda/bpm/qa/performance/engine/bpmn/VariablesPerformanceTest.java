@@ -139,4 +139,18 @@ public class VariablesPerformanceTest extends ProcessEnginePerformanceTestCase {
     .run();
   }
 
+  @Test
+  @Deployment(resources =
+    {"org/camunda/bpm/qa/performance/engine/bpmn/StartEventPerformanceTest.noneStartEvent.bpmn"})
+  public void noneStartEvent1000StringVars() {
+    HashMap<String, Object> variables = new HashMap<String, Object>();
+    for (int i = 0; i < 1000; i++) {
+      variables.put("var" + i, "someValue");
+    }
+
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", variables))
+    .run();
+  }
+
 }
@@ -0,0 +1,41 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.load;
+
+import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.PROCESS_INSTANCE_ID;
+import static org.camunda.bpm.qa.performance.engine.steps.PerfTestConstants.TASK_ID;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEngineLoadTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.CompleteTaskStep;
+import org.camunda.bpm.qa.performance.engine.steps.CorrelateMessageStep;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.junit.Test;
+
+/**
+ * Starts an order process, completes its task and correlates a message, after which
+ * the job executor joins two non-exclusive asynchronous service tasks.
+ */
+public class OrderProcessLoadTest extends ProcessEngineLoadTestCase {
+
+  @Test
+  @Deployment
+  public void startCompleteAndCorrelate() {
+    loadTest()
+      .step(new StartProcessInstanceStep(engine, "orderProcess"))
+      .step(new CompleteTaskStep(engine, TASK_ID))
+      .step(new CorrelateMessageStep(engine, "paymentReceived", PROCESS_INSTANCE_ID))
+    .run();
+  }
+
+}